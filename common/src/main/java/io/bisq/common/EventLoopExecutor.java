@@ -0,0 +1,209 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.common;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single threaded executor for the UserThread of headless apps (seed node, statistics node).
+ * <p>
+ * Tasks are added to a lock free multi producer single consumer queue (one atomic swap per task) and the event loop
+ * thread runs them in batches. The thread only parks if the queue is empty. In contrast to a ThreadPoolExecutor an
+ * exception in a task does not replace the thread, it is passed to the uncaught exception handler and the loop
+ * continues.
+ * <p>
+ * We track the queue size and the time the tasks wait in the queue, and log a warning if the loop falls behind.
+ */
+@Slf4j
+public class EventLoopExecutor implements Executor {
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final long WARN_QUEUE_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long WARN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final class Node {
+        private Runnable task;
+        private long enqueueTs;
+        private volatile Node next;
+
+        Node(Runnable task, long enqueueTs) {
+            this.task = task;
+            this.enqueueTs = enqueueTs;
+        }
+    }
+
+    private final Thread thread;
+    // Producers append at the tail, only the event loop thread reads from the head (which is a consumed node)
+    private final AtomicReference<Node> tail;
+    private Node head;
+    private volatile boolean waiting;
+    private volatile boolean stopped;
+
+    private final LongAdder numSubmittedTasks = new LongAdder();
+    private volatile long numCompletedTasks;
+    private volatile long maxQueueLatencyNanos;
+    private volatile long totalQueueLatencyNanos;
+    private volatile int maxBatchSize;
+    // Only accessed from the event loop thread
+    private long lastWarnTs;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public EventLoopExecutor(ThreadFactory threadFactory) {
+        head = new Node(null, 0);
+        tail = new AtomicReference<>(head);
+        thread = threadFactory.newThread(this::runLoop);
+        thread.start();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void execute(Runnable task) {
+        if (stopped)
+            throw new RejectedExecutionException("EventLoopExecutor is shut down");
+
+        Node node = new Node(task, System.nanoTime());
+        numSubmittedTasks.increment();
+        Node previous = tail.getAndSet(node);
+        previous.next = node;
+        if (waiting)
+            LockSupport.unpark(thread);
+    }
+
+    /**
+     * Stops the event loop after the current task. Tasks still in the queue are not executed.
+     */
+    public void shutDown() {
+        stopped = true;
+        LockSupport.unpark(thread);
+    }
+
+    public boolean isEventLoopThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    public long getQueueSize() {
+        return Math.max(0, numSubmittedTasks.sum() - numCompletedTasks);
+    }
+
+    public long getNumCompletedTasks() {
+        return numCompletedTasks;
+    }
+
+    public long getMaxQueueLatencyNanos() {
+        return maxQueueLatencyNanos;
+    }
+
+    public long getAverageQueueLatencyNanos() {
+        long numCompleted = numCompletedTasks;
+        return numCompleted > 0 ? totalQueueLatencyNanos / numCompleted : 0;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void runLoop() {
+        lastWarnTs = System.nanoTime() - WARN_INTERVAL_NANOS;
+        while (!stopped) {
+            int batchSize = 0;
+            long batchMaxLatency = 0;
+            long batchTotalLatency = 0;
+            Node node;
+            // We limit the batch so the statistics stay up to date under load
+            while (batchSize < MAX_BATCH_SIZE && !stopped && (node = poll()) != null) {
+                Runnable task = node.task;
+                node.task = null;
+                long latency = System.nanoTime() - node.enqueueTs;
+                batchMaxLatency = Math.max(batchMaxLatency, latency);
+                batchTotalLatency += latency;
+                batchSize++;
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    handleException(t);
+                }
+            }
+
+            if (batchSize > 0) {
+                // Only written by this thread, so we don't need atomic updates
+                numCompletedTasks += batchSize;
+                totalQueueLatencyNanos += batchTotalLatency;
+                if (batchMaxLatency > maxQueueLatencyNanos)
+                    maxQueueLatencyNanos = batchMaxLatency;
+                if (batchSize > maxBatchSize)
+                    maxBatchSize = batchSize;
+                long now = System.nanoTime();
+                if (batchMaxLatency > WARN_QUEUE_LATENCY_NANOS && now - lastWarnTs > WARN_INTERVAL_NANOS) {
+                    lastWarnTs = now;
+                    log.warn("Tasks waited up to {} ms for the UserThread. Queue size: {}",
+                            TimeUnit.NANOSECONDS.toMillis(batchMaxLatency), getQueueSize());
+                }
+            } else {
+                waitForTasks();
+            }
+        }
+        log.debug("Event loop stopped");
+    }
+
+    private Node poll() {
+        Node next = head.next;
+        if (next == null) {
+            if (tail.get() == head)
+                return null;
+
+            // A producer has swapped the tail but not linked the node yet
+            while ((next = head.next) == null)
+                Thread.yield();
+        }
+        head = next;
+        return next;
+    }
+
+    private void waitForTasks() {
+        waiting = true;
+        // We check again after setting the flag, a producer either sees the flag or we see its task
+        if (tail.get() == head && !stopped)
+            LockSupport.park(this);
+        waiting = false;
+    }
+
+    private void handleException(Throwable t) {
+        // Falls back to the default handler if the thread has none
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.common;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Hashed timing wheel. Time is divided into ticks and each entry is put into the bucket of the tick it is due at
+ * (modulo the number of buckets). Schedule and cancel are O(1), advancing by one tick only visits the entries of one
+ * bucket. Entries due later than one revolution of the wheel stay in their bucket until their deadline tick is reached.
+ * <p>
+ * The wheel does not run anything itself, the caller advances it and runs the returned entries (see WheelTimer).
+ */
+final class TimingWheel {
+    static final class Entry {
+        final Runnable task;
+        private long deadlineTick;
+        private int bucket = -1;
+        private boolean cancelled;
+        private Entry prev;
+        private Entry next;
+
+        Entry(Runnable task) {
+            this.task = task;
+        }
+    }
+
+    private final long tickDurationMs;
+    private final long startTimeMs;
+    private final Entry[] buckets;
+    private final int mask;
+    private long currentTick;
+    private int size;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    TimingWheel(long tickDurationMs, int numBuckets, long startTimeMs) {
+        checkArgument(tickDurationMs > 0, "tickDurationMs must be positive");
+        checkArgument(numBuckets > 0 && Integer.bitCount(numBuckets) == 1, "numBuckets must be a power of 2");
+        this.tickDurationMs = tickDurationMs;
+        this.startTimeMs = startTimeMs;
+        buckets = new Entry[numBuckets];
+        mask = numBuckets - 1;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Schedules the entry to be due after the delay. An entry which is already scheduled gets moved.
+     * A cancelled entry is not scheduled again.
+     */
+    synchronized void schedule(Entry entry, long nowMs, long delayMs) {
+        if (entry.cancelled)
+            return;
+
+        unlink(entry);
+        // We round up, so an entry is never due before its delay has passed
+        long deadlineTick = (nowMs + Math.max(0, delayMs) - startTimeMs + tickDurationMs - 1) / tickDurationMs;
+        entry.deadlineTick = Math.max(currentTick + 1, deadlineTick);
+        link(entry, (int) (entry.deadlineTick & mask));
+    }
+
+    /**
+     * Removes the entry and prevents it from being scheduled again.
+     *
+     * @return true if the entry was scheduled
+     */
+    synchronized boolean cancel(Entry entry) {
+        entry.cancelled = true;
+        return unlink(entry);
+    }
+
+    /**
+     * Advances the wheel to the given time and removes all entries which are due.
+     *
+     * @return The due entries in the order of their deadline
+     */
+    synchronized List<Entry> advance(long nowMs) {
+        long targetTick = (nowMs - startTimeMs) / tickDurationMs;
+        List<Entry> dueEntries = new ArrayList<>();
+        if (targetTick - currentTick > buckets.length) {
+            // After a long pause (e.g. the computer was suspended) we would visit buckets several times, so we visit
+            // each bucket once in order of the next ticks instead.
+            for (long tick = currentTick + 1; tick <= currentTick + buckets.length; tick++)
+                collectDueEntries((int) (tick & mask), targetTick, dueEntries);
+            dueEntries.sort((e1, e2) -> Long.compare(e1.deadlineTick, e2.deadlineTick));
+            currentTick = targetTick;
+        } else {
+            while (currentTick < targetTick) {
+                currentTick++;
+                collectDueEntries((int) (currentTick & mask), currentTick, dueEntries);
+            }
+        }
+        return dueEntries;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void collectDueEntries(int bucket, long tick, List<Entry> dueEntries) {
+        Entry entry = buckets[bucket];
+        while (entry != null) {
+            Entry next = entry.next;
+            if (entry.deadlineTick <= tick) {
+                unlink(entry);
+                dueEntries.add(entry);
+            }
+            entry = next;
+        }
+    }
+
+    private void link(Entry entry, int bucket) {
+        Entry head = buckets[bucket];
+        entry.bucket = bucket;
+        entry.prev = null;
+        entry.next = head;
+        if (head != null)
+            head.prev = entry;
+        buckets[bucket] = entry;
+        size++;
+    }
+
+    private boolean unlink(Entry entry) {
+        if (entry.bucket < 0)
+            return false;
+
+        if (entry.prev != null)
+            entry.prev.next = entry.next;
+        else
+            buckets[entry.bucket] = entry.next;
+        if (entry.next != null)
+            entry.next.prev = entry.prev;
+        entry.prev = null;
+        entry.next = null;
+        entry.bucket = -1;
+        size--;
+        return true;
+    }
+}
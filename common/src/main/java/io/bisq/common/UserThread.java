@@ -24,6 +24,8 @@ import org.slf4j.LoggerFactory;
 import java.lang.reflect.InvocationTargetException;
 import java.time.Duration;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
@@ -51,11 +53,32 @@ public class UserThread {
     }
 
     private static Executor executor;
+    private static final Set<Runnable> pendingCoalescedTasks = ConcurrentHashMap.newKeySet();
 
     public static void execute(Runnable command) {
         UserThread.executor.execute(command);
     }
 
+    /**
+     * Executes the task unless the same task instance is already waiting for execution. Use it for repeated updates
+     * where only the latest state matters (e.g. updating a property from a counter), so that a burst of updates
+     * results in one execution.
+     * A call while the task is running schedules it again.
+     */
+    public static void executeCoalesced(Runnable task) {
+        if (pendingCoalescedTasks.add(task)) {
+            try {
+                UserThread.executor.execute(() -> {
+                    pendingCoalescedTasks.remove(task);
+                    task.run();
+                });
+            } catch (RuntimeException e) {
+                pendingCoalescedTasks.remove(task);
+                throw e;
+            }
+        }
+    }
+
 
     // Prefer FxTimer if a delay is needed in a JavaFx class (gui module) 
     public static Timer runAfterRandomDelay(Runnable runnable, long minDelayInSec, long maxDelayInSec) {
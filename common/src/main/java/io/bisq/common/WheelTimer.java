@@ -0,0 +1,112 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.common;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.TimerTask;
+
+/**
+ * Timer for headless apps backed by a global hashed timing wheel. In contrast to the FrameRateTimer the timers
+ * are not polled at each frame, only the timers which are due get visited. Scheduling and stopping a timer is O(1).
+ * <p>
+ * Due timers are executed on the UserThread. Use UserThread.setTimerClass(WheelTimer.class) to select it.
+ */
+@Slf4j
+public class WheelTimer implements Timer {
+    // 1024 buckets cover about 100 sec. with the frame interval of 100 ms
+    private static final int NUM_BUCKETS = 1024;
+
+    // Lazily initialized, so we don't start the thread if the WheelTimer is not used
+    private static final class Ticker {
+        private static final TimingWheel wheel = new TimingWheel(MasterTimer.FRAME_INTERVAL_MS, NUM_BUCKETS,
+                System.currentTimeMillis());
+        private static final java.util.Timer timer = new java.util.Timer("WheelTimer", true);
+
+        static {
+            timer.scheduleAtFixedRate(new TimerTask() {
+                @Override
+                public void run() {
+                    List<TimingWheel.Entry> dueEntries = wheel.advance(System.currentTimeMillis());
+                    for (TimingWheel.Entry entry : dueEntries) {
+                        try {
+                            UserThread.execute(entry.task);
+                        } catch (Throwable t) {
+                            // With the direct executor the task runs in our thread, and an exception would kill it
+                            log.error("Executing timer task failed. " + t.toString());
+                        }
+                    }
+                }
+            }, MasterTimer.FRAME_INTERVAL_MS, MasterTimer.FRAME_INTERVAL_MS);
+        }
+    }
+
+    private final TimingWheel.Entry entry = new TimingWheel.Entry(this::onDue);
+    private long interval;
+    private Runnable runnable;
+    private boolean isPeriodically;
+    private volatile boolean stopped;
+
+    public WheelTimer() {
+    }
+
+    @Override
+    public Timer runLater(Duration delay, Runnable runnable) {
+        this.interval = delay.toMillis();
+        this.runnable = runnable;
+        Ticker.wheel.schedule(entry, System.currentTimeMillis(), interval);
+        return this;
+    }
+
+    @Override
+    public Timer runPeriodically(Duration interval, Runnable runnable) {
+        this.interval = interval.toMillis();
+        isPeriodically = true;
+        this.runnable = runnable;
+        Ticker.wheel.schedule(entry, System.currentTimeMillis(), this.interval);
+        return this;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        Ticker.wheel.cancel(entry);
+    }
+
+    private void onDue() {
+        if (stopped)
+            return;
+
+        try {
+            runnable.run();
+        } catch (Throwable t) {
+            log.error(t.getMessage());
+            t.printStackTrace();
+            stop();
+            throw t;
+        }
+
+        // A stopped timer's entry is cancelled, so it does not get scheduled again
+        if (isPeriodically)
+            Ticker.wheel.schedule(entry, System.currentTimeMillis(), interval);
+        else
+            stopped = true;
+    }
+}
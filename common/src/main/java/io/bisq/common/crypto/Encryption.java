@@ -45,6 +45,9 @@ public class Encryption {
 
     private static final String HMAC = "HmacSHA256";
 
+    private static final int MAX_CACHED_PUBLIC_KEYS = 10_000;
+    private static final PublicKeyCache publicKeyCache = new PublicKeyCache(ASYM_KEY_ALGO, MAX_CACHED_PUBLIC_KEYS);
+
     public static KeyPair generateKeyPair() {
         long ts = System.currentTimeMillis();
         try {
@@ -226,12 +229,15 @@ public class Encryption {
      */
     public static PublicKey getPublicKeyFromBytes(byte[] encryptionPubKeyBytes) {
         try {
-            return KeyFactory.getInstance(Encryption.ASYM_KEY_ALGO, "BC").generatePublic(new X509EncodedKeySpec(encryptionPubKeyBytes));
+            return publicKeyCache.getPublicKey(encryptionPubKeyBytes);
         } catch (InvalidKeySpecException | NoSuchAlgorithmException | NoSuchProviderException e) {
             log.error("Error creating sigPublicKey from bytes. sigPublicKeyBytes as hex={}, error={}", Utilities.bytesAsHexString(encryptionPubKeyBytes), e);
             e.printStackTrace();
             throw new KeyConversionException(e);
         }
     }
-}
 
+    public static PublicKeyCache getPublicKeyCache() {
+        return publicKeyCache;
+    }
+}
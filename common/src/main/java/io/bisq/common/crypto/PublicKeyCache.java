@@ -0,0 +1,85 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.common.crypto;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.nio.ByteBuffer;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.X509EncodedKeySpec;
+
+/**
+ * Interns decoded public keys by their X.509 encoded bytes.
+ * <p>
+ * The keys of the same traders are contained in many offers, mailbox entries and trade statistics, so we would
+ * decode the same bytes over and over again. The cache is bounded and thread safe. Decoding is deterministic, so if
+ * two threads decode the same key concurrently the second one just replaces the first instance.
+ */
+public final class PublicKeyCache {
+    private final String keyAlgo;
+    private final Cache<ByteBuffer, PublicKey> cache;
+
+    PublicKeyCache(String keyAlgo, int maxSize) {
+        this.keyAlgo = keyAlgo;
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    PublicKey getPublicKey(byte[] encodedKey)
+            throws InvalidKeySpecException, NoSuchAlgorithmException, NoSuchProviderException {
+        PublicKey publicKey = cache.getIfPresent(ByteBuffer.wrap(encodedKey));
+        if (publicKey == null) {
+            publicKey = KeyFactory.getInstance(keyAlgo, "BC").generatePublic(new X509EncodedKeySpec(encodedKey));
+            // We store a copy as the caller might reuse the array
+            cache.put(ByteBuffer.wrap(encodedKey.clone()), publicKey);
+        }
+        return publicKey;
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public String toString() {
+        CacheStats stats = getStats();
+        return "PublicKeyCache{" +
+                "keyAlgo='" + keyAlgo + '\'' +
+                ", size=" + size() +
+                ", hitCount=" + stats.hitCount() +
+                ", missCount=" + stats.missCount() +
+                ", evictionCount=" + stats.evictionCount() +
+                '}';
+    }
+}
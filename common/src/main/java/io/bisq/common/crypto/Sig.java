@@ -41,6 +41,13 @@ public class Sig {
     public static final String KEY_ALGO = "DSA";
     private static final String ALGO = "SHA256withDSA";
 
+    private static final int MAX_CACHED_PUBLIC_KEYS = 10_000;
+    private static final PublicKeyCache publicKeyCache = new PublicKeyCache(KEY_ALGO, MAX_CACHED_PUBLIC_KEYS);
+
+    private static final int MAX_CACHED_VERIFIED_SIGNATURES = 50_000;
+    private static final VerifiedSignatureCache verifiedSignatureCache =
+            new VerifiedSignatureCache(MAX_CACHED_VERIFIED_SIGNATURES);
+
 
     /**
      * @return keyPair
@@ -103,11 +110,19 @@ public class Sig {
      * @throws SignatureException
      */
     public static boolean verify(PublicKey publicKey, byte[] data, byte[] signature) throws CryptoException {
+        // Same data gets delivered repeatedly by different peers, so we skip the verification if we have seen it before
+        byte[] publicKeyBytes = publicKey.getEncoded();
+        if (verifiedSignatureCache.isVerified(publicKeyBytes, data, signature))
+            return true;
+
         try {
             Signature sig = Signature.getInstance(ALGO, "BC");
             sig.initVerify(publicKey);
             sig.update(data);
-            return sig.verify(signature);
+            boolean result = sig.verify(signature);
+            if (result)
+                verifiedSignatureCache.setVerified(publicKeyBytes, data, signature);
+            return result;
         } catch (SignatureException | NoSuchProviderException | InvalidKeyException | NoSuchAlgorithmException e) {
             throw new CryptoException("Signature verification failed. " + e.getMessage());
         }
@@ -132,7 +147,7 @@ public class Sig {
      */
     public static PublicKey getPublicKeyFromBytes(byte[] sigPublicKeyBytes) {
         try {
-            return KeyFactory.getInstance(Sig.KEY_ALGO, "BC").generatePublic(new X509EncodedKeySpec(sigPublicKeyBytes));
+            return publicKeyCache.getPublicKey(sigPublicKeyBytes);
         } catch (InvalidKeySpecException | NoSuchAlgorithmException | NoSuchProviderException e) {
             log.error("Error creating sigPublicKey from bytes. sigPublicKeyBytes as hex={}, error={}", Utilities.bytesAsHexString(sigPublicKeyBytes), e);
             e.printStackTrace();
@@ -143,5 +158,12 @@ public class Sig {
     public static byte[] getPublicKeyBytes(PublicKey sigPublicKey) {
         return new X509EncodedKeySpec(sigPublicKey.getEncoded()).getEncoded();
     }
-}
 
+    public static PublicKeyCache getPublicKeyCache() {
+        return publicKeyCache;
+    }
+
+    public static VerifiedSignatureCache getVerifiedSignatureCache() {
+        return verifiedSignatureCache;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.common.crypto;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Remembers successfully verified signatures, so the same data delivered again (e.g. from several peers or at each
+ * GetDataResponse) does not need to be verified again.
+ * <p>
+ * Entries are keyed by a SHA-256 digest over the public key, the signed data and the signature. Only successful
+ * verifications are stored, so a peer sending invalid signatures cannot fill the cache. The cache is bounded and
+ * thread safe.
+ */
+public final class VerifiedSignatureCache {
+    private final Cache<ByteBuffer, Boolean> cache;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public VerifiedSignatureCache(int maxSize) {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public boolean isVerified(byte[] publicKey, byte[] data, byte[] signature) {
+        return cache.getIfPresent(getKey(publicKey, data, signature)) != null;
+    }
+
+    public void setVerified(byte[] publicKey, byte[] data, byte[] signature) {
+        cache.put(getKey(publicKey, data, signature), Boolean.TRUE);
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public String toString() {
+        CacheStats stats = getStats();
+        return "VerifiedSignatureCache{" +
+                "size=" + size() +
+                ", hitCount=" + stats.hitCount() +
+                ", missCount=" + stats.missCount() +
+                '}';
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static ByteBuffer getKey(byte[] publicKey, byte[] data, byte[] signature) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // The lengths are included so that moving bytes from one part to another results in a different key
+            update(digest, publicKey);
+            update(digest, data);
+            update(digest, signature);
+            return ByteBuffer.wrap(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, byte[] bytes) {
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+}
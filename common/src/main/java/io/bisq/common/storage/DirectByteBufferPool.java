@@ -0,0 +1,75 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.common.storage;
+
+import java.nio.ByteBuffer;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Pool of direct byte buffers used for serialising persisted data.
+ * <p>
+ * Direct buffers are written to a FileChannel without an intermediate copy, but are expensive to allocate and are
+ * only released by the garbage collector. So we keep a few of them and reuse them for all saves. Data larger than
+ * MAX_RETAINED_CAPACITY should not be written with a buffer from the pool (see canRetain).
+ */
+final class DirectByteBufferPool {
+    private static final int MIN_CAPACITY = 64 * 1024;
+    private static final int MAX_RETAINED_CAPACITY = 32 * 1024 * 1024;
+    private static final int MAX_RETAINED_BUFFERS = 2;
+
+    private static final Deque<ByteBuffer> buffers = new ConcurrentLinkedDeque<>();
+
+    private DirectByteBufferPool() {
+    }
+
+    /**
+     * @return A cleared buffer with at least the given capacity.
+     */
+    static ByteBuffer acquire(int minCapacity) {
+        ByteBuffer buffer;
+        while ((buffer = buffers.pollFirst()) != null) {
+            if (buffer.capacity() >= minCapacity) {
+                buffer.clear();
+                return buffer;
+            }
+            // Too small, we drop it and allocate a larger one
+        }
+        return ByteBuffer.allocateDirect(getCapacity(minCapacity));
+    }
+
+    /**
+     * @return True if a buffer for the given capacity can be kept in the pool for reuse.
+     */
+    static boolean canRetain(int minCapacity) {
+        return getCapacity(minCapacity) <= MAX_RETAINED_CAPACITY;
+    }
+
+    static void release(ByteBuffer buffer) {
+        if (buffer.capacity() <= MAX_RETAINED_CAPACITY && buffers.size() < MAX_RETAINED_BUFFERS)
+            buffers.offerFirst(buffer);
+    }
+
+    // Rounded up to the next power of 2 to avoid reallocation at small size changes of the persisted data
+    private static int getCapacity(int minCapacity) {
+        if (minCapacity <= MIN_CAPACITY)
+            return MIN_CAPACITY;
+        int capacity = Integer.highestOneBit(minCapacity - 1) << 1;
+        return capacity > 0 ? capacity : minCapacity;
+    }
+}
@@ -18,19 +18,20 @@
 package io.bisq.common.storage;
 
 import com.google.common.util.concurrent.CycleDetectingLockFactory;
-import io.bisq.common.UserThread;
+import com.google.protobuf.CodedOutputStream;
 import io.bisq.common.proto.persistable.PersistableEnvelope;
 import io.bisq.common.proto.persistable.PersistenceProtoResolver;
-import io.bisq.common.util.Utilities;
 import io.bisq.generated.protobuffer.PB;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.*;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Paths;
-import java.util.Random;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.nio.file.StandardOpenOption;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -38,11 +39,9 @@ import java.util.concurrent.locks.ReentrantLock;
 public class FileManager<T extends PersistableEnvelope> {
     private final File dir;
     private final File storageFile;
-    private final ScheduledThreadPoolExecutor executor;
     private final AtomicBoolean savePending;
     private final long delay;
-    private final Callable<Void> saveFileTask;
-    private T persistable;
+    private volatile T persistable;
     private final PersistenceProtoResolver persistenceProtoResolver;
     private final ReentrantLock writeLock = CycleDetectingLockFactory.newInstance(CycleDetectingLockFactory.Policies.THROW).newReentrantLock("writeLock");
 
@@ -55,29 +54,9 @@ public class FileManager<T extends PersistableEnvelope> {
         this.storageFile = storageFile;
         this.persistenceProtoResolver = persistenceProtoResolver;
 
-        executor = Utilities.getScheduledThreadPoolExecutor("FileManager", 1, 10, 5);
-
-        // File must only be accessed from the auto-save executor from now on, to avoid simultaneous access.
+        // File must only be accessed from the PersistenceScheduler from now on, to avoid simultaneous access.
         savePending = new AtomicBoolean();
         this.delay = delay;
-
-        saveFileTask = () -> {
-            try {
-                Thread.currentThread().setName("Save-file-task-" + new Random().nextInt(10000));
-                // Runs in an auto save thread.
-                if (!savePending.getAndSet(false)) {
-                    // Some other scheduled request already beat us to it.
-                    return null;
-                }
-                saveNowInternal(persistable);
-            } catch (Throwable e) {
-                log.error("Error during saveFileTask", e);
-            }
-            return null;
-        };
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            UserThread.execute(FileManager.this::shutDown);
-        }, "FileManager.ShutDownHook"));
     }
 
 
@@ -87,9 +66,11 @@ public class FileManager<T extends PersistableEnvelope> {
 
     /**
      * Actually write the wallet file to disk, using an atomic rename when possible. Runs on the current thread.
+     *
+     * @return True if the file has been written successfully.
      */
-    public void saveNow(T persistable) {
-        saveNowInternal(persistable);
+    public boolean saveNow(T persistable) {
+        return saveNowInternal(persistable);
     }
 
     /**
@@ -105,15 +86,21 @@ public class FileManager<T extends PersistableEnvelope> {
         if (savePending.getAndSet(true))
             return;   // Already pending.
 
-        executor.schedule(saveFileTask, delayInMilli, TimeUnit.MILLISECONDS);
+        PersistenceScheduler.getInstance().schedule(this, delayInMilli);
     }
 
     @SuppressWarnings("unchecked")
     public synchronized T read(File file) {
         log.debug("Read from disc: {}", file.getName());
 
-        try (final FileInputStream fileInputStream = new FileInputStream(file)) {
-            PB.PersistableEnvelope persistable = PB.PersistableEnvelope.parseDelimitedFrom(fileInputStream);
+        try {
+            // If the file got preloaded at startup we use the already parsed data
+            PB.PersistableEnvelope persistable = FilePreloader.take(file);
+            if (persistable == null) {
+                try (final FileInputStream fileInputStream = new FileInputStream(file)) {
+                    persistable = PB.PersistableEnvelope.parseDelimitedFrom(fileInputStream);
+                }
+            }
             return (T) persistenceProtoResolver.fromProto(persistable);
         } catch (Throwable t) {
             String errorMsg = "Exception at proto read: " + t.getMessage() + " file:" + file.getAbsolutePath();
@@ -126,6 +113,7 @@ public class FileManager<T extends PersistableEnvelope> {
     public synchronized void removeFile(String fileName) {
         log.debug("removeFile" + fileName);
         File file = new File(dir, fileName);
+        FilePreloader.invalidate(file);
         boolean result = file.delete();
         if (!result)
             log.warn("Could not delete file: " + file.toString());
@@ -142,18 +130,6 @@ public class FileManager<T extends PersistableEnvelope> {
     }
 
 
-    /**
-     * Shut down auto-saving.
-     */
-    void shutDown() {
-        executor.shutdown();
-        try {
-            executor.awaitTermination(5, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-    }
-
     public synchronized void removeAndBackupFile(String fileName) throws IOException {
         File corruptedBackupDir = new File(Paths.get(dir.getAbsolutePath(), "backup_of_corrupted_data").toString());
         if (!corruptedBackupDir.exists())
@@ -161,6 +137,7 @@ public class FileManager<T extends PersistableEnvelope> {
                 log.warn("make dir failed");
 
         File corruptedFile = new File(Paths.get(dir.getAbsolutePath(), "backup_of_corrupted_data", fileName).toString());
+        FilePreloader.invalidate(storageFile);
         FileUtil.renameFile(storageFile, corruptedFile);
     }
 
@@ -168,27 +145,64 @@ public class FileManager<T extends PersistableEnvelope> {
         FileUtil.rollingBackup(dir, fileName, numMaxBackupFiles);
     }
 
+    /**
+     * Makes the backup on the PersistenceScheduler thread, so it is done before any later write to the file.
+     */
+    public void backupFileLater(String fileName, int numMaxBackupFiles) {
+        PersistenceScheduler.getInstance().execute(() -> {
+            long now = System.currentTimeMillis();
+            backupFile(fileName, numMaxBackupFiles);
+            log.trace("Backup {} completed in {}msec", fileName, System.currentTimeMillis() - now);
+        });
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Package private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    File getDir() {
+        return dir;
+    }
+
+    /**
+     * Called from the PersistenceScheduler thread.
+     *
+     * @return True if there was a pending save which has been written.
+     */
+    boolean writePendingSave() {
+        if (!savePending.getAndSet(false)) {
+            // Some other scheduled request already beat us to it.
+            return false;
+        }
+        saveNowInternal(persistable);
+        return true;
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private void saveNowInternal(T persistable) {
+    private boolean saveNowInternal(T persistable) {
         long now = System.currentTimeMillis();
-        saveToFile(persistable, dir, storageFile);
+        boolean success = saveToFile(persistable, dir, storageFile);
         log.trace("Save {} completed in {} msec", storageFile, System.currentTimeMillis() - now);
+        return success;
     }
 
-    private synchronized void saveToFile(T persistable, File dir, File storageFile) {
+    private synchronized boolean saveToFile(T persistable, File dir, File storageFile) {
         File tempFile = null;
-        FileOutputStream fileOutputStream = null;
-        PrintWriter printWriter = null;
+        ByteBuffer buffer = null;
 
         try {
             log.debug("Write to disc: {}", storageFile.getName());
+            FilePreloader.invalidate(storageFile);
             PB.PersistableEnvelope protoPersistable;
+            int serializedSize;
             try {
                 protoPersistable = (PB.PersistableEnvelope) persistable.toProtoMessage();
-                if (protoPersistable.toByteArray().length == 0)
+                serializedSize = protoPersistable.getSerializedSize();
+                if (serializedSize == 0)
                     log.error("protoPersistable is empty. persistable=" + persistable.getClass().getSimpleName());
             } catch (Throwable e) {
                 log.error("Error in saveToFile toProtoMessage: {}, {}", persistable.getClass().getSimpleName(), storageFile);
@@ -201,44 +215,57 @@ public class FileManager<T extends PersistableEnvelope> {
 
             tempFile = File.createTempFile("temp", null, dir);
             tempFile.deleteOnExit();
-            fileOutputStream = new FileOutputStream(tempFile);
 
             log.debug("Writing protobuffer class:{} to file:{}", persistable.getClass(), storageFile.getName());
-            writeLock.lock();
-            protoPersistable.writeDelimitedTo(fileOutputStream);
-
-            // Attempt to force the bits to hit the disk. In reality the OS or hard disk itself may still decide
-            // to not write through to physical media for at least a few seconds, but this is the best we can do.
-            fileOutputStream.flush();
-            fileOutputStream.getFD().sync();
-            writeLock.unlock();
-
-            // Close resources before replacing file with temp file because otherwise it causes problems on windows
-            // when rename temp file
-            fileOutputStream.close();
+            int delimitedSize = CodedOutputStream.computeUInt32SizeNoTag(serializedSize) + serializedSize;
+            if (DirectByteBufferPool.canRetain(delimitedSize)) {
+                // Same format as writeDelimitedTo: the size as varint followed by the message
+                buffer = DirectByteBufferPool.acquire(delimitedSize);
+                CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(buffer);
+                codedOutputStream.writeUInt32NoTag(serializedSize);
+                protoPersistable.writeTo(codedOutputStream);
+                codedOutputStream.flush();
+                buffer.flip();
+
+                // Close resources before replacing file with temp file because otherwise it causes problems on windows
+                // when rename temp file
+                try (FileChannel fileChannel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE)) {
+                    writeLock.lock();
+                    while (buffer.hasRemaining())
+                        fileChannel.write(buffer);
+
+                    // Attempt to force the bits to hit the disk. In reality the OS or hard disk itself may still
+                    // decide to not write through to physical media for at least a few seconds, but this is the best
+                    // we can do.
+                    fileChannel.force(true);
+                    writeLock.unlock();
+                }
+            } else {
+                // A direct buffer of that size would not be kept in the pool, so we would allocate a new one at each
+                // save. We stream the data to the file instead.
+                try (FileOutputStream fileOutputStream = new FileOutputStream(tempFile)) {
+                    writeLock.lock();
+                    protoPersistable.writeDelimitedTo(fileOutputStream);
+                    fileOutputStream.flush();
+                    fileOutputStream.getFD().sync();
+                    writeLock.unlock();
+                }
+            }
             FileUtil.renameFile(tempFile, storageFile);
+            return true;
         } catch (Throwable t) {
             log.error("Error at saveToFile, storageFile=" + storageFile.toString(), t);
+            return false;
         } finally {
-            if (writeLock.isLocked())
+            if (writeLock.isHeldByCurrentThread())
                 writeLock.unlock();
+            if (buffer != null)
+                DirectByteBufferPool.release(buffer);
             if (tempFile != null && tempFile.exists()) {
                 log.warn("Temp file still exists after failed save. We will delete it now. storageFile=" + storageFile);
                 if (!tempFile.delete())
                     log.error("Cannot delete temp file.");
             }
-
-            try {
-                if (fileOutputStream != null)
-                    fileOutputStream.close();
-                //noinspection ConstantConditions,ConstantConditions
-                if (printWriter != null)
-                    printWriter.close();
-            } catch (IOException e) {
-                // We swallow that
-                e.printStackTrace();
-                log.error("Cannot close resources." + e.getMessage());
-            }
         }
     }
 }
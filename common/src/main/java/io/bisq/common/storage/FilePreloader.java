@@ -0,0 +1,111 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.common.storage;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.bisq.generated.protobuffer.PB;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Reads and parses the persisted files of a directory in parallel at startup.
+ * <p>
+ * Only the file read and the protobuf parsing are done on the preload threads. Those are independent of the
+ * application state. The conversion to the domain objects is still done by the Storage on the thread which requests
+ * the persisted data. If preloading a file fails, the Storage reads it again the normal way, which also covers the
+ * handling of corrupted files.
+ */
+@Slf4j
+final class FilePreloader {
+    private static final int MAX_THREADS = 4;
+
+    private static final Map<File, Future<PB.PersistableEnvelope>> futureByFile = new ConcurrentHashMap<>();
+
+    private FilePreloader() {
+    }
+
+    static void preloadAll(File dir) {
+        // Log files (e.g. SequenceNumberMap.log) and binary dumps (e.g. MessageCapture.bin) are not in the
+        // PersistableEnvelope format
+        File[] files = dir.listFiles(file -> file.isFile() &&
+                !file.getName().endsWith(".tmp") &&
+                !file.getName().endsWith(".log") &&
+                !file.getName().endsWith(".bin"));
+        if (files == null || files.length == 0)
+            return;
+
+        int numThreads = Math.min(MAX_THREADS, Math.min(files.length, Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder()
+                .setNameFormat("FilePreloader-%d")
+                .setDaemon(true)
+                .build());
+        for (File file : files) {
+            futureByFile.put(file.getAbsoluteFile(), executor.submit(() -> {
+                long ts = System.currentTimeMillis();
+                try (FileInputStream fileInputStream = new FileInputStream(file)) {
+                    PB.PersistableEnvelope envelope = PB.PersistableEnvelope.parseDelimitedFrom(fileInputStream);
+                    log.debug("Preloading {} took {} ms", file.getName(), System.currentTimeMillis() - ts);
+                    return envelope;
+                }
+            }));
+        }
+        // Threads terminate after all files are loaded
+        executor.shutdown();
+    }
+
+    /**
+     * @return The parsed content of the file or null if the file was not preloaded or preloading failed.
+     * Waits until the file is loaded if it is still in progress. Each preloaded file is only returned once.
+     */
+    @Nullable
+    static PB.PersistableEnvelope take(File file) {
+        Future<PB.PersistableEnvelope> future = futureByFile.remove(file.getAbsoluteFile());
+        if (future == null)
+            return null;
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("Preloading {} failed. We read it again. {}", file.getName(), e.getCause().toString());
+            return null;
+        }
+    }
+
+    /**
+     * Drops the preloaded data of the file. Must be called when the file gets written or removed, otherwise a later
+     * take would return the old content.
+     */
+    static void invalidate(File file) {
+        Future<PB.PersistableEnvelope> future = futureByFile.remove(file.getAbsoluteFile());
+        if (future != null)
+            future.cancel(true);
+    }
+
+    static void clear() {
+        futureByFile.values().forEach(future -> future.cancel(true));
+        futureByFile.clear();
+    }
+}
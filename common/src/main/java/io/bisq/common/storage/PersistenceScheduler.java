@@ -0,0 +1,188 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.common.storage;
+
+import io.bisq.common.util.Utilities;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the delayed saves of all FileManagers on one background thread.
+ * <p>
+ * Saves which become due within GROUP_COMMIT_WINDOW_MS are written together in one write cycle. Each file is synced as
+ * before, the directories containing the renamed files are synced once at the end of the cycle.
+ * <p>
+ * At shutdown all pending saves are written immediately.
+ */
+@Slf4j
+public final class PersistenceScheduler {
+    // Saves which become due within that window after the first due save are written in the same cycle
+    private static final long GROUP_COMMIT_WINDOW_MS = 200;
+    private static final long SHUTDOWN_TIMEOUT_SEC = 5;
+
+    private static final PersistenceScheduler INSTANCE = new PersistenceScheduler();
+
+    public static PersistenceScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Map<FileManager<?>, Long> dueTimeByFileManager = new ConcurrentHashMap<>();
+
+    private final AtomicLong numWriteCycles = new AtomicLong();
+    private final AtomicLong numFilesWritten = new AtomicLong();
+    private final AtomicLong totalWriteTimeMs = new AtomicLong();
+    private final AtomicLong maxWriteTimeMs = new AtomicLong();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private PersistenceScheduler() {
+        executor = Utilities.getScheduledThreadPoolExecutor("PersistenceScheduler", 1, 1, 10);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutDown, "PersistenceScheduler.ShutDownHook"));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    void schedule(FileManager<?> fileManager, long delayInMilli) {
+        dueTimeByFileManager.merge(fileManager, System.currentTimeMillis() + delayInMilli, Math::min);
+        maxQueueDepth.accumulateAndGet(dueTimeByFileManager.size(), Math::max);
+        executor.schedule(() -> runWriteCycle(false), delayInMilli, TimeUnit.MILLISECONDS);
+    }
+
+    void execute(Runnable runnable) {
+        executor.execute(() -> {
+            try {
+                runnable.run();
+            } catch (Throwable t) {
+                log.error("Error at executing task", t);
+            }
+        });
+    }
+
+    /**
+     * @return Number of files waiting to be written.
+     */
+    public int getQueueDepth() {
+        return dueTimeByFileManager.size();
+    }
+
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public long getNumWriteCycles() {
+        return numWriteCycles.get();
+    }
+
+    public long getNumFilesWritten() {
+        return numFilesWritten.get();
+    }
+
+    public long getAverageWriteTimeMs() {
+        long numWriteCycles = this.numWriteCycles.get();
+        return numWriteCycles > 0 ? totalWriteTimeMs.get() / numWriteCycles : 0;
+    }
+
+    public long getMaxWriteTimeMs() {
+        return maxWriteTimeMs.get();
+    }
+
+    public String getStatistics() {
+        return "PersistenceScheduler{" +
+                "queueDepth=" + getQueueDepth() +
+                ", maxQueueDepth=" + getMaxQueueDepth() +
+                ", numWriteCycles=" + getNumWriteCycles() +
+                ", numFilesWritten=" + getNumFilesWritten() +
+                ", averageWriteTimeMs=" + getAverageWriteTimeMs() +
+                ", maxWriteTimeMs=" + getMaxWriteTimeMs() +
+                '}';
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void shutDown() {
+        try {
+            executor.submit(() -> runWriteCycle(true)).get(SHUTDOWN_TIMEOUT_SEC, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Writing pending saves at shutdown failed. " + e.toString());
+        }
+        executor.shutdownNow();
+    }
+
+    private void runWriteCycle(boolean writeAll) {
+        long now = System.currentTimeMillis();
+        List<FileManager<?>> fileManagers = new ArrayList<>();
+        dueTimeByFileManager.forEach((fileManager, dueTime) -> {
+            if (writeAll || dueTime <= now + GROUP_COMMIT_WINDOW_MS)
+                fileManagers.add(fileManager);
+        });
+        if (fileManagers.isEmpty())
+            return;
+
+        fileManagers.forEach(dueTimeByFileManager::remove);
+        Set<File> dirs = new HashSet<>();
+        int numWritten = 0;
+        for (FileManager<?> fileManager : fileManagers) {
+            try {
+                if (fileManager.writePendingSave()) {
+                    dirs.add(fileManager.getDir());
+                    numWritten++;
+                }
+            } catch (Throwable t) {
+                log.error("Error at writing pending save", t);
+            }
+        }
+        dirs.forEach(this::syncDirectory);
+
+        long duration = System.currentTimeMillis() - now;
+        numWriteCycles.incrementAndGet();
+        numFilesWritten.addAndGet(numWritten);
+        totalWriteTimeMs.addAndGet(duration);
+        maxWriteTimeMs.accumulateAndGet(duration, Math::max);
+        log.debug("Write cycle with {} files completed in {} ms", numWritten, duration);
+    }
+
+    // Makes the renames of the cycle durable
+    private void syncDirectory(File dir) {
+        try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on all platforms (e.g. Windows)
+            log.trace("Syncing directory {} is not supported. {}", dir, e.toString());
+        }
+    }
+}
@@ -38,8 +38,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * <p/>
  * We also backup at first read the file, so we have a valid file form the latest version in case a write operation corrupted the file.
  * <p/>
- * The read operation is triggered just at object creation (startup) and is at the moment not executed on a background thread to avoid asynchronous behaviour.
- * As the data are small and it is just one read access the performance penalty is small and might be even worse to create and setup a thread for it.
+ * The read operation is triggered just at object creation (startup) and is not executed on a background thread to avoid asynchronous behaviour.
+ * To speed up the startup the files can be read and parsed in parallel in advance with preloadAll.
  * <p/>
  * The write operation used a background thread and supports a delayed write to avoid too many repeated write operations.
  */
@@ -57,6 +57,23 @@ public class Storage<T extends PersistableEnvelope> {
         void onFileCorrupted(String fileName);
     }
 
+    /**
+     * Starts reading and parsing all persisted files in the given directory in parallel. The Storage instances use
+     * the preloaded data when they read their file, so the startup time is about the time for reading the largest
+     * file instead of the sum of all files.
+     */
+    public static void preloadAll(File dir) {
+        FilePreloader.preloadAll(dir);
+    }
+
+    /**
+     * Releases preloaded data which has not been requested (e.g. files from stores which are not used anymore).
+     * Should be called after all PersistedDataHosts have read their data.
+     */
+    public static void clearPreloaded() {
+        FilePreloader.clear();
+    }
+
     private final File dir;
     private FileManager<T> fileManager;
     private File storageFile;
@@ -135,6 +152,12 @@ public class Storage<T extends PersistableEnvelope> {
         }
     }
 
+    // Save immediately on the calling thread. Returns true if the file has been written successfully.
+    public boolean saveNow(T persistable) {
+        checkNotNull(storageFile, "storageFile = null. Call setupFileStorage before using read/write.");
+        return fileManager.saveNow(persistable);
+    }
+
     public void remove(String fileName) {
         fileManager.removeFile(fileName);
     }
@@ -144,8 +167,8 @@ public class Storage<T extends PersistableEnvelope> {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    // We do the file read on the UI thread to avoid problems from multi threading.
-    // Data are small and read is done only at startup, so it is no performance issue.
+    // We do the conversion to the domain objects on the UI thread to avoid problems from multi threading.
+    // Reading and parsing of the file can be done in parallel at startup (see preloadAll).
     @Nullable
     private T getPersisted() {
         if (storageFile.exists()) {
@@ -154,10 +177,9 @@ public class Storage<T extends PersistableEnvelope> {
                 T persistedObject = fileManager.read(storageFile);
                 log.trace("Read {} completed in {}msec", storageFile, System.currentTimeMillis() - now);
 
-                // If we did not get any exception we can be sure the data are consistent so we make a backup
-                now = System.currentTimeMillis();
-                fileManager.backupFile(fileName, numMaxBackupFiles);
-                log.trace("Backup {} completed in {}msec", storageFile, System.currentTimeMillis() - now);
+                // If we did not get any exception we can be sure the data are consistent so we make a backup.
+                // The backup is done in the background as it is not needed for the startup.
+                fileManager.backupFileLater(fileName, numMaxBackupFiles);
 
                 return persistedObject;
             } catch (Throwable t) {
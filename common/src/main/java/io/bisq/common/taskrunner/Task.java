@@ -53,9 +53,25 @@ public abstract class Task<T extends Model> {
             errorMessage += "\nException: " + t.toString();
     }
 
+    /**
+     * Tasks which don't change the model (e.g. verifications) can return false, so the model does not get
+     * persisted because of them.
+     */
+    protected boolean changesModel() {
+        return true;
+    }
+
+    /**
+     * The model is persisted once at the end of the task chain. Tasks which sign or publish a transaction return true,
+     * so the model is persisted right after them and the transaction does not get lost if the chain does not complete.
+     */
+    protected boolean requiresFlush() {
+        return false;
+    }
+
     protected void complete() {
         completed = true;
-        taskHandler.handleComplete();
+        taskHandler.handleComplete(changesModel(), requiresFlush());
     }
 
     protected void failed(String message) {
@@ -34,6 +34,9 @@ public class TaskRunner<T extends Model> {
     private final ErrorMessageHandler errorMessageHandler;
     private boolean failed = false;
     private boolean isCanceled;
+    // Set if a completed task changed the shared model. The model is written once at the end of the chain, after a
+    // task which requires a flush or before the error handler is called.
+    private boolean dirty;
 
     private Class<? extends Task> currentTask;
 
@@ -71,6 +74,7 @@ public class TaskRunner<T extends Model> {
                     handleErrorMessage("Error at taskRunner: " + throwable.getMessage());
                 }
             } else {
+                persistIfDirty();
                 resultHandler.handleResult();
             }
         }
@@ -78,17 +82,30 @@ public class TaskRunner<T extends Model> {
 
     public void cancel() {
         isCanceled = true;
+        persistIfDirty();
     }
 
-    void handleComplete() {
+    void handleComplete(boolean changesModel, boolean requiresFlush) {
         log.trace("Task completed: " + currentTask.getSimpleName());
-        sharedModel.persist();
+        if (changesModel)
+            dirty = true;
+        if (requiresFlush)
+            persistIfDirty();
         next();
     }
 
     void handleErrorMessage(String errorMessage) {
         log.error("Task failed: " + currentTask.getSimpleName() + " / errorMessage: " + errorMessage);
         failed = true;
+        // We keep the changes of the tasks which have completed before
+        persistIfDirty();
         errorMessageHandler.handleErrorMessage(errorMessage);
     }
+
+    private void persistIfDirty() {
+        if (dirty) {
+            dirty = false;
+            sharedModel.persist();
+        }
+    }
 }
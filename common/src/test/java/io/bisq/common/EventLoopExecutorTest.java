@@ -0,0 +1,180 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.common;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class EventLoopExecutorTest {
+    private static final Logger log = LoggerFactory.getLogger(EventLoopExecutorTest.class);
+
+    private final AtomicInteger numUncaughtExceptions = new AtomicInteger();
+    private EventLoopExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new EventLoopExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "EventLoopExecutorTest");
+            thread.setDaemon(true);
+            thread.setUncaughtExceptionHandler((t, e) -> numUncaughtExceptions.incrementAndGet());
+            return thread;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutDown();
+    }
+
+    @Test
+    public void testTasksOfEachProducerRunInOrder() throws InterruptedException {
+        int numProducers = 4;
+        int numTasks = 100_000;
+        int[] lastValues = new int[numProducers];
+        AtomicInteger numOutOfOrder = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(numProducers * numTasks);
+        for (int p = 0; p < numProducers; p++) {
+            int producer = p;
+            new Thread(() -> {
+                for (int i = 1; i <= numTasks; i++) {
+                    int value = i;
+                    executor.execute(() -> {
+                        // Only accessed from the event loop thread
+                        if (lastValues[producer] != value - 1)
+                            numOutOfOrder.incrementAndGet();
+                        lastValues[producer] = value;
+                        latch.countDown();
+                    });
+                }
+            }).start();
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertEquals(0, numOutOfOrder.get());
+        waitUntilCompleted(numProducers * numTasks);
+        assertEquals(0, executor.getQueueSize());
+        assertTrue(executor.getMaxBatchSize() >= 1);
+    }
+
+    @Test
+    public void testExceptionDoesNotStopTheLoop() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        executor.execute(() -> {
+            throw new RuntimeException("Expected");
+        });
+        executor.execute(latch::countDown);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, numUncaughtExceptions.get());
+    }
+
+    @Test
+    public void testIsEventLoopThread() throws InterruptedException {
+        BlockingQueue<Boolean> result = new LinkedBlockingQueue<>();
+        executor.execute(() -> result.add(executor.isEventLoopThread()));
+
+        assertTrue(result.poll(5, TimeUnit.SECONDS));
+        assertFalse(executor.isEventLoopThread());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testRejectAfterShutDown() {
+        executor.shutDown();
+        executor.execute(() -> {
+        });
+    }
+
+    @Test
+    public void testExecuteCoalesced() throws InterruptedException {
+        Executor previousExecutor = UserThread.getExecutor();
+        UserThread.setExecutor(executor);
+        try {
+            CountDownLatch blocked = new CountDownLatch(1);
+            // We block the loop so that the updates queue up
+            executor.execute(() -> {
+                try {
+                    blocked.await();
+                } catch (InterruptedException ignore) {
+                }
+            });
+
+            AtomicInteger numRuns = new AtomicInteger();
+            Runnable update = numRuns::incrementAndGet;
+            for (int i = 0; i < 1000; i++)
+                UserThread.executeCoalesced(update);
+            blocked.countDown();
+            waitUntilCompleted(2);
+            assertEquals(1, numRuns.get());
+
+            // Once executed it can be scheduled again
+            UserThread.executeCoalesced(update);
+            waitUntilCompleted(3);
+            assertEquals(2, numRuns.get());
+        } finally {
+            UserThread.setExecutor(previousExecutor);
+        }
+    }
+
+    @Test
+    public void testBenchmark() throws InterruptedException {
+        int numProducers = 4;
+        int numTasks = 250_000;
+        ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor();
+        try {
+            long threadPoolDuration = runBenchmark(singleThreadExecutor, numProducers, numTasks);
+            long eventLoopDuration = runBenchmark(executor, numProducers, numTasks);
+            log.info("{} tasks from {} threads: SingleThreadExecutor {} ms, EventLoopExecutor {} ms, " +
+                            "avg. queue latency {} us, max. batch size {}",
+                    numProducers * numTasks, numProducers,
+                    TimeUnit.NANOSECONDS.toMillis(threadPoolDuration),
+                    TimeUnit.NANOSECONDS.toMillis(eventLoopDuration),
+                    TimeUnit.NANOSECONDS.toMicros(executor.getAverageQueueLatencyNanos()),
+                    executor.getMaxBatchSize());
+        } finally {
+            singleThreadExecutor.shutdown();
+        }
+    }
+
+    private long runBenchmark(Executor executor, int numProducers, int numTasks) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(numProducers * numTasks);
+        long ts = System.nanoTime();
+        for (int p = 0; p < numProducers; p++) {
+            new Thread(() -> {
+                for (int i = 0; i < numTasks; i++)
+                    executor.execute(latch::countDown);
+            }).start();
+        }
+        assertTrue(latch.await(60, TimeUnit.SECONDS));
+        return System.nanoTime() - ts;
+    }
+
+    private void waitUntilCompleted(long numTasks) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getNumCompletedTasks() < numTasks && System.currentTimeMillis() < deadline)
+            Thread.sleep(1);
+        assertEquals(numTasks, executor.getNumCompletedTasks());
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.common;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TimingWheelTest {
+    private static final Logger log = LoggerFactory.getLogger(TimingWheelTest.class);
+
+    private static final long TICK_MS = 100;
+
+    @Test
+    public void testEntriesAreDueAfterTheirDelay() {
+        TimingWheel wheel = new TimingWheel(TICK_MS, 16, 0);
+        TimingWheel.Entry entry1 = new TimingWheel.Entry(() -> {
+        });
+        TimingWheel.Entry entry2 = new TimingWheel.Entry(() -> {
+        });
+        wheel.schedule(entry1, 0, 250);
+        // More than one revolution of the wheel
+        wheel.schedule(entry2, 0, 5000);
+        assertEquals(2, wheel.size());
+
+        assertTrue(wheel.advance(200).isEmpty());
+        assertEquals(entry1, wheel.advance(300).get(0));
+        for (long now = 400; now < 5000; now += TICK_MS)
+            assertTrue(wheel.advance(now).isEmpty());
+        assertEquals(entry2, wheel.advance(5000).get(0));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testCancel() {
+        TimingWheel wheel = new TimingWheel(TICK_MS, 16, 0);
+        TimingWheel.Entry entry = new TimingWheel.Entry(() -> {
+        });
+        wheel.schedule(entry, 0, 100);
+        assertTrue(wheel.cancel(entry));
+        assertFalse(wheel.cancel(entry));
+        assertEquals(0, wheel.size());
+
+        // A cancelled entry is not scheduled again
+        wheel.schedule(entry, 0, 100);
+        assertEquals(0, wheel.size());
+        assertTrue(wheel.advance(1000).isEmpty());
+    }
+
+    @Test
+    public void testRescheduleMovesEntry() {
+        TimingWheel wheel = new TimingWheel(TICK_MS, 16, 0);
+        TimingWheel.Entry entry = new TimingWheel.Entry(() -> {
+        });
+        wheel.schedule(entry, 0, 100);
+        wheel.schedule(entry, 0, 500);
+        assertEquals(1, wheel.size());
+        assertTrue(wheel.advance(400).isEmpty());
+        assertEquals(1, wheel.advance(500).size());
+    }
+
+    @Test
+    public void testLongPauseReturnsAllDueEntriesInOrder() {
+        TimingWheel wheel = new TimingWheel(TICK_MS, 16, 0);
+        List<TimingWheel.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            TimingWheel.Entry entry = new TimingWheel.Entry(() -> {
+            });
+            wheel.schedule(entry, 0, (100 - i) * TICK_MS);
+            entries.add(0, entry);
+        }
+        TimingWheel.Entry later = new TimingWheel.Entry(() -> {
+        });
+        wheel.schedule(later, 0, 200 * TICK_MS);
+
+        assertEquals(entries, wheel.advance(150 * TICK_MS));
+        assertEquals(1, wheel.size());
+        assertEquals(later, wheel.advance(200 * TICK_MS).get(0));
+    }
+
+    @Test
+    public void testWheelTimer() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(3);
+        AtomicInteger numOneShotRuns = new AtomicInteger();
+        new WheelTimer().runLater(Duration.ofMillis(100), numOneShotRuns::incrementAndGet);
+        Timer periodicTimer = new WheelTimer().runPeriodically(Duration.ofMillis(100), latch::countDown);
+        Timer stoppedTimer = new WheelTimer().runLater(Duration.ofMillis(100), () -> fail("Stopped timer got executed"));
+        stoppedTimer.stop();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        periodicTimer.stop();
+        assertEquals(1, numOneShotRuns.get());
+    }
+
+    @Ignore("Benchmark, run it manually")
+    @Test
+    public void testBenchmarkOutstandingTimers() {
+        int numTimers = 100_000;
+        Random random = new Random(1);
+        TimingWheel wheel = new TimingWheel(TICK_MS, 1024, 0);
+        List<TimingWheel.Entry> entries = new ArrayList<>(numTimers);
+        AtomicInteger numRuns = new AtomicInteger();
+
+        long ts = System.nanoTime();
+        for (int i = 0; i < numTimers; i++) {
+            TimingWheel.Entry entry = new TimingWheel.Entry(numRuns::incrementAndGet);
+            // Delays of up to 10 minutes like the timeouts and periodic tasks of a seed node
+            wheel.schedule(entry, 0, random.nextInt(600_000));
+            entries.add(entry);
+        }
+        long scheduleDuration = System.nanoTime() - ts;
+
+        // We advance 1 minute in steps of one tick
+        ts = System.nanoTime();
+        for (long now = TICK_MS; now <= 60_000; now += TICK_MS)
+            wheel.advance(now).forEach(e -> e.task.run());
+        long advanceDuration = System.nanoTime() - ts;
+        int numDue = numRuns.get();
+        assertEquals(numTimers - numDue, wheel.size());
+
+        ts = System.nanoTime();
+        entries.forEach(wheel::cancel);
+        long cancelDuration = System.nanoTime() - ts;
+        assertEquals(0, wheel.size());
+
+        // The MasterTimer polls each FrameRateTimer at each frame
+        List<Runnable> listeners = new ArrayList<>(numTimers);
+        for (int i = 0; i < numTimers; i++)
+            listeners.add(numRuns::get);
+        ts = System.nanoTime();
+        for (int i = 0; i < 600; i++)
+            listeners.forEach(Runnable::run);
+        long pollDuration = System.nanoTime() - ts;
+
+        log.info("{} timers: schedule took {} ms, advancing 600 ticks took {} ms ({} timers due), cancel took {} ms. " +
+                        "Polling all timers at 600 frames took {} ms",
+                numTimers, scheduleDuration / 1_000_000, advanceDuration / 1_000_000, numDue,
+                cancelDuration / 1_000_000, pollDuration / 1_000_000);
+    }
+}
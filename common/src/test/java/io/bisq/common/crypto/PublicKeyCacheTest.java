@@ -0,0 +1,64 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.common.crypto;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.security.PublicKey;
+import java.security.Security;
+
+import static org.junit.Assert.*;
+
+public class PublicKeyCacheTest {
+
+    @Before
+    public void setup() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @Test
+    public void testRepeatedKeysShareOneInstance() throws Exception {
+        PublicKeyCache publicKeyCache = new PublicKeyCache(Sig.KEY_ALGO, 2);
+        byte[] encodedKey = Sig.getPublicKeyBytes(Sig.generateKeyPair().getPublic());
+
+        PublicKey publicKey = publicKeyCache.getPublicKey(encodedKey);
+        assertArrayEquals(encodedKey, publicKey.getEncoded());
+        assertSame(publicKey, publicKeyCache.getPublicKey(encodedKey.clone()));
+        assertEquals(1, publicKeyCache.getStats().hitCount());
+        assertEquals(1, publicKeyCache.getStats().missCount());
+
+        // Modifying the array of the caller must not affect the cached entry
+        byte[] copy = encodedKey.clone();
+        publicKeyCache.clear();
+        publicKey = publicKeyCache.getPublicKey(copy);
+        copy[copy.length - 1]++;
+        assertSame(publicKey, publicKeyCache.getPublicKey(encodedKey));
+    }
+
+    @Test
+    public void testCacheIsBounded() throws Exception {
+        PublicKeyCache publicKeyCache = new PublicKeyCache(Sig.KEY_ALGO, 2);
+        for (int i = 0; i < 5; i++)
+            publicKeyCache.getPublicKey(Sig.getPublicKeyBytes(Sig.generateKeyPair().getPublic()));
+
+        assertTrue(publicKeyCache.size() <= 2);
+        assertEquals(5, publicKeyCache.getStats().missCount());
+    }
+}
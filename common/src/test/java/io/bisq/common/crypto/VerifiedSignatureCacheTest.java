@@ -0,0 +1,66 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.common.crypto;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.security.KeyPair;
+import java.security.Security;
+
+import static org.junit.Assert.*;
+
+public class VerifiedSignatureCacheTest {
+
+    @Before
+    public void setup() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @Test
+    public void testOnlyVerifiedSignaturesAreCached() {
+        VerifiedSignatureCache cache = new VerifiedSignatureCache(10);
+        byte[] publicKey = {1, 2};
+        byte[] data = {3};
+        byte[] signature = {4, 5};
+
+        assertFalse(cache.isVerified(publicKey, data, signature));
+        cache.setVerified(publicKey, data, signature);
+        assertTrue(cache.isVerified(publicKey, data.clone(), signature.clone()));
+        // Same bytes split differently must not match
+        assertFalse(cache.isVerified(new byte[]{1}, new byte[]{2, 3}, signature));
+        assertFalse(cache.isVerified(publicKey, data, new byte[]{4, 6}));
+    }
+
+    @Test
+    public void testSigVerify() throws CryptoException {
+        KeyPair keyPair = Sig.generateKeyPair();
+        byte[] data = Hash.getHash("test");
+        byte[] signature = Sig.sign(keyPair.getPrivate(), data);
+
+        long hitCount = Sig.getVerifiedSignatureCache().getStats().hitCount();
+        assertTrue(Sig.verify(keyPair.getPublic(), data, signature));
+        assertTrue(Sig.verify(keyPair.getPublic(), data, signature));
+        assertEquals(hitCount + 1, Sig.getVerifiedSignatureCache().getStats().hitCount());
+
+        byte[] otherData = Hash.getHash("other");
+        assertFalse(Sig.verify(keyPair.getPublic(), otherData, signature));
+        assertFalse(Sig.verify(keyPair.getPublic(), otherData, signature));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.common.storage;
+
+import com.google.protobuf.ByteString;
+import io.bisq.common.proto.persistable.PersistableEnvelope;
+import io.bisq.generated.protobuffer.PB;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FileManagerTest {
+    private static final Logger log = LoggerFactory.getLogger(FileManagerTest.class);
+
+    private static final int NUM_ENTRIES = 1000;
+    // About 3.5 MB, similar to a large SequenceNumberMap or TradeStatisticsList
+    private static final int NUM_BENCHMARK_ENTRIES = 50_000;
+    private static final int NUM_SAVES = 10;
+
+    private File dir;
+    private File storageFile;
+    private PB.PersistableEnvelope envelope;
+    private PersistableEnvelope persistable;
+
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("FileManagerTest").toFile();
+        storageFile = new File(dir, "SequenceNumberMap");
+        createEnvelope(NUM_ENTRIES);
+    }
+
+    private void createEnvelope(int numEntries) {
+        Random random = new Random(1);
+        PB.SequenceNumberMap.Builder builder = PB.SequenceNumberMap.newBuilder();
+        for (int i = 0; i < numEntries; i++) {
+            byte[] hash = new byte[32];
+            random.nextBytes(hash);
+            builder.addSequenceNumberEntries(PB.SequenceNumberEntry.newBuilder()
+                    .setBytes(PB.ByteArray.newBuilder().setBytes(ByteString.copyFrom(hash)))
+                    .setMapValue(PB.MapValue.newBuilder().setSequenceNr(i).setTimeStamp(System.currentTimeMillis())));
+        }
+        envelope = PB.PersistableEnvelope.newBuilder().setSequenceNumberMap(builder).build();
+        persistable = () -> envelope;
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtil.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testSavedFileCanBeParsed() throws IOException {
+        new FileManager<>(dir, storageFile, 0, null).saveNow(persistable);
+
+        try (FileInputStream fileInputStream = new FileInputStream(storageFile)) {
+            assertEquals(envelope, PB.PersistableEnvelope.parseDelimitedFrom(fileInputStream));
+        }
+    }
+
+    @Test
+    public void testPreloadedFileIsTakenOnce() {
+        new FileManager<>(dir, storageFile, 0, null).saveNow(persistable);
+
+        FilePreloader.preloadAll(dir);
+        assertEquals(envelope, FilePreloader.take(storageFile));
+        assertNull(FilePreloader.take(storageFile));
+        assertNull(FilePreloader.take(new File(dir, "NotExisting")));
+    }
+
+    @Test
+    public void testSaveInvalidatesPreloadedFile() {
+        FileManager<PersistableEnvelope> fileManager = new FileManager<>(dir, storageFile, 0, null);
+        fileManager.saveNow(persistable);
+
+        FilePreloader.preloadAll(dir);
+        fileManager.saveNow(persistable);
+        assertNull(FilePreloader.take(storageFile));
+    }
+
+    @Ignore("Benchmark, run it manually")
+    @Test
+    public void testSaveLatencyAndAllocation() throws IOException {
+        createEnvelope(NUM_BENCHMARK_ENTRIES);
+        FileManager<PersistableEnvelope> fileManager = new FileManager<>(dir, storageFile, 0, null);
+        // Warm up
+        saveWithStream();
+        fileManager.saveNow(persistable);
+
+        long allocated = getAllocatedBytes();
+        long ts = System.nanoTime();
+        for (int i = 0; i < NUM_SAVES; i++)
+            saveWithStream();
+        long streamLatency = (System.nanoTime() - ts) / NUM_SAVES / 1000;
+        long streamAllocation = (getAllocatedBytes() - allocated) / NUM_SAVES;
+
+        allocated = getAllocatedBytes();
+        ts = System.nanoTime();
+        for (int i = 0; i < NUM_SAVES; i++)
+            fileManager.saveNow(persistable);
+        long channelLatency = (System.nanoTime() - ts) / NUM_SAVES / 1000;
+        long channelAllocation = (getAllocatedBytes() - allocated) / NUM_SAVES;
+
+        log.info("Save of {} bytes: FileOutputStream {} us / {} bytes allocated, " +
+                        "FileChannel with pooled direct buffer {} us / {} bytes allocated",
+                envelope.getSerializedSize(), streamLatency, streamAllocation, channelLatency, channelAllocation);
+    }
+
+    // The previous save path
+    private void saveWithStream() throws IOException {
+        File tempFile = File.createTempFile("temp", null, dir);
+        try (FileOutputStream fileOutputStream = new FileOutputStream(tempFile)) {
+            if (envelope.toByteArray().length == 0)
+                log.error("envelope is empty");
+            envelope.writeDelimitedTo(fileOutputStream);
+            fileOutputStream.flush();
+            fileOutputStream.getFD().sync();
+        }
+        FileUtil.renameFile(tempFile, storageFile);
+    }
+
+    // Returns 0 if the JVM does not support allocation tracking
+    private static long getAllocatedBytes() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return 0;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.common.taskrunner;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TaskRunnerTest {
+    private CountingModel model;
+    // Events in the order they happened
+    private List<String> events;
+
+    @Before
+    public void setUp() {
+        events = new ArrayList<>();
+        model = new CountingModel(events);
+    }
+
+    @Test
+    public void testPersistOncePerChain() {
+        TaskRunner<CountingModel> taskRunner = newTaskRunner();
+        taskRunner.addTasks(ChangingTask.class, ChangingTask.class, ChangingTask.class);
+        taskRunner.run();
+
+        assertEquals(1, model.numPersistCalls);
+        assertEquals("[persist, result]", events.toString());
+    }
+
+    @Test
+    public void testNoPersistIfModelIsNotChanged() {
+        TaskRunner<CountingModel> taskRunner = newTaskRunner();
+        taskRunner.addTasks(VerifyingTask.class, VerifyingTask.class);
+        taskRunner.run();
+
+        assertEquals(0, model.numPersistCalls);
+        assertEquals("[result]", events.toString());
+    }
+
+    @Test
+    public void testFlushingTaskPersistsRightAway() {
+        TaskRunner<CountingModel> taskRunner = newTaskRunner();
+        taskRunner.addTasks(ChangingTask.class, FlushingTask.class, VerifyingTask.class, ChangingTask.class);
+        taskRunner.run();
+
+        assertEquals(2, model.numPersistCalls);
+        assertEquals("[persist, persist, result]", events.toString());
+    }
+
+    @Test
+    public void testFlushingTaskAtEndPersistsOnce() {
+        TaskRunner<CountingModel> taskRunner = newTaskRunner();
+        taskRunner.addTasks(ChangingTask.class, FlushingTask.class);
+        taskRunner.run();
+
+        assertEquals(1, model.numPersistCalls);
+        assertEquals("[persist, result]", events.toString());
+    }
+
+    @Test
+    public void testPersistBeforeErrorHandler() {
+        TaskRunner<CountingModel> taskRunner = newTaskRunner();
+        taskRunner.addTasks(ChangingTask.class, FailingTask.class, ChangingTask.class);
+        taskRunner.run();
+
+        assertEquals(1, model.numPersistCalls);
+        assertEquals("[persist, error]", events.toString());
+    }
+
+    private TaskRunner<CountingModel> newTaskRunner() {
+        return new TaskRunner<>(model, () -> events.add("result"), errorMessage -> events.add("error"));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Model and tasks
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static class CountingModel implements Model {
+        private final List<String> events;
+        int numPersistCalls;
+
+        CountingModel(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void persist() {
+            numPersistCalls++;
+            events.add("persist");
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    public static class ChangingTask extends Task<CountingModel> {
+        public ChangingTask(TaskRunner taskHandler, CountingModel model) {
+            super(taskHandler, model);
+        }
+
+        @Override
+        protected void run() {
+            complete();
+        }
+    }
+
+    public static class VerifyingTask extends Task<CountingModel> {
+        public VerifyingTask(TaskRunner taskHandler, CountingModel model) {
+            super(taskHandler, model);
+        }
+
+        @Override
+        protected boolean changesModel() {
+            return false;
+        }
+
+        @Override
+        protected void run() {
+            complete();
+        }
+    }
+
+    public static class FlushingTask extends Task<CountingModel> {
+        public FlushingTask(TaskRunner taskHandler, CountingModel model) {
+            super(taskHandler, model);
+        }
+
+        @Override
+        protected boolean requiresFlush() {
+            return true;
+        }
+
+        @Override
+        protected void run() {
+            complete();
+        }
+    }
+
+    public static class FailingTask extends Task<CountingModel> {
+        public FailingTask(TaskRunner taskHandler, CountingModel model) {
+            super(taskHandler, model);
+        }
+
+        @Override
+        protected void run() {
+            failed("Failed for testing");
+        }
+    }
+}
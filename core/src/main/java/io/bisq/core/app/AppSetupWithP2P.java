@@ -19,6 +19,7 @@ package io.bisq.core.app;
 
 import io.bisq.common.crypto.KeyRing;
 import io.bisq.common.proto.persistable.PersistedDataHost;
+import io.bisq.common.storage.Storage;
 import io.bisq.core.trade.statistics.TradeStatisticsManager;
 import io.bisq.network.crypto.EncryptionService;
 import io.bisq.network.p2p.P2PService;
@@ -31,22 +32,27 @@ import javafx.beans.property.SimpleBooleanProperty;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import java.io.File;
 import java.util.ArrayList;
 
 @Slf4j
 public class AppSetupWithP2P extends AppSetup {
     protected final P2PService p2PService;
+    private final File storageDir;
     protected BooleanProperty p2pNetWorkReady;
 
     @Inject
     public AppSetupWithP2P(EncryptionService encryptionService,
                            KeyRing keyRing,
                            P2PService p2PService,
-                           TradeStatisticsManager tradeStatisticsManager) {
+                           TradeStatisticsManager tradeStatisticsManager,
+                           @Named(Storage.STORAGE_DIR) File storageDir) {
         super(encryptionService,
                 keyRing,
                 tradeStatisticsManager);
         this.p2PService = p2PService;
+        this.storageDir = storageDir;
     }
 
     @Override
@@ -55,6 +61,7 @@ public class AppSetupWithP2P extends AppSetup {
         persistedDataHosts.add(tradeStatisticsManager);
         persistedDataHosts.add(p2PService);
 
+        Storage.preloadAll(storageDir);
         // we apply at startup the reading of persisted data but don't want to get it triggered in the constructor
         persistedDataHosts.stream().forEach(e -> {
             try {
@@ -64,6 +71,7 @@ public class AppSetupWithP2P extends AppSetup {
                 log.error("readPersisted error", e1);
             }
         });
+        Storage.clearPreloaded();
     }
 
     @Override
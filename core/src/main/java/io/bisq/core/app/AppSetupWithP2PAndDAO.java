@@ -18,6 +18,7 @@
 package io.bisq.core.app;
 
 import io.bisq.common.crypto.KeyRing;
+import io.bisq.common.storage.Storage;
 import io.bisq.core.dao.blockchain.BsqBlockchainManager;
 import io.bisq.core.trade.statistics.TradeStatisticsManager;
 import io.bisq.network.crypto.EncryptionService;
@@ -25,6 +26,8 @@ import io.bisq.network.p2p.P2PService;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import java.io.File;
 
 @Slf4j
 public class AppSetupWithP2PAndDAO extends AppSetupWithP2P {
@@ -35,11 +38,13 @@ public class AppSetupWithP2PAndDAO extends AppSetupWithP2P {
                                  KeyRing keyRing,
                                  P2PService p2PService,
                                  TradeStatisticsManager tradeStatisticsManager,
-                                 BsqBlockchainManager bsqBlockchainManager) {
+                                 BsqBlockchainManager bsqBlockchainManager,
+                                 @Named(Storage.STORAGE_DIR) File storageDir) {
         super(encryptionService,
                 keyRing,
                 p2PService,
-                tradeStatisticsManager);
+                tradeStatisticsManager,
+                storageDir);
         this.bsqBlockchainManager = bsqBlockchainManager;
     }
 
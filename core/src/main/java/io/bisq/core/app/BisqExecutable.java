@@ -105,6 +105,22 @@ public abstract class BisqExecutable {
         parser.accepts(NetworkOptionKeys.SOCKS_5_PROXY_HTTP_ADDRESS,
                 description("A proxy address to be used for Http requests (should be non-Tor). [host:port]", ""))
                 .withRequiredArg();
+        parser.accepts(NetworkOptionKeys.MSG_TRACE_SAMPLE_RATE,
+                description("Only every n-th network message is logged at DEBUG level", 1))
+                .withRequiredArg()
+                .ofType(int.class);
+        parser.accepts(NetworkOptionKeys.MSG_CAPTURE_SIZE,
+                description("Number of recent network messages kept in memory and written to the data dir at shutdown (0 = disabled)", 0))
+                .withRequiredArg()
+                .ofType(int.class);
+        parser.accepts(NetworkOptionKeys.METRICS_DUMP_INTERVAL,
+                description("Interval in sec. for writing the network metrics as JSON and Prometheus text to the app data dir (used only at headless versions, 0 = disabled)", 0))
+                .withRequiredArg()
+                .ofType(int.class);
+        parser.accepts(NetworkOptionKeys.PRE_CONNECT,
+                description("Connect in advance to trading peers and arbitrators we will send messages to soon", true))
+                .withRequiredArg()
+                .ofType(boolean.class);
 
         //AppOptionKeys
         parser.accepts(AppOptionKeys.USER_DATA_DIR_KEY,
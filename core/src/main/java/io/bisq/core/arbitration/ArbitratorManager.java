@@ -22,6 +22,7 @@ import io.bisq.common.Timer;
 import io.bisq.common.UserThread;
 import io.bisq.common.app.DevEnv;
 import io.bisq.common.crypto.KeyRing;
+import io.bisq.common.crypto.VerifiedSignatureCache;
 import io.bisq.common.handlers.ErrorMessageHandler;
 import io.bisq.common.handlers.ResultHandler;
 import io.bisq.core.user.Preferences;
@@ -41,6 +42,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.security.PublicKey;
 import java.security.SignatureException;
 import java.util.*;
@@ -60,6 +62,7 @@ public class ArbitratorManager {
     private static final long REPUBLISH_MILLIS = Arbitrator.TTL / 2;
     private static final long RETRY_REPUBLISH_SEC = 5;
     private static final long REPEATED_REPUBLISH_AT_STARTUP_SEC = 60;
+    private static final int MAX_CACHED_VERIFIED_SIGNATURES = 1000;
 
     @SuppressWarnings("ConstantConditions")
     private static final List<String> publicKeys = DevEnv.USE_DEV_PRIVILEGE_KEYS ?
@@ -91,6 +94,10 @@ public class ArbitratorManager {
     private final User user;
     private final Preferences preferences;
     private final ObservableMap<NodeAddress, Arbitrator> arbitratorsObservableMap = FXCollections.observableHashMap();
+    // updateArbitratorMap is called at each change of the arbitrators in the P2P network, but the registrations
+    // rarely change, so we remember the signatures we have already verified
+    private final VerifiedSignatureCache verifiedSignatureCache =
+            new VerifiedSignatureCache(MAX_CACHED_VERIFIED_SIGNATURES);
     private List<Arbitrator> persistedAcceptedArbitrators;
     private Timer republishArbitratorTimer, retryRepublishArbitratorTimer;
 
@@ -299,9 +306,15 @@ public class ArbitratorManager {
 
     private boolean verifySignature(PublicKey storageSignaturePubKey, byte[] registrationPubKey, String signature) {
         String keyToSignAsHex = Utils.HEX.encode(storageSignaturePubKey.getEncoded());
+        byte[] data = keyToSignAsHex.getBytes(StandardCharsets.UTF_8);
+        byte[] signatureBytes = signature.getBytes(StandardCharsets.UTF_8);
+        if (verifiedSignatureCache.isVerified(registrationPubKey, data, signatureBytes))
+            return true;
+
         try {
             ECKey key = ECKey.fromPublicOnly(registrationPubKey);
             key.verifyMessage(keyToSignAsHex, signature);
+            verifiedSignatureCache.setVerified(registrationPubKey, data, signatureBytes);
             return true;
         } catch (SignatureException e) {
             log.warn("verifySignature failed");
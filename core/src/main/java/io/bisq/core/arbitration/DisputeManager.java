@@ -135,15 +135,18 @@ public class DisputeManager implements PersistedDataHost {
     }
 
     public void onAllServicesInitialized() {
-        if (p2PService.isBootstrapped())
+        if (p2PService.isBootstrapped()) {
             applyMessages();
-        else
+            preConnectToDisputePeers();
+        } else {
             p2PService.addP2PServiceListener(new BootstrapListener() {
                 @Override
                 public void onBootstrapComplete() {
                     applyMessages();
+                    preConnectToDisputePeers();
                 }
             });
+        }
 
         cleanupDisputes();
     }
@@ -193,6 +196,16 @@ public class DisputeManager implements PersistedDataHost {
         decryptedMailboxMessageWithPubKeys.clear();
     }
 
+    // Messages of open disputes are exchanged between the trader and the arbitrator, so we connect in advance
+    private void preConnectToDisputePeers() {
+        disputes.stream()
+                .filter(dispute -> !dispute.isClosed() && (isTrader(dispute) || isArbitrator(dispute)))
+                .map(this::getPeerNodeAddress)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(p2PService::preConnect);
+    }
+
     private void dispatchMessage(DisputeMessage message) {
         if (message instanceof OpenNewDisputeMessage)
             onOpenNewDisputeMessage((OpenNewDisputeMessage) message);
@@ -374,16 +387,12 @@ public class DisputeManager implements PersistedDataHost {
         if (isTrader(dispute)) {
             dispute.addDisputeMessage(disputeCommunicationMessage);
             receiverPubKeyRing = dispute.getArbitratorPubKeyRing();
-            peerNodeAddress = dispute.getContract().getArbitratorNodeAddress();
+            peerNodeAddress = getPeerNodeAddress(dispute);
         } else if (isArbitrator(dispute)) {
             if (!disputeCommunicationMessage.isSystemMessage())
                 dispute.addDisputeMessage(disputeCommunicationMessage);
             receiverPubKeyRing = dispute.getTraderPubKeyRing();
-            Contract contract = dispute.getContract();
-            if (contract.getBuyerPubKeyRing().equals(receiverPubKeyRing))
-                peerNodeAddress = contract.getBuyerNodeAddress();
-            else
-                peerNodeAddress = contract.getSellerNodeAddress();
+            peerNodeAddress = getPeerNodeAddress(dispute);
         } else {
             log.error("That must not happen. Trader cannot communicate to other trader.");
         }
@@ -768,6 +777,17 @@ public class DisputeManager implements PersistedDataHost {
                 walletService.getOrCreateAddressEntry(AddressEntry.Context.ARBITRATOR).getPubKey());
     }
 
+    // The arbitrator for the trader, the trader for the arbitrator
+    private NodeAddress getPeerNodeAddress(Dispute dispute) {
+        Contract contract = dispute.getContract();
+        if (isTrader(dispute))
+            return contract.getArbitratorNodeAddress();
+        else if (contract.getBuyerPubKeyRing().equals(dispute.getTraderPubKeyRing()))
+            return contract.getBuyerNodeAddress();
+        else
+            return contract.getSellerNodeAddress();
+    }
+
     public String getNrOfDisputes(boolean isBuyer, Contract contract) {
         return String.valueOf(getDisputesAsObservableList().stream()
                 .filter(e -> {
@@ -17,33 +17,69 @@
 
 package io.bisq.core.btc;
 
+import com.google.common.collect.*;
 import com.google.inject.Inject;
 import com.google.protobuf.Message;
 import io.bisq.common.proto.persistable.PersistableEnvelope;
 import io.bisq.common.proto.persistable.PersistedDataHost;
 import io.bisq.common.storage.Storage;
 import io.bisq.generated.protobuffer.PB;
-import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.bitcoinj.crypto.DeterministicKey;
 import org.bitcoinj.wallet.Wallet;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * The List supporting our persistence solution.
+ * <p>
+ * Lookups by offerId and context, by context and by address are served from indexes, which are rebuilt after a change
+ * of the list. Changes are rare compared to lookups. The indexes and the list returned by getList are immutable, so
+ * they can be used from any thread without copying.
  */
-@ToString
+@ToString(exclude = "index")
 @Slf4j
 public final class AddressEntryList implements PersistableEnvelope, PersistedDataHost {
+
+    private static final class Index {
+        private final ImmutableList<AddressEntry> list;
+        private final Table<String, AddressEntry.Context, AddressEntry> entryByOfferIdAndContext;
+        private final ImmutableListMultimap<AddressEntry.Context, AddressEntry> entriesByContext;
+        private final ImmutableListMultimap<String, AddressEntry> entriesByAddress;
+
+        private Index(List<AddressEntry> list) {
+            this.list = ImmutableList.copyOf(list);
+
+            Table<String, AddressEntry.Context, AddressEntry> entryByOfferIdAndContext = HashBasedTable.create();
+            ImmutableListMultimap.Builder<String, AddressEntry> entriesByAddress = ImmutableListMultimap.builder();
+            this.list.forEach(addressEntry -> {
+                String offerId = addressEntry.getOfferId();
+                // In case of duplicates we keep the first entry
+                if (offerId != null && !entryByOfferIdAndContext.contains(offerId, addressEntry.getContext()))
+                    entryByOfferIdAndContext.put(offerId, addressEntry.getContext(), addressEntry);
+
+                // The address is only available once the key is set from the wallet
+                String addressString = addressEntry.getAddressString();
+                if (addressString != null)
+                    entriesByAddress.put(addressString, addressEntry);
+            });
+            this.entryByOfferIdAndContext = Tables.unmodifiableTable(entryByOfferIdAndContext);
+            this.entriesByContext = Multimaps.index(this.list, AddressEntry::getContext);
+            this.entriesByAddress = entriesByAddress.build();
+        }
+    }
+
     transient private Storage<AddressEntryList> storage;
     transient private Wallet wallet;
-    @Getter
     private List<AddressEntry> list;
+    // Null if it needs to be rebuilt
+    transient private volatile Index index;
 
     @Inject
     public AddressEntryList(Storage<AddressEntryList> storage) {
@@ -53,8 +89,12 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
     @Override
     public void readPersisted() {
         AddressEntryList persisted = storage.initAndGetPersisted(this);
-        if (persisted != null)
-            list = new ArrayList<>(persisted.getList());
+        if (persisted != null) {
+            synchronized (this) {
+                list = new ArrayList<>(persisted.getList());
+                index = null;
+            }
+        }
     }
 
 
@@ -74,7 +114,7 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
     public Message toProtoMessage() {
         return PB.PersistableEnvelope.newBuilder()
                 .setAddressEntryList(PB.AddressEntryList.newBuilder()
-                        .addAllAddressEntry(list.stream()
+                        .addAllAddressEntry(getList().stream()
                                 .map(AddressEntry::toProtoMessage)
                                 .collect(Collectors.toList())))
                 .build();
@@ -85,7 +125,7 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    public void onWalletReady(Wallet wallet) {
+    public synchronized void onWalletReady(Wallet wallet) {
         this.wallet = wallet;
 
         if (list != null) {
@@ -97,6 +137,8 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
                     log.error("Key from addressEntry not found in that wallet " + addressEntry.toString());
                 }
             });
+            // The addresses are known now
+            index = null;
         } else {
             list = new ArrayList<>();
             add(new AddressEntry(wallet.freshReceiveKey(), AddressEntry.Context.ARBITRATOR));
@@ -104,12 +146,16 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
         }
     }
 
-    private boolean add(AddressEntry addressEntry) {
-        return list.add(addressEntry);
+    private synchronized boolean add(AddressEntry addressEntry) {
+        boolean changed = list.add(addressEntry);
+        index = null;
+        return changed;
     }
 
-    private boolean remove(AddressEntry addressEntry) {
-        return list.remove(addressEntry);
+    private synchronized boolean remove(AddressEntry addressEntry) {
+        boolean changed = list.remove(addressEntry);
+        index = null;
+        return changed;
     }
 
     public AddressEntry addAddressEntry(AddressEntry addressEntry) {
@@ -120,7 +166,7 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
     }
 
     public void swapTradeToSavings(String offerId) {
-        list.stream().filter(addressEntry -> offerId.equals(addressEntry.getOfferId()))
+        getIndex().entryByOfferIdAndContext.row(offerId).values().stream()
                 .findAny().ifPresent(this::swapToAvailable);
     }
 
@@ -135,7 +181,52 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
         storage.queueUpForSave(50);
     }
 
+    /**
+     * @return Immutable view of the entries. Changes of the AddressEntryList are not reflected in the returned list.
+     */
+    public List<AddressEntry> getList() {
+        return getIndex().list;
+    }
+
     public Stream<AddressEntry> stream() {
-        return list.stream();
+        return getList().stream();
+    }
+
+    public Optional<AddressEntry> getAddressEntry(String offerId, AddressEntry.Context context) {
+        return Optional.ofNullable(getIndex().entryByOfferIdAndContext.get(offerId, context));
+    }
+
+    /**
+     * @return Immutable list of the entries with the given context.
+     */
+    public List<AddressEntry> getAddressEntries(AddressEntry.Context context) {
+        return getIndex().entriesByContext.get(context);
+    }
+
+    /**
+     * @return Immutable list of the entries with the given address. Entries are only indexed by their address after
+     * the wallet is ready.
+     */
+    public List<AddressEntry> getAddressEntriesByAddress(String addressString) {
+        return getIndex().entriesByAddress.get(addressString);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private Index getIndex() {
+        Index index = this.index;
+        if (index == null) {
+            synchronized (this) {
+                index = this.index;
+                if (index == null) {
+                    index = new Index(list != null ? list : Collections.emptyList());
+                    this.index = index;
+                }
+            }
+        }
+        return index;
     }
 }
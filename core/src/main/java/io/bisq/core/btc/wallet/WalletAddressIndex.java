@@ -0,0 +1,205 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.core.btc.wallet;
+
+import com.google.common.collect.ImmutableList;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.core.*;
+import org.bitcoinj.utils.Threading;
+import org.bitcoinj.wallet.Wallet;
+import org.bitcoinj.wallet.listeners.AbstractWalletEventListener;
+import org.bitcoinj.wallet.listeners.WalletEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Index of the wallet transactions, the number of outputs and the balance by address.
+ * <p>
+ * New transactions are added incrementally from the wallet events. We keep references to the transactions, so the
+ * confidence (e.g. the depth) read from them is always up to date. The balances depend on the spend candidates of the
+ * wallet, which might change at any wallet event. They are recalculated in one pass at the first lookup after a change.
+ * A reorganisation or a transaction which became dead triggers a full rebuild at the next lookup.
+ * <p>
+ * The wallet listener is called at the thread of the wallet change while the wallet is locked. It only queues the
+ * changes, which are applied at the next lookup. That way the index is never behind the wallet and we don't risk a
+ * deadlock between the wallet lock and our lock.
+ */
+@Slf4j
+final class WalletAddressIndex {
+    @Getter
+    private final Wallet wallet;
+    @SuppressWarnings("deprecation")
+    private final WalletEventListener walletEventListener = new IndexUpdater();
+
+    // Changes reported by the wallet listener
+    private final Queue<Transaction> pendingTxs = new ConcurrentLinkedQueue<>();
+    private final Set<Sha256Hash> indexedTxIds = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private volatile boolean txsDirty = true;
+    private volatile boolean balancesDirty = true;
+
+    // Guarded by this
+    private final Map<Address, Set<Transaction>> txsByAddress = new HashMap<>();
+    private final Map<Address, Integer> numOutputsByAddress = new HashMap<>();
+    private final Map<Address, Coin> balanceByAddress = new HashMap<>();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @SuppressWarnings("deprecation")
+    WalletAddressIndex(Wallet wallet) {
+        this.wallet = wallet;
+        //noinspection deprecation
+        wallet.addEventListener(walletEventListener, Threading.SAME_THREAD);
+    }
+
+    @SuppressWarnings("deprecation")
+    void shutDown() {
+        //noinspection deprecation
+        wallet.removeEventListener(walletEventListener);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    synchronized Coin getBalance(Address address) {
+        updateBalances();
+        return balanceByAddress.getOrDefault(address, Coin.ZERO);
+    }
+
+    /**
+     * @return The transactions with an output or a connected output of our inputs to the given address. Like
+     * wallet.getTransactions(false) that includes dead transactions.
+     */
+    synchronized List<Transaction> getTransactions(Address address) {
+        updateTxs();
+        Set<Transaction> transactions = txsByAddress.get(address);
+        return transactions != null ? ImmutableList.copyOf(transactions) : ImmutableList.of();
+    }
+
+    /**
+     * @return The number of outputs to the given address in all transactions, including dead transactions.
+     */
+    synchronized int getNumTxOutputs(Address address) {
+        updateTxs();
+        return numOutputsByAddress.getOrDefault(address, 0);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void updateTxs() {
+        if (txsDirty) {
+            // Reset the flag before we read from the wallet so we don't miss concurrent changes
+            txsDirty = false;
+            pendingTxs.clear();
+            txsByAddress.clear();
+            numOutputsByAddress.clear();
+            indexedTxIds.clear();
+            wallet.getTransactions(false).forEach(this::addTx);
+        } else {
+            Transaction tx;
+            while ((tx = pendingTxs.poll()) != null) {
+                if (!indexedTxIds.contains(tx.getHash()))
+                    addTx(tx);
+            }
+        }
+    }
+
+    private void addTx(Transaction tx) {
+        indexedTxIds.add(tx.getHash());
+        for (TransactionOutput output : tx.getOutputs()) {
+            Address address = WalletService.getAddressFromOutput(output);
+            if (address != null) {
+                txsByAddress.computeIfAbsent(address, k -> new HashSet<>()).add(tx);
+                numOutputsByAddress.merge(address, 1, Integer::sum);
+            }
+        }
+        for (TransactionInput input : tx.getInputs()) {
+            TransactionOutput connectedOutput = input.getConnectedOutput();
+            if (connectedOutput != null) {
+                Address address = WalletService.getAddressFromOutput(connectedOutput);
+                if (address != null)
+                    txsByAddress.computeIfAbsent(address, k -> new HashSet<>()).add(tx);
+            }
+        }
+    }
+
+    private void updateBalances() {
+        if (balancesDirty) {
+            balancesDirty = false;
+            balanceByAddress.clear();
+            for (TransactionOutput output : wallet.calculateAllSpendCandidates()) {
+                Address address = WalletService.getAddressFromOutput(output);
+                if (address != null)
+                    balanceByAddress.merge(address, output.getValue(), Coin::add);
+            }
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // IndexUpdater
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Called while the wallet is locked, so we must not access our guarded state here
+    @SuppressWarnings("deprecation")
+    private class IndexUpdater extends AbstractWalletEventListener {
+        @Override
+        public void onCoinsReceived(Wallet wallet, Transaction tx, Coin prevBalance, Coin newBalance) {
+            onTxChanged(tx);
+        }
+
+        @Override
+        public void onCoinsSent(Wallet wallet, Transaction tx, Coin prevBalance, Coin newBalance) {
+            onTxChanged(tx);
+        }
+
+        @Override
+        public void onTransactionConfidenceChanged(Wallet wallet, Transaction tx) {
+            onTxChanged(tx);
+        }
+
+        @Override
+        public void onReorganize(Wallet wallet) {
+            txsDirty = true;
+            balancesDirty = true;
+        }
+
+        @Override
+        public void onWalletChanged(Wallet wallet) {
+            balancesDirty = true;
+        }
+
+        private void onTxChanged(Transaction tx) {
+            if (tx.getConfidence().getConfidenceType() == TransactionConfidence.ConfidenceType.DEAD)
+                txsDirty = true;
+            else if (!indexedTxIds.contains(tx.getHash()))
+                pendingTxs.add(tx);
+            balancesDirty = true;
+        }
+    }
+}
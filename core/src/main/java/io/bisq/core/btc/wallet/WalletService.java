@@ -75,6 +75,8 @@ public abstract class WalletService {
     protected final CopyOnWriteArraySet<BalanceListener> balanceListeners = new CopyOnWriteArraySet<>();
     protected Wallet wallet;
     protected KeyParameter aesKey;
+    @Nullable
+    private WalletAddressIndex walletAddressIndex;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -101,6 +103,13 @@ public abstract class WalletService {
         if (wallet != null)
             //noinspection deprecation
             wallet.removeEventListener(walletEventListener);
+
+        synchronized (this) {
+            if (walletAddressIndex != null) {
+                walletAddressIndex.shutDown();
+                walletAddressIndex = null;
+            }
+        }
     }
 
 
@@ -295,12 +304,11 @@ public abstract class WalletService {
     @Nullable
     public TransactionConfidence getConfidenceForAddress(Address address) {
         List<TransactionConfidence> transactionConfidenceList = new ArrayList<>();
-        if (wallet != null) {
-            Set<Transaction> transactions = wallet.getTransactions(false);
-            if (transactions != null) {
-                transactionConfidenceList.addAll(transactions.stream().map(tx ->
-                        getTransactionConfidence(tx, address)).collect(Collectors.toList()));
-            }
+        WalletAddressIndex walletAddressIndex = getWalletAddressIndex();
+        if (walletAddressIndex != null && address != null) {
+            transactionConfidenceList.addAll(walletAddressIndex.getTransactions(address).stream()
+                    .map(Transaction::getConfidence)
+                    .collect(Collectors.toList()));
         }
         return getMostRecentConfidence(transactionConfidenceList);
     }
@@ -380,7 +388,8 @@ public abstract class WalletService {
     }
 
     public Coin getBalanceForAddress(Address address) {
-        return wallet != null ? getBalance(wallet.calculateAllSpendCandidates(), address) : Coin.ZERO;
+        WalletAddressIndex walletAddressIndex = getWalletAddressIndex();
+        return walletAddressIndex != null && address != null ? walletAddressIndex.getBalance(address) : Coin.ZERO;
     }
 
     protected Coin getBalance(List<TransactionOutput> transactionOutputs, Address address) {
@@ -399,16 +408,8 @@ public abstract class WalletService {
     }
 
     public int getNumTxOutputsForAddress(Address address) {
-        List<TransactionOutput> transactionOutputs = new ArrayList<>();
-        wallet.getTransactions(false).stream().forEach(t -> transactionOutputs.addAll(t.getOutputs()));
-        int outputs = 0;
-        for (TransactionOutput output : transactionOutputs) {
-            if (isOutputScriptConvertibleToAddress(output) &&
-                    address != null &&
-                    address.equals(getAddressFromOutput(output)))
-                outputs++;
-        }
-        return outputs;
+        WalletAddressIndex walletAddressIndex = checkNotNull(getWalletAddressIndex(), "wallet must not be null");
+        return address != null ? walletAddressIndex.getNumTxOutputs(address) : 0;
     }
 
     Coin getTxFeeForWithdrawalPerByte() {
@@ -464,6 +465,20 @@ public abstract class WalletService {
         return walletsSetup.getChain().getBestChainHeight();
     }
 
+    // The index gets created at the first lookup after the wallet has been set
+    @Nullable
+    private synchronized WalletAddressIndex getWalletAddressIndex() {
+        if (wallet == null)
+            return null;
+
+        if (walletAddressIndex == null || walletAddressIndex.getWallet() != wallet) {
+            if (walletAddressIndex != null)
+                walletAddressIndex.shutDown();
+            walletAddressIndex = new WalletAddressIndex(wallet);
+        }
+        return walletAddressIndex;
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Wallet delegates to avoid direct access to wallet outside the service class
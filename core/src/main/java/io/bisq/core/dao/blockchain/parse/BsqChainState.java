@@ -131,6 +131,9 @@ public class BsqChainState implements PersistableEnvelope {
     @Nullable
     transient private BsqChainState snapshotCandidate;
     transient private final FunctionalReadWriteLock lock;
+    // Null if it needs to be rebuilt after a change of the unspent tx outputs or the chain head height
+    @Nullable
+    transient private volatile SpendableTxOutputs spendableTxOutputs;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -257,7 +260,7 @@ public class BsqChainState implements PersistableEnvelope {
             bsqBlocks.clear();
             txMap.clear();
             unspentTxOutputsMap.clear();
-            chainHeadHeight = 0;
+            setChainHeadHeight(0);
             genesisTx = null;
 
             if (snapshot != null) {
@@ -265,7 +268,7 @@ public class BsqChainState implements PersistableEnvelope {
                 bsqBlocks.addAll(snapshot.bsqBlocks);
                 txMap.putAll(snapshot.txMap);
                 unspentTxOutputsMap.putAll(snapshot.unspentTxOutputsMap);
-                chainHeadHeight = snapshot.chainHeadHeight;
+                setChainHeadHeight(snapshot.chainHeadHeight);
                 genesisTx = snapshot.genesisTx;
             } else {
                 log.info("Try to apply snapshot but no stored snapshot available");
@@ -296,7 +299,7 @@ public class BsqChainState implements PersistableEnvelope {
                             bsqBlocks.getLast().getHeight() + 1 == block.getHeight())) {
                         bsqBlocks.add(block);
                         block.getTxs().stream().forEach(BsqChainState.this::addTxToMap);
-                        chainHeadHeight = block.getHeight();
+                        setChainHeadHeight(block.getHeight());
                         maybeMakeSnapshot();
                         printDetails();
                     } else {
@@ -327,11 +330,15 @@ public class BsqChainState implements PersistableEnvelope {
         lock.write(() -> {
             checkArgument(txOutput.isVerified(), "txOutput must be verified at addUnspentTxOutput");
             unspentTxOutputsMap.put(txOutput.getTxIdIndexTuple(), txOutput);
+            spendableTxOutputs = null;
         });
     }
 
     void removeUnspentTxOutput(TxOutput txOutput) {
-        lock.write(() -> unspentTxOutputsMap.remove(txOutput.getTxIdIndexTuple()));
+        lock.write(() -> {
+            unspentTxOutputsMap.remove(txOutput.getTxIdIndexTuple());
+            spendableTxOutputs = null;
+        });
     }
 
     void setGenesisTx(Tx tx) {
@@ -364,13 +371,35 @@ public class BsqChainState implements PersistableEnvelope {
     }
 
     Optional<TxOutput> getUnspentTxOutput(TxIdIndexTuple txIdIndexTuple) {
-        return lock.read(() -> unspentTxOutputsMap.entrySet().stream()
-                .filter(e -> e.getKey().equals(txIdIndexTuple))
-                .map(Map.Entry::getValue).findAny());
+        return lock.read(() -> Optional.ofNullable(unspentTxOutputsMap.get(txIdIndexTuple)));
     }
 
+    // Does not lock if the snapshot of the spendable outputs is up to date
     public boolean isTxOutputSpendable(String txId, int index) {
-        return lock.read(() -> getSpendableTxOutput(txId, index).isPresent());
+        return getSpendableTxOutputs().contains(txId, index);
+    }
+
+    /**
+     * @return Immutable snapshot of the unspent and mature tx outputs. It is rebuilt at the first call after a change
+     * of the unspent tx outputs or the chain head height.
+     */
+    public SpendableTxOutputs getSpendableTxOutputs() {
+        SpendableTxOutputs spendableTxOutputs = this.spendableTxOutputs;
+        if (spendableTxOutputs != null)
+            return spendableTxOutputs;
+
+        // We publish the snapshot while holding the read lock so a concurrent write cannot be overwritten by a
+        // stale snapshot
+        return lock.read(() -> {
+            SpendableTxOutputs.Builder builder = new SpendableTxOutputs.Builder();
+            unspentTxOutputsMap.forEach((txIdIndexTuple, txOutput) -> {
+                if (isTxOutputMature(txOutput))
+                    builder.add(txIdIndexTuple);
+            });
+            SpendableTxOutputs snapshot = builder.build();
+            this.spendableTxOutputs = snapshot;
+            return snapshot;
+        });
     }
 
     public boolean hasTxBurntFee(String txId) {
@@ -484,6 +513,13 @@ public class BsqChainState implements PersistableEnvelope {
         return lock.read(() -> txMap.get(txId) != null ? Optional.of(txMap.get(txId)) : Optional.<Tx>empty());
     }
 
+    // The maturity of the unspent tx outputs depends on the chain height, so the snapshot of the spendable outputs
+    // gets rebuilt after a height change as well. Must be called while holding the write lock.
+    private void setChainHeadHeight(int chainHeadHeight) {
+        this.chainHeadHeight = chainHeadHeight;
+        spendableTxOutputs = null;
+    }
+
     private boolean isSnapshotHeight(int height) {
         return isSnapshotHeight(genesisBlockHeight, height, SNAPSHOT_GRID);
     }
@@ -0,0 +1,75 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.core.dao.blockchain.parse;
+
+import io.bisq.core.dao.blockchain.vo.TxIdIndexTuple;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the unspent and mature BSQ outputs of the BsqChainState.
+ * <p>
+ * We keep a bitmap of the spendable output indices per txId, so a lookup does not allocate and does not need a lock.
+ */
+public final class SpendableTxOutputs {
+    static final class Builder {
+        private final Map<String, BitSet> indicesByTxId = new HashMap<>();
+        private int size;
+
+        Builder add(TxIdIndexTuple txIdIndexTuple) {
+            BitSet indices = indicesByTxId.computeIfAbsent(txIdIndexTuple.getTxId(), k -> new BitSet());
+            if (!indices.get(txIdIndexTuple.getIndex())) {
+                indices.set(txIdIndexTuple.getIndex());
+                size++;
+            }
+            return this;
+        }
+
+        SpendableTxOutputs build() {
+            return new SpendableTxOutputs(indicesByTxId, size);
+        }
+    }
+
+    // The BitSets are never modified after the snapshot got built
+    private final Map<String, BitSet> indicesByTxId;
+    private final int size;
+
+    private SpendableTxOutputs(Map<String, BitSet> indicesByTxId, int size) {
+        this.indicesByTxId = indicesByTxId;
+        this.size = size;
+    }
+
+    public boolean contains(String txId, int index) {
+        BitSet indices = indicesByTxId.get(txId);
+        return indices != null && index >= 0 && indices.get(index);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "SpendableTxOutputs{" +
+                "numTxs=" + indicesByTxId.size() +
+                ", size=" + size +
+                '}';
+    }
+}
@@ -21,6 +21,7 @@ import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import io.bisq.common.app.DevEnv;
 import io.bisq.common.crypto.KeyRing;
+import io.bisq.common.crypto.VerifiedSignatureCache;
 import io.bisq.core.app.AppOptionKeys;
 import io.bisq.core.user.User;
 import io.bisq.generated.protobuffer.PB;
@@ -37,6 +38,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.security.SignatureException;
 import java.util.stream.Collectors;
 
@@ -49,6 +51,8 @@ public class FilterManager {
     private final KeyRing keyRing;
     private final User user;
     private final ObjectProperty<Filter> filterProperty = new SimpleObjectProperty<>();
+    // The filter gets delivered again at each reconnect and startup, so we remember the signatures we have verified
+    private final VerifiedSignatureCache verifiedSignatureCache = new VerifiedSignatureCache(10);
 
     @SuppressWarnings("ConstantConditions")
     private static final String pubKeyAsHex = DevEnv.USE_DEV_PRIVILEGE_KEYS ?
@@ -153,8 +157,16 @@ public class FilterManager {
     }
 
     private boolean verifySignature(Filter filter) {
+        String hexFromData = getHexFromData(filter);
+        byte[] pubKey = HEX.decode(pubKeyAsHex);
+        byte[] data = hexFromData.getBytes(StandardCharsets.UTF_8);
+        byte[] signature = filter.getSignatureAsBase64().getBytes(StandardCharsets.UTF_8);
+        if (verifiedSignatureCache.isVerified(pubKey, data, signature))
+            return true;
+
         try {
-            ECKey.fromPublicOnly(HEX.decode(pubKeyAsHex)).verifyMessage(getHexFromData(filter), filter.getSignatureAsBase64());
+            ECKey.fromPublicOnly(pubKey).verifyMessage(hexFromData, filter.getSignatureAsBase64());
+            verifiedSignatureCache.setVerified(pubKey, data, signature);
             return true;
         } catch (SignatureException e) {
             log.warn("verifySignature failed");
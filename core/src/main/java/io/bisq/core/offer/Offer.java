@@ -129,24 +129,9 @@ public class Offer implements NetworkPayload, PersistablePayload {
             checkNotNull(priceFeedService, "priceFeed must not be null");
             MarketPrice marketPrice = priceFeedService.getMarketPrice(currencyCode);
             if (marketPrice != null && marketPrice.isValid()) {
-                double factor;
-                double marketPriceMargin = offerPayload.getMarketPriceMargin();
-                if (CurrencyUtil.isCryptoCurrency(currencyCode)) {
-                    factor = getDirection() == OfferPayload.Direction.SELL ?
-                            1 - marketPriceMargin : 1 + marketPriceMargin;
-                } else {
-                    factor = getDirection() == OfferPayload.Direction.BUY ?
-                            1 - marketPriceMargin : 1 + marketPriceMargin;
-                }
-                double marketPriceAsDouble = marketPrice.getPrice();
-                double targetPriceAsDouble = marketPriceAsDouble * factor;
                 try {
-                    int precision = CurrencyUtil.isCryptoCurrency(currencyCode) ?
-                            Altcoin.SMALLEST_UNIT_EXPONENT :
-                            Fiat.SMALLEST_UNIT_EXPONENT;
-                    double scaled = MathUtils.scaleUpByPowerOf10(targetPriceAsDouble, precision);
-                    final long roundedToLong = MathUtils.roundDoubleToLong(scaled);
-                    return Price.valueOf(currencyCode, roundedToLong);
+                    return Price.valueOf(currencyCode, getMarketBasedPriceAsLong(currencyCode, getDirection(),
+                            offerPayload.getMarketPriceMargin(), marketPrice.getPrice()));
                 } catch (Exception e) {
                     log.error("Exception at getPrice / parseToFiat: " + e.toString() + "\n" +
                             "That case should never happen.");
@@ -162,6 +147,32 @@ public class Offer implements NetworkPayload, PersistablePayload {
         }
     }
 
+    /**
+     * Applies the margin of a market based offer to the given market price. Used by getPrice and by the
+     * OrderBook which re-prices all market based offers of a currency in one pass at a price update.
+     */
+    public static long getMarketBasedPriceAsLong(String currencyCode, OfferPayload.Direction direction,
+                                                 double marketPriceMargin, double marketPrice) {
+        return getMarketBasedPriceAsLong(CurrencyUtil.isCryptoCurrency(currencyCode), direction, marketPriceMargin,
+                marketPrice);
+    }
+
+    public static long getMarketBasedPriceAsLong(boolean isCryptoCurrency, OfferPayload.Direction direction,
+                                                 double marketPriceMargin, double marketPrice) {
+        double factor;
+        if (isCryptoCurrency) {
+            factor = direction == OfferPayload.Direction.SELL ?
+                    1 - marketPriceMargin : 1 + marketPriceMargin;
+        } else {
+            factor = direction == OfferPayload.Direction.BUY ?
+                    1 - marketPriceMargin : 1 + marketPriceMargin;
+        }
+        double targetPriceAsDouble = marketPrice * factor;
+        int precision = isCryptoCurrency ? Altcoin.SMALLEST_UNIT_EXPONENT : Fiat.SMALLEST_UNIT_EXPONENT;
+        double scaled = MathUtils.scaleUpByPowerOf10(targetPriceAsDouble, precision);
+        return MathUtils.roundDoubleToLong(scaled);
+    }
+
     public void checkTradePriceTolerance(long takersTradePrice) throws TradePriceOutOfToleranceException,
             MarketPriceNotAvailableException, IllegalArgumentException {
         Price tradePrice = Price.valueOf(getCurrencyCode(), takersTradePrice);
@@ -0,0 +1,78 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.core.offer;
+
+import io.bisq.core.provider.price.MarketPrice;
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+
+/**
+ * Buy and sell side of the offers of one currency.
+ */
+public class OrderBook {
+    @Getter
+    private final String currencyCode;
+    @Getter
+    private final OrderBookSide buySide;
+    @Getter
+    private final OrderBookSide sellSide;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public OrderBook(String currencyCode) {
+        this.currencyCode = currencyCode;
+        buySide = new OrderBookSide(currencyCode, OfferPayload.Direction.BUY);
+        sellSide = new OrderBookSide(currencyCode, OfferPayload.Direction.SELL);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public boolean add(Offer offer) {
+        return getSide(offer.getDirection()).add(offer);
+    }
+
+    public boolean remove(Offer offer) {
+        return getSide(offer.getDirection()).remove(offer.getId());
+    }
+
+    public void clear() {
+        buySide.clear();
+        sellSide.clear();
+    }
+
+    public void applyMarketPrice(@Nullable MarketPrice marketPrice) {
+        double price = marketPrice != null && marketPrice.isValid() ? marketPrice.getPrice() : 0;
+        buySide.setMarketPrice(price);
+        sellSide.setMarketPrice(price);
+    }
+
+    public OrderBookSide getSide(OfferPayload.Direction direction) {
+        return direction == OfferPayload.Direction.BUY ? buySide : sellSide;
+    }
+
+    public boolean isEmpty() {
+        return buySide.size() == 0 && sellSide.size() == 0;
+    }
+}
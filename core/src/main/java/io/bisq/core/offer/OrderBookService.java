@@ -0,0 +1,109 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.core.offer;
+
+import io.bisq.core.provider.price.PriceFeedService;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Maintains a price sorted OrderBook per currency from the offers of the OfferBookService.
+ * Market based offers get re-priced at each price feed update.
+ */
+@Slf4j
+public class OrderBookService {
+
+    public interface Listener {
+        // Called after the offer has been applied to the order book of its currency
+        void onOrderBookChanged(String currencyCode);
+    }
+
+    private final OfferBookService offerBookService;
+    private final PriceFeedService priceFeedService;
+    private final Map<String, OrderBook> orderBookByCurrencyCode = new HashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Inject
+    public OrderBookService(OfferBookService offerBookService, PriceFeedService priceFeedService) {
+        this.offerBookService = offerBookService;
+        this.priceFeedService = priceFeedService;
+
+        offerBookService.addOfferBookChangedListener(new OfferBookService.OfferBookChangedListener() {
+            @Override
+            public void onAdded(Offer offer) {
+                getOrderBook(offer.getCurrencyCode()).add(offer);
+                listeners.forEach(listener -> listener.onOrderBookChanged(offer.getCurrencyCode()));
+            }
+
+            @Override
+            public void onRemoved(Offer offer) {
+                getOrderBook(offer.getCurrencyCode()).remove(offer);
+                listeners.forEach(listener -> listener.onOrderBookChanged(offer.getCurrencyCode()));
+            }
+        });
+
+        priceFeedService.updateCounterProperty().addListener((observable, oldValue, newValue) -> applyMarketPrices());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public void fillOrderBooks() {
+        orderBookByCurrencyCode.values().forEach(OrderBook::clear);
+        offerBookService.getOffers().forEach(offer -> getOrderBook(offer.getCurrencyCode()).add(offer));
+        log.debug("fillOrderBooks: No. of currencies = " + orderBookByCurrencyCode.size());
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public OrderBook getOrderBook(String currencyCode) {
+        return orderBookByCurrencyCode.computeIfAbsent(currencyCode, code -> {
+            OrderBook orderBook = new OrderBook(code);
+            orderBook.applyMarketPrice(priceFeedService.getMarketPrice(code));
+            return orderBook;
+        });
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void applyMarketPrices() {
+        orderBookByCurrencyCode.values().forEach(orderBook ->
+                orderBook.applyMarketPrice(priceFeedService.getMarketPrice(orderBook.getCurrencyCode())));
+    }
+}
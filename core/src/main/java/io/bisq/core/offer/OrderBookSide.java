@@ -0,0 +1,294 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.core.offer;
+
+import io.bisq.common.locale.CurrencyUtil;
+import io.bisq.common.monetary.Price;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * One direction (all buy or all sell offers) of the OrderBook of a currency.
+ * <p>
+ * Fixed price offers are kept in a ladder sorted by their price, market based offers in a ladder sorted by their
+ * margin. For all combinations of direction and currency type a lower margin results in a better price for the
+ * taker, so the margin ladder stays sorted independent of the market price. At a market price change we only need
+ * to merge both ladders in one pass, re-pricing the market based offers on the fly.
+ * <p>
+ * The merged result is kept as arrays ordered from the best to the worst price together with the accumulated
+ * amounts, so best price and cumulative depth lookups are O(1) resp. O(log n).
+ * <p>
+ * Not thread safe. Expected to be used from the UserThread only.
+ */
+@Slf4j
+public class OrderBookSide {
+
+    private static final class Entry {
+        private final Offer offer;
+        private final long amount;
+
+        private Entry(Offer offer) {
+            this.offer = offer;
+            this.amount = offer.getAmount().value;
+        }
+
+        private String getId() {
+            return offer.getId();
+        }
+
+        private long getFixedPrice() {
+            return offer.getOfferPayload().getPrice();
+        }
+
+        private double getMarketPriceMargin() {
+            return offer.getMarketPriceMargin();
+        }
+    }
+
+    @Getter
+    private final String currencyCode;
+    @Getter
+    private final OfferPayload.Direction direction;
+    private final boolean isCryptoCurrency;
+    // If true the highest price is the best for the taker
+    private final boolean isHigherPriceBetter;
+
+    private final Map<String, Entry> entryByOfferId = new HashMap<>();
+    private final TreeSet<Entry> fixedPriceLadder;
+    private final TreeSet<Entry> marketBasedLadder;
+
+    // Merged ladders ordered from best to worst price. Rebuilt lazily after a change.
+    private Offer[] offers = new Offer[0];
+    private long[] prices = new long[0];
+    private long[] cumulativeAmounts = new long[0];
+    private double marketPrice;
+    private boolean dirty;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public OrderBookSide(String currencyCode, OfferPayload.Direction direction) {
+        this.currencyCode = currencyCode;
+        this.direction = direction;
+        isCryptoCurrency = CurrencyUtil.isCryptoCurrency(currencyCode);
+        isHigherPriceBetter = isCryptoCurrency ?
+                direction == OfferPayload.Direction.SELL :
+                direction == OfferPayload.Direction.BUY;
+
+        Comparator<Entry> byPrice = Comparator.comparingLong(Entry::getFixedPrice);
+        fixedPriceLadder = new TreeSet<>((isHigherPriceBetter ? byPrice.reversed() : byPrice)
+                .thenComparing(Entry::getId));
+        marketBasedLadder = new TreeSet<>(Comparator.comparingDouble(Entry::getMarketPriceMargin)
+                .thenComparing(Entry::getId));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Update
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public boolean add(Offer offer) {
+        if (entryByOfferId.containsKey(offer.getId()))
+            return false;
+
+        Entry entry = new Entry(offer);
+        entryByOfferId.put(entry.getId(), entry);
+        getLadder(offer).add(entry);
+        dirty = true;
+        return true;
+    }
+
+    public boolean remove(String offerId) {
+        Entry entry = entryByOfferId.remove(offerId);
+        if (entry == null)
+            return false;
+
+        getLadder(entry.offer).remove(entry);
+        dirty = true;
+        return true;
+    }
+
+    public void clear() {
+        entryByOfferId.clear();
+        fixedPriceLadder.clear();
+        marketBasedLadder.clear();
+        dirty = true;
+    }
+
+    /**
+     * @param marketPrice The market price or 0 if no valid market price is available. In the latter case market
+     *                    based offers are not part of the order book.
+     */
+    void setMarketPrice(double marketPrice) {
+        if (this.marketPrice != marketPrice) {
+            this.marketPrice = marketPrice;
+            if (!marketBasedLadder.isEmpty())
+                dirty = true;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Getters
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public boolean contains(String offerId) {
+        return entryByOfferId.containsKey(offerId);
+    }
+
+    /**
+     * @return Number of offers with a known price (excludes market based offers if we don't have a market price)
+     */
+    public int size() {
+        maybeRebuild();
+        return offers.length;
+    }
+
+    /**
+     * @return Offers with a known price ordered from the best to the worst price.
+     */
+    public List<Offer> getOffers() {
+        maybeRebuild();
+        return Collections.unmodifiableList(Arrays.asList(offers));
+    }
+
+    public Offer getOfferAt(int index) {
+        maybeRebuild();
+        return offers[index];
+    }
+
+    public long getPriceAt(int index) {
+        maybeRebuild();
+        return prices[index];
+    }
+
+    /**
+     * @return Sum of the amounts of the offers from the best price up to the offer at the given index (inclusive).
+     */
+    public long getCumulativeAmountAt(int index) {
+        maybeRebuild();
+        return cumulativeAmounts[index];
+    }
+
+    @Nullable
+    public Price getBestPrice() {
+        maybeRebuild();
+        return prices.length > 0 ? Price.valueOf(currencyCode, prices[0]) : null;
+    }
+
+    @Nullable
+    public Offer getBestOffer() {
+        maybeRebuild();
+        return offers.length > 0 ? offers[0] : null;
+    }
+
+    /**
+     * @return Number of offers with a price at or better than the given price.
+     */
+    public int getNumOffersAtOrBetter(long price) {
+        maybeRebuild();
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isAtOrBetter(prices[mid], price))
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * @return Accumulated amount of all offers with a price at or better than the given price.
+     */
+    public long getCumulativeAmount(long price) {
+        int numOffers = getNumOffersAtOrBetter(price);
+        return numOffers > 0 ? cumulativeAmounts[numOffers - 1] : 0;
+    }
+
+    public long getTotalAmount() {
+        maybeRebuild();
+        return cumulativeAmounts.length > 0 ? cumulativeAmounts[cumulativeAmounts.length - 1] : 0;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private TreeSet<Entry> getLadder(Offer offer) {
+        return offer.isUseMarketBasedPrice() ? marketBasedLadder : fixedPriceLadder;
+    }
+
+    private boolean isAtOrBetter(long price, long reference) {
+        return isHigherPriceBetter ? price >= reference : price <= reference;
+    }
+
+    private void maybeRebuild() {
+        if (!dirty)
+            return;
+
+        int size = fixedPriceLadder.size() + (marketPrice > 0 ? marketBasedLadder.size() : 0);
+        Offer[] offers = new Offer[size];
+        long[] prices = new long[size];
+        long[] cumulativeAmounts = new long[size];
+
+        Iterator<Entry> fixedIterator = fixedPriceLadder.iterator();
+        Iterator<Entry> marketBasedIterator = marketPrice > 0 ? marketBasedLadder.iterator() :
+                Collections.emptyIterator();
+        Entry fixed = fixedIterator.hasNext() ? fixedIterator.next() : null;
+        Entry marketBased = marketBasedIterator.hasNext() ? marketBasedIterator.next() : null;
+        long marketBasedPrice = marketBased != null ? getMarketBasedPrice(marketBased) : 0;
+        long accumulatedAmount = 0;
+        int index = 0;
+        while (fixed != null || marketBased != null) {
+            Entry next;
+            long price;
+            if (marketBased == null || (fixed != null && isAtOrBetter(fixed.getFixedPrice(), marketBasedPrice))) {
+                next = fixed;
+                price = fixed.getFixedPrice();
+                fixed = fixedIterator.hasNext() ? fixedIterator.next() : null;
+            } else {
+                next = marketBased;
+                price = marketBasedPrice;
+                marketBased = marketBasedIterator.hasNext() ? marketBasedIterator.next() : null;
+                marketBasedPrice = marketBased != null ? getMarketBasedPrice(marketBased) : 0;
+            }
+            accumulatedAmount += next.amount;
+            offers[index] = next.offer;
+            prices[index] = price;
+            cumulativeAmounts[index] = accumulatedAmount;
+            index++;
+        }
+
+        this.offers = offers;
+        this.prices = prices;
+        this.cumulativeAmounts = cumulativeAmounts;
+        dirty = false;
+    }
+
+    private long getMarketBasedPrice(Entry entry) {
+        return Offer.getMarketBasedPriceAsLong(isCryptoCurrency, direction, entry.getMarketPriceMargin(), marketPrice);
+    }
+}
@@ -24,6 +24,7 @@ import io.bisq.generated.protobuffer.PB;
 import io.bisq.network.p2p.CloseConnectionMessage;
 import io.bisq.network.p2p.PrefixedSealedAndSignedMessage;
 import io.bisq.network.p2p.peers.getdata.messages.GetDataResponse;
+import io.bisq.network.p2p.peers.getdata.messages.GetDataResponseChunk;
 import io.bisq.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
 import io.bisq.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
 import io.bisq.network.p2p.peers.keepalive.messages.Ping;
@@ -57,6 +58,8 @@ public class CoreNetworkProtoResolver extends CoreProtoResolver implements Netwo
                     return PreliminaryGetDataRequest.fromProto(proto.getPreliminaryGetDataRequest(), messageVersion);
                 case GET_DATA_RESPONSE:
                     return GetDataResponse.fromProto(proto.getGetDataResponse(), this, messageVersion);
+                case GET_DATA_RESPONSE_CHUNK:
+                    return GetDataResponseChunk.fromProto(proto.getGetDataResponseChunk(), this, messageVersion);
                 case GET_UPDATED_DATA_REQUEST:
                     return GetUpdatedDataRequest.fromProto(proto.getGetUpdatedDataRequest(), messageVersion);
 
@@ -51,6 +51,9 @@ public class PriceFeedService {
     private final Preferences preferences;
 
     private static final long PERIOD_SEC = 60;
+    // With long polling the response arrives when the provider has new prices. We limit the request rate as the
+    // provider updates its prices from several sources independently.
+    private static final long LONG_POLL_MIN_INTERVAL_SEC = 30;
 
     private final Map<String, MarketPrice> cache = new HashMap<>();
     private final String baseCurrencyCode;
@@ -64,6 +67,8 @@ public class PriceFeedService {
     private Map<String, Long> timeStampMap = new HashMap<>();
     private int retryCounter = 0;
     private int retryDelay = 1;
+    // Version of the prices of the current provider. -1 if not known or if the provider does not support long polling.
+    private long priceVersion = -1;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -109,13 +114,22 @@ public class PriceFeedService {
     }
 
     private void request() {
-        requestAllPrices(priceProvider, () -> {
+        requestAllPrices(priceProvider, priceVersion, () -> {
             applyPriceToConsumer();
-            // after first response we know the providers timestamp and want to request quickly after next expected update
-            long delay = Math.max(40, Math.min(90, PERIOD_SEC - (Instant.now().getEpochSecond() - epochInSecondAtLastRequest) + 2 + new Random().nextInt(5)));
+            long delay;
+            if (priceVersion >= 0) {
+                // The provider supports long polling, so our next request returns as soon as there are new prices.
+                delay = LONG_POLL_MIN_INTERVAL_SEC;
+            } else {
+                // after first response we know the providers timestamp and want to request quickly after next expected update
+                delay = Math.max(40, Math.min(90, PERIOD_SEC - (Instant.now().getEpochSecond() - epochInSecondAtLastRequest) + 2 + new Random().nextInt(5)));
+            }
             UserThread.runAfter(this::request, delay);
             retryDelay = 1;
         }, (errorMessage, throwable) -> {
+            // We fall back to a regular request. If that delivers a version we continue with long polling.
+            priceVersion = -1;
+
             // Try other provider if more then 1 is available
             if (providersRepository.hasMoreProviders()) {
                 providersRepository.setNewRandomBaseUrl();
@@ -213,10 +227,10 @@ public class PriceFeedService {
         updateCounter.set(updateCounter.get() + 1);
     }
 
-    private void requestAllPrices(PriceProvider provider, Runnable resultHandler, FaultHandler faultHandler) {
+    private void requestAllPrices(PriceProvider provider, long version, Runnable resultHandler, FaultHandler faultHandler) {
         Log.traceCall();
         PriceRequest priceRequest = new PriceRequest();
-        SettableFuture<Tuple2<Map<String, Long>, Map<String, MarketPrice>>> future = priceRequest.requestAllPrices(provider);
+        SettableFuture<Tuple2<Map<String, Long>, Map<String, MarketPrice>>> future = priceRequest.requestAllPrices(provider, version);
         Futures.addCallback(future, new FutureCallback<Tuple2<Map<String, Long>, Map<String, MarketPrice>>>() {
             @Override
             public void onSuccess(@Nullable Tuple2<Map<String, Long>, Map<String, MarketPrice>> result) {
@@ -224,6 +238,8 @@ public class PriceFeedService {
                     checkNotNull(result, "Result must not be null at requestAllPrices");
                     timeStampMap = result.first;
                     epochInSecondAtLastRequest = timeStampMap.get("btcAverageTs");
+                    Long version = timeStampMap.get("version");
+                    priceVersion = version != null ? version : -1;
                     final Map<String, MarketPrice> priceMap = result.second;
                     switch (baseCurrencyCode) {
                         case "BTC":
@@ -33,6 +33,8 @@ import java.util.Map;
 
 @Slf4j
 public class PriceProvider extends HttpClientProvider {
+    // Must be larger than the time the provider holds back a long poll request
+    private static final int LONG_POLL_TIMEOUT_MS = 90_000;
 
     // Do not use Guice here as we might create multiple instances
     public PriceProvider(HttpClient httpClient, String baseUrl) {
@@ -40,15 +42,30 @@ public class PriceProvider extends HttpClientProvider {
     }
 
     public Tuple2<Map<String, Long>, Map<String, MarketPrice>> getAll() throws IOException {
+        return parse(httpClient.requestWithGET("getAllMarketPrices", "User-Agent", "bisq/"
+                + Version.VERSION + ", uid:" + httpClient.getUid()));
+    }
+
+    /**
+     * Long polling request. The provider holds back the response until it has prices with a higher version than
+     * the given one or a timeout on the provider side is reached.
+     */
+    public Tuple2<Map<String, Long>, Map<String, MarketPrice>> getAllAfterVersion(long version) throws IOException {
+        return parse(httpClient.requestWithGET("getAllMarketPricesAfterVersion/" + version, "User-Agent", "bisq/"
+                + Version.VERSION + ", uid:" + httpClient.getUid(), LONG_POLL_TIMEOUT_MS));
+    }
+
+    private Tuple2<Map<String, Long>, Map<String, MarketPrice>> parse(String json) {
         Map<String, MarketPrice> marketPriceMap = new HashMap<>();
-        String json = httpClient.requestWithGET("getAllMarketPrices", "User-Agent", "bisq/"
-                + Version.VERSION + ", uid:" + httpClient.getUid());
         //noinspection unchecked
         LinkedTreeMap<String, Object> map = new Gson().fromJson(json, LinkedTreeMap.class);
         Map<String, Long> tsMap = new HashMap<>();
         tsMap.put("btcAverageTs", ((Double) map.get("btcAverageTs")).longValue());
         tsMap.put("poloniexTs", ((Double) map.get("poloniexTs")).longValue());
         tsMap.put("coinmarketcapTs", ((Double) map.get("coinmarketcapTs")).longValue());
+        // Only providers supporting long polling deliver a version
+        if (map.get("version") != null)
+            tsMap.put("version", ((Double) map.get("version")).longValue());
 
         //noinspection unchecked
         List<LinkedTreeMap<String, Object>> list = (ArrayList<LinkedTreeMap<String, Object>>) map.get("data");
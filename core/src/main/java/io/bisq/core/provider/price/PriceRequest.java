@@ -32,10 +32,19 @@ public class PriceRequest {
     }
 
     public SettableFuture<Tuple2<Map<String, Long>, Map<String, MarketPrice>>> requestAllPrices(PriceProvider provider) {
+        return requestAllPrices(provider, -1);
+    }
+
+    /**
+     * @param version If not negative we use long polling and the provider responds once it has prices with a
+     *                higher version.
+     */
+    public SettableFuture<Tuple2<Map<String, Long>, Map<String, MarketPrice>>> requestAllPrices(PriceProvider provider,
+                                                                                                 long version) {
         final SettableFuture<Tuple2<Map<String, Long>, Map<String, MarketPrice>>> resultFuture = SettableFuture.create();
         ListenableFuture<Tuple2<Map<String, Long>, Map<String, MarketPrice>>> future = executorService.submit(() -> {
             Thread.currentThread().setName("PriceRequest-" + provider.toString());
-            return provider.getAll();
+            return version >= 0 ? provider.getAllAfterVersion(version) : provider.getAll();
         });
 
         Futures.addCallback(future, new FutureCallback<Tuple2<Map<String, Long>, Map<String, MarketPrice>>>() {
@@ -555,7 +555,7 @@ public abstract class Trade implements Tradable, Model {
     // Model implementation
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    // Get called from taskRunner after each completed task
+    // Get called from taskRunner at the end of a task chain and after tasks which sign or publish a transaction
     @Override
     public void persist() {
         if (storage != null)
@@ -222,6 +222,14 @@ public class TradeManager implements PersistedDataHost {
 
         cleanUpAddressEntries();
 
+        // The next protocol message to the trading peer does not need to wait for the connection setup
+        tradableList.stream()
+                .filter(trade -> trade.isDepositPublished() && !trade.isPayoutPublished())
+                .map(Trade::getTradingPeerNodeAddress)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(p2PService::preConnect);
+
         // We start later to have better connectivity to the network
         UserThread.runAfter(() -> publishTradeStatistics(tradesForStatistics),
                 90, TimeUnit.SECONDS);
@@ -39,6 +39,11 @@ public class BuyerAsMakerSignPayoutTx extends TradeTask {
         super(taskHandler, trade);
     }
 
+    @Override
+    protected boolean requiresFlush() {
+        return true;
+    }
+
     @Override
     protected void run() {
         try {
@@ -48,6 +48,11 @@ public class BuyerAsTakerSignAndPublishDepositTx extends TradeTask {
         super(taskHandler, trade);
     }
 
+    @Override
+    protected boolean requiresFlush() {
+        return true;
+    }
+
     @Override
     protected void run() {
         try {
@@ -32,6 +32,11 @@ public class MakerVerifyArbitratorSelection extends TradeTask {
         super(taskHandler, trade);
     }
 
+    @Override
+    protected boolean changesModel() {
+        return false;
+    }
+
     @Override
     protected void run() {
         try {
@@ -30,6 +30,11 @@ public class MakerVerifyTakerFeePayment extends TradeTask {
         super(taskHandler, trade);
     }
 
+    @Override
+    protected boolean changesModel() {
+        return false;
+    }
+
     @Override
     protected void run() {
         try {
@@ -37,6 +37,11 @@ public class SellerBroadcastPayoutTx extends TradeTask {
         super(taskHandler, trade);
     }
 
+    @Override
+    protected boolean requiresFlush() {
+        return true;
+    }
+
     @Override
     protected void run() {
         try {
@@ -43,6 +43,11 @@ public class SellerSignAndFinalizePayoutTx extends TradeTask {
         super(taskHandler, trade);
     }
 
+    @Override
+    protected boolean requiresFlush() {
+        return true;
+    }
+
     @Override
     protected void run() {
         try {
@@ -45,6 +45,11 @@ public class SellerAsMakerCreatesAndSignsDepositTx extends TradeTask {
         super(taskHandler, trade);
     }
 
+    @Override
+    protected boolean requiresFlush() {
+        return true;
+    }
+
     @Override
     protected void run() {
         try {
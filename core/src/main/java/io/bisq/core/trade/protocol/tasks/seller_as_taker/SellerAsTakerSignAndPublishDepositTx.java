@@ -47,6 +47,11 @@ public class SellerAsTakerSignAndPublishDepositTx extends TradeTask {
         super(taskHandler, trade);
     }
 
+    @Override
+    protected boolean requiresFlush() {
+        return true;
+    }
+
     @Override
     protected void run() {
         try {
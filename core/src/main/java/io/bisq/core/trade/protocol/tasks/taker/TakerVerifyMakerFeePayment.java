@@ -29,6 +29,11 @@ public class TakerVerifyMakerFeePayment extends TradeTask {
         super(taskHandler, trade);
     }
 
+    @Override
+    protected boolean changesModel() {
+        return false;
+    }
+
     @Override
     protected void run() {
         try {
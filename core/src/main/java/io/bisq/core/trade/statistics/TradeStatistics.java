@@ -10,6 +10,7 @@ import io.bisq.common.monetary.Volume;
 import io.bisq.common.util.JsonExclude;
 import io.bisq.core.offer.OfferPayload;
 import io.bisq.generated.protobuffer.PB;
+import io.bisq.network.p2p.storage.payload.ImmutableStoragePayload;
 import io.bisq.network.p2p.storage.payload.LazyProcessedStoragePayload;
 import io.bisq.network.p2p.storage.payload.PersistedStoragePayload;
 import lombok.EqualsAndHashCode;
@@ -34,7 +35,8 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 @EqualsAndHashCode(exclude = {"signaturePubKeyBytes", "signaturePubKey"})
 @Value
-public final class TradeStatistics implements LazyProcessedStoragePayload, PersistedStoragePayload {
+public final class TradeStatistics implements LazyProcessedStoragePayload, PersistedStoragePayload,
+        ImmutableStoragePayload {
     private final OfferPayload.Direction direction;
     private final String baseCurrency;
     private final String counterCurrency;
@@ -0,0 +1,122 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.core.btc;
+
+import io.bisq.common.storage.Storage;
+import io.bisq.core.app.BisqEnvironment;
+import io.bisq.generated.protobuffer.PB;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.wallet.Wallet;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AddressEntryListTest {
+    private Wallet wallet;
+    private AddressEntryList addressEntryList;
+
+    @Before
+    public void setup() {
+        NetworkParameters params = BisqEnvironment.getParameters();
+        Context.propagate(new Context(params));
+        wallet = new Wallet(params);
+        // Not initialized, so persist does not write
+        addressEntryList = new AddressEntryList(new Storage<>(null, null));
+        addressEntryList.onWalletReady(wallet);
+    }
+
+    @Test
+    public void testAdd() {
+        List<AddressEntry> listBeforeAdd = addressEntryList.getList();
+        AddressEntry entry = addressEntryList.addAddressEntry(newEntry(AddressEntry.Context.OFFER_FUNDING, "offer1"));
+
+        assertSame(entry, addressEntryList.getAddressEntry("offer1", AddressEntry.Context.OFFER_FUNDING).get());
+        assertFalse(addressEntryList.getAddressEntry("offer1", AddressEntry.Context.RESERVED_FOR_TRADE).isPresent());
+        assertEquals(Collections.singletonList(entry),
+                addressEntryList.getAddressEntries(AddressEntry.Context.OFFER_FUNDING));
+        assertEquals(Collections.singletonList(entry),
+                addressEntryList.getAddressEntriesByAddress(entry.getAddressString()));
+        assertEquals(2, addressEntryList.getList().size());
+        assertTrue(addressEntryList.getList().contains(entry));
+
+        // A list returned before the change is not affected
+        assertEquals(1, listBeforeAdd.size());
+    }
+
+    @Test
+    public void testSwapToAvailable() {
+        AddressEntry entry = addressEntryList.addAddressEntry(newEntry(AddressEntry.Context.OFFER_FUNDING, "offer1"));
+        addressEntryList.swapToAvailable(entry);
+
+        assertFalse(addressEntryList.getAddressEntry("offer1", AddressEntry.Context.OFFER_FUNDING).isPresent());
+        assertTrue(addressEntryList.getAddressEntries(AddressEntry.Context.OFFER_FUNDING).isEmpty());
+        List<AddressEntry> availableEntries = addressEntryList.getAddressEntries(AddressEntry.Context.AVAILABLE);
+        assertEquals(1, availableEntries.size());
+        AddressEntry availableEntry = availableEntries.get(0);
+        assertEquals(entry.getAddressString(), availableEntry.getAddressString());
+        assertNull(availableEntry.getOfferId());
+        // Only the new entry is found by the address
+        assertEquals(Collections.singletonList(availableEntry),
+                addressEntryList.getAddressEntriesByAddress(entry.getAddressString()));
+        assertEquals(2, addressEntryList.getList().size());
+    }
+
+    @Test
+    public void testResetTradeEntries() {
+        AddressEntry fundingEntry = addressEntryList.addAddressEntry(newEntry(AddressEntry.Context.OFFER_FUNDING, "offer1"));
+        AddressEntry multiSigEntry = addressEntryList.addAddressEntry(newEntry(AddressEntry.Context.MULTI_SIG, "offer2"));
+
+        addressEntryList.swapTradeToSavings("offer1");
+
+        assertFalse(addressEntryList.getAddressEntry("offer1", AddressEntry.Context.OFFER_FUNDING).isPresent());
+        // Entries of other offers are not affected
+        assertSame(multiSigEntry, addressEntryList.getAddressEntry("offer2", AddressEntry.Context.MULTI_SIG).get());
+        assertEquals(AddressEntry.Context.AVAILABLE,
+                addressEntryList.getAddressEntriesByAddress(fundingEntry.getAddressString()).get(0).getContext());
+
+        // Nothing left to reset
+        addressEntryList.swapTradeToSavings("offer1");
+        assertEquals(1, addressEntryList.getAddressEntries(AddressEntry.Context.AVAILABLE).size());
+        assertEquals(3, addressEntryList.getList().size());
+    }
+
+    @Test
+    public void testAddressesAreIndexedAtWalletReady() {
+        AddressEntry entry = addressEntryList.addAddressEntry(newEntry(AddressEntry.Context.OFFER_FUNDING, "offer1"));
+        PB.AddressEntryList proto = ((PB.PersistableEnvelope) addressEntryList.toProtoMessage()).getAddressEntryList();
+
+        // The persisted entries don't have the keys before the wallet is ready
+        AddressEntryList persisted = AddressEntryList.fromProto(proto);
+        assertTrue(persisted.getAddressEntriesByAddress(entry.getAddressString()).isEmpty());
+        assertTrue(persisted.getAddressEntry("offer1", AddressEntry.Context.OFFER_FUNDING).isPresent());
+
+        persisted.onWalletReady(wallet);
+        List<AddressEntry> entries = persisted.getAddressEntriesByAddress(entry.getAddressString());
+        assertEquals(1, entries.size());
+        assertEquals("offer1", entries.get(0).getOfferId());
+    }
+
+    private AddressEntry newEntry(AddressEntry.Context context, String offerId) {
+        return new AddressEntry(wallet.freshReceiveKey(), context, offerId);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.core.btc.wallet;
+
+import io.bisq.core.app.BisqEnvironment;
+import org.bitcoinj.core.*;
+import org.bitcoinj.testing.FakeTxBuilder;
+import org.bitcoinj.wallet.Wallet;
+import org.bitcoinj.wallet.WalletTransaction;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WalletAddressIndexTest {
+    private static final Logger log = LoggerFactory.getLogger(WalletAddressIndexTest.class);
+
+    private static final int NUM_ADDRESSES = 10;
+    private static final int NUM_TXS = 100;
+    private static final int NUM_BENCHMARK_ADDRESSES = 1000;
+    private static final int NUM_BENCHMARK_TXS = 10_000;
+
+    private NetworkParameters params;
+    private Wallet wallet;
+    private List<Address> addresses;
+
+    @Before
+    public void setup() {
+        params = BisqEnvironment.getParameters();
+        Context.propagate(new Context(params));
+    }
+
+    private void createWallet(int numAddresses, int numTxs) {
+        wallet = new Wallet(params);
+        addresses = new ArrayList<>();
+        for (int i = 0; i < numAddresses; i++)
+            addresses.add(wallet.freshReceiveKey().toAddress(params));
+
+        for (int i = 0; i < numTxs; i++) {
+            Transaction tx = FakeTxBuilder.createFakeTx(params, Coin.valueOf(100_000 + i), addresses.get(i % numAddresses));
+            wallet.addWalletTransaction(new WalletTransaction(WalletTransaction.Pool.UNSPENT, tx));
+        }
+    }
+
+    @Test
+    public void testLookupsMatchWalletScan() {
+        createWallet(NUM_ADDRESSES, NUM_TXS);
+        WalletAddressIndex index = new WalletAddressIndex(wallet);
+        for (int i = 0; i < NUM_ADDRESSES; i++) {
+            Address address = addresses.get(i);
+            assertEquals(getBalanceByScan(address), index.getBalance(address));
+            assertEquals(NUM_TXS / NUM_ADDRESSES, index.getNumTxOutputs(address));
+            assertEquals(NUM_TXS / NUM_ADDRESSES, index.getTransactions(address).size());
+        }
+        index.shutDown();
+    }
+
+    @Test
+    public void testIndexIsUpdatedAtWalletEvents() {
+        createWallet(NUM_ADDRESSES, NUM_TXS);
+        WalletAddressIndex index = new WalletAddressIndex(wallet);
+        Address address = addresses.get(0);
+        Coin balance = index.getBalance(address);
+
+        Transaction tx = FakeTxBuilder.createFakeTx(params, Coin.COIN, address);
+        wallet.receivePending(tx, null);
+
+        assertEquals(balance.add(Coin.COIN), index.getBalance(address));
+        assertEquals(NUM_TXS / NUM_ADDRESSES + 1, index.getNumTxOutputs(address));
+        assertTrue(index.getTransactions(address).contains(tx));
+        index.shutDown();
+    }
+
+    @Ignore("Benchmark, run it manually")
+    @Test
+    public void testBenchmarkLookups() {
+        createWallet(NUM_BENCHMARK_ADDRESSES, NUM_BENCHMARK_TXS);
+        long ts = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++)
+            getBalanceByScan(addresses.get(i));
+        long scanDuration = System.currentTimeMillis() - ts;
+
+        WalletAddressIndex index = new WalletAddressIndex(wallet);
+        ts = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++)
+            index.getBalance(addresses.get(i));
+        long indexDuration = System.currentTimeMillis() - ts;
+
+        // Each new transaction invalidates the balances, so we measure the recalculation as well
+        ts = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++) {
+            wallet.receivePending(FakeTxBuilder.createFakeTx(params, Coin.COIN, addresses.get(i)), null);
+            for (int j = 0; j < 100; j++)
+                index.getBalance(addresses.get(j));
+        }
+        long updateDuration = System.currentTimeMillis() - ts;
+        index.shutDown();
+
+        log.info("Balance of 100 addresses in a wallet with {} txs: wallet scan took {} ms, index took {} ms. " +
+                "100 rounds of a new tx followed by 100 lookups took {} ms", NUM_BENCHMARK_TXS, scanDuration, indexDuration, updateDuration);
+    }
+
+    // The previous implementation of WalletService.getBalanceForAddress
+    private Coin getBalanceByScan(Address address) {
+        Coin balance = Coin.ZERO;
+        for (TransactionOutput output : wallet.calculateAllSpendCandidates()) {
+            if (address.equals(WalletService.getAddressFromOutput(output)))
+                balance = balance.add(output.getValue());
+        }
+        return balance;
+    }
+}
@@ -17,8 +17,13 @@
 
 package io.bisq.core.dao.blockchain.parse;
 
+import com.google.common.io.Files;
+import io.bisq.core.dao.blockchain.exceptions.BlockNotConnectingException;
+import io.bisq.core.dao.blockchain.vo.*;
 import org.junit.Test;
 
+import java.util.ArrayList;
+
 import static org.junit.Assert.*;
 
 public class BsqChainStateTest {
@@ -52,4 +57,27 @@ public class BsqChainStateTest {
         assertFalse(BsqChainState.isSnapshotHeight(102, 201, 10));
         assertFalse(BsqChainState.isSnapshotHeight(102, 199, 10));
     }
+
+    @Test
+    public void testSpendableTxOutputsAfterAddBlock() throws BlockNotConnectingException {
+        BsqChainState bsqChainState = new BsqChainState(null, Files.createTempDir());
+        TxOutput txOutput = new TxOutput(new TxOutputVo(0, 1000, "tx1", null, null, null, 1));
+        txOutput.setVerified(true);
+        bsqChainState.addUnspentTxOutput(txOutput);
+
+        SpendableTxOutputs snapshot = bsqChainState.getSpendableTxOutputs();
+        assertTrue(snapshot.contains("tx1", 0));
+        assertSame(snapshot, bsqChainState.getSpendableTxOutputs());
+
+        // The maturity of the outputs depends on the chain height, so a new block must not return the old snapshot
+        bsqChainState.addBlock(new BsqBlock(new BsqBlockVo(1, "block1", "block0"), new ArrayList<>()));
+        assertEquals(1, bsqChainState.getChainHeadHeight());
+        SpendableTxOutputs snapshotAfterAddBlock = bsqChainState.getSpendableTxOutputs();
+        assertNotSame(snapshot, snapshotAfterAddBlock);
+        assertTrue(snapshotAfterAddBlock.contains("tx1", 0));
+        assertEquals(1, snapshotAfterAddBlock.size());
+
+        bsqChainState.removeUnspentTxOutput(txOutput);
+        assertFalse(bsqChainState.getSpendableTxOutputs().contains("tx1", 0));
+    }
 }
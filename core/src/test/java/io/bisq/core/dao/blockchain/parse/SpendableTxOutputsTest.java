@@ -0,0 +1,47 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.core.dao.blockchain.parse;
+
+import io.bisq.core.dao.blockchain.vo.TxIdIndexTuple;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpendableTxOutputsTest {
+
+    @Test
+    public void testContains() {
+        SpendableTxOutputs spendableTxOutputs = new SpendableTxOutputs.Builder()
+                .add(new TxIdIndexTuple("tx1", 0))
+                .add(new TxIdIndexTuple("tx1", 70))
+                .add(new TxIdIndexTuple("tx2", 1))
+                .add(new TxIdIndexTuple("tx2", 1))
+                .build();
+
+        assertEquals(3, spendableTxOutputs.size());
+        assertTrue(spendableTxOutputs.contains("tx1", 0));
+        assertTrue(spendableTxOutputs.contains("tx1", 70));
+        assertTrue(spendableTxOutputs.contains("tx2", 1));
+        assertFalse(spendableTxOutputs.contains("tx1", 1));
+        assertFalse(spendableTxOutputs.contains("tx2", 0));
+        assertFalse(spendableTxOutputs.contains("tx2", -1));
+        assertFalse(spendableTxOutputs.contains("tx3", 0));
+    }
+}
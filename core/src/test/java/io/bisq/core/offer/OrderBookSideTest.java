@@ -0,0 +1,165 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.core.offer;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OrderBookSideTest {
+    private static final Logger log = LoggerFactory.getLogger(OrderBookSideTest.class);
+
+    @Test
+    public void testFiatBuySideIsSortedFromHighestPrice() {
+        OrderBookSide side = new OrderBookSide("EUR", OfferPayload.Direction.BUY);
+        side.add(getFixedPriceOffer("1", OfferPayload.Direction.BUY, 20000000, 100));
+        side.add(getFixedPriceOffer("2", OfferPayload.Direction.BUY, 30000000, 200));
+        side.add(getFixedPriceOffer("3", OfferPayload.Direction.BUY, 25000000, 300));
+
+        assertEquals(3, side.size());
+        assertEquals("2", side.getBestOffer().getId());
+        assertEquals(30000000, side.getPriceAt(0));
+        assertEquals(25000000, side.getPriceAt(1));
+        assertEquals(20000000, side.getPriceAt(2));
+        assertEquals(600, side.getTotalAmount());
+        assertEquals(500, side.getCumulativeAmount(25000000));
+        assertEquals(0, side.getCumulativeAmount(30000001));
+        assertEquals(600, side.getCumulativeAmount(1));
+
+        assertTrue(side.remove("2"));
+        assertFalse(side.remove("2"));
+        assertEquals("3", side.getBestOffer().getId());
+        assertEquals(400, side.getTotalAmount());
+    }
+
+    @Test
+    public void testFiatSellSideIsSortedFromLowestPrice() {
+        OrderBookSide side = new OrderBookSide("EUR", OfferPayload.Direction.SELL);
+        side.add(getFixedPriceOffer("1", OfferPayload.Direction.SELL, 20000000, 100));
+        side.add(getFixedPriceOffer("2", OfferPayload.Direction.SELL, 30000000, 200));
+
+        assertEquals("1", side.getBestOffer().getId());
+        assertEquals(100, side.getCumulativeAmount(29999999));
+        assertEquals(300, side.getCumulativeAmount(30000000));
+    }
+
+    @Test
+    public void testMarketBasedOffersAreRepricedAtMarketPriceChange() {
+        OrderBookSide side = new OrderBookSide("EUR", OfferPayload.Direction.SELL);
+        side.add(getFixedPriceOffer("fixed", OfferPayload.Direction.SELL, 20500000, 100));
+        side.add(getMarketBasedOffer("margin1", OfferPayload.Direction.SELL, 0.01, 200));
+        side.add(getMarketBasedOffer("margin5", OfferPayload.Direction.SELL, 0.05, 300));
+
+        // Without market price only the fixed price offer has a price
+        assertEquals(1, side.size());
+
+        side.setMarketPrice(2000);
+        assertEquals(3, side.size());
+        assertEquals("margin1", side.getOfferAt(0).getId());
+        assertEquals(20200000, side.getPriceAt(0));
+        assertEquals("fixed", side.getOfferAt(1).getId());
+        assertEquals("margin5", side.getOfferAt(2).getId());
+        assertEquals(21000000, side.getPriceAt(2));
+
+        side.setMarketPrice(1900);
+        assertEquals("margin1", side.getOfferAt(0).getId());
+        assertEquals("margin5", side.getOfferAt(1).getId());
+        assertEquals("fixed", side.getOfferAt(2).getId());
+        assertEquals(500, side.getCumulativeAmount(19950000));
+    }
+
+    @Ignore("Benchmark, run it manually")
+    @Test
+    public void testRepriceTenThousandOffers() {
+        OrderBookSide side = new OrderBookSide("EUR", OfferPayload.Direction.BUY);
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            if (i % 2 == 0)
+                side.add(getFixedPriceOffer(String.valueOf(i), OfferPayload.Direction.BUY,
+                        15000000 + random.nextInt(10000000), 1 + random.nextInt(100000000)));
+            else
+                side.add(getMarketBasedOffer(String.valueOf(i), OfferPayload.Direction.BUY,
+                        (random.nextInt(2000) - 1000) / 10000d, 1 + random.nextInt(100000000)));
+        }
+
+        long ts = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++) {
+            side.setMarketPrice(2000 + i);
+            assertEquals(10000, side.size());
+        }
+        log.info("Re-pricing 10000 offers 100 times took {} ms", System.currentTimeMillis() - ts);
+
+        for (int i = 1; i < side.size(); i++)
+            assertTrue(side.getPriceAt(i - 1) >= side.getPriceAt(i));
+    }
+
+    private Offer getFixedPriceOffer(String id, OfferPayload.Direction direction, long price, long amount) {
+        return getOffer(id, direction, price, 0, false, amount);
+    }
+
+    private Offer getMarketBasedOffer(String id, OfferPayload.Direction direction, double marketPriceMargin, long amount) {
+        return getOffer(id, direction, 0, marketPriceMargin, true, amount);
+    }
+
+    private Offer getOffer(String id, OfferPayload.Direction direction, long price, double marketPriceMargin,
+                           boolean useMarketBasedPrice, long amount) {
+        return new Offer(new OfferPayload(id,
+                0,
+                null,
+                null,
+                direction,
+                price,
+                marketPriceMargin,
+                useMarketBasedPrice,
+                amount,
+                amount,
+                "BTC",
+                "EUR",
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                0,
+                0,
+                0,
+                false,
+                0,
+                0,
+                0,
+                0,
+                false,
+                false,
+                0,
+                0,
+                false,
+                null,
+                null,
+                1));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.core.provider.price;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.bisq.common.FrameRateTimer;
+import io.bisq.common.Timer;
+import io.bisq.common.UserThread;
+import io.bisq.core.provider.ProvidersRepository;
+import io.bisq.network.http.HttpClient;
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.VerificationsInOrder;
+import mockit.integration.junit4.JMockit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(JMockit.class)
+public class PriceFeedServiceTest {
+    private static final String PRICES_JSON = "{\"btcAverageTs\": 1497000000, \"poloniexTs\": 1497000000, " +
+            "\"coinmarketcapTs\": 1497000000, \"version\": 5, " +
+            "\"data\": [{\"currencyCode\": \"USD\", \"price\": 2500.5, \"timestampSec\": 1497000000}]}";
+
+    @Mocked
+    HttpClient httpClient;
+    @Mocked
+    ProvidersRepository providersRepository;
+
+    @Before
+    public void setUp() {
+        UserThread.setExecutor(MoreExecutors.directExecutor());
+        // We run the scheduled requests manually
+        UserThread.setTimerClass(ScheduledRequest.class);
+        ScheduledRequest.scheduledRequests.clear();
+    }
+
+    @After
+    public void tearDown() {
+        UserThread.setTimerClass(FrameRateTimer.class);
+    }
+
+    @Test
+    public void testFallbackToRegularRequestAfterFailedLongPoll() throws Exception {
+        new Expectations() {{
+            providersRepository.getBaseUrl();
+            result = "http://localhost/";
+            minTimes = 0;
+            providersRepository.hasMoreProviders();
+            result = false;
+            minTimes = 0;
+            httpClient.requestWithGET(withEqual("getAllMarketPrices"), anyString, anyString);
+            result = PRICES_JSON;
+            httpClient.requestWithGET(withEqual("getAllMarketPricesAfterVersion/5"), anyString, anyString, anyInt);
+            result = new IOException("Connection reset");
+        }};
+
+        List<String> faults = new CopyOnWriteArrayList<>();
+        PriceFeedService priceFeedService = new PriceFeedService(httpClient, providersRepository, null);
+        priceFeedService.requestPriceFeed(price -> {
+        }, (errorMessage, throwable) -> faults.add(errorMessage));
+
+        // The provider delivered a version, so the next request is a long poll
+        ScheduledRequest longPoll = ScheduledRequest.next();
+        assertEquals(Duration.ofSeconds(30), longPoll.delay);
+        assertEquals(2500.5, priceFeedService.getMarketPrice("USD").getPrice(), 0);
+        longPoll.action.run();
+
+        // The long poll fails and the retry is a regular request
+        ScheduledRequest retry = ScheduledRequest.next();
+        retry.action.run();
+        ScheduledRequest.next();
+        assertEquals(1, faults.size());
+
+        new VerificationsInOrder() {{
+            httpClient.requestWithGET(withEqual("getAllMarketPrices"), anyString, anyString);
+            httpClient.requestWithGET(withEqual("getAllMarketPricesAfterVersion/5"), anyString, anyString, anyInt);
+            httpClient.requestWithGET(withEqual("getAllMarketPrices"), anyString, anyString);
+        }};
+    }
+
+    public static class ScheduledRequest implements Timer {
+        static final BlockingQueue<ScheduledRequest> scheduledRequests = new LinkedBlockingQueue<>();
+        private Duration delay;
+        private Runnable action;
+
+        // The requests run at a thread of the PriceRequest
+        static ScheduledRequest next() throws InterruptedException {
+            ScheduledRequest scheduledRequest = scheduledRequests.poll(10, TimeUnit.SECONDS);
+            assertNotNull("No request has been scheduled", scheduledRequest);
+            return scheduledRequest;
+        }
+
+        @Override
+        public Timer runLater(Duration delay, Runnable action) {
+            this.delay = delay;
+            this.action = action;
+            scheduledRequests.add(this);
+            return this;
+        }
+
+        @Override
+        public Timer runPeriodically(Duration interval, Runnable runnable) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void stop() {
+            scheduledRequests.remove(this);
+        }
+    }
+}
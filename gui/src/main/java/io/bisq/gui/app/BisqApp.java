@@ -65,6 +65,7 @@ import io.bisq.gui.main.debug.DebugView;
 import io.bisq.gui.main.overlays.popups.Popup;
 import io.bisq.gui.main.overlays.windows.*;
 import io.bisq.gui.util.ImageUtil;
+import io.bisq.network.http.HttpClient;
 import io.bisq.network.p2p.P2PService;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -86,6 +87,7 @@ import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.reactfx.EventStreams;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
@@ -170,6 +172,9 @@ public class BisqApp extends Application {
         CurrencyUtil.setBaseCurrencyCode(currencyCode);
 
         try {
+            // We read and parse the persisted data in parallel while the object graph gets created
+            Storage.preloadAll(new File(bisqEnvironment.getRequiredProperty(Storage.STORAGE_DIR)));
+
             // Guice
             bisqAppModule = new BisqAppModule(bisqEnvironment, primaryStage);
             injector = Guice.createInjector(bisqAppModule);
@@ -209,6 +214,7 @@ public class BisqApp extends Application {
                     log.error("readPersisted error", e1);
                 }
             });
+            Storage.clearPreloaded();
 
             Version.setBaseCryptoNetworkId(BisqEnvironment.getBaseCurrencyNetwork().ordinal());
             Version.printVersion();
@@ -457,6 +463,7 @@ public class BisqApp extends Application {
                 injector.getInstance(ArbitratorManager.class).shutDown();
                 injector.getInstance(TradeManager.class).shutDown();
                 injector.getInstance(JsonChainStateExporter.class).shutDown();
+                HttpClient.shutDown();
                 //noinspection CodeBlock2Expr
                 injector.getInstance(OpenOfferManager.class).shutDown(() -> {
                     injector.getInstance(P2PService.class).shutDown(() -> {
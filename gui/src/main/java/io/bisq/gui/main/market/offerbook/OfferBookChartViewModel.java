@@ -23,8 +23,10 @@ import io.bisq.common.GlobalSettings;
 import io.bisq.common.locale.CurrencyUtil;
 import io.bisq.common.locale.TradeCurrency;
 import io.bisq.common.monetary.Price;
-import io.bisq.core.offer.Offer;
 import io.bisq.core.offer.OfferPayload;
+import io.bisq.core.offer.OrderBook;
+import io.bisq.core.offer.OrderBookService;
+import io.bisq.core.offer.OrderBookSide;
 import io.bisq.core.provider.price.PriceFeedService;
 import io.bisq.core.user.Preferences;
 import io.bisq.gui.Navigation;
@@ -44,6 +46,7 @@ import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.scene.chart.XYChart;
+import org.bitcoinj.core.Coin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,6 +61,7 @@ class OfferBookChartViewModel extends ActivatableViewModel {
     private static final int TAB_INDEX = 0;
 
     private final OfferBook offerBook;
+    private final OrderBookService orderBookService;
     final Preferences preferences;
     final PriceFeedService priceFeedService;
     private final Navigation navigation;
@@ -67,6 +71,7 @@ class OfferBookChartViewModel extends ActivatableViewModel {
     private final List<XYChart.Data> sellData = new ArrayList<>();
     private final ObservableList<OfferBookListItem> offerBookListItems;
     private final ListChangeListener<OfferBookListItem> offerBookListItemsListener;
+    private final OrderBookService.Listener orderBookListener;
     final ObservableList<CurrencyListItem> currencyListItems = FXCollections.observableArrayList();
     private final ObservableList<OfferListItem> topBuyOfferList = FXCollections.observableArrayList();
     private final ObservableList<OfferListItem> topSellOfferList = FXCollections.observableArrayList();
@@ -80,8 +85,9 @@ class OfferBookChartViewModel extends ActivatableViewModel {
 
     @SuppressWarnings("WeakerAccess")
     @Inject
-    public OfferBookChartViewModel(OfferBook offerBook, Preferences preferences, PriceFeedService priceFeedService, Navigation navigation) {
+    public OfferBookChartViewModel(OfferBook offerBook, OrderBookService orderBookService, Preferences preferences, PriceFeedService priceFeedService, Navigation navigation) {
         this.offerBook = offerBook;
+        this.orderBookService = orderBookService;
         this.preferences = preferences;
         this.priceFeedService = priceFeedService;
         this.navigation = navigation;
@@ -94,20 +100,13 @@ class OfferBookChartViewModel extends ActivatableViewModel {
         }
 
         offerBookListItems = offerBook.getOfferBookListItems();
-        offerBookListItemsListener = c -> {
-            c.next();
-            if (c.wasAdded() || c.wasRemoved()) {
-                ArrayList<OfferBookListItem> list = new ArrayList<>(c.getRemoved());
-                list.addAll(c.getAddedSubList());
-                if (list.stream()
-                        .map(OfferBookListItem::getOffer)
-                        .filter(e -> e.getOfferPayload().getCurrencyCode().equals(selectedTradeCurrencyProperty.get().getCode()))
-                        .findAny()
-                        .isPresent())
-                    updateChartData();
-            }
+        offerBookListItemsListener = c -> fillTradeCurrencies();
 
-            fillTradeCurrencies();
+        // We update the chart from the OrderBookService as the OfferBook might get notified before the order book
+        // has applied the change
+        orderBookListener = currencyCode -> {
+            if (currencyCode.equals(getCurrencyCode()))
+                updateChartData();
         };
 
         currenciesUpdatedListener = new ChangeListener<Number>() {
@@ -115,6 +114,7 @@ class OfferBookChartViewModel extends ActivatableViewModel {
             public void changed(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
                 if (!isAnyPricePresent()) {
                     offerBook.fillOfferBookListItems();
+                    orderBookService.fillOrderBooks();
                     updateChartData();
                     priceFeedService.updateCounterProperty().removeListener(currenciesUpdatedListener);
                 }
@@ -143,8 +143,10 @@ class OfferBookChartViewModel extends ActivatableViewModel {
     @Override
     protected void activate() {
         offerBookListItems.addListener(offerBookListItemsListener);
+        orderBookService.addListener(orderBookListener);
 
         offerBook.fillOfferBookListItems();
+        orderBookService.fillOrderBooks();
         fillTradeCurrencies();
         updateChartData();
 
@@ -157,6 +159,7 @@ class OfferBookChartViewModel extends ActivatableViewModel {
     @Override
     protected void deactivate() {
         offerBookListItems.removeListener(offerBookListItemsListener);
+        orderBookService.removeListener(orderBookListener);
     }
 
 
@@ -239,92 +242,40 @@ class OfferBookChartViewModel extends ActivatableViewModel {
     }
 
     private void updateChartData() {
-        List<Offer> allBuyOffers = offerBookListItems.stream()
-                .map(OfferBookListItem::getOffer)
-                .filter(e -> e.getCurrencyCode().equals(selectedTradeCurrencyProperty.get().getCode())
-                        && e.getDirection().equals(OfferPayload.Direction.BUY))
-                .sorted((o1, o2) -> {
-                    long a = o1.getPrice() != null ? o1.getPrice().getValue() : 0;
-                    long b = o2.getPrice() != null ? o2.getPrice().getValue() : 0;
-                    if (a != b) {
-                        if (CurrencyUtil.isCryptoCurrency(o1.getCurrencyCode()))
-                            return a > b ? 1 : -1;
-                        else
-                            return a < b ? 1 : -1;
-                    } else {
-                        return 0;
-                    }
-                })
-                .collect(Collectors.toList());
-
-        allBuyOffers = filterOffersWithRelevantPrices(allBuyOffers);
-        buildChartAndTableEntries(allBuyOffers, OfferPayload.Direction.BUY, buyData, topBuyOfferList);
-
-        List<Offer> allSellOffers = offerBookListItems.stream()
-                .map(OfferBookListItem::getOffer)
-                .filter(e -> e.getCurrencyCode().equals(selectedTradeCurrencyProperty.get().getCode())
-                        && e.getDirection().equals(OfferPayload.Direction.SELL))
-                .sorted((o1, o2) -> {
-                    long a = o1.getPrice() != null ? o1.getPrice().getValue() : 0;
-                    long b = o2.getPrice() != null ? o2.getPrice().getValue() : 0;
-                    if (a != b) {
-                        if (CurrencyUtil.isCryptoCurrency(o1.getCurrencyCode()))
-                            return a < b ? 1 : -1;
-                        else
-                            return a > b ? 1 : -1;
-                    } else {
-                        return 0;
-                    }
-                })
-                .collect(Collectors.toList());
-
-        allSellOffers = filterOffersWithRelevantPrices(allSellOffers);
-        buildChartAndTableEntries(allSellOffers, OfferPayload.Direction.SELL, sellData, topSellOfferList);
+        OrderBook orderBook = orderBookService.getOrderBook(getCurrencyCode());
+        buildChartAndTableEntries(orderBook.getBuySide(), OfferPayload.Direction.BUY, buyData, topBuyOfferList);
+        buildChartAndTableEntries(orderBook.getSellSide(), OfferPayload.Direction.SELL, sellData, topSellOfferList);
     }
 
     // If there are more then 3 offers we ignore the offers which are further than 30% from the best price
-    private List<Offer> filterOffersWithRelevantPrices(List<Offer> offers) {
-        if (offers.size() > 3) {
-            Price bestPrice = offers.get(0).getPrice();
-            if (bestPrice != null) {
-                long bestPriceAsLong = bestPrice.getValue();
-                return offers.stream()
-                        .filter(e -> {
-                            if (e.getPrice() == null)
-                                return false;
-
-                            double ratio = (double) e.getPrice().getValue() / (double) bestPriceAsLong;
-                            return Math.abs(1 - ratio) < 0.3;
-                        })
-                        .collect(Collectors.toList());
-            }
+    private boolean isRelevantPrice(OrderBookSide orderBookSide, int index) {
+        if (orderBookSide.size() > 3) {
+            double ratio = (double) orderBookSide.getPriceAt(index) / (double) orderBookSide.getPriceAt(0);
+            return Math.abs(1 - ratio) < 0.3;
         }
-        return offers;
+        return true;
     }
 
-    private void buildChartAndTableEntries(List<Offer> sortedList, OfferPayload.Direction direction, List<XYChart.Data> data, ObservableList<OfferListItem> offerTableList) {
+    // The order book side is sorted from the best to the worst price so we can stop at the first irrelevant price
+    private void buildChartAndTableEntries(OrderBookSide orderBookSide, OfferPayload.Direction direction, List<XYChart.Data> data, ObservableList<OfferListItem> offerTableList) {
         data.clear();
-        double accumulatedAmount = 0;
         List<OfferListItem> offerTableListTemp = new ArrayList<>();
-        for (Offer offer : sortedList) {
-            Price price = offer.getPrice();
-            if (price != null) {
-                double amount = (double) offer.getAmount().value / LongMath.pow(10, offer.getAmount().smallestUnitExponent());
-                accumulatedAmount += amount;
-                offerTableListTemp.add(new OfferListItem(offer, accumulatedAmount));
-
-                double priceAsDouble = (double) price.getValue() / LongMath.pow(10, price.smallestUnitExponent());
-                if (CurrencyUtil.isCryptoCurrency(getCurrencyCode())) {
-                    if (direction.equals(OfferPayload.Direction.SELL))
-                        data.add(0, new XYChart.Data<>(priceAsDouble, accumulatedAmount));
-                    else
-                        data.add(new XYChart.Data<>(priceAsDouble, accumulatedAmount));
-                } else {
-                    if (direction.equals(OfferPayload.Direction.BUY))
-                        data.add(0, new XYChart.Data<>(priceAsDouble, accumulatedAmount));
-                    else
-                        data.add(new XYChart.Data<>(priceAsDouble, accumulatedAmount));
-                }
+        for (int i = 0; i < orderBookSide.size() && isRelevantPrice(orderBookSide, i); i++) {
+            double accumulatedAmount = (double) orderBookSide.getCumulativeAmountAt(i) / LongMath.pow(10, Coin.SMALLEST_UNIT_EXPONENT);
+            offerTableListTemp.add(new OfferListItem(orderBookSide.getOfferAt(i), accumulatedAmount));
+
+            Price price = Price.valueOf(getCurrencyCode(), orderBookSide.getPriceAt(i));
+            double priceAsDouble = (double) price.getValue() / LongMath.pow(10, price.smallestUnitExponent());
+            if (CurrencyUtil.isCryptoCurrency(getCurrencyCode())) {
+                if (direction.equals(OfferPayload.Direction.SELL))
+                    data.add(0, new XYChart.Data<>(priceAsDouble, accumulatedAmount));
+                else
+                    data.add(new XYChart.Data<>(priceAsDouble, accumulatedAmount));
+            } else {
+                if (direction.equals(OfferPayload.Direction.BUY))
+                    data.add(0, new XYChart.Data<>(priceAsDouble, accumulatedAmount));
+                else
+                    data.add(new XYChart.Data<>(priceAsDouble, accumulatedAmount));
             }
         }
         offerTableList.setAll(offerTableListTemp);
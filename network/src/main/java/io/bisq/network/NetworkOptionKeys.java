@@ -12,6 +12,10 @@ public class NetworkOptionKeys {
     //SOCKS_5_PROXY_BTC_ADDRESS used in network module so dont move it to BtcOptionKeys
     public static final String SOCKS_5_PROXY_BTC_ADDRESS = "socks5ProxyBtcAddress";
     public static final String SOCKS_5_PROXY_HTTP_ADDRESS = "socks5ProxyHttpAddress";
+    public static final String MSG_TRACE_SAMPLE_RATE = "msgTraceSampleRate";
+    public static final String MSG_CAPTURE_SIZE = "msgCaptureSize";
+    public static final String METRICS_DUMP_INTERVAL = "metricsDumpInterval";
+    public static final String PRE_CONNECT = "preConnect";
 
 
 }
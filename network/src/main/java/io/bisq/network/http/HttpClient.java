@@ -4,16 +4,11 @@ import com.runjva.sourceforge.jsocks.protocol.Socks5Proxy;
 import io.bisq.common.app.Version;
 import io.bisq.network.Socks5ProxyProvider;
 import lombok.Getter;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.protocol.HttpClientContext;
-import org.apache.http.config.Registry;
-import org.apache.http.config.RegistryBuilder;
-import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
-import org.apache.http.ssl.SSLContexts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +29,10 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public class HttpClient {
     private static final Logger log = LoggerFactory.getLogger(HttpClient.class);
 
+    public static final int DEFAULT_TIMEOUT_MS = 10_000;
+    // Undefined socket timeout of the Apache http client
+    private static final int UNDEFINED_PROXY_TIMEOUT_MS = -1;
+
 
     @Nullable
     private Socks5ProxyProvider socks5ProxyProvider;
@@ -53,6 +52,13 @@ public class HttpClient {
         uid = UUID.randomUUID().toString();
     }
 
+    /**
+     * Closes the pooled http clients used for the requests over the socks5 proxy.
+     */
+    public static void shutDown() {
+        SocksHttpClientPool.shutDown();
+    }
+
     public void setBaseUrl(String baseUrl) {
         this.baseUrl = baseUrl;
     }
@@ -61,7 +67,24 @@ public class HttpClient {
         this.ignoreSocks5Proxy = ignoreSocks5Proxy;
     }
 
+    /**
+     * Requests over the socks5 proxy are not limited in time, direct requests use DEFAULT_TIMEOUT_MS.
+     */
     public String requestWithGET(String param, @Nullable String headerKey, @Nullable String headerValue) throws IOException {
+        return requestWithGET(param, headerKey, headerValue, DEFAULT_TIMEOUT_MS, UNDEFINED_PROXY_TIMEOUT_MS);
+    }
+
+    /**
+     * @param timeoutMs Read timeout, for direct requests also the connect timeout. Requests which are expected to be
+     *                  held by the server for some time (long polling) need a larger timeout than the default.
+     */
+    public String requestWithGET(String param, @Nullable String headerKey, @Nullable String headerValue, int timeoutMs)
+            throws IOException {
+        return requestWithGET(param, headerKey, headerValue, timeoutMs, timeoutMs);
+    }
+
+    private String requestWithGET(String param, @Nullable String headerKey, @Nullable String headerValue,
+                                  int timeoutMs, int proxyTimeoutMs) throws IOException {
         checkNotNull(baseUrl, "baseUrl must be set before calling requestWithGET");
 
         Socks5Proxy socks5Proxy = null;
@@ -75,10 +98,10 @@ public class HttpClient {
         if (ignoreSocks5Proxy || socks5Proxy == null || baseUrl.contains("localhost")) {
             log.debug("Use clear net for HttpClient. socks5Proxy={}, ignoreSocks5Proxy={}, baseUrl={}",
                     socks5Proxy, ignoreSocks5Proxy, baseUrl);
-            return requestWithGETNoProxy(param, headerKey, headerValue);
+            return requestWithGETNoProxy(param, headerKey, headerValue, timeoutMs);
         } else {
             log.debug("Use socks5Proxy for HttpClient: " + socks5Proxy);
-            return requestWithGETProxy(param, socks5Proxy, headerKey, headerValue);
+            return requestWithGETProxy(param, socks5Proxy, headerKey, headerValue, proxyTimeoutMs);
         }
     }
 
@@ -86,14 +109,19 @@ public class HttpClient {
      * Make an HTTP Get request directly (not routed over socks5 proxy).
      */
     public String requestWithGETNoProxy(String param, @Nullable String headerKey, @Nullable String headerValue) throws IOException {
+        return requestWithGETNoProxy(param, headerKey, headerValue, DEFAULT_TIMEOUT_MS);
+    }
+
+    private String requestWithGETNoProxy(String param, @Nullable String headerKey, @Nullable String headerValue,
+                                         int timeoutMs) throws IOException {
         HttpURLConnection connection = null;
         log.debug("Executing HTTP request " + baseUrl + param + " proxy: none.");
         URL url = new URL(baseUrl + param);
         try {
             connection = (HttpURLConnection) url.openConnection();
             connection.setRequestMethod("GET");
-            connection.setConnectTimeout(10_000);
-            connection.setReadTimeout(10_000);
+            connection.setConnectTimeout(timeoutMs);
+            connection.setReadTimeout(timeoutMs);
             connection.setRequestProperty("User-Agent", "bisq/" + Version.VERSION);
             if (headerKey != null && headerValue != null)
                 connection.setRequestProperty(headerKey, headerValue);
@@ -121,23 +149,15 @@ public class HttpClient {
     /**
      * Make an HTTP Get request routed over socks5 proxy.
      */
-    private String requestWithGETProxy(String param, Socks5Proxy socks5Proxy, @Nullable String headerKey, @Nullable String headerValue) throws IOException {
+    private String requestWithGETProxy(String param, Socks5Proxy socks5Proxy, @Nullable String headerKey,
+                                       @Nullable String headerValue, int timeoutMs) throws IOException {
         log.debug("requestWithGETProxy param=" + param);
         // This code is adapted from:
         //  http://stackoverflow.com/a/25203021/5616248
 
-        // Register our own SocketFactories to override createSocket() and connectSocket().
-        // connectSocket does NOT resolve hostname before passing it to proxy.
-        Registry<ConnectionSocketFactory> reg = RegistryBuilder.<ConnectionSocketFactory>create()
-                .register("http", new SocksConnectionSocketFactory())
-                .register("https", new SocksSSLConnectionSocketFactory(SSLContexts.createSystemDefault())).build();
-
-        // Use FakeDNSResolver if not resolving DNS locally.
-        // This prevents a local DNS lookup (which would be ignored anyway)
-        PoolingHttpClientConnectionManager cm = socks5Proxy.resolveAddrLocally() ?
-                new PoolingHttpClientConnectionManager(reg) :
-                new PoolingHttpClientConnectionManager(reg, new FakeDnsResolver());
-        try (CloseableHttpClient httpclient = HttpClients.custom().setConnectionManager(cm).build()) {
+        // The http client is shared per proxy and must not be closed here, so its connections get reused.
+        CloseableHttpClient httpclient = SocksHttpClientPool.getHttpClient(socks5Proxy);
+        try {
             InetSocketAddress socksaddr = new InetSocketAddress(socks5Proxy.getInetAddress(), socks5Proxy.getPort());
 
             // remove me: Use this to test with system-wide Tor proxy, or change port for another proxy.
@@ -147,6 +167,11 @@ public class HttpClient {
             context.setAttribute("socks.address", socksaddr);
 
             HttpGet request = new HttpGet(baseUrl + param);
+            // We don't limit the connect time as that includes the circuit creation at the Tor proxy
+            request.setConfig(RequestConfig.custom()
+                    .setSocketTimeout(timeoutMs)
+                    .setConnectionRequestTimeout(SocksHttpClientPool.CONNECTION_REQUEST_TIMEOUT_MS)
+                    .build());
             if (headerKey != null && headerValue != null)
                 request.setHeader(headerKey, headerValue);
 
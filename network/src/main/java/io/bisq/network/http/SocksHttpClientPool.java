@@ -0,0 +1,83 @@
+package io.bisq.network.http;
+
+import com.runjva.sourceforge.jsocks.protocol.Socks5Proxy;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.ssl.SSLContexts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds one long lived http client with a pool of keep-alive connections per socks5 proxy and DNS mode.
+ * Creating a new client for each request would cost a new circuit/connection setup and SSL handshake at each request.
+ * The clients are shared by all HttpClient instances (price, fee and block explorer requests).
+ */
+final class SocksHttpClientPool {
+    private static final Logger log = LoggerFactory.getLogger(SocksHttpClientPool.class);
+
+    private static final int MAX_CONNECTIONS = 8;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 4;
+    // Max. time to wait for a free connection if all connections are in use
+    static final int CONNECTION_REQUEST_TIMEOUT_MS = 60_000;
+    private static final long MAX_IDLE_TIME_SEC = 60;
+    private static final long CONNECTION_TTL_SEC = 600;
+    // Connections idle for longer get checked before reuse as Tor might have closed the circuit
+    private static final int VALIDATE_AFTER_INACTIVITY_MS = 2_000;
+
+    private static final Map<String, CloseableHttpClient> httpClientByKey = new ConcurrentHashMap<>();
+
+    private SocksHttpClientPool() {
+    }
+
+    static CloseableHttpClient getHttpClient(Socks5Proxy socks5Proxy) {
+        boolean resolveAddrLocally = socks5Proxy.resolveAddrLocally();
+        String key = socks5Proxy.getInetAddress().getHostAddress() + ":" + socks5Proxy.getPort() +
+                (resolveAddrLocally ? "/localDns" : "/remoteDns");
+        return httpClientByKey.computeIfAbsent(key, k -> createHttpClient(k, resolveAddrLocally));
+    }
+
+    static void shutDown() {
+        httpClientByKey.values().forEach(httpClient -> {
+            try {
+                httpClient.close();
+            } catch (Throwable t) {
+                log.warn("Closing http client failed. " + t.toString());
+            }
+        });
+        httpClientByKey.clear();
+    }
+
+    private static CloseableHttpClient createHttpClient(String key, boolean resolveAddrLocally) {
+        log.info("Create pooled http client for socks5 proxy {}", key);
+
+        // Register our own SocketFactories to override createSocket() and connectSocket().
+        // connectSocket does NOT resolve hostname before passing it to proxy.
+        Registry<ConnectionSocketFactory> reg = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", new SocksConnectionSocketFactory())
+                .register("https", new SocksSSLConnectionSocketFactory(SSLContexts.createSystemDefault())).build();
+
+        // Use FakeDNSResolver if not resolving DNS locally.
+        // This prevents a local DNS lookup (which would be ignored anyway)
+        PoolingHttpClientConnectionManager cm = resolveAddrLocally ?
+                new PoolingHttpClientConnectionManager(reg, null, null, null, CONNECTION_TTL_SEC, TimeUnit.SECONDS) :
+                new PoolingHttpClientConnectionManager(reg, null, null, new FakeDnsResolver(), CONNECTION_TTL_SEC,
+                        TimeUnit.SECONDS);
+        cm.setMaxTotal(MAX_CONNECTIONS);
+        cm.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        cm.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+
+        return HttpClients.custom()
+                .setConnectionManager(cm)
+                .evictExpiredConnections()
+                .evictIdleConnections(MAX_IDLE_TIME_SEC, TimeUnit.SECONDS)
+                .build();
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.network.metrics;
+
+import com.google.gson.GsonBuilder;
+import io.bisq.common.EventLoopExecutor;
+import io.bisq.common.UserThread;
+import io.bisq.common.util.Utilities;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the NetworkMetrics periodically to metrics.json and to metrics.prom (Prometheus text format, can be
+ * exposed with the textfile collector of the node exporter). The files are replaced atomically.
+ * <p>
+ * The JSON contains the message rates since the previous dump, in the Prometheus format the rates are left to the
+ * queries.
+ */
+@Slf4j
+public class MetricsDumper {
+    public static final String JSON_FILE_NAME = "metrics.json";
+    public static final String PROMETHEUS_FILE_NAME = "metrics.prom";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final NetworkMetrics networkMetrics;
+    private final File dir;
+    private final ScheduledThreadPoolExecutor executor;
+    // Only accessed from the executor thread
+    private final Map<String, long[]> previousMessageCounts = new HashMap<>();
+    private long previousDumpTime;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public MetricsDumper(NetworkMetrics networkMetrics, File dir) {
+        this.networkMetrics = networkMetrics;
+        this.dir = dir;
+        executor = Utilities.getScheduledThreadPoolExecutor("MetricsDumper", 1, 1, 10);
+        previousDumpTime = networkMetrics.getStartTime();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public void start(long intervalSec) {
+        log.info("We write the network metrics every {} sec. to {}", intervalSec, dir);
+        executor.scheduleWithFixedDelay(this::dump, intervalSec, intervalSec, TimeUnit.SECONDS);
+    }
+
+    public void shutDown() {
+        executor.shutdownNow();
+    }
+
+    // Not thread safe as we keep the message counts for the rates. Called from the executor thread.
+    public String toJson() {
+        long now = System.currentTimeMillis();
+        double elapsedSec = Math.max(1, now - previousDumpTime) / 1000d;
+        previousDumpTime = now;
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("timeStamp", now);
+        json.put("uptimeSec", (now - networkMetrics.getStartTime()) / 1000);
+        json.put("userThreadQueueSize", networkMetrics.getUserThreadQueueSize());
+        json.put("maxUserThreadQueueSize", networkMetrics.getMaxUserThreadQueueSize());
+        json.put("roundTripTimeMs", toJson(networkMetrics.getRoundTripTime()));
+        if (UserThread.getExecutor() instanceof EventLoopExecutor) {
+            EventLoopExecutor eventLoop = (EventLoopExecutor) UserThread.getExecutor();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("queueSize", eventLoop.getQueueSize());
+            map.put("completedTasks", eventLoop.getNumCompletedTasks());
+            map.put("averageQueueLatencyMicros", TimeUnit.NANOSECONDS.toMicros(eventLoop.getAverageQueueLatencyNanos()));
+            map.put("maxQueueLatencyMicros", TimeUnit.NANOSECONDS.toMicros(eventLoop.getMaxQueueLatencyNanos()));
+            map.put("maxBatchSize", eventLoop.getMaxBatchSize());
+            json.put("userThread", map);
+        }
+
+        Map<String, Object> messageTypes = new TreeMap<>();
+        networkMetrics.getMessageTypeMetrics().forEach((messageType, metrics) -> {
+            long sentMessages = metrics.getSentMessages().sum();
+            long receivedMessages = metrics.getReceivedMessages().sum();
+            long[] previous = previousMessageCounts.getOrDefault(messageType, new long[2]);
+            previousMessageCounts.put(messageType, new long[]{sentMessages, receivedMessages});
+
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("sentMessages", sentMessages);
+            map.put("sentBytes", metrics.getSentBytes().sum());
+            map.put("sentMessagesPerSec", (sentMessages - previous[0]) / elapsedSec);
+            map.put("receivedMessages", receivedMessages);
+            map.put("receivedBytes", metrics.getReceivedBytes().sum());
+            map.put("receivedMessagesPerSec", (receivedMessages - previous[1]) / elapsedSec);
+            map.put("sentSizeBytes", toJson(metrics.getSentSize()));
+            map.put("receivedSizeBytes", toJson(metrics.getReceivedSize()));
+            map.put("sendLatencyMicros", toJson(metrics.getSendLatency()));
+            map.put("decodeTimeMicros", toJson(metrics.getDecodeTime()));
+            map.put("queueTimeMicros", toJson(metrics.getQueueTime()));
+            map.put("handlerTimeMicros", toJson(metrics.getHandlerTime()));
+            messageTypes.put(messageType, map);
+        });
+        json.put("messageTypes", messageTypes);
+
+        Map<String, Object> peers = new TreeMap<>();
+        networkMetrics.getPeerMetrics().forEach((peer, metrics) -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("sentMessages", metrics.getSentMessages().sum());
+            map.put("sentBytes", metrics.getSentBytes().sum());
+            map.put("receivedMessages", metrics.getReceivedMessages().sum());
+            map.put("receivedBytes", metrics.getReceivedBytes().sum());
+            map.put("roundTripTimeMs", metrics.getRoundTripTime().get());
+            peers.put(peer, map);
+        });
+        json.put("peers", peers);
+
+        return new GsonBuilder().setPrettyPrinting().create().toJson(json);
+    }
+
+    public String toPrometheusText() {
+        StringBuilder sb = new StringBuilder();
+        appendHeader(sb, "bisq_network_user_thread_queue_size", "gauge",
+                "Received messages waiting for the UserThread");
+        appendSample(sb, "bisq_network_user_thread_queue_size", "", networkMetrics.getUserThreadQueueSize());
+        appendHeader(sb, "bisq_network_user_thread_queue_size_max", "gauge",
+                "Max. number of received messages waiting for the UserThread");
+        appendSample(sb, "bisq_network_user_thread_queue_size_max", "", networkMetrics.getMaxUserThreadQueueSize());
+        appendSummary(sb, "bisq_network_round_trip_time_ms", "Round trip time of pings", "",
+                networkMetrics.getRoundTripTime().getSnapshot());
+        if (UserThread.getExecutor() instanceof EventLoopExecutor) {
+            EventLoopExecutor eventLoop = (EventLoopExecutor) UserThread.getExecutor();
+            appendHeader(sb, "bisq_user_thread_tasks_queued", "gauge", "Tasks waiting for the UserThread");
+            appendSample(sb, "bisq_user_thread_tasks_queued", "", eventLoop.getQueueSize());
+            appendHeader(sb, "bisq_user_thread_tasks_completed_total", "counter", "Tasks executed on the UserThread");
+            appendSample(sb, "bisq_user_thread_tasks_completed_total", "", eventLoop.getNumCompletedTasks());
+            appendHeader(sb, "bisq_user_thread_queue_latency_avg_us", "gauge", "Avg. time a task waits for the UserThread");
+            appendSample(sb, "bisq_user_thread_queue_latency_avg_us", "",
+                    TimeUnit.NANOSECONDS.toMicros(eventLoop.getAverageQueueLatencyNanos()));
+            appendHeader(sb, "bisq_user_thread_queue_latency_max_us", "gauge", "Max. time a task waited for the UserThread");
+            appendSample(sb, "bisq_user_thread_queue_latency_max_us", "",
+                    TimeUnit.NANOSECONDS.toMicros(eventLoop.getMaxQueueLatencyNanos()));
+        }
+
+        Map<String, NetworkMetrics.MessageTypeMetrics> messageTypes = new TreeMap<>(networkMetrics.getMessageTypeMetrics());
+        appendMessageCounter(sb, messageTypes, "bisq_network_sent_messages_total", "Sent messages",
+                m -> m.getSentMessages().sum());
+        appendMessageCounter(sb, messageTypes, "bisq_network_sent_bytes_total", "Sent bytes",
+                m -> m.getSentBytes().sum());
+        appendMessageCounter(sb, messageTypes, "bisq_network_received_messages_total", "Received messages",
+                m -> m.getReceivedMessages().sum());
+        appendMessageCounter(sb, messageTypes, "bisq_network_received_bytes_total", "Received bytes",
+                m -> m.getReceivedBytes().sum());
+        appendMessageSummary(sb, messageTypes, "bisq_network_sent_size_bytes", "Size of sent messages",
+                NetworkMetrics.MessageTypeMetrics::getSentSize);
+        appendMessageSummary(sb, messageTypes, "bisq_network_received_size_bytes", "Size of received messages",
+                NetworkMetrics.MessageTypeMetrics::getReceivedSize);
+        appendMessageSummary(sb, messageTypes, "bisq_network_send_latency_us", "Time for writing a message",
+                NetworkMetrics.MessageTypeMetrics::getSendLatency);
+        appendMessageSummary(sb, messageTypes, "bisq_network_decode_time_us", "Time for decoding a message",
+                NetworkMetrics.MessageTypeMetrics::getDecodeTime);
+        appendMessageSummary(sb, messageTypes, "bisq_network_queue_time_us", "Time a message waits for the UserThread",
+                NetworkMetrics.MessageTypeMetrics::getQueueTime);
+        appendMessageSummary(sb, messageTypes, "bisq_network_handler_time_us", "Time spent in the message listeners",
+                NetworkMetrics.MessageTypeMetrics::getHandlerTime);
+
+        Map<String, NetworkMetrics.PeerMetrics> peers = new TreeMap<>(networkMetrics.getPeerMetrics());
+        appendHeader(sb, "bisq_network_peer_sent_bytes_total", "counter", "Bytes sent to the peer");
+        peers.forEach((peer, m) -> appendSample(sb, "bisq_network_peer_sent_bytes_total", label("peer", peer), m.getSentBytes().sum()));
+        appendHeader(sb, "bisq_network_peer_received_bytes_total", "counter", "Bytes received from the peer");
+        peers.forEach((peer, m) -> appendSample(sb, "bisq_network_peer_received_bytes_total", label("peer", peer), m.getReceivedBytes().sum()));
+        appendHeader(sb, "bisq_network_peer_round_trip_time_ms", "gauge", "Last round trip time of the peer");
+        peers.forEach((peer, m) -> {
+            long roundTripTime = m.getRoundTripTime().get();
+            if (roundTripTime >= 0)
+                appendSample(sb, "bisq_network_peer_round_trip_time_ms", label("peer", peer), roundTripTime);
+        });
+        return sb.toString();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void dump() {
+        try {
+            write(new File(dir, JSON_FILE_NAME), toJson());
+            write(new File(dir, PROMETHEUS_FILE_NAME), toPrometheusText());
+        } catch (Throwable t) {
+            log.error("Writing the network metrics failed. " + t.toString());
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        Files.write(tempFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Map<String, Object> toJson(Histogram histogram) {
+        Histogram.Snapshot snapshot = histogram.getSnapshot();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", snapshot.getCount());
+        map.put("mean", snapshot.getMean());
+        for (double quantile : QUANTILES)
+            map.put("p" + Math.round(quantile * 100), snapshot.getValueAtQuantile(quantile));
+        map.put("max", snapshot.getMax());
+        return map;
+    }
+
+    private interface CounterGetter {
+        long get(NetworkMetrics.MessageTypeMetrics metrics);
+    }
+
+    private interface HistogramGetter {
+        Histogram get(NetworkMetrics.MessageTypeMetrics metrics);
+    }
+
+    private static void appendMessageCounter(StringBuilder sb, Map<String, NetworkMetrics.MessageTypeMetrics> messageTypes,
+                                             String name, String help, CounterGetter getter) {
+        appendHeader(sb, name, "counter", help);
+        messageTypes.forEach((messageType, metrics) ->
+                appendSample(sb, name, label("type", messageType), getter.get(metrics)));
+    }
+
+    private static void appendMessageSummary(StringBuilder sb, Map<String, NetworkMetrics.MessageTypeMetrics> messageTypes,
+                                             String name, String help, HistogramGetter getter) {
+        boolean headerAppended = false;
+        for (Map.Entry<String, NetworkMetrics.MessageTypeMetrics> entry : messageTypes.entrySet()) {
+            Histogram histogram = getter.get(entry.getValue());
+            if (histogram.getCount() == 0)
+                continue;
+
+            if (!headerAppended) {
+                appendHeader(sb, name, "summary", help);
+                headerAppended = true;
+            }
+            appendSummarySamples(sb, name, label("type", entry.getKey()), histogram.getSnapshot());
+        }
+    }
+
+    private static void appendSummary(StringBuilder sb, String name, String help, String labels, Histogram.Snapshot snapshot) {
+        appendHeader(sb, name, "summary", help);
+        appendSummarySamples(sb, name, labels, snapshot);
+    }
+
+    private static void appendSummarySamples(StringBuilder sb, String name, String labels, Histogram.Snapshot snapshot) {
+        for (double quantile : QUANTILES) {
+            String quantileLabel = label("quantile", String.valueOf(quantile));
+            appendSample(sb, name, labels.isEmpty() ? quantileLabel : labels + "," + quantileLabel,
+                    snapshot.getValueAtQuantile(quantile));
+        }
+        appendSample(sb, name + "_sum", labels, snapshot.getSum());
+        appendSample(sb, name + "_count", labels, snapshot.getCount());
+    }
+
+    private static void appendHeader(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void appendSample(StringBuilder sb, String name, String labels, long value) {
+        sb.append(name);
+        if (!labels.isEmpty())
+            sb.append('{').append(labels).append('}');
+        sb.append(' ').append(value).append('\n');
+    }
+
+    private static String label(String name, String value) {
+        String escaped = value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        return name + "=\"" + escaped + "\"";
+    }
+}
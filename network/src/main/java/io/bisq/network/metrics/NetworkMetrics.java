@@ -0,0 +1,190 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.network.metrics;
+
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of the metrics of the network layer. It is updated from the connection threads without locks, the
+ * counters are LongAdders and the distributions are recorded in Histograms.
+ * <p>
+ * Durations are recorded in microseconds, sizes in bytes and round trip times in milliseconds.
+ * Use MetricsDumper to write the metrics periodically as JSON and in the Prometheus text format.
+ */
+public final class NetworkMetrics {
+    private static final NetworkMetrics instance = new NetworkMetrics();
+
+    public static NetworkMetrics getInstance() {
+        return instance;
+    }
+
+    @Getter
+    public static final class MessageTypeMetrics {
+        private final LongAdder sentMessages = new LongAdder();
+        private final LongAdder sentBytes = new LongAdder();
+        private final LongAdder receivedMessages = new LongAdder();
+        private final LongAdder receivedBytes = new LongAdder();
+        private final Histogram sentSize = new Histogram();
+        private final Histogram receivedSize = new Histogram();
+        // Time for writing and flushing the message to the socket, including the wait for the stream lock
+        private final Histogram sendLatency = new Histogram();
+        // Time for creating the NetworkEnvelope from the proto
+        private final Histogram decodeTime = new Histogram();
+        // Time the message waits in the UserThread queue before the listeners are called
+        private final Histogram queueTime = new Histogram();
+        // Time spent in the message listeners
+        private final Histogram handlerTime = new Histogram();
+    }
+
+    @Getter
+    public static final class PeerMetrics {
+        private final LongAdder sentMessages = new LongAdder();
+        private final LongAdder sentBytes = new LongAdder();
+        private final LongAdder receivedMessages = new LongAdder();
+        private final LongAdder receivedBytes = new LongAdder();
+        // Last reported round trip time in ms, -1 if not known yet
+        private final AtomicLong roundTripTime = new AtomicLong(-1);
+    }
+
+    @Getter
+    private final long startTime = System.currentTimeMillis();
+    private final Map<String, MessageTypeMetrics> messageTypeMetrics = new ConcurrentHashMap<>();
+    private final Map<String, PeerMetrics> peerMetrics = new ConcurrentHashMap<>();
+    @Getter
+    private final Histogram roundTripTime = new Histogram();
+    private final AtomicInteger userThreadQueueSize = new AtomicInteger();
+    private final AtomicInteger maxUserThreadQueueSize = new AtomicInteger();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    NetworkMetrics() {
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Update
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param peer Full address of the peer or null if not known
+     */
+    public void onMessageSent(String messageType, int size, long durationNanos, @Nullable String peer) {
+        MessageTypeMetrics metrics = getMessageTypeMetrics(messageType);
+        metrics.sentMessages.increment();
+        metrics.sentBytes.add(size);
+        metrics.sentSize.record(size);
+        metrics.sendLatency.record(TimeUnit.NANOSECONDS.toMicros(durationNanos));
+        if (peer != null) {
+            PeerMetrics peerMetrics = getPeerMetrics(peer);
+            peerMetrics.sentMessages.increment();
+            peerMetrics.sentBytes.add(size);
+        }
+    }
+
+    /**
+     * @param peer Full address of the peer or null if not known
+     */
+    public void onMessageReceived(String messageType, int size, long decodeNanos, @Nullable String peer) {
+        MessageTypeMetrics metrics = getMessageTypeMetrics(messageType);
+        metrics.receivedMessages.increment();
+        metrics.receivedBytes.add(size);
+        metrics.receivedSize.record(size);
+        metrics.decodeTime.record(TimeUnit.NANOSECONDS.toMicros(decodeNanos));
+        if (peer != null) {
+            PeerMetrics peerMetrics = getPeerMetrics(peer);
+            peerMetrics.receivedMessages.increment();
+            peerMetrics.receivedBytes.add(size);
+        }
+    }
+
+    /**
+     * Called when a received message is queued up for the listeners on the UserThread.
+     */
+    public void onMessageQueued() {
+        int size = userThreadQueueSize.incrementAndGet();
+        if (size > maxUserThreadQueueSize.get())
+            maxUserThreadQueueSize.accumulateAndGet(size, Math::max);
+    }
+
+    /**
+     * Called after the listeners have handled a message which was queued up with onMessageQueued.
+     */
+    public void onMessageHandled(String messageType, long queueNanos, long handlerNanos) {
+        userThreadQueueSize.decrementAndGet();
+        MessageTypeMetrics metrics = getMessageTypeMetrics(messageType);
+        metrics.queueTime.record(TimeUnit.NANOSECONDS.toMicros(queueNanos));
+        metrics.handlerTime.record(TimeUnit.NANOSECONDS.toMicros(handlerNanos));
+    }
+
+    public void onRoundTripTime(String peer, long roundTripTimeMs) {
+        roundTripTime.record(roundTripTimeMs);
+        getPeerMetrics(peer).roundTripTime.set(roundTripTimeMs);
+    }
+
+    public void onPeerDisconnected(String peer) {
+        peerMetrics.remove(peer);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Getters
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public Map<String, MessageTypeMetrics> getMessageTypeMetrics() {
+        return messageTypeMetrics;
+    }
+
+    public Map<String, PeerMetrics> getPeerMetrics() {
+        return peerMetrics;
+    }
+
+    public int getUserThreadQueueSize() {
+        return userThreadQueueSize.get();
+    }
+
+    public int getMaxUserThreadQueueSize() {
+        return maxUserThreadQueueSize.get();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private MessageTypeMetrics getMessageTypeMetrics(String messageType) {
+        // We avoid the locking of computeIfAbsent for the common case of an existing entry
+        MessageTypeMetrics metrics = messageTypeMetrics.get(messageType);
+        return metrics != null ? metrics : messageTypeMetrics.computeIfAbsent(messageType, k -> new MessageTypeMetrics());
+    }
+
+    private PeerMetrics getPeerMetrics(String peer) {
+        PeerMetrics metrics = peerMetrics.get(peer);
+        return metrics != null ? metrics : peerMetrics.computeIfAbsent(peer, k -> new PeerMetrics());
+    }
+}
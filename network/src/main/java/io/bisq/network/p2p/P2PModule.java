@@ -22,6 +22,7 @@ import com.google.inject.name.Names;
 import io.bisq.common.app.AppModule;
 import io.bisq.network.NetworkOptionKeys;
 import io.bisq.network.Socks5ProxyProvider;
+import io.bisq.network.p2p.network.MessageTracer;
 import io.bisq.network.p2p.seed.SeedNodesRepository;
 import org.springframework.core.env.Environment;
 
@@ -55,6 +56,10 @@ public class P2PModule extends AppModule {
         Integer maxConnections = environment.getProperty(NetworkOptionKeys.MAX_CONNECTIONS, int.class, P2PService.MAX_CONNECTIONS_DEFAULT);
         bind(int.class).annotatedWith(Names.named(NetworkOptionKeys.MAX_CONNECTIONS)).toInstance(maxConnections);
 
+        MessageTracer.setSampleRate(environment.getProperty(NetworkOptionKeys.MSG_TRACE_SAMPLE_RATE, int.class, 1));
+        MessageTracer.setCaptureSize(environment.getProperty(NetworkOptionKeys.MSG_CAPTURE_SIZE, int.class, 0));
+        P2PService.setPreConnectEnabled(environment.getProperty(NetworkOptionKeys.PRE_CONNECT, boolean.class, true));
+
         Integer networkId = environment.getProperty(NetworkOptionKeys.NETWORK_ID, int.class, 1);
         bind(int.class).annotatedWith(Names.named(NetworkOptionKeys.NETWORK_ID)).toInstance(networkId);
         bindConstant().annotatedWith(named(NetworkOptionKeys.SEED_NODES_KEY)).to(environment.getRequiredProperty(NetworkOptionKeys.SEED_NODES_KEY));
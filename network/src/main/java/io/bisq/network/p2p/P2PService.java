@@ -53,6 +53,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Paths;
 import java.security.PublicKey;
 import java.util.*;
@@ -66,6 +67,13 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
         HashMapChangedListener, PersistedDataHost {
     private static final Logger log = LoggerFactory.getLogger(P2PService.class);
     public static final int MAX_CONNECTIONS_DEFAULT = 12;
+    private static final String MESSAGE_CAPTURE_FILE_NAME = "MessageCapture.bin";
+
+    private static volatile boolean preConnectEnabled = true;
+
+    public static void setPreConnectEnabled(boolean preConnectEnabled) {
+        P2PService.preConnectEnabled = preConnectEnabled;
+    }
 
     private final SeedNodesRepository seedNodesRepository;
     private final int port;
@@ -104,6 +112,7 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
     private final Socks5ProxyProvider socks5ProxyProvider;
     @Getter
     private Set<NodeAddress> seedNodeAddresses;
+    private File messageCaptureFile;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -201,6 +210,7 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
         if (myAddress != null && !myAddress.isEmpty())
             seedNodesRepository.setNodeAddressToExclude(new NodeAddress(myAddress));
 
+        messageCaptureFile = new File(storageDir, MESSAGE_CAPTURE_FILE_NAME);
         networkNode = useLocalhostForP2P ?
                 new LocalhostNetworkNode(port, networkProtoResolver) :
                 new TorNetworkNode(port, torDir, networkProtoResolver);
@@ -280,6 +290,14 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
 
             shutDownResultHandlers.add(shutDownCompleteHandler);
 
+            if (MessageTracer.isCaptureEnabled() && messageCaptureFile != null) {
+                try {
+                    MessageTracer.writeCapture(messageCaptureFile);
+                } catch (IOException e) {
+                    log.error("Writing the captured messages failed. " + e.toString());
+                }
+            }
+
             if (p2PDataStorage != null)
                 p2PDataStorage.shutDown();
 
@@ -521,6 +539,32 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
         }
     }
 
+    /**
+     * Opens a connection to a peer we expect to send a message to soon (e.g. the trading peer or the arbitrator), so
+     * that the message does not need to wait for the connection setup. Does nothing if we have a connection already
+     * or if pre-connecting is disabled.
+     */
+    public void preConnect(NodeAddress peerNodeAddress) {
+        checkNotNull(peerNodeAddress, "PeerAddress must not be null (preConnect)");
+        if (!preConnectEnabled || !isBootstrapped() || peerNodeAddress.equals(getAddress()))
+            return;
+
+        Futures.addCallback(networkNode.preConnect(peerNodeAddress), new FutureCallback<Connection>() {
+            @Override
+            public void onSuccess(@Nullable Connection connection) {
+                // We mark it like a connection used for direct messages so the PeerManager does not close it first
+                // if we have too many connections
+                if (connection != null && connection.getPeerType() == Connection.PeerType.PEER)
+                    connection.setPeerType(Connection.PeerType.DIRECT_MSG_PEER);
+            }
+
+            @Override
+            public void onFailure(@NotNull Throwable throwable) {
+                log.debug("Pre-connecting to {} failed. {}", peerNodeAddress, throwable.getMessage());
+            }
+        });
+    }
+
     private void doSendEncryptedDirectMessage(@NotNull NodeAddress peersNodeAddress, PubKeyRing pubKeyRing, NetworkEnvelope message,
                                               SendDirectMessageListener sendDirectMessageListener) {
         Log.traceCall();
@@ -11,10 +11,12 @@ import io.bisq.common.proto.network.NetworkProtoResolver;
 import io.bisq.common.util.Tuple2;
 import io.bisq.common.util.Utilities;
 import io.bisq.generated.protobuffer.PB;
+import io.bisq.network.metrics.NetworkMetrics;
 import io.bisq.network.p2p.*;
 import io.bisq.network.p2p.peers.BanList;
 import io.bisq.network.p2p.peers.getdata.messages.GetDataRequest;
 import io.bisq.network.p2p.peers.getdata.messages.GetDataResponse;
+import io.bisq.network.p2p.peers.getdata.messages.GetDataResponseChunk;
 import io.bisq.network.p2p.peers.keepalive.messages.KeepAliveMessage;
 import io.bisq.network.p2p.peers.keepalive.messages.Ping;
 import io.bisq.network.p2p.peers.keepalive.messages.Pong;
@@ -41,6 +43,7 @@ import java.util.UUID;
 import java.util.concurrent.*;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import java.util.zip.DataFormatException;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -97,6 +100,7 @@ public class Connection implements MessageListener {
     // holder of state shared between InputHandler and Connection
     private final SharedModel sharedModel;
     private final Statistic statistic;
+    private final InboundDispatcher.InboundQueue inboundQueue;
 
     // set in init
     private InputHandler inputHandler;
@@ -122,6 +126,7 @@ public class Connection implements MessageListener {
         this.connectionListener = connectionListener;
         uid = UUID.randomUUID().toString();
         statistic = new Statistic();
+        inboundQueue = new InboundDispatcher.InboundQueue(this::deliverMessage, this::getInboundWeight);
 
         addMessageListener(messageListener);
 
@@ -176,7 +181,7 @@ public class Connection implements MessageListener {
 
     // Called from various threads
     public void sendMessage(NetworkEnvelope networkEnvelope) {
-        log.debug(">> Send networkEnvelope of type: " + networkEnvelope.getClass().getSimpleName());
+        log.debug(">> Send networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
 
         if (!stopped) {
             if (!isCapabilityRequired(networkEnvelope) || isCapabilitySupported(networkEnvelope)) {
@@ -194,42 +199,60 @@ public class Connection implements MessageListener {
                     }
 
                     lastSendTimeStamp = now;
-                    String peersNodeAddress = peersNodeAddressOptional.isPresent() ? peersNodeAddressOptional.get().toString() : "null";
-
                     PB.NetworkEnvelope proto = networkEnvelope.toProtoNetworkEnvelope();
-                    log.debug("Sending message: {}", Utilities.toTruncatedString(proto.toString(), 10000));
+                    // Rendering the message is expensive, so we only do it if it gets logged
+                    boolean traced = MessageTracer.isTraced(log);
+                    if (traced)
+                        log.debug("Sending message: {}", MessageTracer.truncated(proto, 10000));
 
                     if (networkEnvelope instanceof Ping | networkEnvelope instanceof RefreshOfferMessage) {
                         // pings and offer refresh msg we dont want to log in production
-                        log.trace("\n\n>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>\n" +
-                                        "Sending direct message to peer" +
-                                        "Write object to outputStream to peer: {} (uid={})\ntruncated message={} / size={}" +
-                                        "\n>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>\n",
-                                peersNodeAddress, uid, proto.toString(), proto.getSerializedSize());
+                        if (traced)
+                            log.trace("\n\n>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>\n" +
+                                            "Sending direct message to peer" +
+                                            "Write object to outputStream to peer: {} (uid={})\ntruncated message={} / size={}" +
+                                            "\n>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>\n",
+                                    getPeersNodeAddressAsString(), uid, MessageTracer.lazy(proto::toString), proto.getSerializedSize());
                     } else if (networkEnvelope instanceof PrefixedSealedAndSignedMessage && peersNodeAddressOptional.isPresent()) {
                         setPeerType(Connection.PeerType.DIRECT_MSG_PEER);
 
-                        log.debug("\n\n>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>\n" +
-                                        "Sending direct message to peer" +
-                                        "Write object to outputStream to peer: {} (uid={})\ntruncated message={} / size={}" +
-                                        "\n>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>\n",
-                                peersNodeAddress, uid, Utilities.toTruncatedString(networkEnvelope), -1);
-                    } else if (networkEnvelope instanceof GetDataResponse && ((GetDataResponse) networkEnvelope).isGetUpdatedDataResponse()) {
+                        if (traced)
+                            log.debug("\n\n>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>\n" +
+                                            "Sending direct message to peer" +
+                                            "Write object to outputStream to peer: {} (uid={})\ntruncated message={} / size={}" +
+                                            "\n>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>\n",
+                                    getPeersNodeAddressAsString(), uid, MessageTracer.truncated(networkEnvelope), -1);
+                    } else if ((networkEnvelope instanceof GetDataResponse && ((GetDataResponse) networkEnvelope).isGetUpdatedDataResponse()) ||
+                            (networkEnvelope instanceof GetDataResponseChunk && ((GetDataResponseChunk) networkEnvelope).isGetUpdatedDataResponse())) {
                         setPeerType(Connection.PeerType.PEER);
-                    } else {
+                    } else if (traced) {
                         log.debug("\n\n>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>\n" +
                                         "Write object to outputStream to peer: {} (uid={})\ntruncated message={} / size={}" +
                                         "\n>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>\n",
-                                peersNodeAddress, uid, Utilities.toTruncatedString(networkEnvelope), proto.getSerializedSize());
+                                getPeersNodeAddressAsString(), uid, MessageTracer.truncated(networkEnvelope), proto.getSerializedSize());
                     }
+                    MessageTracer.capture(true, uid, proto);
 
                     if (!stopped) {
+                        long startTs = System.nanoTime();
+                        // We compress outside of the lock
+                        PB.NetworkEnvelope wireProto = null;
+                        if (EnvelopeCompression.isSupported(sharedModel.getSupportedCapabilities()))
+                            wireProto = EnvelopeCompression.compress(proto);
+                        if (wireProto == null)
+                            wireProto = proto;
+
                         protoOutputStreamLock.lock();
-                        proto.writeDelimitedTo(protoOutputStream);
+                        wireProto.writeDelimitedTo(protoOutputStream);
                         protoOutputStream.flush();
 
-                        statistic.addSentBytes(proto.getSerializedSize());
+                        int wireSize = wireProto.getSerializedSize();
+                        statistic.addSentBytes(wireSize);
                         statistic.addSentMessage(networkEnvelope);
+                        NetworkMetrics.getInstance().onMessageSent(networkEnvelope.getClass().getSimpleName(),
+                                wireSize,
+                                System.nanoTime() - startTs,
+                                getPeersFullAddress());
 
                         // We don't want to get the activity ts updated by ping/pong msg
                         if (!(networkEnvelope instanceof KeepAliveMessage))
@@ -358,7 +381,32 @@ public class Connection implements MessageListener {
     @Override
     public void onMessage(NetworkEnvelope networkEnvelop, Connection connection) {
         checkArgument(connection.equals(this));
-        UserThread.execute(() -> messageListeners.stream().forEach(e -> e.onMessage(networkEnvelop, connection)));
+        try {
+            // Blocks the InputHandler if the listeners can't keep up with the peer
+            InboundDispatcher.getInstance().enqueue(inboundQueue, networkEnvelop);
+        } catch (InterruptedException e) {
+            // The InputHandler checks the interrupted flag
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Called by the InboundDispatcher on the UserThread
+    private void deliverMessage(NetworkEnvelope networkEnvelope) {
+        messageListeners.stream().forEach(e -> e.onMessage(networkEnvelope, this));
+    }
+
+    // Number of messages delivered per round of the InboundDispatcher
+    private int getInboundWeight() {
+        if (peerType == null)
+            return 1;
+
+        switch (peerType) {
+            case SEED_NODE:
+            case DIRECT_MSG_PEER:
+                return 2;
+            default:
+                return 1;
+        }
     }
 
 
@@ -429,6 +477,15 @@ public class Connection implements MessageListener {
         return statistic;
     }
 
+    private String getPeersNodeAddressAsString() {
+        return peersNodeAddressOptional.isPresent() ? peersNodeAddressOptional.get().toString() : "null";
+    }
+
+    @Nullable
+    private String getPeersFullAddress() {
+        return peersNodeAddressOptional.isPresent() ? peersNodeAddressOptional.get().getFullAddress() : null;
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // ShutDown
@@ -441,7 +498,7 @@ public class Connection implements MessageListener {
     public void shutDown(CloseConnectionReason closeConnectionReason, @Nullable Runnable shutDownCompleteHandler) {
         Log.traceCall(this.toString());
         if (!stopped) {
-            String peersNodeAddress = peersNodeAddressOptional.isPresent() ? peersNodeAddressOptional.get().toString() : "null";
+            String peersNodeAddress = getPeersNodeAddressAsString();
             log.debug("\n\n%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%\n" +
                     "ShutDown connection:"
                     + "\npeersNodeAddress=" + peersNodeAddress
@@ -485,11 +542,15 @@ public class Connection implements MessageListener {
         sharedModel.stop();
         if (inputHandler != null)
             inputHandler.stop();
+        inboundQueue.close();
     }
 
     private void doShutDown(CloseConnectionReason closeConnectionReason, @Nullable Runnable shutDownCompleteHandler) {
         // Use UserThread.execute as its not clear if that is called from a non-UserThread
         UserThread.execute(() -> connectionListener.onDisconnect(closeConnectionReason, this));
+        String peersFullAddress = getPeersFullAddress();
+        if (peersFullAddress != null)
+            NetworkMetrics.getInstance().onPeerDisconnected(peersFullAddress);
         try {
             sharedModel.getSocket().close();
         } catch (SocketException e) {
@@ -755,7 +816,7 @@ public class Connection implements MessageListener {
                         }
 
                         Connection connection = checkNotNull(sharedModel.connection, "connection must not be null");
-                        log.trace("InputHandler waiting for incoming network_messages.\n\tConnection=" + connection);
+                        log.trace("InputHandler waiting for incoming network_messages.\n\tConnection={}", connection);
 
                         // Throttle inbound network_messages
                         long now = System.currentTimeMillis();
@@ -777,21 +838,39 @@ public class Connection implements MessageListener {
                             return;
                         }
 
+                        // The size on the wire, proto.getSerializedSize() is the size of the uncompressed envelope
+                        int wireSize = proto.getSerializedSize();
+                        long decodeStartTs = System.nanoTime();
+                        if (proto.getMessageCase() == PB.NetworkEnvelope.MessageCase.COMPRESSED_ENVELOPE) {
+                            try {
+                                proto = EnvelopeCompression.decompress(proto.getCompressedEnvelope(), MAX_PERMITTED_MESSAGE_SIZE);
+                            } catch (DataFormatException | IOException e) {
+                                log.warn("Invalid compressed envelope. {}", e.getMessage());
+                                connection.statistic.addReceivedBytes(wireSize);
+                                if (reportInvalidRequest(RuleViolation.INVALID_COMPRESSED_DATA))
+                                    return;
+                                continue;
+                            }
+                        }
                         NetworkEnvelope networkEnvelope = networkProtoResolver.fromProto(proto);
+                        long decodeNanos = System.nanoTime() - decodeStartTs;
                         lastReadTimeStamp = now;
-                        log.debug("<< Received networkEnvelope of type: " + networkEnvelope.getClass().getSimpleName());
+                        log.debug("<< Received networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
 
                         int size = proto.getSerializedSize();
-                        if (networkEnvelope instanceof Pong || networkEnvelope instanceof RefreshOfferMessage) {
+                        MessageTracer.capture(false, connection.getUid(), proto);
+                        // Rendering the message is expensive, so we only do it if it gets logged
+                        boolean traced = MessageTracer.isTraced(log);
+                        if (traced && (networkEnvelope instanceof Pong || networkEnvelope instanceof RefreshOfferMessage)) {
                             // We only log Pong and RefreshOfferMsg when in dev environment (trace)
                             log.trace("\n\n<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<\n" +
                                             "New data arrived at inputHandler of connection {}.\n" +
                                             "Received object (truncated)={} / size={}"
                                             + "\n<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<\n",
                                     connection,
-                                    Utilities.toTruncatedString(proto.toString()),
+                                    MessageTracer.truncated(proto),
                                     size);
-                        } else {
+                        } else if (traced) {
                             // We want to log all incoming network_messages (except Pong and RefreshOfferMsg)
                             // so we log before the data type checks
                             //log.info("size={}; object={}", size, Utilities.toTruncatedString(rawInputObject.toString(), 100));
@@ -800,21 +879,25 @@ public class Connection implements MessageListener {
                                             "Received object (truncated)={} / size={}"
                                             + "\n<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<\n",
                                     connection,
-                                    Utilities.toTruncatedString(proto.toString()),
+                                    MessageTracer.truncated(proto),
                                     size);
                         }
 
                         // We want to track the size of each object even if it is invalid data
-                        connection.statistic.addReceivedBytes(size);
+                        connection.statistic.addReceivedBytes(wireSize);
 
                         // We want to track the network_messages also before the checks, so do it early...
                         connection.statistic.addReceivedMessage(networkEnvelope);
+                        NetworkMetrics.getInstance().onMessageReceived(networkEnvelope.getClass().getSimpleName(),
+                                wireSize,
+                                decodeNanos,
+                                connection.getPeersFullAddress());
 
                         // First we check thel size
                         boolean exceeds;
                         if (networkEnvelope instanceof ExtendedDataSizePermission) {
                             exceeds = size > MAX_PERMITTED_MESSAGE_SIZE;
-                            log.debug("size={}; object={}", size, Utilities.toTruncatedString(proto, 100));
+                            log.debug("size={}; object={}", size, MessageTracer.truncated(proto, 100));
                         } else {
                             exceeds = size > PERMITTED_MESSAGE_SIZE;
                         }
@@ -875,8 +958,12 @@ public class Connection implements MessageListener {
                             // 2. DataRequest (implements SendersNodeAddressMessage)
                             // 3. GetPeersRequest (implements SendersNodeAddressMessage)
                             // 4. DirectMessage (implements SendersNodeAddressMessage)
-                            if (networkEnvelope instanceof SendersNodeAddressMessage) {
-                                NodeAddress senderNodeAddress = ((SendersNodeAddressMessage) networkEnvelope).getSenderNodeAddress();
+                            // 5. Ping sent when pre-connecting (implements SendersNodeAddressMessage, the address is
+                            // not set at the regular pings)
+                            NodeAddress senderNodeAddress = networkEnvelope instanceof SendersNodeAddressMessage ?
+                                    ((SendersNodeAddressMessage) networkEnvelope).getSenderNodeAddress() :
+                                    null;
+                            if (senderNodeAddress != null) {
                                 // We must not shut down a banned peer at that moment as it would trigger a connection termination
                                 // and we could not send the CloseConnectionMessage.
                                 // We shut down a banned peer at the next step at setPeersNodeAddress().
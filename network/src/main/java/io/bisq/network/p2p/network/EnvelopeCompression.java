@@ -0,0 +1,174 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.network.p2p.network;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import io.bisq.common.app.Capabilities;
+import io.bisq.generated.protobuffer.PB;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compression of large NetworkEnvelopes for peers which support the COMPRESSED_ENVELOPE capability. The envelope is
+ * wrapped in a CompressedEnvelope, so the framing of the connection does not change.
+ * <p>
+ * We use Deflate with a preset dictionary of the strings which are repeated in most offers and storage entries
+ * (payment method IDs, currency and country codes, onion addresses), so also a single offer compresses well.
+ * The dictionary of an ID must never change. For a new dictionary add a new ID and keep the old one for
+ * decompression.
+ * <p>
+ * Decompression is bounded: the uncompressed size is announced by the sender and must not exceed the max. size of
+ * a message, and we stop inflating as soon as the data exceeds the announced size.
+ */
+final class EnvelopeCompression {
+    // Smaller messages are sent uncompressed
+    static final int MIN_COMPRESSION_SIZE = 4 * 1024;
+    // We only send the compressed envelope if it saves at least 10%
+    private static final double MAX_COMPRESSION_RATIO = 0.9;
+    static final int DICTIONARY_ID = 1;
+    private static final byte[] DICTIONARY = createDictionary();
+
+    private EnvelopeCompression() {
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    static boolean isSupported(@Nullable List<Integer> supportedCapabilities) {
+        return supportedCapabilities != null &&
+                supportedCapabilities.contains(Capabilities.Capability.COMPRESSED_ENVELOPE.ordinal());
+    }
+
+    /**
+     * @return The compressed envelope or null if the envelope is too small or does not compress well
+     */
+    @Nullable
+    static PB.NetworkEnvelope compress(PB.NetworkEnvelope proto) {
+        int size = proto.getSerializedSize();
+        if (size < MIN_COMPRESSION_SIZE)
+            return null;
+
+        byte[] input = proto.toByteArray();
+        int maxCompressedSize = (int) (input.length * MAX_COMPRESSION_RATIO);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(input.length / 4);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                outputStream.write(buffer, 0, length);
+                if (outputStream.size() > maxCompressedSize)
+                    return null;
+            }
+
+            return PB.NetworkEnvelope.newBuilder()
+                    .setMessageVersion(proto.getMessageVersion())
+                    .setCompressedEnvelope(PB.CompressedEnvelope.newBuilder()
+                            .setCodec(PB.CompressedEnvelope.Codec.DEFLATE)
+                            .setDictionaryId(DICTIONARY_ID)
+                            .setUncompressedSize(input.length)
+                            .setData(ByteString.copyFrom(outputStream.toByteArray())))
+                    .build();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @param maxSize Max. permitted size of the uncompressed envelope
+     * @throws DataFormatException If the data is invalid or exceeds the announced size or maxSize
+     * @throws IOException         If the uncompressed data is not a valid NetworkEnvelope
+     */
+    static PB.NetworkEnvelope decompress(PB.CompressedEnvelope compressedEnvelope, int maxSize)
+            throws DataFormatException, IOException {
+        if (compressedEnvelope.getCodec() != PB.CompressedEnvelope.Codec.DEFLATE)
+            throw new DataFormatException("Unsupported codec " + compressedEnvelope.getCodec());
+
+        int size = compressedEnvelope.getUncompressedSize();
+        if (size <= 0 || size > maxSize)
+            throw new DataFormatException("Invalid uncompressed size " + size);
+
+        // One byte more than announced lets us detect if the data exceeds the announced size
+        byte[] output = new byte[size + 1];
+        int offset = 0;
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressedEnvelope.getData().toByteArray());
+            while (!inflater.finished()) {
+                int length = inflater.inflate(output, offset, output.length - offset);
+                offset += length;
+                if (offset > size)
+                    throw new DataFormatException("Uncompressed data exceeds the announced size of " + size);
+
+                if (length == 0) {
+                    if (inflater.needsDictionary()) {
+                        if (compressedEnvelope.getDictionaryId() != DICTIONARY_ID)
+                            throw new DataFormatException("Unknown dictionary " + compressedEnvelope.getDictionaryId());
+                        inflater.setDictionary(DICTIONARY);
+                    } else if (inflater.needsInput()) {
+                        throw new DataFormatException("Compressed data is truncated");
+                    }
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+        if (offset != size)
+            throw new DataFormatException("Uncompressed size " + offset + " does not match the announced size of " + size);
+
+        PB.NetworkEnvelope proto = PB.NetworkEnvelope.parseFrom(CodedInputStream.newInstance(output, 0, size));
+        if (proto.getMessageCase() == PB.NetworkEnvelope.MessageCase.COMPRESSED_ENVELOPE)
+            throw new DataFormatException("Nested compressed envelope");
+        return proto;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Deflate finds matches best at the end of the dictionary, so the most frequent strings come last
+    private static byte[] createDictionary() {
+        String[] strings = {
+                "PERFECT_MONEY", "OK_PAY", "SWISH", "ALI_PAY", "CLEAR_X_CHANGE", "CHASE_QUICK_PAY",
+                "INTERAC_E_TRANSFER", "US_POSTAL_MONEY_ORDER", "CASH_DEPOSIT", "FASTER_PAYMENTS", "SAME_BANK",
+                "SPECIFIC_BANKS", "NATIONAL_BANK", "SEPA", "BLOCK_CHAINS",
+                "AUD", "BRL", "CAD", "CHF", "CNY", "CZK", "DKK", "GBP", "HKD", "INR", "JPY", "MXN", "NOK", "NZD",
+                "PLN", "RUB", "SEK", "SGD", "ZAR", "USD", "EUR",
+                "AT", "BE", "CH", "CZ", "DE", "DK", "ES", "FI", "FR", "GB", "IE", "IT", "NL", "NO", "PL", "PT",
+                "SE", "US",
+                "XMR", "ETH", "ETC", "LTC", "DASH", "DOGE", "BSQ", "BTC",
+                "0.5.0", "0.5.1", "0.5.2", "0.5.3",
+                ".onion"
+        };
+        return String.join("", strings).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.network.p2p.network;
+
+import io.bisq.common.UserThread;
+import io.bisq.common.proto.network.NetworkEnvelope;
+import io.bisq.network.metrics.NetworkMetrics;
+import io.bisq.network.p2p.PrefixedSealedAndSignedMessage;
+import io.bisq.network.p2p.peers.keepalive.messages.KeepAliveMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Schedules the received messages of all connections for the message listeners on the UserThread.
+ * <p>
+ * Each connection has its own queue. The dispatcher serves the connections round robin, a connection can deliver
+ * up to its weight of messages per round. Keep alive and trade messages (PrefixedSealedAndSignedMessage) have
+ * priority and are delivered before the other messages of all connections, so a peer flooding us with data does not
+ * delay them. Messages of the same class are delivered in the order they arrived at the connection.
+ * <p>
+ * A run on the UserThread delivers at most MAX_MESSAGES_PER_RUN messages, then the next run is queued up behind the
+ * tasks which got posted in the meantime.
+ * <p>
+ * If the queue of a connection is full the InputHandler of the connection is blocked at enqueue, so we stop reading
+ * from the socket until the listeners have caught up (backpressure via TCP flow control).
+ */
+@Slf4j
+final class InboundDispatcher {
+    static final int MAX_QUEUED_MESSAGES = 100;
+    static final int MAX_MESSAGES_PER_RUN = 50;
+    // We wake up periodically to check if the queue got closed
+    private static final long MAX_WAIT_MS = 1000;
+
+    private static final InboundDispatcher instance = new InboundDispatcher();
+
+    static InboundDispatcher getInstance() {
+        return instance;
+    }
+
+    private static final class QueuedMessage {
+        final NetworkEnvelope networkEnvelope;
+        final long queuedTs;
+
+        QueuedMessage(NetworkEnvelope networkEnvelope, long queuedTs) {
+            this.networkEnvelope = networkEnvelope;
+            this.queuedTs = queuedTs;
+        }
+    }
+
+    /**
+     * The queue of a connection. All fields are guarded by the InboundQueue instance.
+     */
+    static final class InboundQueue {
+        private final Consumer<NetworkEnvelope> handler;
+        private final IntSupplier weight;
+        private final Queue<QueuedMessage> priorityMessages = new ArrayDeque<>();
+        private final Queue<QueuedMessage> messages = new ArrayDeque<>();
+        // True while the queue is in the according ready queue of the dispatcher or gets served by the dispatcher
+        private boolean priorityScheduled;
+        private boolean scheduled;
+        private boolean paused;
+        private boolean closed;
+
+        /**
+         * @param handler Delivers the message to the listeners. Called on the UserThread.
+         * @param weight  Number of messages which are delivered per round, at least 1
+         */
+        InboundQueue(Consumer<NetworkEnvelope> handler, IntSupplier weight) {
+            this.handler = handler;
+            this.weight = weight;
+        }
+
+        synchronized int size() {
+            return priorityMessages.size() + messages.size();
+        }
+
+        /**
+         * Releases a blocked enqueue call. Messages which are still queued get delivered.
+         */
+        synchronized void close() {
+            closed = true;
+            notifyAll();
+        }
+
+        private void onMessagesRemoved() {
+            if (paused) {
+                paused = false;
+                notifyAll();
+            }
+        }
+    }
+
+    private final Queue<InboundQueue> priorityReadyQueues = new ConcurrentLinkedQueue<>();
+    private final Queue<InboundQueue> readyQueues = new ConcurrentLinkedQueue<>();
+    private final Runnable dispatchTask = this::dispatch;
+    private final int maxQueuedMessages;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    InboundDispatcher(int maxQueuedMessages) {
+        this.maxQueuedMessages = maxQueuedMessages;
+    }
+
+    private InboundDispatcher() {
+        this(MAX_QUEUED_MESSAGES);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    static boolean isPriorityMessage(NetworkEnvelope networkEnvelope) {
+        return networkEnvelope instanceof KeepAliveMessage || networkEnvelope instanceof PrefixedSealedAndSignedMessage;
+    }
+
+    /**
+     * Adds the message to the queue of the connection. Blocks while the queue is full.
+     * Called from the InputHandler thread of the connection.
+     *
+     * @return False if the queue was closed and the message got dropped
+     */
+    boolean enqueue(InboundQueue queue, NetworkEnvelope networkEnvelope) throws InterruptedException {
+        boolean priority = isPriorityMessage(networkEnvelope);
+        synchronized (queue) {
+            while (queue.size() >= maxQueuedMessages && !queue.closed) {
+                if (!queue.paused) {
+                    queue.paused = true;
+                    log.debug("Queue of inbound messages is full. We pause reading from the connection.");
+                }
+                queue.wait(MAX_WAIT_MS);
+            }
+            if (queue.closed)
+                return false;
+
+            QueuedMessage queuedMessage = new QueuedMessage(networkEnvelope, System.nanoTime());
+            if (priority) {
+                queue.priorityMessages.add(queuedMessage);
+                if (!queue.priorityScheduled) {
+                    queue.priorityScheduled = true;
+                    priorityReadyQueues.add(queue);
+                }
+            } else {
+                queue.messages.add(queuedMessage);
+                if (!queue.scheduled) {
+                    queue.scheduled = true;
+                    readyQueues.add(queue);
+                }
+            }
+        }
+        NetworkMetrics.getInstance().onMessageQueued();
+        UserThread.executeCoalesced(dispatchTask);
+        return true;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void dispatch() {
+        int numDelivered = 0;
+        try {
+            // Priority messages are checked before each round
+            while (numDelivered < MAX_MESSAGES_PER_RUN) {
+                InboundQueue queue;
+                if ((queue = priorityReadyQueues.poll()) != null)
+                    numDelivered += deliverPriorityMessage(queue);
+                else if ((queue = readyQueues.poll()) != null)
+                    numDelivered += deliverRound(queue, MAX_MESSAGES_PER_RUN - numDelivered);
+                else
+                    break;
+            }
+        } finally {
+            // Also if a listener has thrown we don't want to leave messages behind
+            if (!priorityReadyQueues.isEmpty() || !readyQueues.isEmpty())
+                UserThread.executeCoalesced(dispatchTask);
+        }
+    }
+
+    private int deliverPriorityMessage(InboundQueue queue) {
+        QueuedMessage queuedMessage;
+        synchronized (queue) {
+            queuedMessage = queue.priorityMessages.poll();
+            if (queue.priorityMessages.isEmpty())
+                queue.priorityScheduled = false;
+            else
+                priorityReadyQueues.add(queue);
+            queue.onMessagesRemoved();
+        }
+        if (queuedMessage == null)
+            return 0;
+
+        deliver(queue, queuedMessage);
+        return 1;
+    }
+
+    private int deliverRound(InboundQueue queue, int maxMessages) {
+        int quantum = Math.max(1, Math.min(queue.weight.getAsInt(), maxMessages));
+        int numDelivered = 0;
+        boolean lastOfRound = false;
+        while (!lastOfRound) {
+            QueuedMessage queuedMessage;
+            synchronized (queue) {
+                queuedMessage = queue.messages.poll();
+                lastOfRound = numDelivered + 1 >= quantum || queue.messages.isEmpty();
+                // The queue goes to the end of the next round if it has more messages
+                if (lastOfRound)
+                    reschedule(queue);
+                queue.onMessagesRemoved();
+            }
+            if (queuedMessage == null)
+                break;
+
+            numDelivered++;
+            boolean delivered = false;
+            try {
+                deliver(queue, queuedMessage);
+                delivered = true;
+            } finally {
+                // If the listener has thrown before the end of the round we need to reschedule the queue
+                if (!delivered && !lastOfRound)
+                    reschedule(queue);
+            }
+        }
+        return numDelivered;
+    }
+
+    // Called by the dispatcher after it has served the queue
+    private void reschedule(InboundQueue queue) {
+        synchronized (queue) {
+            if (queue.messages.isEmpty())
+                queue.scheduled = false;
+            else
+                readyQueues.add(queue);
+        }
+    }
+
+    private void deliver(InboundQueue queue, QueuedMessage queuedMessage) {
+        long startTs = System.nanoTime();
+        try {
+            queue.handler.accept(queuedMessage.networkEnvelope);
+        } finally {
+            NetworkMetrics.getInstance().onMessageHandled(queuedMessage.networkEnvelope.getClass().getSimpleName(),
+                    startTs - queuedMessage.queuedTs,
+                    System.nanoTime() - startTs);
+        }
+    }
+}
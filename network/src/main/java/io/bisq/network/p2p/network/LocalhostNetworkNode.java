@@ -30,6 +30,7 @@ public class LocalhostNetworkNode extends NetworkNode {
 
     private static volatile int simulateTorDelayTorNode = 500;
     private static volatile int simulateTorDelayHiddenService = 500;
+    private static volatile int simulateConnectDelay = 0;
 
     public static void setSimulateTorDelayTorNode(int simulateTorDelayTorNode) {
         LocalhostNetworkNode.simulateTorDelayTorNode = simulateTorDelayTorNode;
@@ -39,6 +40,10 @@ public class LocalhostNetworkNode extends NetworkNode {
         LocalhostNetworkNode.simulateTorDelayHiddenService = simulateTorDelayHiddenService;
     }
 
+    public static void setSimulateConnectDelay(int simulateConnectDelay) {
+        LocalhostNetworkNode.simulateConnectDelay = simulateConnectDelay;
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -79,6 +84,9 @@ public class LocalhostNetworkNode extends NetworkNode {
     // Called from NetworkNode thread
     @Override
     protected Socket createSocket(NodeAddress peerNodeAddress) throws IOException {
+        // Simulates the time Tor needs for building a circuit to the hidden service
+        if (simulateConnectDelay > 0)
+            Uninterruptibles.sleepUninterruptibly(simulateConnectDelay, TimeUnit.MILLISECONDS);
         return new Socket(peerNodeAddress.getHostName(), peerNodeAddress.getPort());
     }
 
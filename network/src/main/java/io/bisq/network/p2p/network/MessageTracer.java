@@ -0,0 +1,237 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.network.p2p.network;
+
+import io.bisq.common.util.Utilities;
+import io.bisq.generated.protobuffer.PB;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+
+import java.io.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Tracing of the messages sent and received by our connections.
+ * <p>
+ * Rendering a message as text is expensive (a GetDataResponse can have several MB), so the messages are only
+ * rendered if the log level is enabled and the message is sampled. Use the lazy and truncated methods for log
+ * arguments, they get rendered by the logger only if the message is actually logged.
+ * <p>
+ * Optionally the serialized frames of the last messages are kept in a ring buffer which gets written to disk at
+ * shutdown for post-mortem analysis.
+ */
+@Slf4j
+public final class MessageTracer {
+    // Larger frames are truncated in the capture
+    static final int MAX_CAPTURED_FRAME_SIZE = 64 * 1024;
+
+    private static final class Frame {
+        final long timeStamp;
+        final boolean outbound;
+        final String connectionUid;
+        final int size;
+        final byte[] bytes;
+
+        Frame(long timeStamp, boolean outbound, String connectionUid, int size, byte[] bytes) {
+            this.timeStamp = timeStamp;
+            this.outbound = outbound;
+            this.connectionUid = connectionUid;
+            this.size = size;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Keeps the first bytes written to it and stops the serialization with an IOException when it is full.
+     */
+    private static final class TruncatingOutputStream extends OutputStream {
+        private final byte[] bytes;
+        private int position;
+
+        TruncatingOutputStream(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (position == bytes.length)
+                throw new IOException("Capture buffer is full");
+            bytes[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            int numBytes = Math.min(len, bytes.length - position);
+            System.arraycopy(b, off, bytes, position, numBytes);
+            position += numBytes;
+            if (numBytes < len)
+                throw new IOException("Capture buffer is full");
+        }
+    }
+
+    private static final AtomicLong messageCounter = new AtomicLong();
+    private static volatile int sampleRate = 1;
+    // Null if the capture is disabled
+    private static volatile Frame[] capturedFrames;
+    private static int nextFrameIndex;
+
+    private MessageTracer() {
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Configuration
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param sampleRate Only every sampleRate-th message gets traced. 1 traces all messages.
+     */
+    public static void setSampleRate(int sampleRate) {
+        checkArgument(sampleRate > 0, "sampleRate must be positive");
+        MessageTracer.sampleRate = sampleRate;
+    }
+
+    /**
+     * @param numFrames Number of frames to keep in the capture. 0 disables the capture.
+     */
+    public static synchronized void setCaptureSize(int numFrames) {
+        checkArgument(numFrames >= 0, "numFrames must not be negative");
+        capturedFrames = numFrames > 0 ? new Frame[numFrames] : null;
+        nextFrameIndex = 0;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Tracing
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return true if DEBUG is enabled for the logger and the message is sampled. Call it once per message.
+     */
+    public static boolean isTraced(Logger logger) {
+        if (!logger.isDebugEnabled())
+            return false;
+
+        int rate = sampleRate;
+        return rate == 1 || messageCounter.getAndIncrement() % rate == 0;
+    }
+
+    /**
+     * @return Log argument which is rendered by the supplier when the log statement is actually written
+     */
+    public static Object lazy(Supplier<String> supplier) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return supplier.get();
+            }
+        };
+    }
+
+    /**
+     * @return Log argument which renders Utilities.toTruncatedString(message, maxLength) when the log statement is
+     * actually written
+     */
+    public static Object truncated(Object message, int maxLength) {
+        return lazy(() -> Utilities.toTruncatedString(message, maxLength));
+    }
+
+    public static Object truncated(Object message) {
+        return lazy(() -> Utilities.toTruncatedString(message));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Capture
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static boolean isCaptureEnabled() {
+        return capturedFrames != null;
+    }
+
+    /**
+     * Adds the serialized message to the capture. Does nothing if the capture is disabled.
+     */
+    public static void capture(boolean outbound, String connectionUid, PB.NetworkEnvelope proto) {
+        if (capturedFrames == null)
+            return;
+
+        // We serialize outside of the lock
+        int size = proto.getSerializedSize();
+        byte[] bytes;
+        if (size <= MAX_CAPTURED_FRAME_SIZE) {
+            bytes = proto.toByteArray();
+        } else {
+            // We only serialize the part we keep
+            bytes = new byte[MAX_CAPTURED_FRAME_SIZE];
+            try {
+                proto.writeTo(new TruncatingOutputStream(bytes));
+            } catch (IOException ignore) {
+                // Expected when the buffer is full
+            }
+        }
+        Frame frame = new Frame(System.currentTimeMillis(), outbound, connectionUid, size, bytes);
+        synchronized (MessageTracer.class) {
+            Frame[] frames = capturedFrames;
+            if (frames != null) {
+                frames[nextFrameIndex] = frame;
+                nextFrameIndex = (nextFrameIndex + 1) % frames.length;
+            }
+        }
+    }
+
+    /**
+     * Writes the captured frames, oldest first. Each frame is written as time stamp (long), outbound (boolean),
+     * connection uid (UTF), size of the message (int), number of captured bytes (int) and the captured bytes.
+     * A frame holds the complete serialized NetworkEnvelope if its size is not larger than MAX_CAPTURED_FRAME_SIZE.
+     *
+     * @return Number of written frames
+     */
+    public static int writeCapture(File file) throws IOException {
+        Frame[] frames;
+        int startIndex;
+        synchronized (MessageTracer.class) {
+            if (capturedFrames == null)
+                return 0;
+            frames = capturedFrames.clone();
+            startIndex = nextFrameIndex;
+        }
+
+        int numFrames = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            for (int i = 0; i < frames.length; i++) {
+                Frame frame = frames[(startIndex + i) % frames.length];
+                if (frame == null)
+                    continue;
+
+                out.writeLong(frame.timeStamp);
+                out.writeBoolean(frame.outbound);
+                out.writeUTF(frame.connectionUid);
+                out.writeInt(frame.size);
+                out.writeInt(frame.bytes.length);
+                out.write(frame.bytes);
+                numFrames++;
+            }
+        }
+        log.info("Wrote {} captured messages to {}", numFrames, file);
+        return numFrames;
+    }
+}
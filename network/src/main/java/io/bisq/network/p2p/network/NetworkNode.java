@@ -8,6 +8,7 @@ import io.bisq.common.proto.network.NetworkEnvelope;
 import io.bisq.common.proto.network.NetworkProtoResolver;
 import io.bisq.common.util.Utilities;
 import io.bisq.network.p2p.NodeAddress;
+import io.bisq.network.p2p.peers.keepalive.messages.Ping;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -21,8 +22,11 @@ import java.net.ConnectException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
@@ -47,6 +51,8 @@ public abstract class NetworkNode implements MessageListener {
     private volatile boolean shutDownInProgress;
     // accessed from different threads
     private final CopyOnWriteArraySet<OutboundConnection> outBoundConnections = new CopyOnWriteArraySet<>();
+    // Connections which are being created, until they are added to outBoundConnections
+    private final Map<NodeAddress, SettableFuture<Connection>> pendingConnections = new ConcurrentHashMap<>();
     protected final ObjectProperty<NodeAddress> nodeAddressProperty = new SimpleObjectProperty<>();
 
 
@@ -78,112 +84,177 @@ public abstract class NetworkNode implements MessageListener {
         if (connection != null) {
             return sendMessage(connection, networkEnvelop);
         } else {
-            log.debug("We have not found any connection for peerAddress {}.\n\t" +
-                    "We will create a new outbound connection.", peersNodeAddress);
-
             final SettableFuture<Connection> resultFuture = SettableFuture.create();
-            ListenableFuture<Connection> future = executorService.submit(() -> {
-                Thread.currentThread().setName("NetworkNode:SendMessage-to-" + peersNodeAddress);
-                OutboundConnection outboundConnection = null;
-                try {
-                    // can take a while when using tor
-                    long startTs = System.currentTimeMillis();
-                    log.debug("Start create socket to peersNodeAddress {}", peersNodeAddress.getFullAddress());
-                    Socket socket = createSocket(peersNodeAddress);
-                    long duration = System.currentTimeMillis() - startTs;
-                    log.debug("Socket creation to peersNodeAddress {} took {} ms", peersNodeAddress.getFullAddress(),
-                            duration);
-
-                    if (duration > CREATE_SOCKET_TIMEOUT_MILLIS)
-                        throw new TimeoutException("A timeout occurred when creating a socket.");
-
-                    // Tor needs sometimes quite long to create a connection. To avoid that we get too many double 
-                    // sided connections we check again if we still don't have any connection for that node address.
-                    Connection existingConnection = getInboundConnection(peersNodeAddress);
-                    if (existingConnection == null)
-                        existingConnection = getOutboundConnection(peersNodeAddress);
-
-                    if (existingConnection != null) {
-                        log.debug("We found in the meantime a connection for peersNodeAddress {}, " +
-                                        "so we use that for sending the message.\n" +
-                                        "That can happen if Tor needs long for creating a new outbound connection.\n" +
-                                        "We might have got a new inbound or outbound connection.",
-                                peersNodeAddress.getFullAddress());
-                        try {
-                            socket.close();
-                        } catch (Throwable throwable) {
-                            log.error("Error at closing socket " + throwable);
-                        }
-                        existingConnection.sendMessage(networkEnvelop);
-                        return existingConnection;
-                    } else {
-                        final ConnectionListener connectionListener = new ConnectionListener() {
-                            @Override
-                            public void onConnection(Connection connection) {
-                                if (!connection.isStopped()) {
-                                    outBoundConnections.add((OutboundConnection) connection);
-                                    printOutBoundConnections();
-                                    connectionListeners.stream().forEach(e -> e.onConnection(connection));
-                                }
-                            }
-
-                            @Override
-                            public void onDisconnect(CloseConnectionReason closeConnectionReason, Connection connection) {
-                                log.trace("onDisconnect connectionListener\n\tconnection={}" + connection);
-                                //noinspection SuspiciousMethodCalls
-                                outBoundConnections.remove(connection);
-                                printOutBoundConnections();
-                                connectionListeners.stream().forEach(e -> e.onDisconnect(closeConnectionReason, connection));
-                            }
-
-                            @Override
-                            public void onError(Throwable throwable) {
-                                log.error("new OutboundConnection.ConnectionListener.onError " + throwable.getMessage());
-                                connectionListeners.stream().forEach(e -> e.onError(throwable));
-                            }
-                        };
-                        outboundConnection = new OutboundConnection(socket,
-                                NetworkNode.this,
-                                connectionListener,
-                                peersNodeAddress,
-                                networkProtoResolver);
-
-                        log.debug("\n\n%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%\n" +
-                                "NetworkNode created new outbound connection:"
-                                + "\nmyNodeAddress=" + getNodeAddress()
-                                + "\npeersNodeAddress=" + peersNodeAddress
-                                + "\nuid=" + outboundConnection.getUid()
-                                + "\nmessage=" + networkEnvelop
-                                + "\n%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%\n");
-
-                        // can take a while when using tor
-                        outboundConnection.sendMessage(networkEnvelop);
-                        return outboundConnection;
-                    }
-                } catch (Throwable throwable) {
-                    if (!(throwable instanceof ConnectException ||
-                            throwable instanceof IOException ||
-                            throwable instanceof TimeoutException)) {
-                        log.warn("Executing task failed. " + throwable.getMessage());
-                    }
-                    throw throwable;
-                }
-            });
-
-            Futures.addCallback(future, new FutureCallback<Connection>() {
+            Futures.addCallback(getOrCreateOutboundConnection(peersNodeAddress), new FutureCallback<Connection>() {
                 public void onSuccess(Connection connection) {
-                    UserThread.execute(() -> resultFuture.set(connection));
+                    resultFuture.setFuture(sendMessage(connection, networkEnvelop));
                 }
 
                 public void onFailure(@NotNull Throwable throwable) {
-                    UserThread.execute(() -> resultFuture.setException(throwable));
+                    resultFuture.setException(throwable);
                 }
             });
-
             return resultFuture;
         }
     }
 
+    /**
+     * Creates an outbound connection to the peer in the background if we don't have a connection to it yet, so that
+     * a later sendMessage does not need to wait for the socket creation (which takes a few seconds with Tor).
+     * On a new connection we send a ping with our address, otherwise the peer could not use the connection for
+     * sending us a message and would create a second one.
+     * The future completes in the UserThread.
+     */
+    public ListenableFuture<Connection> preConnect(@NotNull NodeAddress peersNodeAddress) {
+        Log.traceCall("peersNodeAddress=" + peersNodeAddress);
+        checkNotNull(peersNodeAddress, "peerAddress must not be null");
+
+        Connection connection = getOutboundConnection(peersNodeAddress);
+        if (connection == null)
+            connection = getInboundConnection(peersNodeAddress);
+
+        if (connection != null)
+            return Futures.immediateFuture(connection);
+
+        final SettableFuture<Connection> resultFuture = SettableFuture.create();
+        Futures.addCallback(getOrCreateOutboundConnection(peersNodeAddress), new FutureCallback<Connection>() {
+            public void onSuccess(Connection connection) {
+                NodeAddress nodeAddress = getNodeAddress();
+                if (nodeAddress != null)
+                    resultFuture.setFuture(sendMessage(connection, new Ping(new Random().nextInt(), nodeAddress)));
+                else
+                    resultFuture.set(connection);
+            }
+
+            public void onFailure(@NotNull Throwable throwable) {
+                resultFuture.setException(throwable);
+            }
+        });
+        return resultFuture;
+    }
+
+    // All callers which need a connection to the same peer while the socket is created share the same future, so we
+    // create only one socket.
+    private ListenableFuture<Connection> getOrCreateOutboundConnection(NodeAddress peersNodeAddress) {
+        SettableFuture<Connection> pendingConnection = pendingConnections.get(peersNodeAddress);
+        if (pendingConnection == null) {
+            final SettableFuture<Connection> newPendingConnection = SettableFuture.create();
+            pendingConnection = pendingConnections.putIfAbsent(peersNodeAddress, newPendingConnection);
+            if (pendingConnection == null) {
+                log.debug("We have not found any connection for peerAddress {}.\n\t" +
+                        "We will create a new outbound connection.", peersNodeAddress);
+                createOutboundConnection(peersNodeAddress, newPendingConnection);
+                return newPendingConnection;
+            }
+        }
+        log.debug("We are already creating a connection to peerAddress {}. We wait for that connection.",
+                peersNodeAddress);
+        return pendingConnection;
+    }
+
+    private void createOutboundConnection(NodeAddress peersNodeAddress, SettableFuture<Connection> pendingConnection) {
+        ListenableFuture<Connection> future = executorService.submit(() -> {
+            Thread.currentThread().setName("NetworkNode:CreateConnection-to-" + peersNodeAddress);
+            OutboundConnection outboundConnection = null;
+            try {
+                // can take a while when using tor
+                long startTs = System.currentTimeMillis();
+                log.debug("Start create socket to peersNodeAddress {}", peersNodeAddress.getFullAddress());
+                Socket socket = createSocket(peersNodeAddress);
+                long duration = System.currentTimeMillis() - startTs;
+                log.debug("Socket creation to peersNodeAddress {} took {} ms", peersNodeAddress.getFullAddress(),
+                        duration);
+
+                if (duration > CREATE_SOCKET_TIMEOUT_MILLIS)
+                    throw new TimeoutException("A timeout occurred when creating a socket.");
+
+                // Tor needs sometimes quite long to create a connection. To avoid that we get too many double 
+                // sided connections we check again if we still don't have any connection for that node address.
+                Connection existingConnection = getInboundConnection(peersNodeAddress);
+                if (existingConnection == null)
+                    existingConnection = getOutboundConnection(peersNodeAddress);
+
+                if (existingConnection != null) {
+                    log.debug("We found in the meantime a connection for peersNodeAddress {}, " +
+                                    "so we use that connection.\n" +
+                                    "That can happen if Tor needs long for creating a new outbound connection.\n" +
+                                    "We might have got a new inbound or outbound connection.",
+                            peersNodeAddress.getFullAddress());
+                    try {
+                        socket.close();
+                    } catch (Throwable throwable) {
+                        log.error("Error at closing socket " + throwable);
+                    }
+                    return existingConnection;
+                } else {
+                    final ConnectionListener connectionListener = new ConnectionListener() {
+                        @Override
+                        public void onConnection(Connection connection) {
+                            if (!connection.isStopped()) {
+                                outBoundConnections.add((OutboundConnection) connection);
+                                printOutBoundConnections();
+                                connectionListeners.stream().forEach(e -> e.onConnection(connection));
+                            }
+                        }
+
+                        @Override
+                        public void onDisconnect(CloseConnectionReason closeConnectionReason, Connection connection) {
+                            log.trace("onDisconnect connectionListener\n\tconnection={}" + connection);
+                            //noinspection SuspiciousMethodCalls
+                            outBoundConnections.remove(connection);
+                            printOutBoundConnections();
+                            connectionListeners.stream().forEach(e -> e.onDisconnect(closeConnectionReason, connection));
+                        }
+
+                        @Override
+                        public void onError(Throwable throwable) {
+                            log.error("new OutboundConnection.ConnectionListener.onError " + throwable.getMessage());
+                            connectionListeners.stream().forEach(e -> e.onError(throwable));
+                        }
+                    };
+                    outboundConnection = new OutboundConnection(socket,
+                            NetworkNode.this,
+                            connectionListener,
+                            peersNodeAddress,
+                            networkProtoResolver);
+
+                    log.debug("\n\n%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%\n" +
+                            "NetworkNode created new outbound connection:"
+                            + "\nmyNodeAddress=" + getNodeAddress()
+                            + "\npeersNodeAddress=" + peersNodeAddress
+                            + "\nuid=" + outboundConnection.getUid()
+                            + "\n%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%\n");
+                    return outboundConnection;
+                }
+            } catch (Throwable throwable) {
+                if (!(throwable instanceof ConnectException ||
+                        throwable instanceof IOException ||
+                        throwable instanceof TimeoutException)) {
+                    log.warn("Executing task failed. " + throwable.getMessage());
+                }
+                throw throwable;
+            }
+        });
+
+        // The connection has queued up onConnection to the UserThread before, so the connection is in
+        // outBoundConnections once we remove the pending entry.
+        Futures.addCallback(future, new FutureCallback<Connection>() {
+            public void onSuccess(Connection connection) {
+                UserThread.execute(() -> {
+                    pendingConnections.remove(peersNodeAddress, pendingConnection);
+                    pendingConnection.set(connection);
+                });
+            }
+
+            public void onFailure(@NotNull Throwable throwable) {
+                UserThread.execute(() -> {
+                    pendingConnections.remove(peersNodeAddress, pendingConnection);
+                    pendingConnection.setException(throwable);
+                });
+            }
+        });
+    }
+
     @Nullable
     private InboundConnection getInboundConnection(@NotNull NodeAddress peersNodeAddress) {
         Optional<InboundConnection> inboundConnectionOptional = lookupInBoundConnection(peersNodeAddress);
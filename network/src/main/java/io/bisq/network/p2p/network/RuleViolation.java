@@ -7,7 +7,8 @@ public enum RuleViolation {
     THROTTLE_LIMIT_EXCEEDED(2),
     TOO_MANY_REPORTED_PEERS_SENT(2),
     PEER_BANNED(0),
-    INVALID_CLASS(0);
+    INVALID_CLASS(0),
+    INVALID_COMPRESSED_DATA(0);
 
     public final int maxTolerance;
 
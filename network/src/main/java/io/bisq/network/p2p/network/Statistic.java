@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import java.util.Date;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Statistic {
     private static final Logger log = LoggerFactory.getLogger(Statistic.class);
@@ -23,9 +24,15 @@ public class Statistic {
 
     private final static LongProperty totalSentBytes = new SimpleLongProperty(0);
     private final static LongProperty totalReceivedBytes = new SimpleLongProperty(0);
+    // The counters are updated from the connection threads. The properties are updated on the UserThread, and the
+    // updates are coalesced, so we don't post a task for each message.
+    private final static LongAdder totalSentBytesCounter = new LongAdder();
+    private final static LongAdder totalReceivedBytesCounter = new LongAdder();
+    private final static Runnable totalSentBytesUpdater = () -> totalSentBytes.set(totalSentBytesCounter.sum());
+    private final static Runnable totalReceivedBytesUpdater = () -> totalReceivedBytes.set(totalReceivedBytesCounter.sum());
 
     public static long getTotalSentBytes() {
-        return totalSentBytes.get();
+        return totalSentBytesCounter.sum();
     }
 
     public static LongProperty totalSentBytesProperty() {
@@ -33,7 +40,7 @@ public class Statistic {
     }
 
     public static long getTotalReceivedBytes() {
-        return totalReceivedBytes.get();
+        return totalReceivedBytesCounter.sum();
     }
 
     public static LongProperty totalReceivedBytesProperty() {
@@ -46,9 +53,13 @@ public class Statistic {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private final Date creationDate;
-    private long lastActivityTimestamp = System.currentTimeMillis();
+    private volatile long lastActivityTimestamp = System.currentTimeMillis();
     private final LongProperty sentBytes = new SimpleLongProperty(0);
     private final LongProperty receivedBytes = new SimpleLongProperty(0);
+    private final LongAdder sentBytesCounter = new LongAdder();
+    private final LongAdder receivedBytesCounter = new LongAdder();
+    private final Runnable sentBytesUpdater = () -> sentBytes.set(sentBytesCounter.sum());
+    private final Runnable receivedBytesUpdater = () -> receivedBytes.set(receivedBytesCounter.sum());
     private final Map<String, Integer> receivedMessages = new ConcurrentHashMap<>();
     private final Map<String, Integer> sentMessages = new ConcurrentHashMap<>();
     private final IntegerProperty roundTripTime = new SimpleIntegerProperty(0);
@@ -67,40 +78,32 @@ public class Statistic {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public void updateLastActivityTimestamp() {
-        UserThread.execute(() -> lastActivityTimestamp = System.currentTimeMillis());
+        lastActivityTimestamp = System.currentTimeMillis();
     }
 
     public void addSentBytes(int value) {
-        UserThread.execute(() -> {
-            sentBytes.set(sentBytes.get() + value);
-            totalSentBytes.set(totalSentBytes.get() + value);
-        });
+        sentBytesCounter.add(value);
+        totalSentBytesCounter.add(value);
+        UserThread.executeCoalesced(sentBytesUpdater);
+        UserThread.executeCoalesced(totalSentBytesUpdater);
     }
 
     public void addReceivedBytes(int value) {
-        UserThread.execute(() -> {
-            receivedBytes.set(receivedBytes.get() + value);
-            totalReceivedBytes.set(totalReceivedBytes.get() + value);
-        });
+        receivedBytesCounter.add(value);
+        totalReceivedBytesCounter.add(value);
+        UserThread.executeCoalesced(receivedBytesUpdater);
+        UserThread.executeCoalesced(totalReceivedBytesUpdater);
     }
 
     // TODO would need msg inspection to get useful information...
     public void addReceivedMessage(NetworkEnvelope networkEnvelop) {
-        String messageClassName = networkEnvelop.getClass().getSimpleName();
-        int counter = 1;
-        if (receivedMessages.containsKey(messageClassName))
-            counter = receivedMessages.get(messageClassName) + 1;
-
-        receivedMessages.put(messageClassName, counter);
+        // Called from different threads, so we need an atomic update
+        receivedMessages.merge(networkEnvelop.getClass().getSimpleName(), 1, Integer::sum);
     }
 
     public void addSentMessage(NetworkEnvelope networkEnvelop) {
-        String messageClassName = networkEnvelop.getClass().getSimpleName();
-        int counter = 1;
-        if (sentMessages.containsKey(messageClassName))
-            counter = sentMessages.get(messageClassName) + 1;
-
-        sentMessages.put(messageClassName, counter);
+        // Called from different threads, so we need an atomic update
+        sentMessages.merge(networkEnvelop.getClass().getSimpleName(), 1, Integer::sum);
     }
 
     public void setRoundTripTime(int roundTripTime) {
@@ -120,7 +123,7 @@ public class Statistic {
     }
 
     public long getSentBytes() {
-        return sentBytes.get();
+        return sentBytesCounter.sum();
     }
 
     public LongProperty sentBytesProperty() {
@@ -128,7 +131,7 @@ public class Statistic {
     }
 
     public long getReceivedBytes() {
-        return receivedBytes.get();
+        return receivedBytesCounter.sum();
     }
 
     public LongProperty receivedBytesProperty() {
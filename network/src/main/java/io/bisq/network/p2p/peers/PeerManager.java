@@ -35,6 +35,7 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
     private static final int MAX_PERSISTED_PEERS = 500;
     private static final long MAX_AGE = TimeUnit.DAYS.toMillis(14); // max age for reported peers is 14 days
     private static final boolean PRINT_REPORTED_PEERS_DETAILS = true;
+    private static final long PERSIST_PEERS_DELAY_SEC = 2;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -59,11 +60,13 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
     private final Clock clock;
     private final Set<NodeAddress> seedNodeAddresses;
     private final Storage<PeerList> storage;
-    private final HashSet<Peer> persistedPeers = new HashSet<>();
-    private final Set<Peer> reportedPeers = new HashSet<>();
+    private final PeerSet persistedPeers = new PeerSet();
+    private final PeerSet reportedPeers = new PeerSet();
+    private final Random random = new Random();
     private final Clock.Listener listener;
     private final List<Listener> listeners = new CopyOnWriteArrayList<>();
     private Timer checkMaxConnectionsTimer;
+    private Timer persistPeersTimer;
     private boolean stopped;
     private boolean lostAllConnections;
     private int maxConnections;
@@ -116,6 +119,11 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
         networkNode.removeConnectionListener(this);
         clock.removeListener(listener);
         stopCheckMaxConnectionsTimer();
+        if (persistPeersTimer != null) {
+            persistPeersTimer.stop();
+            persistPeersTimer = null;
+            doPersistPeers();
+        }
     }
 
 
@@ -127,7 +135,7 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
     public void readPersisted() {
         PeerList persistedPeerList = storage.initAndGetPersistedWithFileName("PeerList");
         if (persistedPeerList != null)
-            this.persistedPeers.addAll(persistedPeerList.getList());
+            persistedPeerList.getList().forEach(persistedPeers::add);
     }
 
     public int getMaxConnections() {
@@ -248,48 +256,8 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
         log.debug("We have {} connections open. Our limit is {}", size, limit);
 
         if (size > limit) {
-            log.debug("We have too many connections open.\n\t" +
-                    "Lets try first to remove the inbound connections of type PEER.");
-            List<Connection> candidates = allConnections.stream()
-                    .filter(e -> e instanceof InboundConnection)
-                    .filter(e -> e.getPeerType() == Connection.PeerType.PEER)
-                    .collect(Collectors.toList());
-
-            if (candidates.size() == 0) {
-                log.debug("No candidates found. We check if we exceed our " +
-                        "maxConnectionsPeer limit of {}", maxConnectionsPeer);
-                if (size > maxConnectionsPeer) {
-                    log.debug("Lets try to remove ANY connection of type PEER.");
-                    candidates = allConnections.stream()
-                            .filter(e -> e.getPeerType() == Connection.PeerType.PEER)
-                            .collect(Collectors.toList());
-
-                    if (candidates.size() == 0) {
-                        log.debug("No candidates found. We check if we exceed our " +
-                                "maxConnectionsNonDirect limit of {}", maxConnectionsNonDirect);
-                        if (size > maxConnectionsNonDirect) {
-                            log.debug("Lets try to remove any connection which is not of type DIRECT_MSG_PEER or INITIAL_DATA_REQUEST.");
-                            candidates = allConnections.stream()
-                                    .filter(e -> e.getPeerType() != Connection.PeerType.DIRECT_MSG_PEER && e.getPeerType() != Connection.PeerType.INITIAL_DATA_REQUEST)
-                                    .collect(Collectors.toList());
-
-                            if (candidates.size() == 0) {
-                                log.debug("No candidates found. We check if we exceed our " +
-                                        "maxConnectionsAbsolute limit of {}", maxConnectionsAbsolute);
-                                if (size > maxConnectionsAbsolute) {
-                                    log.debug("Lets try to remove any connection.");
-                                    candidates = allConnections.stream().collect(Collectors.toList());
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-
-            if (candidates.size() > 0) {
-                candidates.sort((o1, o2) -> ((Long) o1.getStatistic().getLastActivityTimestamp()).compareTo(((Long) o2.getStatistic().getLastActivityTimestamp())));
-                log.debug("Candidates.size() for shut down=" + candidates.size());
-                Connection connection = candidates.remove(0);
+            Connection connection = getConnectionToShutDown(allConnections, size);
+            if (connection != null) {
                 log.debug("We are going to shut down the oldest connection.\n\tconnection=" + connection.toString());
                 if (!connection.isStopped())
                     connection.shutDown(CloseConnectionReason.TOO_MANY_CONNECTIONS_OPEN, () -> checkMaxConnections(limit));
@@ -306,6 +274,61 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
         }
     }
 
+    // We have too many connections open. We look in one pass for the connection with the oldest activity in each of
+    // the candidate groups and use the first group which is not empty. The later groups are only used if we exceed
+    // their higher limit.
+    @Nullable
+    private Connection getConnectionToShutDown(Collection<Connection> allConnections, int size) {
+        Connection oldestInboundPeer = null;
+        Connection oldestPeer = null;
+        Connection oldestNonDirect = null;
+        Connection oldest = null;
+        for (Connection connection : allConnections) {
+            Connection.PeerType peerType = connection.getPeerType();
+            if (peerType == Connection.PeerType.PEER) {
+                if (connection instanceof InboundConnection)
+                    oldestInboundPeer = getLessActive(oldestInboundPeer, connection);
+                oldestPeer = getLessActive(oldestPeer, connection);
+            }
+            if (peerType != Connection.PeerType.DIRECT_MSG_PEER && peerType != Connection.PeerType.INITIAL_DATA_REQUEST)
+                oldestNonDirect = getLessActive(oldestNonDirect, connection);
+            oldest = getLessActive(oldest, connection);
+        }
+
+        if (oldestInboundPeer != null) {
+            log.debug("We remove the inbound connection of type PEER with the oldest activity.");
+            return oldestInboundPeer;
+        }
+        log.debug("No inbound connection of type PEER found. We check if we exceed our " +
+                "maxConnectionsPeer limit of {}", maxConnectionsPeer);
+        if (size <= maxConnectionsPeer)
+            return null;
+        if (oldestPeer != null) {
+            log.debug("We remove the connection of type PEER with the oldest activity.");
+            return oldestPeer;
+        }
+        log.debug("No connection of type PEER found. We check if we exceed our " +
+                "maxConnectionsNonDirect limit of {}", maxConnectionsNonDirect);
+        if (size <= maxConnectionsNonDirect)
+            return null;
+        if (oldestNonDirect != null) {
+            log.debug("We remove the connection which is not of type DIRECT_MSG_PEER or INITIAL_DATA_REQUEST " +
+                    "with the oldest activity.");
+            return oldestNonDirect;
+        }
+        log.debug("No candidates found. We check if we exceed our " +
+                "maxConnectionsAbsolute limit of {}", maxConnectionsAbsolute);
+        return size > maxConnectionsAbsolute ? oldest : null;
+    }
+
+    private static Connection getLessActive(@Nullable Connection candidate, Connection connection) {
+        if (candidate == null ||
+                connection.getStatistic().getLastActivityTimestamp() < candidate.getStatistic().getLastActivityTimestamp())
+            return connection;
+        else
+            return candidate;
+    }
+
     private void removeAnonymousPeers() {
         Log.traceCall();
         networkNode.getAllConnections().stream()
@@ -322,21 +345,23 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
 
     private void removeSuperfluousSeedNodes() {
         Log.traceCall();
-        if (networkNode.getConfirmedConnections().size() > maxConnections) {
-            Set<Connection> connections = networkNode.getConfirmedConnections();
-            if (hasSufficientConnections()) {
-                List<Connection> candidates = connections.stream()
-                        .filter(this::isSeedNode)
-                        .collect(Collectors.toList());
-
-                if (candidates.size() > 1) {
-                    candidates.sort((o1, o2) -> ((Long) o1.getStatistic().getLastActivityTimestamp()).compareTo(((Long) o2.getStatistic().getLastActivityTimestamp())));
-                    log.debug("Number of connections exceeding MAX_CONNECTIONS_EXTENDED_1. Current size=" + candidates.size());
-                    Connection connection = candidates.remove(0);
-                    log.debug("We are going to shut down the oldest connection.\n\tconnection=" + connection.toString());
-                    connection.shutDown(CloseConnectionReason.TOO_MANY_SEED_NODES_CONNECTED, this::removeSuperfluousSeedNodes);
+        Set<Connection> connections = networkNode.getConfirmedConnections();
+        // As we have more than maxConnections confirmed connections we have sufficient connections as well
+        if (connections.size() > maxConnections) {
+            int numSeedNodes = 0;
+            Connection oldestSeedNode = null;
+            for (Connection connection : connections) {
+                if (isSeedNode(connection)) {
+                    numSeedNodes++;
+                    oldestSeedNode = getLessActive(oldestSeedNode, connection);
                 }
             }
+
+            if (numSeedNodes > 1) {
+                log.debug("Number of connections exceeding MAX_CONNECTIONS_EXTENDED_1. Current size=" + numSeedNodes);
+                log.debug("We are going to shut down the oldest connection.\n\tconnection=" + oldestSeedNode.toString());
+                oldestSeedNode.shutDown(CloseConnectionReason.TOO_MANY_SEED_NODES_CONNECTED, this::removeSuperfluousSeedNodes);
+            }
         }
     }
 
@@ -345,38 +370,23 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
     // Reported peers
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private boolean removeReportedPeer(Peer reportedPeer) {
-        boolean contained = reportedPeers.remove(reportedPeer);
-        printReportedPeers();
-        return contained;
-    }
-
     @SuppressWarnings("UnusedReturnValue")
     @Nullable
     private Peer removeReportedPeer(NodeAddress nodeAddress) {
-        List<Peer> reportedPeersClone = new ArrayList<>(reportedPeers);
-        Optional<Peer> reportedPeerOptional = reportedPeersClone.stream()
-                .filter(e -> e.getNodeAddress().equals(nodeAddress)).findAny();
-        if (reportedPeerOptional.isPresent()) {
-            Peer reportedPeer = reportedPeerOptional.get();
-            removeReportedPeer(reportedPeer);
-            return reportedPeer;
-        } else {
-            return null;
-        }
+        Peer reportedPeer = reportedPeers.remove(nodeAddress);
+        if (reportedPeer != null)
+            printReportedPeers();
+        return reportedPeer;
     }
 
     private void removeTooOldReportedPeers() {
         Log.traceCall();
-        List<Peer> reportedPeersClone = new ArrayList<>(reportedPeers);
-        Set<Peer> reportedPeersToRemove = reportedPeersClone.stream()
-                .filter(reportedPeer -> new Date().getTime() - reportedPeer.getDate().getTime() > MAX_AGE)
-                .collect(Collectors.toSet());
-        reportedPeersToRemove.forEach(this::removeReportedPeer);
+        if (!reportedPeers.removeOlderThan(new Date().getTime() - MAX_AGE).isEmpty())
+            printReportedPeers();
     }
 
-    public Set<Peer> getReportedPeers() {
-        return reportedPeers;
+    public Collection<Peer> getReportedPeers() {
+        return reportedPeers.getPeers();
     }
 
     public void addToReportedPeers(HashSet<Peer> reportedPeersToAdd, Connection connection) {
@@ -384,13 +394,15 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
 
         // We check if the reported msg is not violating our rules
         if (reportedPeersToAdd.size() <= (MAX_REPORTED_PEERS + maxConnectionsAbsolute + 10)) {
-            reportedPeers.addAll(reportedPeersToAdd);
+            reportedPeersToAdd.forEach(reportedPeers::add);
             purgeReportedPeersIfExceeds();
 
-            persistedPeers.addAll(reportedPeersToAdd);
-            purgePersistedPeersIfExceeds();
-            if (storage != null)
-                storage.queueUpForSave(new PeerList(new ArrayList<>(persistedPeers)), 2000);
+            boolean persistedPeersChanged = false;
+            for (Peer peer : reportedPeersToAdd)
+                persistedPeersChanged |= persistedPeers.add(peer);
+            persistedPeersChanged |= purgePersistedPeersIfExceeds();
+            if (persistedPeersChanged)
+                persistPeers();
 
             printReportedPeers();
         } else {
@@ -408,13 +420,9 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
         if (size > limit) {
             log.trace("We have already {} reported peers which exceeds our limit of {}." +
                     "We remove random peers from the reported peers list.", size, limit);
-            int diff = size - limit;
-            List<Peer> list = new ArrayList<>(reportedPeers);
             // we dont use sorting by lastActivityDate to keep it more random
-            for (int i = 0; i < diff; i++) {
-                Peer toRemove = list.remove(new Random().nextInt(list.size()));
-                removeReportedPeer(toRemove);
-            }
+            while (reportedPeers.size() > limit)
+                reportedPeers.removeRandom(random);
         } else {
             log.trace("No need to purge reported peers.\n\tWe don't have more then {} reported peers yet.", MAX_REPORTED_PEERS);
         }
@@ -426,8 +434,7 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
             if (PRINT_REPORTED_PEERS_DETAILS) {
                 StringBuilder result = new StringBuilder("\n\n------------------------------------------------------------\n" +
                         "Collected reported peers:");
-                List<Peer> reportedPeersClone = new ArrayList<>(reportedPeers);
-                reportedPeersClone.stream().forEach(e -> result.append("\n").append(e));
+                reportedPeers.getPeers().forEach(e -> result.append("\n").append(e));
                 result.append("\n------------------------------------------------------------\n");
                 log.debug(result.toString());
             }
@@ -451,59 +458,55 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
     //  Persisted list
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private boolean removePersistedPeer(Peer persistedPeer) {
-        if (persistedPeers.contains(persistedPeer)) {
-            persistedPeers.remove(persistedPeer);
-
-            if (storage != null)
-                storage.queueUpForSave(new PeerList(new ArrayList<>(persistedPeers)), 2000);
-
+    @SuppressWarnings("UnusedReturnValue")
+    private boolean removePersistedPeer(NodeAddress nodeAddress) {
+        if (persistedPeers.remove(nodeAddress) != null) {
+            persistPeers();
             return true;
         } else {
             return false;
         }
     }
 
-    @SuppressWarnings("UnusedReturnValue")
-    private boolean removePersistedPeer(NodeAddress nodeAddress) {
-        Optional<Peer> persistedPeerOptional = getPersistedPeerOptional(nodeAddress);
-        return persistedPeerOptional.isPresent() && removePersistedPeer(persistedPeerOptional.get());
-    }
-
-    private Optional<Peer> getPersistedPeerOptional(NodeAddress nodeAddress) {
-        return persistedPeers.stream()
-                .filter(e -> e.getNodeAddress().equals(nodeAddress)).findAny();
-    }
-
     private void removeTooOldPersistedPeers() {
         Log.traceCall();
-        Set<Peer> persistedPeersToRemove = persistedPeers.stream()
-                .filter(reportedPeer -> new Date().getTime() - reportedPeer.getDate().getTime() > MAX_AGE)
-                .collect(Collectors.toSet());
-        persistedPeersToRemove.forEach(this::removePersistedPeer);
+        if (!persistedPeers.removeOlderThan(new Date().getTime() - MAX_AGE).isEmpty())
+            persistPeers();
     }
 
-    private void purgePersistedPeersIfExceeds() {
+    private boolean purgePersistedPeersIfExceeds() {
         Log.traceCall();
         int size = persistedPeers.size();
         int limit = MAX_PERSISTED_PEERS;
         if (size > limit) {
             log.trace("We have already {} persisted peers which exceeds our limit of {}." +
                     "We remove random peers from the persisted peers list.", size, limit);
-            int diff = size - limit;
-            List<Peer> list = new ArrayList<>(persistedPeers);
             // we dont use sorting by lastActivityDate to avoid attack vectors and keep it more random
-            for (int i = 0; i < diff; i++) {
-                Peer toRemove = list.remove(new Random().nextInt(list.size()));
-                removePersistedPeer(toRemove);
-            }
+            while (persistedPeers.size() > limit)
+                persistedPeers.removeRandom(random);
+            return true;
         } else {
             log.trace("No need to purge persisted peers.\n\tWe don't have more then {} persisted peers yet.", MAX_PERSISTED_PEERS);
+            return false;
         }
     }
 
-    public Set<Peer> getPersistedPeers() {
-        return persistedPeers;
+    // We create the PeerList only once for a burst of changes
+    private void persistPeers() {
+        if (persistPeersTimer == null)
+            persistPeersTimer = UserThread.runAfter(() -> {
+                persistPeersTimer = null;
+                doPersistPeers();
+            }, PERSIST_PEERS_DELAY_SEC);
+    }
+
+    private void doPersistPeers() {
+        if (storage != null)
+            storage.queueUpForSave(new PeerList(persistedPeers.toList()));
+    }
+
+    public Collection<Peer> getPersistedPeers() {
+        return persistedPeers.getPeers();
     }
 
 
@@ -556,9 +559,8 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
         Log.traceCall("nodeAddress=" + nodeAddress);
         boolean doRemovePersistedPeer = false;
         removeReportedPeer(nodeAddress);
-        Optional<Peer> persistedPeerOptional = getPersistedPeerOptional(nodeAddress);
-        if (persistedPeerOptional.isPresent()) {
-            Peer persistedPeer = persistedPeerOptional.get();
+        Peer persistedPeer = persistedPeers.get(nodeAddress);
+        if (persistedPeer != null) {
             persistedPeer.increaseFailedConnectionAttempts();
             doRemovePersistedPeer = persistedPeer.tooManyFailedConnectionAttempts();
         }
@@ -585,9 +587,9 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
     }
 
     public HashSet<Peer> getConnectedNonSeedNodeReportedPeers(NodeAddress excludedNodeAddress) {
-        return new HashSet<>(getConnectedNonSeedNodeReportedPeers().stream()
+        return getConnectedNonSeedNodeReportedPeers().stream()
                 .filter(e -> !e.getNodeAddress().equals(excludedNodeAddress))
-                .collect(Collectors.toSet()));
+                .collect(Collectors.toCollection(HashSet::new));
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -603,9 +605,9 @@ public class PeerManager implements ConnectionListener, PersistedDataHost {
     }
 
     private HashSet<Peer> getConnectedNonSeedNodeReportedPeers() {
-        return new HashSet<>(getConnectedReportedPeers().stream()
+        return getConnectedReportedPeers().stream()
                 .filter(e -> !isSeedNode(e))
-                .collect(Collectors.toSet()));
+                .collect(Collectors.toCollection(HashSet::new));
     }
 
     private void stopCheckMaxConnectionsTimer() {
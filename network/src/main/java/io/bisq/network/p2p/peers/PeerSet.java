@@ -0,0 +1,119 @@
+package io.bisq.network.p2p.peers;
+
+import io.bisq.network.p2p.NodeAddress;
+import io.bisq.network.p2p.peers.peerexchange.Peer;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Set of peers with one entry per node address, used for the reported and persisted peers of the PeerManager.
+ * <p>
+ * Besides the lookup by node address we keep the peers ordered by their date, so removing the too old peers only
+ * touches the peers which get removed, and in an array for removing random peers in constant time.
+ * Not thread safe, only used from the UserThread.
+ */
+final class PeerSet {
+    private static final Comparator<Peer> BY_DATE = Comparator.<Peer>comparingLong(peer -> peer.getDate().getTime())
+            .thenComparing(peer -> peer.getNodeAddress().getFullAddress());
+
+    private final Map<NodeAddress, Integer> indexByNodeAddress = new HashMap<>();
+    private final List<Peer> peers = new ArrayList<>();
+    private final TreeSet<Peer> peersByDate = new TreeSet<>(BY_DATE);
+    private final Collection<Peer> view = Collections.unmodifiableList(peers);
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Adds the peer. If we have already a peer with that node address we keep the one with the newer date, the
+     * number of failed connection attempts is kept.
+     *
+     * @return True if the set has changed
+     */
+    boolean add(Peer peer) {
+        NodeAddress nodeAddress = peer.getNodeAddress();
+        Integer index = indexByNodeAddress.get(nodeAddress);
+        if (index == null) {
+            indexByNodeAddress.put(nodeAddress, peers.size());
+            peers.add(peer);
+            peersByDate.add(peer);
+            return true;
+        }
+
+        Peer existingPeer = peers.get(index);
+        if (peer.getDate().getTime() <= existingPeer.getDate().getTime())
+            return false;
+
+        peer.setFailedConnectionAttempts(existingPeer.getFailedConnectionAttempts());
+        peersByDate.remove(existingPeer);
+        peersByDate.add(peer);
+        peers.set(index, peer);
+        return true;
+    }
+
+    @Nullable
+    Peer get(NodeAddress nodeAddress) {
+        Integer index = indexByNodeAddress.get(nodeAddress);
+        return index != null ? peers.get(index) : null;
+    }
+
+    @Nullable
+    Peer remove(NodeAddress nodeAddress) {
+        Integer index = indexByNodeAddress.remove(nodeAddress);
+        if (index == null)
+            return null;
+
+        // We move the last peer to the free slot so we don't need to shift the array
+        Peer peer = peers.get(index);
+        Peer lastPeer = peers.remove(peers.size() - 1);
+        if (lastPeer != peer) {
+            peers.set(index, lastPeer);
+            indexByNodeAddress.put(lastPeer.getNodeAddress(), index);
+        }
+        peersByDate.remove(peer);
+        return peer;
+    }
+
+    Peer removeRandom(Random random) {
+        return remove(peers.get(random.nextInt(peers.size())).getNodeAddress());
+    }
+
+    /**
+     * @return The removed peers
+     */
+    List<Peer> removeOlderThan(long date) {
+        List<Peer> removed = new ArrayList<>();
+        while (!peersByDate.isEmpty() && peersByDate.first().getDate().getTime() < date)
+            removed.add(remove(peersByDate.first().getNodeAddress()));
+        return removed;
+    }
+
+    boolean contains(NodeAddress nodeAddress) {
+        return indexByNodeAddress.containsKey(nodeAddress);
+    }
+
+    int size() {
+        return peers.size();
+    }
+
+    boolean isEmpty() {
+        return peers.isEmpty();
+    }
+
+    /**
+     * @return Read only view of the peers
+     */
+    Collection<Peer> getPeers() {
+        return view;
+    }
+
+    /**
+     * @return Copy of the peers
+     */
+    List<Peer> toList() {
+        return new ArrayList<>(peers);
+    }
+}
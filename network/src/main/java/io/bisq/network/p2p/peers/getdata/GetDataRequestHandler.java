@@ -5,13 +5,17 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.SettableFuture;
 import io.bisq.common.Timer;
 import io.bisq.common.UserThread;
+import io.bisq.common.app.Capabilities;
 import io.bisq.common.app.Log;
+import io.bisq.common.proto.network.NetworkEnvelope;
 import io.bisq.common.util.Utilities;
+import io.bisq.generated.protobuffer.PB;
 import io.bisq.network.p2p.network.CloseConnectionReason;
 import io.bisq.network.p2p.network.Connection;
 import io.bisq.network.p2p.network.NetworkNode;
 import io.bisq.network.p2p.peers.getdata.messages.GetDataRequest;
 import io.bisq.network.p2p.peers.getdata.messages.GetDataResponse;
+import io.bisq.network.p2p.peers.getdata.messages.GetDataResponseChunk;
 import io.bisq.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
 import io.bisq.network.p2p.storage.P2PDataStorage;
 import io.bisq.network.p2p.storage.payload.CapabilityRequiringPayload;
@@ -21,16 +25,20 @@ import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
 
 public class GetDataRequestHandler {
     private static final Logger log = LoggerFactory.getLogger(GetDataRequestHandler.class);
 
     private static final long TIME_OUT_SEC = 40;
+    // Serialized size of the entries in a GetDataResponseChunk
+    static final int MAX_CHUNK_SIZE = 100 * 1024;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -120,27 +128,108 @@ public class GetDataRequestHandler {
                     filteredDataSet.add(protectedStorageEntry);
             }
         }
-        GetDataResponse getDataResponse = new GetDataResponse(filteredDataSet, getDataRequest.getNonce(),
-                getDataRequest instanceof GetUpdatedDataRequest);
-
-        if (timeoutTimer == null) {
-            timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
-                        String errorMessage = "A timeout occurred for getDataResponse:" + getDataResponse +
-                                " on connection:" + connection;
-                        handleFault(errorMessage, CloseConnectionReason.SEND_MSG_TIMEOUT, connection);
-                    },
-                    TIME_OUT_SEC, TimeUnit.SECONDS);
+        boolean isGetUpdatedDataResponse = getDataRequest instanceof GetUpdatedDataRequest;
+        if (supportsStreaming(connection)) {
+            sendChunk(new ArrayList<>(filteredDataSet), 0, new ArrayList<>(), 0, getDataRequest.getNonce(),
+                    isGetUpdatedDataResponse, connection);
+        } else {
+            GetDataResponse getDataResponse = new GetDataResponse(filteredDataSet, getDataRequest.getNonce(),
+                    isGetUpdatedDataResponse);
+            send(getDataResponse, connection, () -> {
+                log.trace("Send DataResponse to {} succeeded. getDataResponse={}",
+                        connection.getPeersNodeAddressOptional(), getDataResponse);
+                cleanup();
+                listener.onComplete();
+            });
+        }
+    }
+
+    public void stop() {
+        cleanup();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Chunks
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param sizeOfEntry Returns the serialized size of the entry at the given index. It is called once per index in
+     *                    ascending order, up to and including the entry which does not fit into the chunk anymore.
+     * @return The end index (exclusive) of the chunk starting at startIndex. A chunk contains at least one entry and
+     * more entries as long as their serialized size does not exceed maxChunkSize.
+     */
+    static int getChunkEndIndex(int numEntries, int startIndex, int maxChunkSize, IntUnaryOperator sizeOfEntry) {
+        int endIndex = startIndex;
+        long chunkSize = 0;
+        while (endIndex < numEntries) {
+            chunkSize += sizeOfEntry.applyAsInt(endIndex);
+            if (chunkSize > maxChunkSize && endIndex > startIndex)
+                break;
+            endIndex++;
         }
+        return endIndex;
+    }
+
+    private boolean supportsStreaming(Connection connection) {
+        List<Integer> supportedCapabilities = connection.getSupportedCapabilities();
+        return supportedCapabilities != null &&
+                supportedCapabilities.contains(Capabilities.Capability.STREAMING_GET_DATA_RESPONSE.ordinal());
+    }
+
+    // We send the next chunk after the previous one is written, so we only hold the serialized data of one chunk.
+    // Each entry is encoded only once: encodedEntries holds the encoded entries from startIndex on and the entry which
+    // did not fit into the chunk anymore is passed on to the next one.
+    private void sendChunk(List<ProtectedStorageEntry> dataList, int startIndex,
+                           List<PB.StorageEntryWrapper> encodedEntries, int chunkIndex, int requestNonce,
+                           boolean isGetUpdatedDataResponse, Connection connection) {
+        int endIndex = getChunkEndIndex(dataList.size(), startIndex, MAX_CHUNK_SIZE, index -> {
+            int encodedIndex = index - startIndex;
+            if (encodedIndex == encodedEntries.size())
+                encodedEntries.add(GetDataResponse.toStorageEntryWrapper(dataList.get(index)));
+            return encodedEntries.get(encodedIndex).getSerializedSize();
+        });
+        int numEntries = endIndex - startIndex;
+        List<PB.StorageEntryWrapper> nextEncodedEntries = new ArrayList<>(encodedEntries.subList(numEntries,
+                encodedEntries.size()));
+        boolean isLastChunk = endIndex == dataList.size();
+        GetDataResponseChunk chunk = new GetDataResponseChunk(new ArrayList<>(dataList.subList(startIndex, endIndex)),
+                new ArrayList<>(encodedEntries.subList(0, numEntries)), requestNonce, isGetUpdatedDataResponse,
+                chunkIndex, isLastChunk);
+        send(chunk, connection, () -> {
+            if (isLastChunk) {
+                log.debug("Send {} chunks with {} entries to {} succeeded.",
+                        chunkIndex + 1, dataList.size(), connection.getPeersNodeAddressOptional());
+                cleanup();
+                listener.onComplete();
+            } else {
+                sendChunk(dataList, endIndex, nextEncodedEntries, chunkIndex + 1, requestNonce, isGetUpdatedDataResponse,
+                        connection);
+            }
+        });
+    }
+
 
-        SettableFuture<Connection> future = networkNode.sendMessage(connection, getDataResponse);
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void send(NetworkEnvelope networkEnvelope, Connection connection, Runnable successHandler) {
+        // The timeout applies to each message
+        stopTimeoutTimer();
+        timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
+                    String errorMessage = "A timeout occurred for " + networkEnvelope.getClass().getSimpleName() +
+                            ":" + Utilities.toTruncatedString(networkEnvelope) + " on connection:" + connection;
+                    handleFault(errorMessage, CloseConnectionReason.SEND_MSG_TIMEOUT, connection);
+                },
+                TIME_OUT_SEC, TimeUnit.SECONDS);
+
+        SettableFuture<Connection> future = networkNode.sendMessage(connection, networkEnvelope);
         Futures.addCallback(future, new FutureCallback<Connection>() {
             @Override
             public void onSuccess(Connection connection) {
                 if (!stopped) {
-                    log.trace("Send DataResponse to {} succeeded. getDataResponse={}",
-                            connection.getPeersNodeAddressOptional(), getDataResponse);
-                    cleanup();
-                    listener.onComplete();
+                    stopTimeoutTimer();
+                    successHandler.run();
                 } else {
                     log.trace("We have stopped already. We ignore that networkNode.sendMessage.onSuccess call.");
                 }
@@ -149,8 +238,9 @@ public class GetDataRequestHandler {
             @Override
             public void onFailure(@NotNull Throwable throwable) {
                 if (!stopped) {
-                    String errorMessage = "Sending getDataRequest to " + connection +
-                            " failed. That is expected if the peer is offline. getDataResponse=" + getDataResponse + "." +
+                    String errorMessage = "Sending " + networkEnvelope.getClass().getSimpleName() + " to " + connection +
+                            " failed. That is expected if the peer is offline. " +
+                            networkEnvelope.getClass().getSimpleName() + "=" + Utilities.toTruncatedString(networkEnvelope) + "." +
                             "Exception: " + throwable.getMessage();
                     handleFault(errorMessage, CloseConnectionReason.SEND_MSG_FAILURE, connection);
                 } else {
@@ -160,14 +250,6 @@ public class GetDataRequestHandler {
         });
     }
 
-    public void stop() {
-        cleanup();
-    }
-
-    ///////////////////////////////////////////////////////////////////////////////////////////
-    // Private
-    ///////////////////////////////////////////////////////////////////////////////////////////
-
     private void handleFault(String errorMessage, CloseConnectionReason closeConnectionReason, Connection connection) {
         if (!stopped) {
             log.debug(errorMessage + "\n\tcloseConnectionReason=" + closeConnectionReason);
@@ -180,6 +262,10 @@ public class GetDataRequestHandler {
 
     private void cleanup() {
         stopped = true;
+        stopTimeoutTimer();
+    }
+
+    private void stopTimeoutTimer() {
         if (timeoutTimer != null) {
             timeoutTimer.stop();
             timeoutTimer = null;
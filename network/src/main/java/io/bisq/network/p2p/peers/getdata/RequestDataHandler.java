@@ -15,6 +15,7 @@ import io.bisq.network.p2p.network.NetworkNode;
 import io.bisq.network.p2p.peers.PeerManager;
 import io.bisq.network.p2p.peers.getdata.messages.GetDataRequest;
 import io.bisq.network.p2p.peers.getdata.messages.GetDataResponse;
+import io.bisq.network.p2p.peers.getdata.messages.GetDataResponseChunk;
 import io.bisq.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
 import io.bisq.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
 import io.bisq.network.p2p.storage.P2PDataStorage;
@@ -29,6 +30,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -64,6 +66,8 @@ public class RequestDataHandler implements MessageListener {
     private final int nonce = new Random().nextInt();
     private boolean stopped;
     private Connection connection;
+    private int numReceivedChunks;
+    private final Map<String, Integer> numEntriesByClassName = new HashMap<>();
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -107,20 +111,9 @@ public class RequestDataHandler implements MessageListener {
             else
                 getDataRequest = new GetUpdatedDataRequest(networkNode.getNodeAddress(), nonce, excludedKeys);
 
-            if (timeoutTimer == null) {
-                timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
-                            if (!stopped) {
-                                String errorMessage = "A timeout occurred at sending getDataRequest:" + getDataRequest +
-                                        " on nodeAddress:" + nodeAddress;
-                                log.debug(errorMessage + " / RequestDataHandler=" + RequestDataHandler.this);
-                                handleFault(errorMessage, nodeAddress, CloseConnectionReason.SEND_MSG_TIMEOUT);
-                            } else {
-                                log.trace("We have stopped already. We ignore that timeoutTimer.run call. " +
-                                        "Might be caused by an previous networkNode.sendMessage.onFailure.");
-                            }
-                        },
-                        TIME_OUT_SEC);
-            }
+            if (timeoutTimer == null)
+                startTimeoutTimer(() -> "A timeout occurred at sending getDataRequest:" + getDataRequest +
+                        " on nodeAddress:" + nodeAddress, nodeAddress);
 
             log.debug("We send a {} to peer {}. ", getDataRequest.getClass().getSimpleName(), nodeAddress);
             networkNode.addMessageListener(this);
@@ -164,89 +157,14 @@ public class RequestDataHandler implements MessageListener {
 
     @Override
     public void onMessage(NetworkEnvelope networkEnvelop, Connection connection) {
-        if (networkEnvelop instanceof GetDataResponse) {
+        if (networkEnvelop instanceof GetDataResponse || networkEnvelop instanceof GetDataResponseChunk) {
             if (connection.getPeersNodeAddressOptional().isPresent() && connection.getPeersNodeAddressOptional().get().equals(peersNodeAddress)) {
                 Log.traceCall(networkEnvelop.toString() + "\n\tconnection=" + connection);
                 if (!stopped) {
-                    GetDataResponse getDataResponse = (GetDataResponse) networkEnvelop;
-                    Map<String, Set<StoragePayload>> payloadByClassName = new HashMap<>();
-                    final HashSet<ProtectedStorageEntry> dataSet = getDataResponse.getDataSet();
-                    dataSet.stream().forEach(e -> {
-                        final StoragePayload storagePayload = e.getStoragePayload();
-                        if (storagePayload == null) {
-                            log.warn("StoragePayload was null: {}", networkEnvelop.toString());
-                            return;
-                        }
-
-                        // For logging different data types
-                        String className = storagePayload.getClass().getSimpleName();
-                        if (!payloadByClassName.containsKey(className))
-                            payloadByClassName.put(className, new HashSet<>());
-
-                        payloadByClassName.get(className).add(storagePayload);
-                    });
-                    // Log different data types
-                    StringBuilder sb = new StringBuilder();
-                    sb.append("\n#################################################################");
-                    sb.append("\nReceived ").append(dataSet.size()).append(" instances of storage payload\n");
-                    payloadByClassName.entrySet().stream().forEach(e -> sb.append(e.getKey())
-                            .append(": ")
-                            .append(e.getValue().size())
-                            .append("\n"));
-                    sb.append("#################################################################");
-                    log.info(sb.toString());
-
-                    if (getDataResponse.getRequestNonce() == nonce) {
-                        stopTimeoutTimer();
-                        checkArgument(connection.getPeersNodeAddressOptional().isPresent(),
-                                "RequestDataHandler.onMessage: connection.getPeersNodeAddressOptional() must be present " +
-                                        "at that moment");
-
-                        final NodeAddress sender = connection.getPeersNodeAddressOptional().get();
-
-                        List<ProtectedStorageEntry> processDelayedItems = new ArrayList<>();
-                        dataSet.stream().forEach(e -> {
-                            if (e.getStoragePayload() instanceof LazyProcessedStoragePayload)
-                                processDelayedItems.add(e);
-                            else {
-                                // We dont broadcast here (last param) as we are only connected to the seed node and would be pointless
-                                dataStorage.add(e, sender, null, false, false);
-                            }
-                        });
-
-                        // We process the LazyProcessedStoragePayload items (TradeStatistics) in batches with a delay in between.
-                        // We want avoid that the UI get stuck when processing many entries.
-                        // The dataStorage.add call is a bit expensive as sig checks is done there.
-
-                        // Using a background thread might be an alternative but it would require much more effort and 
-                        // it would also decrease user experience if the app gets under heavy load (like at startup with wallet sync).
-                        // Beside that we mitigated the problem already as we will not get the whole TradeStatistics as we 
-                        // pass the excludeKeys and we pack the latest data dump 
-                        // into the resources, so a new user do not need to request all data.
-
-                        // In future we will probably limit by date or load on demand from user intent to not get too much data.
-
-                        // We split the list into sub lists with max 50 items and delay each batch with 200 ms.
-                        int size = processDelayedItems.size();
-                        int chunkSize = 50;
-                        int chunks = 1 + size / chunkSize;
-                        int startIndex = 0;
-                        for (int i = 0; i < chunks && startIndex < size; i++, startIndex += chunkSize) {
-                            long delay = (i + 1) * 200;
-                            int endIndex = Math.min(size, startIndex + chunkSize);
-                            List<ProtectedStorageEntry> subList = processDelayedItems.subList(startIndex, endIndex);
-                            UserThread.runAfter(() -> subList.stream().forEach(protectedStorageEntry -> dataStorage.add(protectedStorageEntry, sender, null, false, false)), delay, TimeUnit.MILLISECONDS);
-                        }
-
-                        cleanup();
-                        listener.onComplete();
-                    } else {
-                        log.debug("Nonce not matching. That can happen rarely if we get a response after a canceled " +
-                                        "handshake (timeout causes connection close but peer might have sent a msg before " +
-                                        "connection was closed).\n\t" +
-                                        "We drop that message. nonce={} / requestNonce={}",
-                                nonce, getDataResponse.getRequestNonce());
-                    }
+                    if (networkEnvelop instanceof GetDataResponse)
+                        onGetDataResponse((GetDataResponse) networkEnvelop, connection);
+                    else
+                        onGetDataResponseChunk((GetDataResponseChunk) networkEnvelop, connection);
                 } else {
                     log.warn("We have stopped already. We ignore that onDataRequest call.");
                 }
@@ -265,6 +183,146 @@ public class RequestDataHandler implements MessageListener {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
 
+    private void onGetDataResponse(GetDataResponse getDataResponse, Connection connection) {
+        final HashSet<ProtectedStorageEntry> dataSet = getDataResponse.getDataSet();
+        countEntries(dataSet, getDataResponse);
+        logReceivedData();
+
+        if (getDataResponse.getRequestNonce() == nonce) {
+            stopTimeoutTimer();
+            checkArgument(connection.getPeersNodeAddressOptional().isPresent(),
+                    "RequestDataHandler.onMessage: connection.getPeersNodeAddressOptional() must be present " +
+                            "at that moment");
+
+            applyDataSet(dataSet, connection.getPeersNodeAddressOptional().get());
+
+            cleanup();
+            listener.onComplete();
+        } else {
+            logNonceMismatch(getDataResponse.getRequestNonce());
+        }
+    }
+
+    // The chunks are applied as they arrive, so the data is usable before the whole response is received
+    private void onGetDataResponseChunk(GetDataResponseChunk chunk, Connection connection) {
+        if (chunk.getRequestNonce() == nonce) {
+            checkArgument(connection.getPeersNodeAddressOptional().isPresent(),
+                    "RequestDataHandler.onMessage: connection.getPeersNodeAddressOptional() must be present " +
+                            "at that moment");
+            final NodeAddress sender = connection.getPeersNodeAddressOptional().get();
+            if (chunk.getChunkIndex() != numReceivedChunks) {
+                String errorMessage = "We received chunk " + chunk.getChunkIndex() + " but expected chunk " +
+                        numReceivedChunks + " from " + sender;
+                log.warn(errorMessage);
+                handleFault(errorMessage, sender, CloseConnectionReason.RULE_VIOLATION);
+                return;
+            }
+
+            numReceivedChunks++;
+            countEntries(chunk.getDataSet(), chunk);
+            applyDataSet(chunk.getDataSet(), sender);
+
+            if (chunk.isLastChunk()) {
+                log.debug("Received last of {} chunks from {}", numReceivedChunks, sender);
+                logReceivedData();
+                cleanup();
+                listener.onComplete();
+            } else {
+                // The timeout applies to each chunk
+                startTimeoutTimer(() -> "A timeout occurred at receiving chunk " + numReceivedChunks +
+                        " of the getDataResponse from nodeAddress:" + sender, sender);
+            }
+        } else {
+            logNonceMismatch(chunk.getRequestNonce());
+        }
+    }
+
+    private void applyDataSet(Collection<ProtectedStorageEntry> dataSet, NodeAddress sender) {
+        List<ProtectedStorageEntry> processDelayedItems = new ArrayList<>();
+        dataSet.stream().forEach(e -> {
+            if (e.getStoragePayload() instanceof LazyProcessedStoragePayload)
+                processDelayedItems.add(e);
+            else {
+                // We dont broadcast here (last param) as we are only connected to the seed node and would be pointless
+                dataStorage.add(e, sender, null, false, false);
+            }
+        });
+
+        // We process the LazyProcessedStoragePayload items (TradeStatistics) in batches with a delay in between.
+        // We want avoid that the UI get stuck when processing many entries.
+        // The dataStorage.add call is a bit expensive as sig checks is done there.
+
+        // Using a background thread might be an alternative but it would require much more effort and 
+        // it would also decrease user experience if the app gets under heavy load (like at startup with wallet sync).
+        // Beside that we mitigated the problem already as we will not get the whole TradeStatistics as we 
+        // pass the excludeKeys and we pack the latest data dump 
+        // into the resources, so a new user do not need to request all data.
+
+        // In future we will probably limit by date or load on demand from user intent to not get too much data.
+
+        // We split the list into sub lists with max 50 items and delay each batch with 200 ms.
+        int size = processDelayedItems.size();
+        int chunkSize = 50;
+        int chunks = 1 + size / chunkSize;
+        int startIndex = 0;
+        for (int i = 0; i < chunks && startIndex < size; i++, startIndex += chunkSize) {
+            long delay = (i + 1) * 200;
+            int endIndex = Math.min(size, startIndex + chunkSize);
+            List<ProtectedStorageEntry> subList = processDelayedItems.subList(startIndex, endIndex);
+            UserThread.runAfter(() -> subList.stream().forEach(protectedStorageEntry -> dataStorage.add(protectedStorageEntry, sender, null, false, false)), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void countEntries(Collection<ProtectedStorageEntry> dataSet, NetworkEnvelope networkEnvelop) {
+        dataSet.stream().forEach(e -> {
+            final StoragePayload storagePayload = e.getStoragePayload();
+            if (storagePayload == null) {
+                log.warn("StoragePayload was null: {}", networkEnvelop.toString());
+                return;
+            }
+
+            // For logging different data types
+            numEntriesByClassName.merge(storagePayload.getClass().getSimpleName(), 1, Integer::sum);
+        });
+    }
+
+    private void logReceivedData() {
+        // Log different data types
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n#################################################################");
+        sb.append("\nReceived ").append(numEntriesByClassName.values().stream().mapToInt(Integer::intValue).sum())
+                .append(" instances of storage payload\n");
+        numEntriesByClassName.entrySet().stream().forEach(e -> sb.append(e.getKey())
+                .append(": ")
+                .append(e.getValue())
+                .append("\n"));
+        sb.append("#################################################################");
+        log.info(sb.toString());
+    }
+
+    private void logNonceMismatch(int requestNonce) {
+        log.debug("Nonce not matching. That can happen rarely if we get a response after a canceled " +
+                        "handshake (timeout causes connection close but peer might have sent a msg before " +
+                        "connection was closed).\n\t" +
+                        "We drop that message. nonce={} / requestNonce={}",
+                nonce, requestNonce);
+    }
+
+    private void startTimeoutTimer(Supplier<String> errorMessageSupplier, NodeAddress nodeAddress) {
+        stopTimeoutTimer();
+        timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
+                    if (!stopped) {
+                        String errorMessage = errorMessageSupplier.get();
+                        log.debug(errorMessage + " / RequestDataHandler=" + RequestDataHandler.this);
+                        handleFault(errorMessage, nodeAddress, CloseConnectionReason.SEND_MSG_TIMEOUT);
+                    } else {
+                        log.trace("We have stopped already. We ignore that timeoutTimer.run call. " +
+                                "Might be caused by an previous networkNode.sendMessage.onFailure.");
+                    }
+                },
+                TIME_OUT_SEC);
+    }
+
     @SuppressWarnings("UnusedParameters")
     private void handleFault(String errorMessage, NodeAddress nodeAddress, CloseConnectionReason closeConnectionReason) {
         cleanup();
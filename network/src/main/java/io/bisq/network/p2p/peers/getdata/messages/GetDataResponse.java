@@ -13,6 +13,7 @@ import lombok.EqualsAndHashCode;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.stream.Collectors;
@@ -24,43 +25,55 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
     private final HashSet<ProtectedStorageEntry> dataSet;
     private final int requestNonce;
     private final boolean isGetUpdatedDataResponse;
-    private final ArrayList<Integer> supportedCapabilities = Capabilities.getCapabilities();
+    @Nullable
+    private final ArrayList<Integer> supportedCapabilities;
 
     public GetDataResponse(HashSet<ProtectedStorageEntry> dataSet, int requestNonce, boolean isGetUpdatedDataResponse) {
-        this(dataSet, requestNonce, isGetUpdatedDataResponse, Version.getP2PMessageVersion());
+        this(dataSet, requestNonce, isGetUpdatedDataResponse, Capabilities.getCapabilities(), Version.getP2PMessageVersion());
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // PROTO BUFFER
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private GetDataResponse(HashSet<ProtectedStorageEntry> dataSet, int requestNonce, boolean isGetUpdatedDataResponse, int messageVersion) {
+    private GetDataResponse(HashSet<ProtectedStorageEntry> dataSet,
+                            int requestNonce,
+                            boolean isGetUpdatedDataResponse,
+                            @Nullable ArrayList<Integer> supportedCapabilities,
+                            int messageVersion) {
         super(messageVersion);
         this.dataSet = dataSet;
         this.requestNonce = requestNonce;
         this.isGetUpdatedDataResponse = isGetUpdatedDataResponse;
+        this.supportedCapabilities = supportedCapabilities;
     }
 
     @Override
     public PB.NetworkEnvelope toProtoNetworkEnvelope() {
+        PB.GetDataResponse.Builder builder = PB.GetDataResponse.newBuilder()
+                .addAllDataSet(dataSet.stream()
+                        .map(GetDataResponse::toStorageEntryWrapper)
+                        .collect(Collectors.toList()))
+                .setRequestNonce(requestNonce)
+                .setIsGetUpdatedDataResponse(isGetUpdatedDataResponse);
+        if (supportedCapabilities != null)
+            builder.addAllSupportedCapabilities(supportedCapabilities);
         return getNetworkEnvelopeBuilder()
-                .setGetDataResponse(PB.GetDataResponse.newBuilder()
-                        .addAllDataSet(dataSet.stream()
-                                .map(protectedStorageEntry -> protectedStorageEntry instanceof ProtectedMailboxStorageEntry ?
-                                        PB.StorageEntryWrapper.newBuilder()
-                                                .setProtectedMailboxStorageEntry((PB.ProtectedMailboxStorageEntry) protectedStorageEntry.toProtoMessage())
-                                                .build()
-                                        :
-                                        PB.StorageEntryWrapper.newBuilder()
-                                                .setProtectedStorageEntry((PB.ProtectedStorageEntry) protectedStorageEntry.toProtoMessage())
-                                                .build())
-                                .collect(Collectors.toList()))
-                        .setRequestNonce(requestNonce)
-                        .setIsGetUpdatedDataResponse(isGetUpdatedDataResponse)
-                        .addAllSupportedCapabilities(supportedCapabilities))
+                .setGetDataResponse(builder)
                 .build();
     }
 
+    public static PB.StorageEntryWrapper toStorageEntryWrapper(ProtectedStorageEntry protectedStorageEntry) {
+        return protectedStorageEntry instanceof ProtectedMailboxStorageEntry ?
+                PB.StorageEntryWrapper.newBuilder()
+                        .setProtectedMailboxStorageEntry((PB.ProtectedMailboxStorageEntry) protectedStorageEntry.toProtoMessage())
+                        .build()
+                :
+                PB.StorageEntryWrapper.newBuilder()
+                        .setProtectedStorageEntry((PB.ProtectedStorageEntry) protectedStorageEntry.toProtoMessage())
+                        .build();
+    }
+
     public static GetDataResponse fromProto(PB.GetDataResponse proto, NetworkProtoResolver resolver, int messageVersion) {
         HashSet<ProtectedStorageEntry> dataSet = new HashSet<>(
                 proto.getDataSetList().stream()
@@ -69,6 +82,9 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
         return new GetDataResponse(dataSet,
                 proto.getRequestNonce(),
                 proto.getIsGetUpdatedDataResponse(),
+                proto.getSupportedCapabilitiesList().isEmpty() ?
+                        null :
+                        new ArrayList<>(proto.getSupportedCapabilitiesList()),
                 messageVersion);
     }
 }
@@ -0,0 +1,132 @@
+package io.bisq.network.p2p.peers.getdata.messages;
+
+import io.bisq.common.app.Capabilities;
+import io.bisq.common.app.Version;
+import io.bisq.common.proto.network.NetworkEnvelope;
+import io.bisq.common.proto.network.NetworkProtoResolver;
+import io.bisq.generated.protobuffer.PB;
+import io.bisq.network.p2p.ExtendedDataSizePermission;
+import io.bisq.network.p2p.SupportedCapabilitiesMessage;
+import io.bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import lombok.Value;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Part of a GetDataResponse which is sent as a sequence of chunks of bounded size. Used if the requesting peer
+ * supports the STREAMING_GET_DATA_RESPONSE capability. The receiver applies the data of each chunk when it arrives
+ * and the last chunk completes the response.
+ * <p>
+ * A chunk contains at least one entry (except an empty last chunk), so a single large entry can exceed the regular
+ * message size limit.
+ */
+@EqualsAndHashCode(callSuper = true, exclude = {"encodedDataSet"})
+@ToString(exclude = {"encodedDataSet"})
+@Value
+public final class GetDataResponseChunk extends NetworkEnvelope implements SupportedCapabilitiesMessage, ExtendedDataSizePermission {
+    private final List<ProtectedStorageEntry> dataSet;
+    private final int requestNonce;
+    private final boolean isGetUpdatedDataResponse;
+    private final int chunkIndex;
+    private final boolean isLastChunk;
+    @Nullable
+    private final ArrayList<Integer> supportedCapabilities;
+    // Set by the sender if the entries got encoded already for sizing the chunk, so they are not encoded twice
+    @Nullable
+    private final List<PB.StorageEntryWrapper> encodedDataSet;
+
+    public GetDataResponseChunk(List<ProtectedStorageEntry> dataSet,
+                                int requestNonce,
+                                boolean isGetUpdatedDataResponse,
+                                int chunkIndex,
+                                boolean isLastChunk) {
+        this(dataSet,
+                null,
+                requestNonce,
+                isGetUpdatedDataResponse,
+                chunkIndex,
+                isLastChunk);
+    }
+
+    /**
+     * @param encodedDataSet The entries of dataSet in the same order, encoded with GetDataResponse.toStorageEntryWrapper
+     */
+    public GetDataResponseChunk(List<ProtectedStorageEntry> dataSet,
+                                @Nullable List<PB.StorageEntryWrapper> encodedDataSet,
+                                int requestNonce,
+                                boolean isGetUpdatedDataResponse,
+                                int chunkIndex,
+                                boolean isLastChunk) {
+        this(dataSet,
+                encodedDataSet,
+                requestNonce,
+                isGetUpdatedDataResponse,
+                chunkIndex,
+                isLastChunk,
+                Capabilities.getCapabilities(),
+                Version.getP2PMessageVersion());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private GetDataResponseChunk(List<ProtectedStorageEntry> dataSet,
+                                 @Nullable List<PB.StorageEntryWrapper> encodedDataSet,
+                                 int requestNonce,
+                                 boolean isGetUpdatedDataResponse,
+                                 int chunkIndex,
+                                 boolean isLastChunk,
+                                 @Nullable ArrayList<Integer> supportedCapabilities,
+                                 int messageVersion) {
+        super(messageVersion);
+        this.dataSet = dataSet;
+        this.encodedDataSet = encodedDataSet;
+        this.requestNonce = requestNonce;
+        this.isGetUpdatedDataResponse = isGetUpdatedDataResponse;
+        this.chunkIndex = chunkIndex;
+        this.isLastChunk = isLastChunk;
+        this.supportedCapabilities = supportedCapabilities;
+    }
+
+    @Override
+    public PB.NetworkEnvelope toProtoNetworkEnvelope() {
+        PB.GetDataResponseChunk.Builder builder = PB.GetDataResponseChunk.newBuilder()
+                .addAllDataSet(encodedDataSet != null ?
+                        encodedDataSet :
+                        dataSet.stream()
+                                .map(GetDataResponse::toStorageEntryWrapper)
+                                .collect(Collectors.toList()))
+                .setRequestNonce(requestNonce)
+                .setIsGetUpdatedDataResponse(isGetUpdatedDataResponse)
+                .setChunkIndex(chunkIndex)
+                .setIsLastChunk(isLastChunk);
+        if (supportedCapabilities != null)
+            builder.addAllSupportedCapabilities(supportedCapabilities);
+        return getNetworkEnvelopeBuilder()
+                .setGetDataResponseChunk(builder)
+                .build();
+    }
+
+    public static GetDataResponseChunk fromProto(PB.GetDataResponseChunk proto, NetworkProtoResolver resolver, int messageVersion) {
+        List<ProtectedStorageEntry> dataSet = proto.getDataSetList().stream()
+                .map(entry -> (ProtectedStorageEntry) resolver.fromProto(entry))
+                .collect(Collectors.toList());
+        return new GetDataResponseChunk(dataSet,
+                null,
+                proto.getRequestNonce(),
+                proto.getIsGetUpdatedDataResponse(),
+                proto.getChunkIndex(),
+                proto.getIsLastChunk(),
+                proto.getSupportedCapabilitiesList().isEmpty() ?
+                        null :
+                        new ArrayList<>(proto.getSupportedCapabilitiesList()),
+                messageVersion);
+    }
+}
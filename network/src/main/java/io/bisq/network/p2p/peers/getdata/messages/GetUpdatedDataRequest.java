@@ -1,14 +1,18 @@
 package io.bisq.network.p2p.peers.getdata.messages;
 
 import com.google.protobuf.ByteString;
+import io.bisq.common.app.Capabilities;
 import io.bisq.common.app.Version;
 import io.bisq.common.proto.ProtoUtil;
 import io.bisq.generated.protobuffer.PB;
 import io.bisq.network.p2p.NodeAddress;
 import io.bisq.network.p2p.SendersNodeAddressMessage;
+import io.bisq.network.p2p.SupportedCapabilitiesMessage;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -16,8 +20,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 @EqualsAndHashCode(callSuper = true)
 @Value
-public final class GetUpdatedDataRequest extends GetDataRequest implements SendersNodeAddressMessage {
+public final class GetUpdatedDataRequest extends GetDataRequest implements SendersNodeAddressMessage, SupportedCapabilitiesMessage {
     private final NodeAddress senderNodeAddress;
+    // Not set by old versions
+    @Nullable
+    private final ArrayList<Integer> supportedCapabilities;
 
     public GetUpdatedDataRequest(NodeAddress senderNodeAddress,
                                  int nonce,
@@ -25,6 +32,7 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
         this(senderNodeAddress,
                 nonce,
                 excludedKeys,
+                Capabilities.getCapabilities(),
                 Version.getP2PMessageVersion());
     }
 
@@ -36,23 +44,28 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
     private GetUpdatedDataRequest(NodeAddress senderNodeAddress,
                                   int nonce,
                                   Set<byte[]> excludedKeys,
+                                  @Nullable ArrayList<Integer> supportedCapabilities,
                                   int messageVersion) {
         super(messageVersion,
                 nonce,
                 excludedKeys);
         checkNotNull(senderNodeAddress, "senderNodeAddress must not be null at GetUpdatedDataRequest");
         this.senderNodeAddress = senderNodeAddress;
+        this.supportedCapabilities = supportedCapabilities;
     }
 
     @Override
     public PB.NetworkEnvelope toProtoNetworkEnvelope() {
+        PB.GetUpdatedDataRequest.Builder builder = PB.GetUpdatedDataRequest.newBuilder()
+                .setSenderNodeAddress(senderNodeAddress.toProtoMessage())
+                .setNonce(nonce)
+                .addAllExcludedKeys(excludedKeys.stream()
+                        .map(ByteString::copyFrom)
+                        .collect(Collectors.toList()));
+        if (supportedCapabilities != null)
+            builder.addAllSupportedCapabilities(supportedCapabilities);
         return getNetworkEnvelopeBuilder()
-                .setGetUpdatedDataRequest(PB.GetUpdatedDataRequest.newBuilder()
-                        .setSenderNodeAddress(senderNodeAddress.toProtoMessage())
-                        .setNonce(nonce)
-                        .addAllExcludedKeys(excludedKeys.stream()
-                                .map(ByteString::copyFrom)
-                                .collect(Collectors.toList())))
+                .setGetUpdatedDataRequest(builder)
                 .build();
     }
 
@@ -60,6 +73,9 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
         return new GetUpdatedDataRequest(NodeAddress.fromProto(proto.getSenderNodeAddress()),
                 proto.getNonce(),
                 ProtoUtil.byteSetFromProtoByteStringList(proto.getExcludedKeysList()),
+                proto.getSupportedCapabilitiesList().isEmpty() ?
+                        null :
+                        new ArrayList<>(proto.getSupportedCapabilitiesList()),
                 messageVersion);
     }
 }
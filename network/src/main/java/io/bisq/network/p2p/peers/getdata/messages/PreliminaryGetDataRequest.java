@@ -10,6 +10,7 @@ import io.bisq.network.p2p.SupportedCapabilitiesMessage;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -18,10 +19,11 @@ import java.util.stream.Collectors;
 @Value
 public final class PreliminaryGetDataRequest extends GetDataRequest implements AnonymousMessage, SupportedCapabilitiesMessage {
     // ordinals of enum
-    private final ArrayList<Integer> supportedCapabilities = Capabilities.getCapabilities();
+    @Nullable
+    private final ArrayList<Integer> supportedCapabilities;
 
     public PreliminaryGetDataRequest(int nonce, Set<byte[]> excludedKeys) {
-        this(nonce, excludedKeys, Version.getP2PMessageVersion());
+        this(nonce, excludedKeys, Capabilities.getCapabilities(), Version.getP2PMessageVersion());
     }
 
 
@@ -29,25 +31,34 @@ public final class PreliminaryGetDataRequest extends GetDataRequest implements A
     // PROTO BUFFER
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private PreliminaryGetDataRequest(int nonce, Set<byte[]> excludedKeys, int messageVersion) {
+    private PreliminaryGetDataRequest(int nonce,
+                                      Set<byte[]> excludedKeys,
+                                      @Nullable ArrayList<Integer> supportedCapabilities,
+                                      int messageVersion) {
         super(messageVersion, nonce, excludedKeys);
+        this.supportedCapabilities = supportedCapabilities;
     }
 
     @Override
     public PB.NetworkEnvelope toProtoNetworkEnvelope() {
+        PB.PreliminaryGetDataRequest.Builder builder = PB.PreliminaryGetDataRequest.newBuilder()
+                .setNonce(nonce)
+                .addAllExcludedKeys(excludedKeys.stream()
+                        .map(ByteString::copyFrom)
+                        .collect(Collectors.toList()));
+        if (supportedCapabilities != null)
+            builder.addAllSupportedCapabilities(supportedCapabilities);
         return getNetworkEnvelopeBuilder()
-                .setPreliminaryGetDataRequest(PB.PreliminaryGetDataRequest.newBuilder()
-                        .setNonce(nonce)
-                        .addAllExcludedKeys(excludedKeys.stream()
-                                .map(ByteString::copyFrom)
-                                .collect(Collectors.toList()))
-                        .addAllSupportedCapabilities(supportedCapabilities))
+                .setPreliminaryGetDataRequest(builder)
                 .build();
     }
 
     public static PreliminaryGetDataRequest fromProto(PB.PreliminaryGetDataRequest proto, int messageVersion) {
         return new PreliminaryGetDataRequest(proto.getNonce(),
                 ProtoUtil.byteSetFromProtoByteStringList(proto.getExcludedKeysList()),
+                proto.getSupportedCapabilitiesList().isEmpty() ?
+                        null :
+                        new ArrayList<>(proto.getSupportedCapabilitiesList()),
                 messageVersion);
     }
 }
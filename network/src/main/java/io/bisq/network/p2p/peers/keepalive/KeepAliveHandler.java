@@ -7,6 +7,7 @@ import io.bisq.common.Timer;
 import io.bisq.common.UserThread;
 import io.bisq.common.app.Log;
 import io.bisq.common.proto.network.NetworkEnvelope;
+import io.bisq.network.metrics.NetworkMetrics;
 import io.bisq.network.p2p.network.Connection;
 import io.bisq.network.p2p.network.MessageListener;
 import io.bisq.network.p2p.network.NetworkNode;
@@ -131,6 +132,8 @@ class KeepAliveHandler implements MessageListener {
                     int roundTripTime = (int) (System.currentTimeMillis() - sendTs);
                     log.trace("roundTripTime=" + roundTripTime + "\n\tconnection=" + connection);
                     connection.getStatistic().setRoundTripTime(roundTripTime);
+                    connection.getPeersNodeAddressOptional().ifPresent(nodeAddress ->
+                            NetworkMetrics.getInstance().onRoundTripTime(nodeAddress.getFullAddress(), roundTripTime));
                     cleanup();
                     listener.onComplete();
                 } else {
@@ -3,17 +3,28 @@ package io.bisq.network.p2p.peers.keepalive.messages;
 import io.bisq.common.app.Version;
 import io.bisq.common.proto.network.NetworkEnvelope;
 import io.bisq.generated.protobuffer.PB;
+import io.bisq.network.p2p.NodeAddress;
+import io.bisq.network.p2p.SendersNodeAddressMessage;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 
+import javax.annotation.Nullable;
+
 @EqualsAndHashCode(callSuper = true)
 @Value
-public final class Ping extends NetworkEnvelope implements KeepAliveMessage {
+public final class Ping extends NetworkEnvelope implements KeepAliveMessage, SendersNodeAddressMessage {
     private final int nonce;
     private final int lastRoundTripTime;
+    // Only set at the ping sent when pre-connecting to a peer, so the peer learns our address from the first message
+    @Nullable
+    private final NodeAddress senderNodeAddress;
 
     public Ping(int nonce, int lastRoundTripTime) {
-        this(nonce, lastRoundTripTime, Version.getP2PMessageVersion());
+        this(nonce, lastRoundTripTime, null, Version.getP2PMessageVersion());
+    }
+
+    public Ping(int nonce, NodeAddress senderNodeAddress) {
+        this(nonce, 0, senderNodeAddress, Version.getP2PMessageVersion());
     }
 
 
@@ -21,22 +32,29 @@ public final class Ping extends NetworkEnvelope implements KeepAliveMessage {
     // PROTO BUFFER
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private Ping(int nonce, int lastRoundTripTime, int messageVersion) {
+    private Ping(int nonce, int lastRoundTripTime, @Nullable NodeAddress senderNodeAddress, int messageVersion) {
         super(messageVersion);
         this.nonce = nonce;
         this.lastRoundTripTime = lastRoundTripTime;
+        this.senderNodeAddress = senderNodeAddress;
     }
 
     @Override
     public PB.NetworkEnvelope toProtoNetworkEnvelope() {
+        PB.Ping.Builder builder = PB.Ping.newBuilder()
+                .setNonce(nonce)
+                .setLastRoundTripTime(lastRoundTripTime);
+        if (senderNodeAddress != null)
+            builder.setSenderNodeAddress(senderNodeAddress.toProtoMessage());
         return getNetworkEnvelopeBuilder()
-                .setPing(PB.Ping.newBuilder()
-                        .setNonce(nonce)
-                        .setLastRoundTripTime(lastRoundTripTime))
+                .setPing(builder)
                 .build();
     }
 
     public static Ping fromProto(PB.Ping proto, int messageVersion) {
-        return new Ping(proto.getNonce(), proto.getLastRoundTripTime(), messageVersion);
+        return new Ping(proto.getNonce(),
+                proto.getLastRoundTripTime(),
+                proto.hasSenderNodeAddress() ? NodeAddress.fromProto(proto.getSenderNodeAddress()) : null,
+                messageVersion);
     }
 }
@@ -11,6 +11,7 @@ import io.bisq.network.p2p.peers.peerexchange.Peer;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.stream.Collectors;
@@ -23,10 +24,11 @@ public final class GetPeersRequest extends NetworkEnvelope implements PeerExchan
     private final NodeAddress senderNodeAddress;
     private final int nonce;
     private final HashSet<Peer> reportedPeers;
-    private final ArrayList<Integer> supportedCapabilities = Capabilities.getCapabilities();
+    @Nullable
+    private final ArrayList<Integer> supportedCapabilities;
 
     public GetPeersRequest(NodeAddress senderNodeAddress, int nonce, HashSet<Peer> reportedPeers) {
-        this(senderNodeAddress, nonce, reportedPeers, Version.getP2PMessageVersion());
+        this(senderNodeAddress, nonce, reportedPeers, Capabilities.getCapabilities(), Version.getP2PMessageVersion());
     }
 
 
@@ -34,24 +36,31 @@ public final class GetPeersRequest extends NetworkEnvelope implements PeerExchan
     // PROTO BUFFER
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private GetPeersRequest(NodeAddress senderNodeAddress, int nonce, HashSet<Peer> reportedPeers, int messageVersion) {
+    private GetPeersRequest(NodeAddress senderNodeAddress,
+                            int nonce,
+                            HashSet<Peer> reportedPeers,
+                            @Nullable ArrayList<Integer> supportedCapabilities,
+                            int messageVersion) {
         super(messageVersion);
         checkNotNull(senderNodeAddress, "senderNodeAddress must not be null at GetPeersRequest");
         this.senderNodeAddress = senderNodeAddress;
         this.nonce = nonce;
         this.reportedPeers = reportedPeers;
+        this.supportedCapabilities = supportedCapabilities;
     }
 
     @Override
     public PB.NetworkEnvelope toProtoNetworkEnvelope() {
+        PB.GetPeersRequest.Builder builder = PB.GetPeersRequest.newBuilder()
+                .setSenderNodeAddress(senderNodeAddress.toProtoMessage())
+                .setNonce(nonce)
+                .addAllReportedPeers(reportedPeers.stream()
+                        .map(Peer::toProtoMessage)
+                        .collect(Collectors.toList()));
+        if (supportedCapabilities != null)
+            builder.addAllSupportedCapabilities(supportedCapabilities);
         return getNetworkEnvelopeBuilder()
-                .setGetPeersRequest(PB.GetPeersRequest.newBuilder()
-                        .setSenderNodeAddress(senderNodeAddress.toProtoMessage())
-                        .setNonce(nonce)
-                        .addAllReportedPeers(reportedPeers.stream()
-                                .map(Peer::toProtoMessage)
-                                .collect(Collectors.toList()))
-                        .addAllSupportedCapabilities(supportedCapabilities))
+                .setGetPeersRequest(builder)
                 .build();
     }
 
@@ -61,6 +70,9 @@ public final class GetPeersRequest extends NetworkEnvelope implements PeerExchan
                 new HashSet<>(proto.getReportedPeersList().stream()
                         .map(Peer::fromProto)
                         .collect(Collectors.toSet())),
+                proto.getSupportedCapabilitiesList().isEmpty() ?
+                        null :
+                        new ArrayList<>(proto.getSupportedCapabilitiesList()),
                 messageVersion);
     }
 }
@@ -10,6 +10,7 @@ import io.bisq.network.p2p.peers.peerexchange.Peer;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.stream.Collectors;
@@ -19,10 +20,11 @@ import java.util.stream.Collectors;
 public final class GetPeersResponse extends NetworkEnvelope implements PeerExchangeMessage, SupportedCapabilitiesMessage {
     private final int requestNonce;
     private final HashSet<Peer> reportedPeers;
-    private final ArrayList<Integer> supportedCapabilities = Capabilities.getCapabilities();
+    @Nullable
+    private final ArrayList<Integer> supportedCapabilities;
 
     public GetPeersResponse(int requestNonce, HashSet<Peer> reportedPeers) {
-        this(requestNonce, reportedPeers, Version.getP2PMessageVersion());
+        this(requestNonce, reportedPeers, Capabilities.getCapabilities(), Version.getP2PMessageVersion());
     }
 
 
@@ -30,21 +32,27 @@ public final class GetPeersResponse extends NetworkEnvelope implements PeerExcha
     // PROTO BUFFER
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private GetPeersResponse(int requestNonce, HashSet<Peer> reportedPeers, int messageVersion) {
+    private GetPeersResponse(int requestNonce,
+                             HashSet<Peer> reportedPeers,
+                             @Nullable ArrayList<Integer> supportedCapabilities,
+                             int messageVersion) {
         super(messageVersion);
         this.requestNonce = requestNonce;
         this.reportedPeers = reportedPeers;
+        this.supportedCapabilities = supportedCapabilities;
     }
 
     @Override
     public PB.NetworkEnvelope toProtoNetworkEnvelope() {
+        PB.GetPeersResponse.Builder builder = PB.GetPeersResponse.newBuilder()
+                .setRequestNonce(requestNonce)
+                .addAllReportedPeers(reportedPeers.stream()
+                        .map(Peer::toProtoMessage)
+                        .collect(Collectors.toList()));
+        if (supportedCapabilities != null)
+            builder.addAllSupportedCapabilities(supportedCapabilities);
         return getNetworkEnvelopeBuilder()
-                .setGetPeersResponse(PB.GetPeersResponse.newBuilder()
-                        .setRequestNonce(requestNonce)
-                        .addAllReportedPeers(reportedPeers.stream()
-                                .map(Peer::toProtoMessage)
-                                .collect(Collectors.toList()))
-                        .addAllSupportedCapabilities(supportedCapabilities))
+                .setGetPeersResponse(builder)
                 .build();
     }
 
@@ -55,6 +63,11 @@ public final class GetPeersResponse extends NetworkEnvelope implements PeerExcha
                         .map(peer -> new Peer(new NodeAddress(peer.getNodeAddress().getHostName(),
                                 peer.getNodeAddress().getPort())))
                         .collect(Collectors.toList()));
-        return new GetPeersResponse(getPeersResponse.getRequestNonce(), reportedPeers, messageVersion);
+        return new GetPeersResponse(getPeersResponse.getRequestNonce(),
+                reportedPeers,
+                getPeersResponse.getSupportedCapabilitiesList().isEmpty() ?
+                        null :
+                        new ArrayList<>(getPeersResponse.getSupportedCapabilitiesList()),
+                messageVersion);
     }
 }
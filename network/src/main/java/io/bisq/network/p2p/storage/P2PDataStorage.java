@@ -62,7 +62,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     private final CopyOnWriteArraySet<HashMapChangedListener> hashMapChangedListeners = new CopyOnWriteArraySet<>();
     private Timer removeExpiredEntriesTimer;
     private final SequenceNumberMap sequenceNumberMap = new SequenceNumberMap();
-    private final Storage<SequenceNumberMap> sequenceNumberMapStorage;
+    private final SequenceNumberStore sequenceNumberStore;
     private final Storage<PersistedEntryMap> persistedEntryMapStorage;
     private PersistedEntryMap persistedEntryMap;
 
@@ -81,17 +81,14 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         networkNode.addMessageListener(this);
         networkNode.addConnectionListener(this);
 
-        sequenceNumberMapStorage = new Storage<>(storageDir, persistenceProtoResolver);
+        sequenceNumberStore = new SequenceNumberStore(sequenceNumberMap, storageDir, persistenceProtoResolver);
         persistedEntryMapStorage = new Storage<>(storageDir, persistenceProtoResolver);
-        sequenceNumberMapStorage.setNumMaxBackupFiles(5);
         persistedEntryMapStorage.setNumMaxBackupFiles(1);
     }
 
     @Override
     public void readPersisted() {
-        SequenceNumberMap persistedSequenceNumberMap = sequenceNumberMapStorage.initAndGetPersisted(sequenceNumberMap);
-        if (persistedSequenceNumberMap != null)
-            sequenceNumberMap.setMap(getPurgedSequenceNumberMap(persistedSequenceNumberMap.getMap()));
+        sequenceNumberStore.readPersisted(getSequenceNumberPurgeTimeStamp());
 
         // PersistedEntryMap cannot be set here as we dont know yet the selected base currency
         // We get it called in readPersistedEntryMap once ready
@@ -144,6 +141,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     public void shutDown() {
         if (removeExpiredEntriesTimer != null)
             removeExpiredEntriesTimer.stop();
+
+        sequenceNumberStore.shutDown();
     }
 
     public void onBootstrapComplete() {
@@ -173,7 +172,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                             listener -> listener.onRemoved(protectedDataToRemove)));
 
             if (sequenceNumberMap.size() > 1000)
-                sequenceNumberMap.setMap(getPurgedSequenceNumberMap(sequenceNumberMap.getMap()));
+                sequenceNumberMap.purge(getSequenceNumberPurgeTimeStamp());
         }, CHECK_TTL_INTERVAL_SEC);
     }
 
@@ -214,7 +213,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         if (connection.hasPeersNodeAddress() && !closeConnectionReason.isIntended) {
             map.values().stream()
                     .forEach(protectedData -> {
-                        ExpirablePayload expirablePayload = protectedData.getStoragePayload();
+                        StoragePayload expirablePayload = protectedData.getStoragePayload();
                         if (expirablePayload instanceof RequiresOwnerIsOnlinePayload) {
                             RequiresOwnerIsOnlinePayload requiresOwnerIsOnlinePayload = (RequiresOwnerIsOnlinePayload) expirablePayload;
                             NodeAddress ownerNodeAddress = requiresOwnerIsOnlinePayload.getOwnerNodeAddress();
@@ -309,7 +308,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             if (hasSequenceNrIncreased) {
                 sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), System.currentTimeMillis()));
                 // We set the delay higher as we might receive a batch of items
-                sequenceNumberMapStorage.queueUpForSave(SequenceNumberMap.clone(sequenceNumberMap), 2000);
+                sequenceNumberStore.queueUpForSave(2000);
 
                 if (allowBroadcast)
                     broadcast(new AddDataMessage(protectedStorageEntry), sender, listener, isDataOwner);
@@ -354,7 +353,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                     storedData.updateSignature(signature);
                     printData("after refreshTTL");
                     sequenceNumberMap.put(hashOfPayload, new MapValue(sequenceNumber, System.currentTimeMillis()));
-                    sequenceNumberMapStorage.queueUpForSave(SequenceNumberMap.clone(sequenceNumberMap), 1000);
+                    sequenceNumberStore.queueUpForSave(1000);
 
                     broadcast(refreshTTLMessage, sender, null, isDataOwner);
                 }
@@ -383,7 +382,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             doRemoveProtectedExpirableData(protectedStorageEntry, hashOfPayload);
             printData("after remove");
             sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), System.currentTimeMillis()));
-            sequenceNumberMapStorage.queueUpForSave(SequenceNumberMap.clone(sequenceNumberMap), 300);
+            sequenceNumberStore.queueUpForSave(300);
 
             broadcast(new RemoveDataMessage(protectedStorageEntry), sender, null, isDataOwner);
         } else {
@@ -411,7 +410,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             doRemoveProtectedExpirableData(protectedMailboxStorageEntry, hashOfData);
             printData("after removeMailboxData");
             sequenceNumberMap.put(hashOfData, new MapValue(protectedMailboxStorageEntry.getSequenceNumber(), System.currentTimeMillis()));
-            sequenceNumberMapStorage.queueUpForSave(SequenceNumberMap.clone(sequenceNumberMap), 300);
+            sequenceNumberStore.queueUpForSave(300);
 
             broadcast(new RemoveMailboxDataMessage(protectedMailboxStorageEntry), sender, null, isDataOwner);
         } else {
@@ -629,19 +628,13 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         broadcaster.broadcast(message, sender, listener, isDataOwner);
     }
 
-    private ByteArray getHashAsByteArray(ExpirablePayload data) {
-        return new ByteArray(EncryptionService.getHash(data));
+    private ByteArray getHashAsByteArray(StoragePayload data) {
+        return new ByteArray(StoragePayloadHashCache.getHash(data));
     }
 
-    // Get a new map with entries older than PURGE_AGE_DAYS purged from the given map.
-    private Map<ByteArray, MapValue> getPurgedSequenceNumberMap(Map<ByteArray, MapValue> persisted) {
-        Map<ByteArray, MapValue> purged = new HashMap<>();
-        long maxAgeTs = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(PURGE_AGE_DAYS);
-        persisted.entrySet().stream().forEach(entry -> {
-            if (entry.getValue().timeStamp > maxAgeTs)
-                purged.put(entry.getKey(), entry.getValue());
-        });
-        return purged;
+    // Sequence numbers with a time stamp older than PURGE_AGE_DAYS get purged
+    private long getSequenceNumberPurgeTimeStamp() {
+        return System.currentTimeMillis() - TimeUnit.DAYS.toMillis(PURGE_AGE_DAYS);
     }
 
     private void printData(String info) {
@@ -703,7 +696,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         @Override
         public com.google.protobuf.Message toProtoMessage() {
             return PB.DataAndSeqNrPair.newBuilder()
-                    .setPayload((PB.StoragePayload) storagePayload.toProtoMessage())
+                    .setPayload(StoragePayloadHashCache.getProtoMessage(storagePayload))
                     .setSequenceNumber(sequenceNumber)
                     .build();
         }
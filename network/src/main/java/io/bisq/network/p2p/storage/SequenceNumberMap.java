@@ -17,31 +17,54 @@
 
 package io.bisq.network.p2p.storage;
 
+import com.google.protobuf.ByteString;
 import io.bisq.common.proto.persistable.PersistableEnvelope;
 import io.bisq.generated.protobuffer.PB;
-import lombok.Getter;
-import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import java.util.BitSet;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 /**
+ * Map from the hash of a payload to its sequence number and the time stamp of the last update.
+ * <p>
+ * Nodes track hundreds of thousands of entries, so we don't use a map with a key and a value object per entry. The
+ * keys (SHA-256 hashes) and values are stored in flat arrays using open addressing with linear probing. As the keys are
+ * hashes we use their first bytes as hash code.
+ * <p>
+ * Updated entries are marked as dirty, so they can be persisted incrementally (see SequenceNumberStore).
+ * <p>
  * This class was not generalized to HashMapPersistable (like we did with #ListPersistable) because
  * in protobuffer the map construct can't be anything, so the straightforward mapping was not possible.
  * Hence this Persistable class.
  */
+@Slf4j
 public class SequenceNumberMap implements PersistableEnvelope {
-    @Getter
-    @Setter
-    private Map<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> map = new ConcurrentHashMap<>();
+    // Size of the SHA-256 hashes we use as keys
+    public static final int KEY_LENGTH = 32;
+    private static final int MIN_CAPACITY = 16;
+
+    interface EntryConsumer {
+        void accept(byte[] keys, int keyOffset, int sequenceNr, long timeStamp);
+    }
+
+    // Capacity is always a power of 2 and at least 4/3 of the size
+    private int capacity;
+    private byte[] keys;
+    private int[] sequenceNrs;
+    private long[] timeStamps;
+    private BitSet used;
+    private BitSet dirty;
+    private int size;
 
     public SequenceNumberMap() {
+        this(MIN_CAPACITY);
     }
 
-    public static SequenceNumberMap clone(SequenceNumberMap map) {
-        return new SequenceNumberMap(map.getMap());
+    private SequenceNumberMap(int capacity) {
+        allocate(capacity);
     }
 
 
@@ -49,28 +72,30 @@ public class SequenceNumberMap implements PersistableEnvelope {
     // PROTO BUFFER
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private SequenceNumberMap(Map<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> map) {
-        this.map.putAll(map);
-    }
-
     @Override
-    public PB.PersistableEnvelope toProtoMessage() {
-        return PB.PersistableEnvelope.newBuilder()
-                .setSequenceNumberMap(PB.SequenceNumberMap.newBuilder()
-                        .addAllSequenceNumberEntries(map.entrySet().stream()
-                                .map(entry -> PB.SequenceNumberEntry.newBuilder()
-                                        .setBytes(entry.getKey().toProtoMessage())
-                                        .setMapValue(entry.getValue().toProtoMessage())
-                                        .build())
-                                .collect(Collectors.toList())))
-                .build();
+    public synchronized PB.PersistableEnvelope toProtoMessage() {
+        PB.SequenceNumberMap.Builder builder = PB.SequenceNumberMap.newBuilder();
+        for (int slot = used.nextSetBit(0); slot >= 0; slot = used.nextSetBit(slot + 1)) {
+            builder.addSequenceNumberEntries(PB.SequenceNumberEntry.newBuilder()
+                    .setBytes(PB.ByteArray.newBuilder().setBytes(ByteString.copyFrom(keys, slot * KEY_LENGTH, KEY_LENGTH)))
+                    .setMapValue(PB.MapValue.newBuilder()
+                            .setSequenceNr(sequenceNrs[slot])
+                            .setTimeStamp(timeStamps[slot])));
+        }
+        return PB.PersistableEnvelope.newBuilder().setSequenceNumberMap(builder).build();
     }
 
     public static SequenceNumberMap fromProto(PB.SequenceNumberMap proto) {
-        HashMap<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> map = new HashMap<>();
-        proto.getSequenceNumberEntriesList().stream()
-                .forEach(e -> map.put(P2PDataStorage.ByteArray.fromProto(e.getBytes()), P2PDataStorage.MapValue.fromProto(e.getMapValue())));
-        return new SequenceNumberMap(map);
+        SequenceNumberMap sequenceNumberMap = new SequenceNumberMap(getCapacity(proto.getSequenceNumberEntriesCount()));
+        proto.getSequenceNumberEntriesList().forEach(e -> {
+            byte[] key = e.getBytes().getBytes().toByteArray();
+            if (key.length == KEY_LENGTH)
+                sequenceNumberMap.put(key, 0, e.getMapValue().getSequenceNr(), e.getMapValue().getTimeStamp());
+            else
+                log.warn("Ignoring sequence number entry with invalid key length {}", key.length);
+        });
+        sequenceNumberMap.clearDirty();
+        return sequenceNumberMap;
     }
 
 
@@ -78,20 +103,196 @@ public class SequenceNumberMap implements PersistableEnvelope {
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    // Delegates
-    public int size() {
-        return map.size();
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean containsKey(P2PDataStorage.ByteArray key) {
+        return key.bytes.length == KEY_LENGTH && findSlot(key.bytes, 0) >= 0;
+    }
+
+    @Nullable
+    public synchronized P2PDataStorage.MapValue get(P2PDataStorage.ByteArray key) {
+        if (key.bytes.length != KEY_LENGTH)
+            return null;
+
+        int slot = findSlot(key.bytes, 0);
+        return slot >= 0 ? new P2PDataStorage.MapValue(sequenceNrs[slot], timeStamps[slot]) : null;
+    }
+
+    public synchronized void put(P2PDataStorage.ByteArray key, P2PDataStorage.MapValue value) {
+        checkArgument(key.bytes.length == KEY_LENGTH, "key must be a hash of " + KEY_LENGTH + " bytes");
+        put(key.bytes, 0, value.sequenceNr, value.timeStamp);
+    }
+
+    /**
+     * Adds all entries of the given map. Entries from the given map replace existing entries.
+     */
+    public void putAll(SequenceNumberMap sequenceNumberMap) {
+        // We copy the other arrays first as we must not hold both locks at once
+        byte[] otherKeys;
+        int[] otherSequenceNrs;
+        long[] otherTimeStamps;
+        BitSet otherUsed;
+        synchronized (sequenceNumberMap) {
+            otherKeys = sequenceNumberMap.keys.clone();
+            otherSequenceNrs = sequenceNumberMap.sequenceNrs.clone();
+            otherTimeStamps = sequenceNumberMap.timeStamps.clone();
+            otherUsed = (BitSet) sequenceNumberMap.used.clone();
+        }
+        synchronized (this) {
+            for (int slot = otherUsed.nextSetBit(0); slot >= 0; slot = otherUsed.nextSetBit(slot + 1))
+                put(otherKeys, slot * KEY_LENGTH, otherSequenceNrs[slot], otherTimeStamps[slot]);
+        }
     }
 
-    public boolean containsKey(P2PDataStorage.ByteArray key) {
-        return map.containsKey(key);
+    /**
+     * Removes all entries with a time stamp older than the given one.
+     *
+     * @return Number of removed entries
+     */
+    public synchronized int purge(long minTimeStamp) {
+        int numPurged = 0;
+        for (int slot = used.nextSetBit(0); slot >= 0; slot = used.nextSetBit(slot + 1)) {
+            if (timeStamps[slot] <= minTimeStamp)
+                numPurged++;
+        }
+        if (numPurged > 0)
+            rehash(getCapacity(size - numPurged), minTimeStamp);
+        return numPurged;
     }
 
-    public P2PDataStorage.MapValue get(P2PDataStorage.ByteArray key) {
-        return map.get(key);
+    /**
+     * Passes all entries changed since the last call to the consumer and clears their dirty flag.
+     *
+     * @return Number of entries passed to the consumer
+     */
+    synchronized int drainDirtyEntries(EntryConsumer consumer) {
+        int numEntries = 0;
+        for (int slot = dirty.nextSetBit(0); slot >= 0; slot = dirty.nextSetBit(slot + 1)) {
+            consumer.accept(keys, slot * KEY_LENGTH, sequenceNrs[slot], timeStamps[slot]);
+            numEntries++;
+        }
+        dirty.clear();
+        return numEntries;
     }
 
-    public void put(P2PDataStorage.ByteArray key, P2PDataStorage.MapValue value) {
-        map.put(key, value);
+    synchronized void put(byte[] keys, int keyOffset, int sequenceNr, long timeStamp) {
+        int slot = findSlot(keys, keyOffset);
+        if (slot < 0) {
+            if ((size + 1) * 4L > capacity * 3L)
+                rehash(capacity * 2, Long.MIN_VALUE);
+            slot = -(findSlot(keys, keyOffset) + 1);
+            System.arraycopy(keys, keyOffset, this.keys, slot * KEY_LENGTH, KEY_LENGTH);
+            used.set(slot);
+            size++;
+        }
+        sequenceNrs[slot] = sequenceNr;
+        timeStamps[slot] = timeStamp;
+        dirty.set(slot);
+    }
+
+    /**
+     * Puts the entry unless it is not newer than minTimeStamp or we have an entry newer than minTimeStamp with a
+     * higher sequence number (or the same sequence number and a newer time stamp).
+     *
+     * @return True if the entry was put
+     */
+    synchronized boolean putIfHigher(byte[] keys, int keyOffset, int sequenceNr, long timeStamp, long minTimeStamp) {
+        if (timeStamp <= minTimeStamp)
+            return false;
+
+        int slot = findSlot(keys, keyOffset);
+        if (slot >= 0 && timeStamps[slot] > minTimeStamp &&
+                (sequenceNrs[slot] > sequenceNr || (sequenceNrs[slot] == sequenceNr && timeStamps[slot] > timeStamp)))
+            return false;
+
+        put(keys, keyOffset, sequenceNr, timeStamp);
+        return true;
+    }
+
+    synchronized void clearDirty() {
+        dirty.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SequenceNumberMap{" +
+                "size=" + size +
+                ", capacity=" + capacity +
+                ", numDirty=" + dirty.cardinality() +
+                '}';
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static int getCapacity(int size) {
+        int capacity = MIN_CAPACITY;
+        while (size * 4L > capacity * 3L)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        this.capacity = capacity;
+        keys = new byte[capacity * KEY_LENGTH];
+        sequenceNrs = new int[capacity];
+        timeStamps = new long[capacity];
+        used = new BitSet(capacity);
+        dirty = new BitSet(capacity);
+        size = 0;
+    }
+
+    // Returns the slot of the key if found, otherwise -(free slot + 1)
+    private int findSlot(byte[] keys, int keyOffset) {
+        int mask = capacity - 1;
+        // Keys are hashes, so the first bytes are evenly distributed
+        int hash = (keys[keyOffset] & 0xFF) << 24 |
+                (keys[keyOffset + 1] & 0xFF) << 16 |
+                (keys[keyOffset + 2] & 0xFF) << 8 |
+                (keys[keyOffset + 3] & 0xFF);
+        int slot = hash & mask;
+        while (used.get(slot)) {
+            if (isKeyAtSlot(slot, keys, keyOffset))
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -(slot + 1);
+    }
+
+    private boolean isKeyAtSlot(int slot, byte[] keys, int keyOffset) {
+        int offset = slot * KEY_LENGTH;
+        for (int i = 0; i < KEY_LENGTH; i++) {
+            if (this.keys[offset + i] != keys[keyOffset + i])
+                return false;
+        }
+        return true;
+    }
+
+    // Copies all entries newer than minTimeStamp into new arrays of the given capacity. Dirty flags are kept.
+    private void rehash(int newCapacity, long minTimeStamp) {
+        byte[] oldKeys = keys;
+        int[] oldSequenceNrs = sequenceNrs;
+        long[] oldTimeStamps = timeStamps;
+        BitSet oldUsed = used;
+        BitSet oldDirty = dirty;
+        allocate(newCapacity);
+        for (int oldSlot = oldUsed.nextSetBit(0); oldSlot >= 0; oldSlot = oldUsed.nextSetBit(oldSlot + 1)) {
+            if (oldTimeStamps[oldSlot] <= minTimeStamp)
+                continue;
+
+            int slot = -(findSlot(oldKeys, oldSlot * KEY_LENGTH) + 1);
+            System.arraycopy(oldKeys, oldSlot * KEY_LENGTH, keys, slot * KEY_LENGTH, KEY_LENGTH);
+            sequenceNrs[slot] = oldSequenceNrs[oldSlot];
+            timeStamps[slot] = oldTimeStamps[oldSlot];
+            used.set(slot);
+            if (oldDirty.get(oldSlot))
+                dirty.set(slot);
+            size++;
+        }
+        log.trace("Rehashed SequenceNumberMap. size={}, capacity={}", size, capacity);
     }
 }
@@ -0,0 +1,231 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.network.p2p.storage;
+
+import io.bisq.common.proto.persistable.PersistenceProtoResolver;
+import io.bisq.common.storage.Storage;
+import io.bisq.common.util.Utilities;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Persists the SequenceNumberMap incrementally.
+ * <p>
+ * Updated entries are appended as fixed size records (key, sequence number, time stamp) to a log file. Once the log
+ * has more records than the map has entries (and at least MIN_RECORDS_FOR_COMPACTION) we write a full snapshot with
+ * the Storage and truncate the log. At startup the log is replayed on top of the snapshot.
+ * <p>
+ * The log can hold records which are older than the snapshot: if appending to the log failed, the snapshot contains
+ * changes which are not in the log, and a crash between writing the snapshot and truncating the log leaves the old
+ * records in place. So a record only replaces an entry if it has a higher sequence number. Records and entries which
+ * get purged are ignored, so a key which got added again after it had been purged gets its new (lower) sequence
+ * number.
+ * <p>
+ * All writes are done on one background thread.
+ */
+@Slf4j
+class SequenceNumberStore {
+    static final String LOG_FILE_NAME = "SequenceNumberMap.log";
+    private static final int RECORD_SIZE = SequenceNumberMap.KEY_LENGTH + 4 + 8;
+    private static final int MIN_RECORDS_FOR_COMPACTION = 10_000;
+    private static final long SNAPSHOT_RETRY_DELAY_MS = 60_000;
+    private static final long SHUTDOWN_TIMEOUT_SEC = 5;
+
+    private final SequenceNumberMap sequenceNumberMap;
+    private final Storage<SequenceNumberMap> storage;
+    private final File logFile;
+    private final ScheduledThreadPoolExecutor executor;
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    // Only accessed from the executor thread after readPersisted
+    private long numLogRecords;
+    // Set if the log could not be read or written. The next flush writes a snapshot instead of appending to the log.
+    private boolean snapshotRequired;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    SequenceNumberStore(SequenceNumberMap sequenceNumberMap, File storageDir, PersistenceProtoResolver persistenceProtoResolver) {
+        this.sequenceNumberMap = sequenceNumberMap;
+        storage = new Storage<>(storageDir, persistenceProtoResolver);
+        storage.setNumMaxBackupFiles(5);
+        logFile = new File(storageDir, LOG_FILE_NAME);
+        executor = Utilities.getScheduledThreadPoolExecutor("SequenceNumberStore", 1, 1, 10);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Reads the snapshot, replays the log and purges all entries not newer than minTimeStamp.
+     */
+    void readPersisted(long minTimeStamp) {
+        SequenceNumberMap persisted = storage.initAndGetPersisted(sequenceNumberMap);
+        if (persisted != null)
+            sequenceNumberMap.putAll(persisted);
+
+        replayLog(minTimeStamp);
+        sequenceNumberMap.purge(minTimeStamp);
+        sequenceNumberMap.clearDirty();
+    }
+
+    // Writes the changed entries after the delay. Further changes within the delay are written together.
+    void queueUpForSave(long delayInMilli) {
+        if (!flushPending.getAndSet(true))
+            executor.schedule(this::flush, delayInMilli, TimeUnit.MILLISECONDS);
+    }
+
+    void shutDown() {
+        try {
+            executor.submit(this::flush).get(SHUTDOWN_TIMEOUT_SEC, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Writing the sequence numbers at shutdown failed. " + e.toString());
+        }
+        executor.shutdownNow();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void replayLog(long minTimeStamp) {
+        if (!logFile.exists())
+            return;
+
+        try {
+            byte[] bytes = Files.readAllBytes(logFile.toPath());
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            long numRecords = bytes.length / RECORD_SIZE;
+            for (int offset = 0; offset + RECORD_SIZE <= bytes.length; offset += RECORD_SIZE) {
+                sequenceNumberMap.putIfHigher(bytes,
+                        offset,
+                        buffer.getInt(offset + SequenceNumberMap.KEY_LENGTH),
+                        buffer.getLong(offset + SequenceNumberMap.KEY_LENGTH + 4),
+                        minTimeStamp);
+            }
+
+            if (bytes.length % RECORD_SIZE != 0) {
+                // An incomplete record from an interrupted write. We cut it off so new records stay aligned.
+                log.warn("{} ends with an incomplete record. We remove it.", LOG_FILE_NAME);
+                try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.WRITE)) {
+                    channel.truncate(numRecords * RECORD_SIZE);
+                    channel.force(true);
+                }
+            }
+            log.info("Replayed {} records from {}", numRecords, LOG_FILE_NAME);
+            numLogRecords = numRecords;
+        } catch (IOException e) {
+            log.error("Reading {} failed. {}", LOG_FILE_NAME, e.toString());
+            snapshotRequired = true;
+        }
+    }
+
+    private void flush() {
+        flushPending.set(false);
+        if (!snapshotRequired) {
+            try {
+                LogRecordWriter writer = new LogRecordWriter();
+                int numRecords = sequenceNumberMap.drainDirtyEntries(writer);
+                if (numRecords > 0) {
+                    ByteBuffer buffer = writer.getBuffer();
+                    buffer.flip();
+                    try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                        while (buffer.hasRemaining())
+                            channel.write(buffer);
+                        channel.force(false);
+                    }
+                    numLogRecords += numRecords;
+                }
+            } catch (IOException e) {
+                // The log might end with an incomplete record now, so we must not append to it anymore
+                log.error("Appending to {} failed. We write a full snapshot. {}", LOG_FILE_NAME, e.toString());
+                snapshotRequired = true;
+            }
+        }
+
+        if (snapshotRequired || numLogRecords > Math.max(MIN_RECORDS_FOR_COMPACTION, sequenceNumberMap.size()))
+            compact();
+    }
+
+    private void compact() {
+        long ts = System.currentTimeMillis();
+        try {
+            // All changes up to now are part of the snapshot
+            sequenceNumberMap.clearDirty();
+            // The snapshot must be on disk before we truncate the log
+            if (!storage.saveNow(sequenceNumberMap)) {
+                // The cleared changes are only in memory now, so we retry with the next flush
+                log.error("Writing the snapshot failed. We keep the log and retry later.");
+                snapshotRequired = true;
+                queueUpForSave(SNAPSHOT_RETRY_DELAY_MS);
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                channel.truncate(0);
+                channel.force(true);
+            }
+            numLogRecords = 0;
+            snapshotRequired = false;
+            log.debug("Compacting {} took {} ms", LOG_FILE_NAME, System.currentTimeMillis() - ts);
+        } catch (Throwable t) {
+            log.error("Compacting " + LOG_FILE_NAME + " failed", t);
+            snapshotRequired = true;
+            queueUpForSave(SNAPSHOT_RETRY_DELAY_MS);
+        }
+    }
+
+    private static final class LogRecordWriter implements SequenceNumberMap.EntryConsumer {
+        private ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 64);
+
+        @Override
+        public void accept(byte[] keys, int keyOffset, int sequenceNr, long timeStamp) {
+            if (buffer.remaining() < RECORD_SIZE) {
+                ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+            buffer.put(keys, keyOffset, SequenceNumberMap.KEY_LENGTH)
+                    .putInt(sequenceNr)
+                    .putLong(timeStamp);
+        }
+
+        private ByteBuffer getBuffer() {
+            return buffer;
+        }
+    }
+}
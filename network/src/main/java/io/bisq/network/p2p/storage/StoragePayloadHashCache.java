@@ -0,0 +1,66 @@
+package io.bisq.network.p2p.storage;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import io.bisq.common.crypto.Hash;
+import io.bisq.generated.protobuffer.PB;
+import io.bisq.network.p2p.storage.payload.ImmutableStoragePayload;
+import io.bisq.network.p2p.storage.payload.StoragePayload;
+
+/**
+ * Memoizes the protobuf representation and the hash of StoragePayload instances.
+ * <p>
+ * The hash of a payload is used as key in the P2PDataStorage map and for the sequence number map, so it is
+ * requested several times for each add, remove and refresh operation. Calculating it requires to convert the payload
+ * to its proto message, serialize that and hash the bytes. For ImmutableStoragePayload instances we calculate that
+ * only once per payload instance. Other payloads have setters (e.g. the offerFeePaymentTxId of the OfferPayload), so
+ * for those we calculate it at each call.
+ * <p>
+ * Entries are keyed by identity and held with weak keys, so they don't affect the equals/hashCode contract of the
+ * payloads and are released together with the payload. The cache is thread safe.
+ */
+final class StoragePayloadHashCache {
+    private static final class Entry {
+        private final PB.StoragePayload protoMessage;
+        private final byte[] hash;
+
+        private Entry(PB.StoragePayload protoMessage) {
+            this.protoMessage = protoMessage;
+            this.hash = Hash.getHash(protoMessage.toByteArray());
+        }
+    }
+
+    private static final LoadingCache<StoragePayload, Entry> cache = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<StoragePayload, Entry>() {
+                @Override
+                public Entry load(StoragePayload storagePayload) {
+                    return new Entry((PB.StoragePayload) storagePayload.toProtoMessage());
+                }
+            });
+
+    private StoragePayloadHashCache() {
+    }
+
+    static PB.StoragePayload getProtoMessage(StoragePayload storagePayload) {
+        if (storagePayload instanceof ImmutableStoragePayload)
+            return cache.getUnchecked(storagePayload).protoMessage;
+        else
+            return (PB.StoragePayload) storagePayload.toProtoMessage();
+    }
+
+    /**
+     * @return The hash of the serialized proto message of the payload. Must not be modified by the caller.
+     */
+    static byte[] getHash(StoragePayload storagePayload) {
+        if (storagePayload instanceof ImmutableStoragePayload)
+            return cache.getUnchecked(storagePayload).hash;
+        else
+            return Hash.getHash(storagePayload.toProtoMessage().toByteArray());
+    }
+
+    static long size() {
+        return cache.size();
+    }
+}
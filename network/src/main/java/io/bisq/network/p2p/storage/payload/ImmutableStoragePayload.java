@@ -0,0 +1,9 @@
+package io.bisq.network.p2p.storage.payload;
+
+/**
+ * Marker interface for payload which does not change after it got created. The proto message and hash of such
+ * payload are calculated only once (see StoragePayloadHashCache).
+ * Used for MailboxStoragePayload, Arbitrator, Mediator and TradeStatistics.
+ */
+public interface ImmutableStoragePayload extends StoragePayload {
+}
@@ -26,7 +26,7 @@ import java.util.concurrent.TimeUnit;
 @Getter
 @EqualsAndHashCode
 @Slf4j
-public final class MailboxStoragePayload implements StoragePayload {
+public final class MailboxStoragePayload implements ImmutableStoragePayload {
     private final PrefixedSealedAndSignedMessage prefixedSealedAndSignedMessage;
     private PublicKey senderPubKeyForAddOperation;
     private final byte[] senderPubKeyForAddOperationBytes;
@@ -0,0 +1,75 @@
+package io.bisq.network.http;
+
+import com.runjva.sourceforge.jsocks.protocol.ProxyServer;
+import com.runjva.sourceforge.jsocks.server.ServerAuthenticatorNone;
+import com.sun.net.httpserver.HttpServer;
+import io.bisq.network.Socks5ProxyProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+
+public class HttpClientTest {
+    private HttpServer httpServer;
+    private ProxyServer proxyServer;
+    private int socksPort;
+    // Remote ports of the connections from the socks proxy to our http server
+    private final Set<Integer> remotePorts = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void setUp() throws IOException, InterruptedException {
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        httpServer.createContext("/", exchange -> {
+            remotePorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        httpServer.start();
+
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            socksPort = serverSocket.getLocalPort();
+        }
+        proxyServer = new ProxyServer(new ServerAuthenticatorNone());
+        Thread proxyThread = new Thread(() -> proxyServer.start(socksPort), "HttpClientTest-ProxyServer");
+        proxyThread.setDaemon(true);
+        proxyThread.start();
+        // Give the proxy server time to bind its server socket
+        Thread.sleep(500);
+    }
+
+    @After
+    public void tearDown() {
+        SocksHttpClientPool.shutDown();
+        proxyServer.stop();
+        httpServer.stop(0);
+    }
+
+    @Test
+    public void testConnectionIsReusedForRequestsOverSocks5Proxy() throws IOException {
+        // We must not use localhost as HttpClient does not route localhost requests over the proxy
+        String baseUrl = "http://127.0.0.1:" + httpServer.getAddress().getPort() + "/";
+        HttpClient httpClient = new HttpClient(new Socks5ProxyProvider("", "127.0.0.1:" + socksPort));
+        httpClient.setBaseUrl(baseUrl);
+        HttpClient otherHttpClient = new HttpClient(new Socks5ProxyProvider("", "127.0.0.1:" + socksPort));
+        otherHttpClient.setBaseUrl(baseUrl);
+
+        assertEquals("ok", httpClient.requestWithGET("a", null, null));
+        assertEquals("ok", httpClient.requestWithGET("b", null, null));
+        assertEquals("ok", otherHttpClient.requestWithGET("c", null, null));
+
+        // All requests used the same proxied connection
+        assertEquals(1, remotePorts.size());
+    }
+}
@@ -0,0 +1,86 @@
+package io.bisq.network.metrics;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class NetworkMetricsTest {
+
+    @Test
+    public void testHistogramBuckets() {
+        long previousUpperBound = -1;
+        for (int bucket = 0; bucket < Histogram.NUM_BUCKETS; bucket++) {
+            long upperBound = Histogram.getUpperBound(bucket);
+            assertTrue(upperBound > previousUpperBound);
+            assertEquals(bucket, Histogram.getBucket(previousUpperBound + 1));
+            assertEquals(bucket, Histogram.getBucket(upperBound));
+            previousUpperBound = upperBound;
+        }
+        assertEquals(Long.MAX_VALUE, previousUpperBound);
+    }
+
+    @Test
+    public void testHistogramQuantiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 10_000; i++)
+            histogram.record(i);
+        histogram.record(-5);
+
+        Histogram.Snapshot snapshot = histogram.getSnapshot();
+        assertEquals(10_001, snapshot.getCount());
+        assertEquals(10_000, snapshot.getMax());
+        assertEquals(50_005_000, snapshot.getSum());
+        assertEquals(0, histogram.getSnapshot().getValueAtQuantile(0));
+        // The relative error is below 1/16
+        assertEquals(5000, snapshot.getValueAtQuantile(0.5), 5000 / 16d);
+        assertEquals(9900, snapshot.getValueAtQuantile(0.99), 9900 / 16d);
+        assertEquals(10_000, snapshot.getValueAtQuantile(1));
+        assertEquals(0, new Histogram().getSnapshot().getValueAtQuantile(0.5));
+    }
+
+    @Test
+    public void testConcurrentUpdates() {
+        NetworkMetrics networkMetrics = new NetworkMetrics();
+        IntStream.range(0, 100_000).parallel().forEach(i ->
+                networkMetrics.onMessageSent("Ping", 10, 1000, "peer" + (i % 10) + ":9999"));
+
+        NetworkMetrics.MessageTypeMetrics metrics = networkMetrics.getMessageTypeMetrics().get("Ping");
+        assertEquals(100_000, metrics.getSentMessages().sum());
+        assertEquals(1_000_000, metrics.getSentBytes().sum());
+        assertEquals(100_000, metrics.getSentSize().getCount());
+        assertEquals(10, networkMetrics.getPeerMetrics().size());
+        assertEquals(10_000, networkMetrics.getPeerMetrics().get("peer0:9999").getSentMessages().sum());
+    }
+
+    @Test
+    public void testDump() {
+        NetworkMetrics networkMetrics = new NetworkMetrics();
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            networkMetrics.onMessageReceived("GetDataResponse", 1000 + random.nextInt(1000), 50_000, "peer:9999");
+            networkMetrics.onMessageQueued();
+            networkMetrics.onMessageHandled("GetDataResponse", 10_000, 200_000);
+        }
+        networkMetrics.onRoundTripTime("peer:9999", 120);
+        networkMetrics.onMessageQueued();
+
+        MetricsDumper metricsDumper = new MetricsDumper(networkMetrics, new File("."));
+        String prometheusText = metricsDumper.toPrometheusText();
+        assertTrue(prometheusText.contains("bisq_network_received_messages_total{type=\"GetDataResponse\"} 100\n"));
+        assertTrue(prometheusText.contains("bisq_network_handler_time_us_count{type=\"GetDataResponse\"} 100\n"));
+        assertTrue(prometheusText.contains("bisq_network_handler_time_us{type=\"GetDataResponse\",quantile=\"0.5\"} 200\n"));
+        assertTrue(prometheusText.contains("bisq_network_peer_round_trip_time_ms{peer=\"peer:9999\"} 120\n"));
+        assertTrue(prometheusText.contains("bisq_network_user_thread_queue_size 1\n"));
+        // No samples, so there is no summary for the sent sizes
+        assertFalse(prometheusText.contains("bisq_network_sent_size_bytes"));
+
+        String json = metricsDumper.toJson();
+        assertTrue(json.contains("\"GetDataResponse\""));
+        assertTrue(json.contains("\"receivedMessages\": 100"));
+        metricsDumper.shutDown();
+    }
+}
@@ -0,0 +1,214 @@
+package io.bisq.network.p2p.network;
+
+import com.google.protobuf.ByteString;
+import io.bisq.generated.protobuffer.PB;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.*;
+
+public class EnvelopeCompressionTest {
+    private static final Logger log = LoggerFactory.getLogger(EnvelopeCompressionTest.class);
+
+    // Optional capture file written by MessageTracer (MessageCapture.bin) to run the benchmark with real messages
+    private static final String CAPTURE_FILE_PROPERTY = "bisq.captureFile";
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        PB.NetworkEnvelope proto = createGetDataResponse(new Random(1), 100);
+        PB.NetworkEnvelope compressed = EnvelopeCompression.compress(proto);
+        assertNotNull(compressed);
+        assertEquals(PB.NetworkEnvelope.MessageCase.COMPRESSED_ENVELOPE, compressed.getMessageCase());
+        assertEquals(proto.getMessageVersion(), compressed.getMessageVersion());
+        assertTrue(compressed.getSerializedSize() < proto.getSerializedSize());
+
+        assertEquals(proto, EnvelopeCompression.decompress(compressed.getCompressedEnvelope(), Connection.MAX_PERMITTED_MESSAGE_SIZE));
+    }
+
+    @Test
+    public void testSmallOrIncompressibleEnvelopesAreNotCompressed() {
+        assertNull(EnvelopeCompression.compress(createGetDataResponse(new Random(1), 1)));
+
+        // Encrypted data does not compress
+        PB.NetworkEnvelope proto = PB.NetworkEnvelope.newBuilder()
+                .setPrefixedSealedAndSignedMessage(PB.PrefixedSealedAndSignedMessage.newBuilder()
+                        .setSealedAndSigned(PB.SealedAndSigned.newBuilder()
+                                .setEncryptedPayloadWithHmac(randomBytes(new Random(1), EnvelopeCompression.MIN_COMPRESSION_SIZE * 2))))
+                .build();
+        assertNull(EnvelopeCompression.compress(proto));
+    }
+
+    @Test(expected = DataFormatException.class)
+    public void testDataExceedingAnnouncedSizeIsRejected() throws Exception {
+        // 10 MB of zeros compress to about 10 kb
+        PB.CompressedEnvelope bomb = deflate(new byte[10 * 1024 * 1024]).toBuilder()
+                .setUncompressedSize(1000)
+                .build();
+        EnvelopeCompression.decompress(bomb, Connection.MAX_PERMITTED_MESSAGE_SIZE);
+    }
+
+    @Test(expected = DataFormatException.class)
+    public void testAnnouncedSizeAboveMaxSizeIsRejected() throws Exception {
+        EnvelopeCompression.decompress(deflate(new byte[1000]), 999);
+    }
+
+    @Test(expected = DataFormatException.class)
+    public void testNestedCompressedEnvelopeIsRejected() throws Exception {
+        PB.NetworkEnvelope compressed = EnvelopeCompression.compress(createGetDataResponse(new Random(1), 100));
+        assertNotNull(compressed);
+        PB.CompressedEnvelope nested = deflate(compressed.toByteArray());
+        EnvelopeCompression.decompress(nested, Connection.MAX_PERMITTED_MESSAGE_SIZE);
+    }
+
+    @Test
+    public void testBenchmark() throws Exception {
+        List<PB.NetworkEnvelope> samples = new ArrayList<>();
+        String captureFile = System.getProperty(CAPTURE_FILE_PROPERTY);
+        if (captureFile != null) {
+            samples.addAll(readCapture(new File(captureFile)));
+        } else {
+            Random random = new Random(1);
+            for (int numOffers : Arrays.asList(1, 10, 100, 1000))
+                samples.add(createGetDataResponse(random, numOffers));
+        }
+
+        long totalSize = 0;
+        long totalCompressedSize = 0;
+        long compressNanos = 0;
+        long decompressNanos = 0;
+        for (PB.NetworkEnvelope proto : samples) {
+            long ts = System.nanoTime();
+            PB.NetworkEnvelope compressed = EnvelopeCompression.compress(proto);
+            compressNanos += System.nanoTime() - ts;
+            int size = proto.getSerializedSize();
+            int compressedSize = compressed != null ? compressed.getSerializedSize() : size;
+            if (compressed != null) {
+                ts = System.nanoTime();
+                assertEquals(proto, EnvelopeCompression.decompress(compressed.getCompressedEnvelope(), Integer.MAX_VALUE - 1));
+                decompressNanos += System.nanoTime() - ts;
+            }
+            log.info("{} of {} bytes: {} bytes compressed ({}%)", proto.getMessageCase(), size, compressedSize,
+                    100 * compressedSize / size);
+            totalSize += size;
+            totalCompressedSize += compressedSize;
+        }
+        log.info("{} samples, {} bytes: {} bytes compressed ({}%), compression {} ms, decompression {} ms",
+                samples.size(), totalSize, totalCompressedSize, 100 * totalCompressedSize / Math.max(1, totalSize),
+                TimeUnit.NANOSECONDS.toMillis(compressNanos), TimeUnit.NANOSECONDS.toMillis(decompressNanos));
+    }
+
+    // Message with offers which have random ids, keys and signatures, so the ratio is not better than with real data
+    private static PB.NetworkEnvelope createGetDataResponse(Random random, int numOffers) {
+        String[] currencies = {"EUR", "USD", "GBP", "XMR", "ETH"};
+        String[] paymentMethods = {"SEPA", "NATIONAL_BANK", "BLOCK_CHAINS", "OK_PAY", "INTERAC_E_TRANSFER"};
+        PB.GetDataResponse.Builder builder = PB.GetDataResponse.newBuilder()
+                .setRequestNonce(random.nextInt());
+        for (int i = 0; i < numOffers; i++) {
+            ByteString signaturePubKey = randomBytes(random, 443);
+            PB.NodeAddress nodeAddress = PB.NodeAddress.newBuilder()
+                    .setHostName(randomHex(random, 8) + ".onion")
+                    .setPort(9999)
+                    .build();
+            int index = random.nextInt(currencies.length);
+            PB.OfferPayload offerPayload = PB.OfferPayload.newBuilder()
+                    .setId(UUID.randomUUID().toString())
+                    .setDate(System.currentTimeMillis())
+                    .setOwnerNodeAddress(nodeAddress)
+                    .setPubKeyRing(PB.PubKeyRing.newBuilder()
+                            .setSignaturePubKeyBytes(signaturePubKey)
+                            .setEncryptionPubKeyBytes(randomBytes(random, 294)))
+                    .setDirection(random.nextBoolean() ? PB.OfferPayload.Direction.BUY : PB.OfferPayload.Direction.SELL)
+                    .setPrice(random.nextInt(10_000_000))
+                    .setAmount(random.nextInt(100_000_000))
+                    .setMinAmount(random.nextInt(10_000_000))
+                    .setBaseCurrencyCode("BTC")
+                    .setCounterCurrencyCode(currencies[index])
+                    .addArbitratorNodeAddresses(PB.NodeAddress.newBuilder().setHostName("arbitrator.onion").setPort(9999))
+                    .setPaymentMethodId(paymentMethods[index])
+                    .setMakerPaymentAccountId(UUID.randomUUID().toString())
+                    .setOfferFeePaymentTxId(randomHex(random, 32))
+                    .setCountryCode("DE")
+                    .addAllAcceptedCountryCodes(Arrays.asList("AT", "BE", "DE", "ES", "FR", "IT", "NL"))
+                    .setVersionNr("0.5.3")
+                    .setBlockHeightAtOfferCreation(480_000 + random.nextInt(1000))
+                    .setTxFee(20_000)
+                    .setMakerFee(10_000)
+                    .setBuyerSecurityDeposit(3_000_000)
+                    .setSellerSecurityDeposit(1_000_000)
+                    .setMaxTradeLimit(50_000_000)
+                    .setMaxTradePeriod(TimeUnit.DAYS.toMillis(8))
+                    .setProtocolVersion(1)
+                    .build();
+            builder.addDataSet(PB.StorageEntryWrapper.newBuilder()
+                    .setProtectedStorageEntry(PB.ProtectedStorageEntry.newBuilder()
+                            .setStoragePayload(PB.StoragePayload.newBuilder().setOfferPayload(offerPayload))
+                            .setOwnerPubKeyBytes(signaturePubKey)
+                            .setSequenceNumber(random.nextInt(10))
+                            .setSignature(randomBytes(random, 46))
+                            .setCreationTimeStamp(System.currentTimeMillis())));
+        }
+        return PB.NetworkEnvelope.newBuilder()
+                .setMessageVersion(1)
+                .setGetDataResponse(builder)
+                .build();
+    }
+
+    private static ByteString randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return ByteString.copyFrom(bytes);
+    }
+
+    private static String randomHex(Random random, int numBytes) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < numBytes; i++)
+            sb.append(String.format("%02x", random.nextInt(256)));
+        return sb.toString();
+    }
+
+    // Deflate without dictionary
+    private static PB.CompressedEnvelope deflate(byte[] input) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(input);
+        deflater.finish();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished())
+            outputStream.write(buffer, 0, deflater.deflate(buffer));
+        deflater.end();
+        return PB.CompressedEnvelope.newBuilder()
+                .setCodec(PB.CompressedEnvelope.Codec.DEFLATE)
+                .setUncompressedSize(input.length)
+                .setData(ByteString.copyFrom(outputStream.toByteArray()))
+                .build();
+    }
+
+    // See MessageTracer.writeCapture for the format. We use the complete frames only.
+    private static List<PB.NetworkEnvelope> readCapture(File file) throws IOException {
+        List<PB.NetworkEnvelope> samples = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (in.available() > 0) {
+                in.readLong();
+                in.readBoolean();
+                in.readUTF();
+                int size = in.readInt();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                if (bytes.length == size)
+                    samples.add(PB.NetworkEnvelope.parseFrom(bytes));
+            }
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,167 @@
+package io.bisq.network.p2p.network;
+
+import io.bisq.common.UserThread;
+import io.bisq.common.proto.network.NetworkEnvelope;
+import io.bisq.network.p2p.CloseConnectionMessage;
+import io.bisq.network.p2p.peers.keepalive.messages.Ping;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class InboundDispatcherTest {
+    private final Queue<Runnable> userThreadTasks = new ConcurrentLinkedQueue<>();
+    private final List<String> delivered = new ArrayList<>();
+    private Executor previousExecutor;
+
+    @Before
+    public void setUp() {
+        previousExecutor = UserThread.getExecutor();
+        // We run the UserThread tasks manually
+        UserThread.setExecutor(userThreadTasks::add);
+    }
+
+    @After
+    public void tearDown() {
+        UserThread.setExecutor(previousExecutor);
+    }
+
+    @Test
+    public void testPriorityMessagesAreDeliveredFirst() throws InterruptedException {
+        InboundDispatcher dispatcher = new InboundDispatcher(100);
+        InboundDispatcher.InboundQueue flooder = newQueue("flooder", 1);
+        InboundDispatcher.InboundQueue peer = newQueue("peer", 1);
+        for (int i = 0; i < 10; i++)
+            dispatcher.enqueue(flooder, new CloseConnectionMessage(String.valueOf(i)));
+        dispatcher.enqueue(peer, new Ping(1, 0));
+
+        runUserThreadTasks();
+        assertEquals("peer:Ping", delivered.get(0));
+        assertEquals("flooder:0", delivered.get(1));
+        assertEquals(11, delivered.size());
+    }
+
+    @Test
+    public void testWeightedRoundRobin() throws InterruptedException {
+        InboundDispatcher dispatcher = new InboundDispatcher(100);
+        InboundDispatcher.InboundQueue a = newQueue("a", 2);
+        InboundDispatcher.InboundQueue b = newQueue("b", 1);
+        for (int i = 0; i < 4; i++)
+            dispatcher.enqueue(a, new CloseConnectionMessage(String.valueOf(i)));
+        for (int i = 0; i < 3; i++)
+            dispatcher.enqueue(b, new CloseConnectionMessage(String.valueOf(i)));
+
+        // Only one dispatch task is queued up for all messages
+        assertEquals(1, userThreadTasks.size());
+        runUserThreadTasks();
+        assertEquals("[a:0, a:1, b:0, a:2, a:3, b:1, b:2]", delivered.toString());
+    }
+
+    @Test
+    public void testRunsAreLimited() throws InterruptedException {
+        InboundDispatcher dispatcher = new InboundDispatcher(1000);
+        InboundDispatcher.InboundQueue queue = newQueue("a", 1);
+        for (int i = 0; i < InboundDispatcher.MAX_MESSAGES_PER_RUN + 1; i++)
+            dispatcher.enqueue(queue, new CloseConnectionMessage(String.valueOf(i)));
+
+        userThreadTasks.poll().run();
+        assertEquals(InboundDispatcher.MAX_MESSAGES_PER_RUN, delivered.size());
+        // The rest is delivered in the next run so other tasks of the UserThread are not delayed
+        assertEquals(1, userThreadTasks.size());
+        runUserThreadTasks();
+        assertEquals(InboundDispatcher.MAX_MESSAGES_PER_RUN + 1, delivered.size());
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStallQueue() throws InterruptedException {
+        InboundDispatcher dispatcher = new InboundDispatcher(100);
+        InboundDispatcher.InboundQueue queue = new InboundDispatcher.InboundQueue(networkEnvelope -> {
+            delivered.add(toString(networkEnvelope));
+            if (delivered.size() == 1)
+                throw new RuntimeException("Expected");
+        }, () -> 3);
+        for (int i = 0; i < 3; i++)
+            dispatcher.enqueue(queue, new CloseConnectionMessage(String.valueOf(i)));
+
+        try {
+            userThreadTasks.poll().run();
+            fail("Expected exception");
+        } catch (RuntimeException ignore) {
+        }
+        runUserThreadTasks();
+        assertEquals(3, delivered.size());
+    }
+
+    @Test
+    public void testBackpressure() throws InterruptedException {
+        InboundDispatcher dispatcher = new InboundDispatcher(2);
+        InboundDispatcher.InboundQueue queue = newQueue("a", 1);
+        CountDownLatch enqueued = new CountDownLatch(3);
+        Thread inputHandler = new Thread(() -> {
+            try {
+                for (int i = 0; i < 3; i++) {
+                    dispatcher.enqueue(queue, new CloseConnectionMessage(String.valueOf(i)));
+                    enqueued.countDown();
+                }
+            } catch (InterruptedException ignore) {
+            }
+        });
+        inputHandler.start();
+
+        // The third message waits until the listeners have caught up
+        assertFalse(enqueued.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, enqueued.getCount());
+        userThreadTasks.poll().run();
+        assertTrue(enqueued.await(5, TimeUnit.SECONDS));
+        inputHandler.join();
+        runUserThreadTasks();
+        assertEquals(3, delivered.size());
+    }
+
+    @Test
+    public void testCloseReleasesBlockedReader() throws InterruptedException {
+        InboundDispatcher dispatcher = new InboundDispatcher(1);
+        InboundDispatcher.InboundQueue queue = newQueue("a", 1);
+        assertTrue(dispatcher.enqueue(queue, new CloseConnectionMessage("0")));
+        Thread inputHandler = new Thread(() -> {
+            try {
+                assertFalse(dispatcher.enqueue(queue, new CloseConnectionMessage("1")));
+            } catch (InterruptedException ignore) {
+            }
+        });
+        inputHandler.start();
+        queue.close();
+        inputHandler.join(5000);
+        assertFalse(inputHandler.isAlive());
+
+        // Messages which were queued before are still delivered
+        runUserThreadTasks();
+        assertEquals("[a:0]", delivered.toString());
+    }
+
+    private InboundDispatcher.InboundQueue newQueue(String name, int weight) {
+        return new InboundDispatcher.InboundQueue(networkEnvelope -> delivered.add(name + ":" + toString(networkEnvelope)),
+                () -> weight);
+    }
+
+    private static String toString(NetworkEnvelope networkEnvelope) {
+        return networkEnvelope instanceof CloseConnectionMessage ?
+                ((CloseConnectionMessage) networkEnvelope).getReason() :
+                networkEnvelope.getClass().getSimpleName();
+    }
+
+    private void runUserThreadTasks() {
+        Runnable task;
+        while ((task = userThreadTasks.poll()) != null)
+            task.run();
+    }
+}
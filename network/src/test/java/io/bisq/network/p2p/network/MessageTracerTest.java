@@ -0,0 +1,129 @@
+package io.bisq.network.p2p.network;
+
+import com.google.protobuf.ByteString;
+import io.bisq.generated.protobuffer.PB;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.helpers.NOPLogger;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class MessageTracerTest {
+    private static final class DebugLogger extends NOPLogger {
+        @Override
+        public boolean isDebugEnabled() {
+            return true;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        MessageTracer.setSampleRate(1);
+        MessageTracer.setCaptureSize(0);
+    }
+
+    @Test
+    public void testLazyArgumentIsNotRenderedIfNotLogged() {
+        AtomicInteger numRendered = new AtomicInteger();
+        Object argument = MessageTracer.lazy(() -> {
+            numRendered.incrementAndGet();
+            return "message";
+        });
+        NOPLogger.NOP_LOGGER.debug("message={}", argument);
+        assertEquals(0, numRendered.get());
+        assertFalse(MessageTracer.isTraced(NOPLogger.NOP_LOGGER));
+
+        assertEquals("message", argument.toString());
+        assertEquals(1, numRendered.get());
+    }
+
+    @Test
+    public void testSampling() {
+        DebugLogger logger = new DebugLogger();
+        MessageTracer.setSampleRate(10);
+        int numTraced = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (MessageTracer.isTraced(logger))
+                numTraced++;
+        }
+        assertEquals(100, numTraced);
+    }
+
+    @Test
+    public void testCaptureKeepsLatestFrames() throws Exception {
+        MessageTracer.setCaptureSize(3);
+        for (int i = 0; i < 5; i++) {
+            PB.NetworkEnvelope proto = PB.NetworkEnvelope.newBuilder()
+                    .setMessageVersion(i)
+                    .setPing(PB.Ping.newBuilder().setNonce(i))
+                    .build();
+            MessageTracer.capture(i % 2 == 0, "uid" + i, proto);
+        }
+
+        File file = File.createTempFile("MessageTracerTest", ".bin");
+        try {
+            assertEquals(3, MessageTracer.writeCapture(file));
+            try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+                // Oldest first
+                for (int i = 2; i < 5; i++) {
+                    assertTrue(in.readLong() > 0);
+                    assertEquals(i % 2 == 0, in.readBoolean());
+                    assertEquals("uid" + i, in.readUTF());
+                    int size = in.readInt();
+                    byte[] bytes = new byte[in.readInt()];
+                    assertEquals(size, bytes.length);
+                    in.readFully(bytes);
+                    assertEquals(i, PB.NetworkEnvelope.parseFrom(bytes).getPing().getNonce());
+                }
+                assertEquals(-1, in.read());
+            }
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testLargeFrameIsTruncated() throws Exception {
+        MessageTracer.setCaptureSize(1);
+        byte[] data = new byte[2 * MessageTracer.MAX_CAPTURED_FRAME_SIZE];
+        new Random(1).nextBytes(data);
+        PB.NetworkEnvelope proto = PB.NetworkEnvelope.newBuilder()
+                .setPrefixedSealedAndSignedMessage(PB.PrefixedSealedAndSignedMessage.newBuilder()
+                        .setAddressPrefixHash(ByteString.copyFrom(data))
+                        .setUid("uid"))
+                .build();
+        MessageTracer.capture(true, "uid", proto);
+
+        File file = File.createTempFile("MessageTracerTest", ".bin");
+        try {
+            assertEquals(1, MessageTracer.writeCapture(file));
+            try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+                in.readLong();
+                in.readBoolean();
+                in.readUTF();
+                assertEquals(proto.getSerializedSize(), in.readInt());
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                assertArrayEquals(Arrays.copyOf(proto.toByteArray(), MessageTracer.MAX_CAPTURED_FRAME_SIZE), bytes);
+            }
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCaptureDisabled() throws Exception {
+        MessageTracer.capture(true, "uid", PB.NetworkEnvelope.getDefaultInstance());
+        assertFalse(MessageTracer.isCaptureEnabled());
+        assertEquals(0, MessageTracer.writeCapture(new File("notWritten.bin")));
+    }
+}
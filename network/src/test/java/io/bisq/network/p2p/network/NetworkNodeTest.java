@@ -0,0 +1,144 @@
+package io.bisq.network.p2p.network;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.bisq.generated.protobuffer.PB;
+import io.bisq.network.p2p.NodeAddress;
+import io.bisq.network.p2p.TestUtils;
+import io.bisq.network.p2p.peers.keepalive.messages.Ping;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class NetworkNodeTest {
+    private static final int CONNECT_DELAY = 500;
+
+    private final AtomicInteger numCreatedSockets = new AtomicInteger();
+    private final List<Socket> acceptedSockets = new CopyOnWriteArrayList<>();
+    private ServerSocket peersServerSocket;
+    private NodeAddress peersNodeAddress;
+    private LocalhostNetworkNode networkNode;
+
+    @Before
+    public void setup() throws IOException {
+        // The peer only accepts the connections, we don't need to read the messages
+        peersServerSocket = new ServerSocket(0);
+        peersNodeAddress = new NodeAddress("localhost", peersServerSocket.getLocalPort());
+        Thread acceptThread = new Thread(() -> {
+            try {
+                while (!peersServerSocket.isClosed())
+                    acceptedSockets.add(peersServerSocket.accept());
+            } catch (IOException ignore) {
+            }
+        });
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+
+        LocalhostNetworkNode.setSimulateConnectDelay(CONNECT_DELAY);
+        networkNode = new LocalhostNetworkNode(0, TestUtils.getNetworkProtoResolver()) {
+            @Override
+            protected Socket createSocket(NodeAddress peerNodeAddress) throws IOException {
+                numCreatedSockets.incrementAndGet();
+                return super.createSocket(peerNodeAddress);
+            }
+        };
+        networkNode.createExecutorService();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        LocalhostNetworkNode.setSimulateConnectDelay(0);
+        networkNode.shutDown(null);
+        peersServerSocket.close();
+        for (Socket socket : acceptedSockets)
+            socket.close();
+    }
+
+    @Test
+    public void testConcurrentSendsShareConnection() throws Exception {
+        int numMessages = 10;
+        long startTs = System.currentTimeMillis();
+        List<ListenableFuture<Connection>> futures = new ArrayList<>();
+        for (int i = 0; i < numMessages; i++)
+            futures.add(networkNode.sendMessage(peersNodeAddress, new Ping(i, 0)));
+
+        Connection connection = futures.get(0).get(10, TimeUnit.SECONDS);
+        for (ListenableFuture<Connection> future : futures)
+            assertSame(connection, future.get(10, TimeUnit.SECONDS));
+        long duration = System.currentTimeMillis() - startTs;
+
+        assertEquals(1, numCreatedSockets.get());
+        assertEquals(1, acceptedSocketsCount());
+        // All senders waited for the same socket creation
+        assertTrue(duration < 2 * CONNECT_DELAY);
+    }
+
+    @Test
+    public void testPreConnect() throws Exception {
+        ListenableFuture<Connection> preConnectFuture = networkNode.preConnect(peersNodeAddress);
+        ListenableFuture<Connection> sendFuture = networkNode.sendMessage(peersNodeAddress, new Ping(1, 0));
+        Connection connection = preConnectFuture.get(10, TimeUnit.SECONDS);
+        assertSame(connection, sendFuture.get(10, TimeUnit.SECONDS));
+
+        // Now we have the connection, so neither pre-connecting again nor sending creates a socket
+        long startTs = System.currentTimeMillis();
+        assertSame(connection, networkNode.preConnect(peersNodeAddress).get(10, TimeUnit.SECONDS));
+        assertSame(connection, networkNode.sendMessage(peersNodeAddress, new Ping(2, 0)).get(10, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - startTs < CONNECT_DELAY);
+        assertEquals(1, numCreatedSockets.get());
+    }
+
+    @Test
+    public void testPreConnectSendsOurAddress() throws Exception {
+        NodeAddress myNodeAddress = new NodeAddress("localhost", 1234);
+        networkNode.nodeAddressProperty.set(myNodeAddress);
+        networkNode.preConnect(peersNodeAddress).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, acceptedSocketsCount());
+        PB.NetworkEnvelope proto = PB.NetworkEnvelope.parseDelimitedFrom(acceptedSockets.get(0).getInputStream());
+        assertEquals(myNodeAddress, NodeAddress.fromProto(proto.getPing().getSenderNodeAddress()));
+    }
+
+    @Test
+    public void testFailedConnectIsNotCached() throws Exception {
+        int port = peersServerSocket.getLocalPort();
+        peersServerSocket.close();
+        NodeAddress offlinePeer = new NodeAddress("localhost", port);
+        List<ListenableFuture<Connection>> futures = new ArrayList<>();
+        futures.add(networkNode.sendMessage(offlinePeer, new Ping(1, 0)));
+        futures.add(networkNode.sendMessage(offlinePeer, new Ping(2, 0)));
+        for (ListenableFuture<Connection> future : futures)
+            assertFailed(future);
+        assertEquals(1, numCreatedSockets.get());
+
+        // The failed attempt is not reused, a later send tries again
+        assertFailed(networkNode.sendMessage(offlinePeer, new Ping(3, 0)));
+        assertEquals(2, numCreatedSockets.get());
+    }
+
+    private int acceptedSocketsCount() throws InterruptedException {
+        // The accept thread might not have added the socket yet
+        for (int i = 0; i < 100 && acceptedSockets.isEmpty(); i++)
+            Thread.sleep(10);
+        return acceptedSockets.size();
+    }
+
+    private static void assertFailed(ListenableFuture<Connection> future) throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("Expected ExecutionException");
+        } catch (ExecutionException ignore) {
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.bisq.network.p2p.peers;
+
+import io.bisq.generated.protobuffer.PB;
+import io.bisq.network.p2p.NodeAddress;
+import io.bisq.network.p2p.peers.peerexchange.Peer;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class PeerSetTest {
+
+    private static Peer getPeer(int port, long date) {
+        return Peer.fromProto(PB.Peer.newBuilder()
+                .setNodeAddress(new NodeAddress("localhost", port).toProtoMessage())
+                .setDate(date)
+                .build());
+    }
+
+    @Test
+    public void testAddKeepsNewerPeer() {
+        PeerSet peerSet = new PeerSet();
+        Peer peer = getPeer(1, 1000);
+        peer.increaseFailedConnectionAttempts();
+        assertTrue(peerSet.add(peer));
+        assertFalse(peerSet.add(getPeer(1, 500)));
+        assertSame(peer, peerSet.get(peer.getNodeAddress()));
+
+        Peer newerPeer = getPeer(1, 2000);
+        assertTrue(peerSet.add(newerPeer));
+        assertEquals(1, peerSet.size());
+        assertSame(newerPeer, peerSet.get(peer.getNodeAddress()));
+        assertEquals(1, newerPeer.getFailedConnectionAttempts());
+        // The changed date is used for removing old peers
+        assertTrue(peerSet.removeOlderThan(1500).isEmpty());
+    }
+
+    @Test
+    public void testRemoveOlderThan() {
+        PeerSet peerSet = new PeerSet();
+        for (int i = 0; i < 100; i++)
+            peerSet.add(getPeer(i, 1000 + (i * 37) % 100));
+
+        List<Peer> removed = peerSet.removeOlderThan(1050);
+        assertEquals(50, removed.size());
+        assertEquals(50, peerSet.size());
+        removed.forEach(peer -> assertTrue(peer.getDate().getTime() < 1050));
+        peerSet.getPeers().forEach(peer -> assertTrue(peer.getDate().getTime() >= 1050));
+        removed.forEach(peer -> assertFalse(peerSet.contains(peer.getNodeAddress())));
+    }
+
+    @Test
+    public void testRemove() {
+        PeerSet peerSet = new PeerSet();
+        for (int i = 0; i < 10; i++)
+            peerSet.add(getPeer(i, 1000 + i));
+
+        Random random = new Random(1);
+        Set<NodeAddress> removed = new HashSet<>();
+        removed.add(peerSet.remove(new NodeAddress("localhost", 0)).getNodeAddress());
+        assertNull(peerSet.remove(new NodeAddress("localhost", 0)));
+        for (int i = 0; i < 4; i++)
+            assertTrue(removed.add(peerSet.removeRandom(random).getNodeAddress()));
+
+        assertEquals(5, peerSet.size());
+        for (int i = 0; i < 10; i++) {
+            NodeAddress nodeAddress = new NodeAddress("localhost", i);
+            assertEquals(!removed.contains(nodeAddress), peerSet.contains(nodeAddress));
+            if (peerSet.contains(nodeAddress))
+                assertEquals(nodeAddress, peerSet.get(nodeAddress).getNodeAddress());
+        }
+        // The index for the age is updated as well
+        assertEquals(5, peerSet.removeOlderThan(Long.MAX_VALUE).size());
+        assertTrue(peerSet.isEmpty());
+    }
+}
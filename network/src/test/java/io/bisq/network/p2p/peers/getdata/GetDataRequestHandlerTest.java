@@ -0,0 +1,47 @@
+package io.bisq.network.p2p.peers.getdata;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class GetDataRequestHandlerTest {
+
+    @Test
+    public void testChunks() {
+        // Entry sizes
+        List<Integer> dataList = Arrays.asList(40, 40, 40, 100, 30, 150, 10);
+        List<List<Integer>> chunks = new ArrayList<>();
+        int startIndex = 0;
+        while (startIndex < dataList.size()) {
+            int endIndex = GetDataRequestHandler.getChunkEndIndex(dataList.size(), startIndex, 100, dataList::get);
+            chunks.add(dataList.subList(startIndex, endIndex));
+            startIndex = endIndex;
+        }
+
+        // An entry larger than the max. chunk size gets its own chunk
+        assertEquals("[[40, 40], [40], [100], [30], [150], [10]]", chunks.toString());
+    }
+
+    @Test
+    public void testEachSizeIsRequestedOnce() {
+        List<Integer> dataList = Arrays.asList(40, 40, 40, 100);
+        List<Integer> requestedIndices = new ArrayList<>();
+        int endIndex = GetDataRequestHandler.getChunkEndIndex(dataList.size(), 1, 100, index -> {
+            requestedIndices.add(index);
+            return dataList.get(index);
+        });
+
+        assertEquals(3, endIndex);
+        // The entry which does not fit anymore is requested as well, the sender passes it on to the next chunk
+        assertEquals("[1, 2, 3]", requestedIndices.toString());
+    }
+
+    @Test
+    public void testEmptyList() {
+        assertEquals(0, GetDataRequestHandler.getChunkEndIndex(0, 0, 100, index -> 0));
+    }
+}
@@ -0,0 +1,207 @@
+package io.bisq.network.p2p.peers.getdata;
+
+import com.google.common.util.concurrent.SettableFuture;
+import io.bisq.common.FrameRateTimer;
+import io.bisq.common.Timer;
+import io.bisq.common.UserThread;
+import io.bisq.common.proto.network.NetworkEnvelope;
+import io.bisq.network.p2p.NodeAddress;
+import io.bisq.network.p2p.network.Connection;
+import io.bisq.network.p2p.network.NetworkNode;
+import io.bisq.network.p2p.peers.BroadcastHandler;
+import io.bisq.network.p2p.peers.PeerManager;
+import io.bisq.network.p2p.peers.getdata.messages.GetDataRequest;
+import io.bisq.network.p2p.peers.getdata.messages.GetDataResponseChunk;
+import io.bisq.network.p2p.storage.P2PDataStorage;
+import io.bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JMockit.class)
+public class RequestDataHandlerTest {
+    private final NodeAddress nodeAddress = new NodeAddress("localhost", 8001);
+    private RequestDataHandler handler;
+    private int nonce;
+    private int numCompleted;
+    private int numFaults;
+
+    @Mocked
+    NetworkNode networkNode;
+    @Mocked
+    P2PDataStorage dataStorage;
+    @Mocked
+    PeerManager peerManager;
+    @Mocked
+    Connection connection;
+    @Mocked
+    ProtectedStorageEntry entry1;
+    @Mocked
+    ProtectedStorageEntry entry2;
+
+    @Before
+    public void setUp() {
+        // We fire the timeouts manually
+        UserThread.setTimerClass(ManualTimer.class);
+        ManualTimer.pendingTimers.clear();
+
+        new Expectations() {{
+            dataStorage.getMap();
+            result = new HashMap<>();
+            minTimes = 0;
+            connection.getPeersNodeAddressOptional();
+            result = Optional.of(nodeAddress);
+            minTimes = 0;
+            networkNode.sendMessage((NodeAddress) any, (NetworkEnvelope) any);
+            result = SettableFuture.create();
+        }};
+
+        handler = new RequestDataHandler(networkNode, dataStorage, peerManager, new RequestDataHandler.Listener() {
+            @Override
+            public void onComplete() {
+                numCompleted++;
+            }
+
+            @Override
+            public void onFault(String errorMessage, Connection connection) {
+                numFaults++;
+            }
+        });
+        handler.requestData(nodeAddress, true);
+
+        List<NetworkEnvelope> requests = new ArrayList<>();
+        new Verifications() {{
+            networkNode.sendMessage(withEqual(nodeAddress), withCapture(requests));
+        }};
+        nonce = ((GetDataRequest) requests.get(0)).getNonce();
+    }
+
+    @After
+    public void tearDown() {
+        UserThread.setTimerClass(FrameRateTimer.class);
+    }
+
+    @Test
+    public void testChunksAreAppliedInSequence() {
+        handler.onMessage(newChunk(nonce, 0, false, entry1), connection);
+        new Verifications() {{
+            dataStorage.add(entry1, nodeAddress, null, false, false);
+            times = 1;
+        }};
+        assertEquals(0, numCompleted);
+
+        handler.onMessage(newChunk(nonce, 1, true, entry2), connection);
+        new Verifications() {{
+            dataStorage.add(entry2, nodeAddress, null, false, false);
+            times = 1;
+        }};
+        assertEquals(1, numCompleted);
+        assertEquals(0, numFaults);
+        assertEquals(0, ManualTimer.pendingTimers.size());
+
+        // We have stopped after the last chunk
+        handler.onMessage(newChunk(nonce, 2, true, entry1), connection);
+        new Verifications() {{
+            dataStorage.add(entry1, nodeAddress, null, false, false);
+            times = 1;
+        }};
+        assertEquals(1, numCompleted);
+    }
+
+    @Test
+    public void testOutOfOrderChunkIsAFault() {
+        handler.onMessage(newChunk(nonce, 0, false, entry1), connection);
+        handler.onMessage(newChunk(nonce, 2, false, entry2), connection);
+
+        assertEquals(1, numFaults);
+        assertEquals(0, numCompleted);
+        new Verifications() {{
+            dataStorage.add(withSameInstance(entry2), (NodeAddress) any, (BroadcastHandler.Listener) any, anyBoolean,
+                    anyBoolean);
+            times = 0;
+            peerManager.handleConnectionFault(nodeAddress);
+            times = 1;
+        }};
+    }
+
+    @Test
+    public void testChunkWithOtherNonceIsIgnored() {
+        handler.onMessage(newChunk(nonce + 1, 0, true, entry1), connection);
+
+        assertEquals(0, numCompleted);
+        assertEquals(0, numFaults);
+        new Verifications() {{
+            dataStorage.add(withSameInstance(entry1), (NodeAddress) any, (BroadcastHandler.Listener) any, anyBoolean,
+                    anyBoolean);
+            times = 0;
+        }};
+
+        // The chunk with the other nonce has not been counted
+        handler.onMessage(newChunk(nonce, 0, true, entry2), connection);
+        assertEquals(1, numCompleted);
+        assertEquals(0, numFaults);
+    }
+
+    @Test
+    public void testTimeoutAppliesToEachChunk() {
+        handler.onMessage(newChunk(nonce, 0, false, entry1), connection);
+        // The timer of the request got replaced by the one for the next chunk
+        assertEquals(1, ManualTimer.pendingTimers.size());
+
+        handler.onMessage(newChunk(nonce, 1, false, entry2), connection);
+        assertEquals(1, ManualTimer.pendingTimers.size());
+        assertEquals(0, numFaults);
+
+        ManualTimer.fireAll();
+        assertEquals(1, numFaults);
+        assertEquals(0, numCompleted);
+        new Verifications() {{
+            peerManager.handleConnectionFault(nodeAddress);
+            times = 1;
+        }};
+    }
+
+    private GetDataResponseChunk newChunk(int requestNonce, int chunkIndex, boolean isLastChunk,
+                                          ProtectedStorageEntry entry) {
+        return new GetDataResponseChunk(Collections.singletonList(entry), requestNonce, false, chunkIndex, isLastChunk);
+    }
+
+    public static class ManualTimer implements Timer {
+        static final List<ManualTimer> pendingTimers = new ArrayList<>();
+        private Runnable action;
+
+        static void fireAll() {
+            new ArrayList<>(pendingTimers).forEach(timer -> {
+                pendingTimers.remove(timer);
+                timer.action.run();
+            });
+        }
+
+        @Override
+        public Timer runLater(Duration delay, Runnable action) {
+            this.action = action;
+            pendingTimers.add(this);
+            return this;
+        }
+
+        @Override
+        public Timer runPeriodically(Duration interval, Runnable runnable) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void stop() {
+            pendingTimers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package io.bisq.network.p2p.storage;
+
+import io.bisq.common.Payload;
+import io.bisq.common.proto.persistable.PersistableEnvelope;
+import io.bisq.common.proto.persistable.PersistenceProtoResolver;
+import io.bisq.common.storage.Storage;
+import io.bisq.generated.protobuffer.PB;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@Slf4j
+public class SequenceNumberMapTest {
+    private static final PersistenceProtoResolver RESOLVER = new PersistenceProtoResolver() {
+        @Override
+        public PersistableEnvelope fromProto(PB.PersistableEnvelope persistable) {
+            return SequenceNumberMap.fromProto(persistable.getSequenceNumberMap());
+        }
+
+        @Override
+        public Payload fromProto(PB.PaymentAccountPayload proto) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private File dir;
+
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("SequenceNumberMapTest").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files)
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+        }
+        //noinspection ResultOfMethodCallIgnored
+        dir.delete();
+    }
+
+    @Test
+    public void testPutAndGet() {
+        SequenceNumberMap sequenceNumberMap = new SequenceNumberMap();
+        Random random = new Random(1);
+        P2PDataStorage.ByteArray[] keys = new P2PDataStorage.ByteArray[100_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = getRandomKey(random);
+            sequenceNumberMap.put(keys[i], new P2PDataStorage.MapValue(i, 1000 + i));
+        }
+        assertEquals(keys.length, sequenceNumberMap.size());
+
+        for (int i = 0; i < keys.length; i++) {
+            // We use a new instance to make sure we compare by content
+            P2PDataStorage.ByteArray key = new P2PDataStorage.ByteArray(keys[i].bytes.clone());
+            assertTrue(sequenceNumberMap.containsKey(key));
+            assertEquals(i, sequenceNumberMap.get(key).sequenceNr);
+            assertEquals(1000 + i, sequenceNumberMap.get(key).timeStamp);
+        }
+        assertFalse(sequenceNumberMap.containsKey(getRandomKey(random)));
+        assertNull(sequenceNumberMap.get(getRandomKey(random)));
+        assertNull(sequenceNumberMap.get(new P2PDataStorage.ByteArray(new byte[20])));
+
+        sequenceNumberMap.put(keys[0], new P2PDataStorage.MapValue(7, 2000));
+        assertEquals(keys.length, sequenceNumberMap.size());
+        assertEquals(7, sequenceNumberMap.get(keys[0]).sequenceNr);
+    }
+
+    @Test
+    public void testPurge() {
+        SequenceNumberMap sequenceNumberMap = new SequenceNumberMap();
+        Random random = new Random(2);
+        P2PDataStorage.ByteArray[] keys = new P2PDataStorage.ByteArray[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = getRandomKey(random);
+            sequenceNumberMap.put(keys[i], new P2PDataStorage.MapValue(1, i));
+        }
+
+        assertEquals(500, sequenceNumberMap.purge(499));
+        assertEquals(500, sequenceNumberMap.size());
+        for (int i = 0; i < keys.length; i++)
+            assertEquals(i > 499, sequenceNumberMap.containsKey(keys[i]));
+    }
+
+    @Test
+    public void testProtoRoundTrip() {
+        SequenceNumberMap sequenceNumberMap = new SequenceNumberMap();
+        Random random = new Random(3);
+        for (int i = 0; i < 1000; i++)
+            sequenceNumberMap.put(getRandomKey(random), new P2PDataStorage.MapValue(i, i));
+
+        PB.PersistableEnvelope proto = sequenceNumberMap.toProtoMessage();
+        SequenceNumberMap fromProto = SequenceNumberMap.fromProto(proto.getSequenceNumberMap());
+        assertEquals(proto, fromProto.toProtoMessage());
+        assertEquals(0, fromProto.drainDirtyEntries((keys, keyOffset, sequenceNr, timeStamp) -> {
+        }));
+    }
+
+    @Test
+    public void testDrainDirtyEntries() {
+        SequenceNumberMap sequenceNumberMap = new SequenceNumberMap();
+        Random random = new Random(4);
+        for (int i = 0; i < 100; i++)
+            sequenceNumberMap.put(getRandomKey(random), new P2PDataStorage.MapValue(i, i));
+
+        // The dirty flags are kept when the table grows
+        assertEquals(100, sequenceNumberMap.drainDirtyEntries((keys, keyOffset, sequenceNr, timeStamp) -> {
+        }));
+        assertEquals(0, sequenceNumberMap.drainDirtyEntries((keys, keyOffset, sequenceNr, timeStamp) -> {
+        }));
+
+        P2PDataStorage.ByteArray key = getRandomKey(random);
+        sequenceNumberMap.put(key, new P2PDataStorage.MapValue(5, 6));
+        assertEquals(1, sequenceNumberMap.drainDirtyEntries((keys, keyOffset, sequenceNr, timeStamp) -> {
+            for (int i = 0; i < SequenceNumberMap.KEY_LENGTH; i++)
+                assertEquals(key.bytes[i], keys[keyOffset + i]);
+            assertEquals(5, sequenceNr);
+            assertEquals(6, timeStamp);
+        }));
+    }
+
+    @Test
+    public void testStoreReplaysLog() throws Exception {
+        Random random = new Random(5);
+        SequenceNumberMap sequenceNumberMap = new SequenceNumberMap();
+        SequenceNumberStore store = new SequenceNumberStore(sequenceNumberMap, dir, RESOLVER);
+        store.readPersisted(0);
+
+        P2PDataStorage.ByteArray[] keys = new P2PDataStorage.ByteArray[100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = getRandomKey(random);
+            sequenceNumberMap.put(keys[i], new P2PDataStorage.MapValue(i, 1000 + i));
+        }
+        sequenceNumberMap.put(keys[0], new P2PDataStorage.MapValue(42, 5000));
+        // Writes the log
+        store.shutDown();
+        File logFile = new File(dir, SequenceNumberStore.LOG_FILE_NAME);
+        assertTrue(logFile.exists());
+        assertFalse(new File(dir, "SequenceNumberMap").exists());
+
+        // Simulate an interrupted write
+        try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+            file.seek(file.length());
+            file.write(new byte[10]);
+        }
+
+        SequenceNumberMap restored = new SequenceNumberMap();
+        SequenceNumberStore restoredStore = new SequenceNumberStore(restored, dir, RESOLVER);
+        restoredStore.readPersisted(1000);
+        // All entries are newer than the purge time stamp. The incomplete record is ignored.
+        assertEquals(keys.length, restored.size());
+        assertEquals(42, restored.get(keys[0]).sequenceNr);
+        for (int i = 1; i < keys.length; i++)
+            assertEquals(i, restored.get(keys[i]).sequenceNr);
+        restoredStore.shutDown();
+    }
+
+    @Test
+    public void testStaleLogRecordsDoNotOverrideSnapshot() throws Exception {
+        P2PDataStorage.ByteArray key = getRandomKey(new Random(7));
+        SequenceNumberMap sequenceNumberMap = new SequenceNumberMap();
+        SequenceNumberStore store = new SequenceNumberStore(sequenceNumberMap, dir, RESOLVER);
+        store.readPersisted(0);
+        sequenceNumberMap.put(key, new P2PDataStorage.MapValue(1, 1000));
+        store.shutDown();
+
+        // A snapshot with a newer value, written before the log got truncated (crash between both)
+        SequenceNumberMap snapshot = new SequenceNumberMap();
+        snapshot.put(key, new P2PDataStorage.MapValue(5, 2000));
+        Storage<SequenceNumberMap> storage = new Storage<>(dir, RESOLVER);
+        storage.initAndGetPersisted(snapshot);
+        assertTrue(storage.saveNow(snapshot));
+
+        SequenceNumberMap restored = new SequenceNumberMap();
+        new SequenceNumberStore(restored, dir, RESOLVER).readPersisted(0);
+        assertEquals(5, restored.get(key).sequenceNr);
+        assertEquals(2000, restored.get(key).timeStamp);
+    }
+
+    @Test
+    public void testPurgedKeyGetsLowerSequenceNumberAtReplay() throws Exception {
+        P2PDataStorage.ByteArray key = getRandomKey(new Random(8));
+        SequenceNumberMap sequenceNumberMap = new SequenceNumberMap();
+        SequenceNumberStore store = new SequenceNumberStore(sequenceNumberMap, dir, RESOLVER);
+        store.readPersisted(0);
+        // Added again after the old entry with a higher sequence number has expired
+        sequenceNumberMap.put(key, new P2PDataStorage.MapValue(2, 3000));
+        store.shutDown();
+        // The expired record is still in the log (e.g. from a snapshot which was not truncated)
+        try (RandomAccessFile file = new RandomAccessFile(new File(dir, SequenceNumberStore.LOG_FILE_NAME), "rw")) {
+            file.seek(file.length());
+            file.write(key.bytes);
+            file.writeInt(10);
+            file.writeLong(100);
+        }
+
+        SequenceNumberMap restored = new SequenceNumberMap();
+        new SequenceNumberStore(restored, dir, RESOLVER).readPersisted(1000);
+        assertEquals(2, restored.get(key).sequenceNr);
+    }
+
+    @Ignore("Benchmark, run it manually")
+    @Test
+    public void testBenchmarkMemoryAndPut() {
+        int numEntries = 500_000;
+        Random random = new Random(6);
+        P2PDataStorage.ByteArray[] keys = new P2PDataStorage.ByteArray[numEntries];
+        for (int i = 0; i < numEntries; i++)
+            keys[i] = getRandomKey(random);
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+        long ts = System.currentTimeMillis();
+        SequenceNumberMap sequenceNumberMap = new SequenceNumberMap();
+        for (int i = 0; i < numEntries; i++)
+            sequenceNumberMap.put(keys[i], new P2PDataStorage.MapValue(i, i));
+        long duration = System.currentTimeMillis() - ts;
+        System.gc();
+        long usedAfter = runtime.totalMemory() - runtime.freeMemory();
+        assertEquals(numEntries, sequenceNumberMap.size());
+
+        log.info("Put of {} entries took {} ms. Approx. memory used by the map: {} bytes per entry",
+                numEntries, duration, (usedAfter - usedBefore) / numEntries);
+    }
+
+    private static P2PDataStorage.ByteArray getRandomKey(Random random) {
+        byte[] bytes = new byte[SequenceNumberMap.KEY_LENGTH];
+        random.nextBytes(bytes);
+        return new P2PDataStorage.ByteArray(bytes);
+    }
+}
@@ -0,0 +1,177 @@
+package io.bisq.network.p2p.storage;
+
+import com.google.protobuf.ByteString;
+import io.bisq.common.crypto.Hash;
+import io.bisq.generated.protobuffer.PB;
+import io.bisq.network.crypto.EncryptionService;
+import io.bisq.network.p2p.storage.payload.ImmutableStoragePayload;
+import io.bisq.network.p2p.storage.payload.StoragePayload;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.security.PublicKey;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@Slf4j
+public class StoragePayloadHashCacheTest {
+    private static final int NUM_PAYLOADS = 2000;
+    // An add() hashes the payload for the map key, for the sequence number check, for the check of the stored data
+    // and the payload together with the sequence number for the signature check.
+    private static final int NUM_PAYLOAD_HASHES_PER_ADD = 3;
+
+    private static class TestPayload implements ImmutableStoragePayload {
+        private final byte[] data;
+        private int numToProtoMessageCalls;
+
+        private TestPayload(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public PB.StoragePayload toProtoMessage() {
+            numToProtoMessageCalls++;
+            return PB.StoragePayload.newBuilder()
+                    .setMailboxStoragePayload(PB.MailboxStoragePayload.newBuilder()
+                            .setSenderPubKeyForAddOperationBytes(ByteString.copyFrom(data)))
+                    .build();
+        }
+
+        @Override
+        public PublicKey getOwnerPubKey() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public Map<String, String> getExtraDataMap() {
+            return null;
+        }
+
+        @Override
+        public long getTTL() {
+            return 0;
+        }
+    }
+
+    private static class MutableTestPayload implements StoragePayload {
+        private byte[] data;
+
+        @Override
+        public PB.StoragePayload toProtoMessage() {
+            return PB.StoragePayload.newBuilder()
+                    .setMailboxStoragePayload(PB.MailboxStoragePayload.newBuilder()
+                            .setSenderPubKeyForAddOperationBytes(ByteString.copyFrom(data)))
+                    .build();
+        }
+
+        @Override
+        public PublicKey getOwnerPubKey() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public Map<String, String> getExtraDataMap() {
+            return null;
+        }
+
+        @Override
+        public long getTTL() {
+            return 0;
+        }
+    }
+
+    @Before
+    public void setup() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @Test
+    public void testHashIsCalculatedOncePerPayload() {
+        TestPayload payload = new TestPayload(new byte[]{1, 2, 3});
+        byte[] hash = StoragePayloadHashCache.getHash(payload);
+        assertArrayEquals(EncryptionService.getHash(payload), hash);
+        assertSame(hash, StoragePayloadHashCache.getHash(payload));
+        StoragePayloadHashCache.getProtoMessage(payload);
+        // One call from EncryptionService.getHash and one for filling the cache
+        assertEquals(2, payload.numToProtoMessageCalls);
+
+        // Equal payloads have the same hash
+        assertArrayEquals(hash, StoragePayloadHashCache.getHash(new TestPayload(new byte[]{1, 2, 3})));
+
+        byte[] hashOfDataAndSeqNr = EncryptionService.getHash(new P2PDataStorage.DataAndSeqNrPair(payload, 1));
+        assertEquals(2, payload.numToProtoMessageCalls);
+        assertArrayEquals(hashOfDataAndSeqNr,
+                EncryptionService.getHash(new P2PDataStorage.DataAndSeqNrPair(new TestPayload(new byte[]{1, 2, 3}), 1)));
+    }
+
+    @Test
+    public void testMutablePayloadIsNotCached() {
+        MutableTestPayload payload = new MutableTestPayload();
+        payload.data = new byte[]{1, 2, 3};
+        byte[] hash = StoragePayloadHashCache.getHash(payload);
+        payload.data = new byte[]{4, 5, 6};
+        assertFalse(Arrays.equals(hash, StoragePayloadHashCache.getHash(payload)));
+        assertArrayEquals(EncryptionService.getHash(payload), StoragePayloadHashCache.getHash(payload));
+    }
+
+    @Ignore("Benchmark, run it manually")
+    @Test
+    public void testHashingCostPerAdd() {
+        List<TestPayload> payloads = new ArrayList<>();
+        Random random = new Random(1);
+        for (int i = 0; i < NUM_PAYLOADS; i++) {
+            // About the size of an offer payload
+            byte[] data = new byte[1500];
+            random.nextBytes(data);
+            payloads.add(new TestPayload(data));
+        }
+
+        // Warm up. That fills the cache as well, which is the state for payloads we have already received.
+        hashWithoutCache(payloads);
+        hashWithCache(payloads);
+
+        long ts = System.nanoTime();
+        hashWithoutCache(payloads);
+        long withoutCache = (System.nanoTime() - ts) / NUM_PAYLOADS;
+
+        payloads.forEach(payload -> payload.numToProtoMessageCalls = 0);
+        ts = System.nanoTime();
+        hashWithCache(payloads);
+        long withCache = (System.nanoTime() - ts) / NUM_PAYLOADS;
+
+        log.info("Hashing cost per add: without cache {} ns, with cache {} ns", withoutCache, withCache);
+        payloads.forEach(payload -> assertEquals(0, payload.numToProtoMessageCalls));
+    }
+
+    private void hashWithoutCache(List<TestPayload> payloads) {
+        payloads.forEach(payload -> {
+            for (int i = 0; i < NUM_PAYLOAD_HASHES_PER_ADD; i++)
+                EncryptionService.getHash(payload);
+            Hash.getHash(PB.DataAndSeqNrPair.newBuilder()
+                    .setPayload(payload.toProtoMessage())
+                    .setSequenceNumber(1)
+                    .build()
+                    .toByteArray());
+        });
+    }
+
+    private void hashWithCache(List<TestPayload> payloads) {
+        payloads.forEach(payload -> {
+            for (int i = 0; i < NUM_PAYLOAD_HASHES_PER_ADD; i++)
+                StoragePayloadHashCache.getHash(payload);
+            EncryptionService.getHash(new P2PDataStorage.DataAndSeqNrPair(payload, 1));
+        });
+    }
+}
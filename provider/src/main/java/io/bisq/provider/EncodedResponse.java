@@ -0,0 +1,83 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package io.bisq.provider;
+
+import com.google.common.hash.Hashing;
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable, pre-encoded body of a response. Holds the UTF-8 and the gzip encoded bytes and a strong ETag derived
+ * from the content.
+ */
+public final class EncodedResponse {
+    @Getter
+    private final long version;
+    @Getter
+    private final byte[] utf8Bytes;
+    @Getter
+    private final byte[] gzipBytes;
+    @Getter
+    private final String eTag;
+    // Strong ETags must differ between representations, so the gzip variant gets its own one
+    @Getter
+    private final String gzipETag;
+
+    public EncodedResponse(long version, String body) {
+        this.version = version;
+        utf8Bytes = body.getBytes(StandardCharsets.UTF_8);
+        gzipBytes = gzip(utf8Bytes);
+        String hash = Hashing.sha256().hashBytes(utf8Bytes).toString().substring(0, 32);
+        eTag = "\"" + hash + "\"";
+        gzipETag = "\"" + hash + "-gz\"";
+    }
+
+    /**
+     * @param ifNoneMatch Value of the If-None-Match header
+     * @return true if one of the entity tags matches any of our representations (weak comparison as required for
+     * If-None-Match)
+     */
+    public boolean matches(String ifNoneMatch) {
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*"))
+                return true;
+            if (tag.startsWith("W/"))
+                tag = tag.substring(2);
+            if (tag.equals(eTag) || tag.equals(gzipETag))
+                return true;
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream)) {
+            gzipOutputStream.write(bytes);
+        } catch (IOException e) {
+            // Cannot happen with a ByteArrayOutputStream
+            throw new RuntimeException(e);
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+}
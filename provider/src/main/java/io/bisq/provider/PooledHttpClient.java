@@ -0,0 +1,174 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.provider;
+
+import io.bisq.common.app.Version;
+import io.bisq.network.http.HttpException;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Http client for polling the exchange APIs. All requests share one pool of keep-alive connections.
+ * Responses carrying an ETag or Last-Modified header are cached per URL and the next request is sent as a
+ * conditional GET. If the server answers with 304 (Not Modified) the cached body is returned.
+ */
+public class PooledHttpClient implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(PooledHttpClient.class);
+
+    private static final int MAX_CONNECTIONS = 20;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 4;
+    private static final long CONNECTION_TTL_SEC = 300;
+    private static final long MAX_IDLE_TIME_SEC = 60;
+
+    private static class CachedResponse {
+        @Nullable
+        private final String eTag;
+        @Nullable
+        private final String lastModified;
+        private final String body;
+
+        private CachedResponse(@Nullable String eTag, @Nullable String lastModified, String body) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+    }
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final Map<String, CachedResponse> cachedResponseByUrl = new ConcurrentHashMap<>();
+    private final AtomicLong numRequests = new AtomicLong();
+    private final AtomicLong numNotModifiedResponses = new AtomicLong();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public PooledHttpClient() {
+        connectionManager = new PoolingHttpClientConnectionManager(CONNECTION_TTL_SEC, TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setUserAgent("bisq/" + Version.VERSION)
+                .evictExpiredConnections()
+                .evictIdleConnections(MAX_IDLE_TIME_SEC, TimeUnit.SECONDS)
+                .build();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Make a conditional HTTP Get request.
+     *
+     * @param url       The full URL
+     * @param timeoutMs Used as connect, socket and connection request timeout
+     * @return The body of the response or the cached body if the resource was not modified since our last request.
+     */
+    public String requestWithGET(String url, int timeoutMs, @Nullable String headerKey, @Nullable String headerValue)
+            throws IOException {
+        numRequests.incrementAndGet();
+        HttpGet request = new HttpGet(url);
+        request.setConfig(RequestConfig.custom()
+                .setConnectTimeout(timeoutMs)
+                .setSocketTimeout(timeoutMs)
+                .setConnectionRequestTimeout(timeoutMs)
+                .build());
+        if (headerKey != null && headerValue != null)
+            request.setHeader(headerKey, headerValue);
+
+        CachedResponse cachedResponse = cachedResponseByUrl.get(url);
+        if (cachedResponse != null) {
+            if (cachedResponse.eTag != null)
+                request.setHeader(HttpHeaders.IF_NONE_MATCH, cachedResponse.eTag);
+            if (cachedResponse.lastModified != null)
+                request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, cachedResponse.lastModified);
+        }
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode == HttpStatus.SC_NOT_MODIFIED && cachedResponse != null) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                numNotModifiedResponses.incrementAndGet();
+                log.debug("Resource not modified. url={}", url);
+                return cachedResponse.body;
+            }
+
+            String body = response.getEntity() != null ?
+                    EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8) : "";
+            if (statusCode != HttpStatus.SC_OK)
+                throw new IOException("Error at requestWithGET with URL: " + url, new HttpException(body));
+
+            String eTag = getHeaderValue(response.getFirstHeader(HttpHeaders.ETAG));
+            String lastModified = getHeaderValue(response.getFirstHeader(HttpHeaders.LAST_MODIFIED));
+            if (eTag != null || lastModified != null)
+                cachedResponseByUrl.put(url, new CachedResponse(eTag, lastModified, body));
+            else
+                cachedResponseByUrl.remove(url);
+
+            return body;
+        }
+    }
+
+    public long getNumRequests() {
+        return numRequests.get();
+    }
+
+    public long getNumNotModifiedResponses() {
+        return numNotModifiedResponses.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+        connectionManager.shutdown();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Nullable
+    private static String getHeaderValue(@Nullable Header header) {
+        return header != null ? header.getValue() : null;
+    }
+}
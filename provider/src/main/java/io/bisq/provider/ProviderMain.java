@@ -19,6 +19,7 @@ package io.bisq.provider;
 
 import ch.qos.logback.classic.Level;
 import io.bisq.common.app.Log;
+import io.bisq.common.util.Utilities;
 import io.bisq.network.http.HttpException;
 import io.bisq.provider.fee.FeeRequestService;
 import io.bisq.provider.price.PriceRequestService;
@@ -31,6 +32,11 @@ import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
 
 import static spark.Spark.get;
 import static spark.Spark.port;
@@ -38,6 +44,13 @@ import static spark.Spark.port;
 public class ProviderMain {
     private static final Logger log = LoggerFactory.getLogger(ProviderMain.class);
 
+    private static final long LONG_POLL_TIMEOUT_MS = 60_000;
+    // Each waiting request blocks a Jetty thread. If that limit is reached we respond immediately.
+    private static final int MAX_LONG_POLL_REQUESTS = 100;
+
+    private static final Semaphore longPollPermits = new Semaphore(MAX_LONG_POLL_REQUESTS);
+    private static final List<ResponseCache> responseCaches = new CopyOnWriteArrayList<>();
+
     public ProviderMain() {
     }
 
@@ -49,6 +62,7 @@ public class ProviderMain {
 
         handleGetAllMarketPrices(args);
         handleGetFees();
+        handleGetResponseStatistics();
     }
 
     private static void handleGetAllMarketPrices(String[] args) throws IOException, NoSuchAlgorithmException, InvalidKeyException {
@@ -57,9 +71,35 @@ public class ProviderMain {
             String bitcoinAveragePubKey = args[1];
 
             PriceRequestService priceRequestService = new PriceRequestService(bitcoinAveragePrivKey, bitcoinAveragePubKey);
+            ResponseCache responseCache = new ResponseCache("getAllMarketPrices",
+                    () -> priceRequestService.getSnapshot().getVersion(),
+                    priceRequestService::getJson);
+            responseCaches.add(responseCache);
             get("/getAllMarketPrices", (req, res) -> {
                 log.info("Incoming getAllMarketPrices request from: " + req.userAgent());
-                return priceRequestService.getJson();
+                return responseCache.handle(req, res);
+            });
+            // Long polling: The response is held back until prices with a higher version than the one of the
+            // client are available.
+            get("/getAllMarketPricesAfterVersion/:version", (req, res) -> {
+                log.info("Incoming getAllMarketPricesAfterVersion request from: " + req.userAgent());
+                long version;
+                try {
+                    version = Long.parseLong(req.params(":version"));
+                } catch (NumberFormatException e) {
+                    res.status(400);
+                    return "Invalid version: " + req.params(":version");
+                }
+                if (longPollPermits.tryAcquire()) {
+                    try {
+                        priceRequestService.waitForNewSnapshot(version, LONG_POLL_TIMEOUT_MS);
+                    } finally {
+                        longPollPermits.release();
+                    }
+                } else {
+                    log.warn("Max. number of long poll requests reached. We respond immediately.");
+                }
+                return responseCache.handle(req, res);
             });
         } else {
             throw new IllegalArgumentException("You need to provide the BitcoinAverage API keys. Private key as first argument, public key as second argument.");
@@ -68,9 +108,22 @@ public class ProviderMain {
 
     private static void handleGetFees() throws IOException {
         FeeRequestService feeRequestService = new FeeRequestService();
+        ResponseCache responseCache = new ResponseCache("getFees",
+                feeRequestService::getVersion,
+                feeRequestService::getJson);
+        responseCaches.add(responseCache);
         get("/getFees", (req, res) -> {
             log.info("Incoming getFees request from: " + req.userAgent());
-            return feeRequestService.getJson();
+            return responseCache.handle(req, res);
+        });
+    }
+
+    private static void handleGetResponseStatistics() {
+        get("/getResponseStatistics", (req, res) -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            responseCaches.forEach(responseCache -> map.put(responseCache.getName(), responseCache.getStatistics()));
+            res.type("application/json");
+            return Utilities.objectToJson(map);
         });
     }
 }
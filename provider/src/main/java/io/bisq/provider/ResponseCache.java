@@ -0,0 +1,162 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package io.bisq.provider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.Request;
+import spark.Response;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Serves the json of a versioned data source from pre-encoded bytes. The body gets encoded only once per version of
+ * the data source. Supports gzip and conditional requests with If-None-Match.
+ */
+public class ResponseCache {
+    private static final Logger log = LoggerFactory.getLogger(ResponseCache.class);
+
+    private final String name;
+    private final LongSupplier versionSupplier;
+    private final Supplier<String> jsonSupplier;
+    private volatile EncodedResponse encodedResponse;
+
+    private final LongAdder numRequests = new LongAdder();
+    private final LongAdder numNotModifiedResponses = new LongAdder();
+    private final LongAdder numGzipResponses = new LongAdder();
+    private final LongAdder numBytesSent = new LongAdder();
+    private final LongAdder numUncompressedBytes = new LongAdder();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param name            Used for logging and statistics
+     * @param versionSupplier Delivers the current version of the data. Needs to change whenever the json changes.
+     * @param jsonSupplier    Delivers the json of the current version
+     */
+    public ResponseCache(String name, LongSupplier versionSupplier, Supplier<String> jsonSupplier) {
+        this.name = name;
+        this.versionSupplier = versionSupplier;
+        this.jsonSupplier = jsonSupplier;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public Object handle(Request request, Response response) throws IOException {
+        numRequests.increment();
+        EncodedResponse encodedResponse = getEncodedResponse();
+        boolean acceptsGzip = acceptsGzip(request.headers("Accept-Encoding"));
+
+        response.header("Vary", "Accept-Encoding");
+        response.header("ETag", acceptsGzip ? encodedResponse.getGzipETag() : encodedResponse.getETag());
+
+        String ifNoneMatch = request.headers("If-None-Match");
+        if (ifNoneMatch != null && encodedResponse.matches(ifNoneMatch)) {
+            numNotModifiedResponses.increment();
+            response.status(304);
+            return "";
+        }
+
+        byte[] bytes;
+        if (acceptsGzip) {
+            numGzipResponses.increment();
+            bytes = encodedResponse.getGzipBytes();
+        } else {
+            bytes = encodedResponse.getUtf8Bytes();
+        }
+        numBytesSent.add(bytes.length);
+        numUncompressedBytes.add(encodedResponse.getUtf8Bytes().length);
+
+        // We write to the raw response as Spark would gzip the body again if it sees the Content-Encoding header.
+        // Once the response is committed Spark does not write the returned body anymore.
+        HttpServletResponse rawResponse = response.raw();
+        rawResponse.setStatus(200);
+        rawResponse.setContentType("application/json; charset=utf-8");
+        if (acceptsGzip)
+            rawResponse.setHeader("Content-Encoding", "gzip");
+        rawResponse.setContentLength(bytes.length);
+        ServletOutputStream outputStream = rawResponse.getOutputStream();
+        outputStream.write(bytes);
+        outputStream.flush();
+        return "";
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        EncodedResponse encodedResponse = this.encodedResponse;
+        map.put("version", encodedResponse != null ? encodedResponse.getVersion() : 0);
+        map.put("numRequests", numRequests.sum());
+        map.put("numNotModifiedResponses", numNotModifiedResponses.sum());
+        map.put("numGzipResponses", numGzipResponses.sum());
+        map.put("numBytesSent", numBytesSent.sum());
+        map.put("numUncompressedBytes", numUncompressedBytes.sum());
+        return map;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private EncodedResponse getEncodedResponse() {
+        long version = versionSupplier.getAsLong();
+        EncodedResponse encodedResponse = this.encodedResponse;
+        if (encodedResponse == null || encodedResponse.getVersion() != version) {
+            synchronized (this) {
+                encodedResponse = this.encodedResponse;
+                if (encodedResponse == null || encodedResponse.getVersion() != version) {
+                    encodedResponse = new EncodedResponse(version, jsonSupplier.get());
+                    this.encodedResponse = encodedResponse;
+                    log.info("Encoded new {} response. version={}, size={}, gzip size={}", name, version,
+                            encodedResponse.getUtf8Bytes().length, encodedResponse.getGzipBytes().length);
+                }
+            }
+        }
+        return encodedResponse;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] tokens = coding.trim().split(";");
+            if (tokens[0].trim().equalsIgnoreCase("gzip"))
+                return tokens.length < 2 || !tokens[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+        }
+        return false;
+    }
+}
@@ -45,7 +45,9 @@ public class FeeRequestService {
     private final BtcFeesProvider btcFeesProvider;
     private final Map<String, Long> dataMap = new ConcurrentHashMap<>();
     private long bitcoinFeesTs;
-    private String json;
+    private volatile String json;
+    // Incremented whenever the json changes
+    private volatile long version;
 
     public FeeRequestService() throws IOException {
         btcFeesProvider = new BtcFeesProvider();
@@ -97,9 +99,14 @@ public class FeeRequestService {
         map.put("bitcoinFeesTs", bitcoinFeesTs);
         map.put("dataMap", dataMap);
         json = Utilities.objectToJson(map);
+        version++;
     }
 
     public String getJson() {
         return json;
     }
+
+    public long getVersion() {
+        return version;
+    }
 }
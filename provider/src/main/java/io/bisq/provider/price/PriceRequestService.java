@@ -15,9 +15,11 @@
  * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
  */
 
+
 package io.bisq.provider.price;
 
 import io.bisq.common.util.Utilities;
+import io.bisq.provider.PooledHttpClient;
 import io.bisq.provider.price.providers.BtcAverageProvider;
 import io.bisq.provider.price.providers.CoinmarketcapProvider;
 import io.bisq.provider.price.providers.PoloniexProvider;
@@ -28,13 +30,15 @@ import java.io.IOException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
-
+import java.util.*;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests the prices from all sources in parallel on a shared thread pool and merges them into an immutable
+ * PriceSnapshot. Requests to the same host reuse the keep-alive connections of the PooledHttpClient.
+ */
 public class PriceRequestService {
     private static final Logger log = LoggerFactory.getLogger(PriceRequestService.class);
 
@@ -43,149 +47,169 @@ public class PriceRequestService {
     private static final long INTERVAL_POLONIEX_MS = 60_000;          // 1 min
     private static final long INTERVAL_COIN_MARKET_CAP_MS = 300_000;  // 5 min
     private static final long MARKET_PRICE_TTL_SEC = 1800;            // 30 min
+    private static final long INITIAL_REQUESTS_TIMEOUT_SEC = 30;
+    private static final long UNCHANGED_SNAPSHOT_MAX_AGE_MS = 300_000; // 5 min
+
+    private interface PriceRequest {
+        void execute() throws NoSuchAlgorithmException, InvalidKeyException, IOException;
+    }
 
-    private final Timer timerBtcAverageLocal = new Timer();
-    private final Timer timerBtcAverageGlobal = new Timer();
-    private final Timer timerPoloniex = new Timer();
-    private final Timer timerCoinmarketcap = new Timer();
+    private final ScheduledThreadPoolExecutor executor;
 
     private final BtcAverageProvider btcAverageProvider;
     private final PoloniexProvider poloniexProvider;
     private final CoinmarketcapProvider coinmarketcapProvider;
 
-    private final Map<String, PriceData> allPricesMap = new ConcurrentHashMap<>();
-    private Map<String, PriceData> btcAverageLocalMap;
-    private Map<String, PriceData> poloniexMap;
+    // Latest prices per source. The maps are immutable and get replaced after a successful request.
+    private volatile Map<String, PriceData> btcAverageLocalMap = Collections.emptyMap();
+    private volatile Map<String, PriceData> btcAverageGlobalMap = Collections.emptyMap();
+    private volatile Map<String, PriceData> poloniexMap = Collections.emptyMap();
+    private volatile Map<String, PriceData> coinmarketcapMap = Collections.emptyMap();
 
-    private long btcAverageTs;
-    private long poloniexTs;
-    private long coinmarketcapTs;
+    private volatile long btcAverageTs;
+    private volatile long poloniexTs;
+    private volatile long coinmarketcapTs;
 
-    private String json;
-
-    public PriceRequestService(String bitcoinAveragePrivKey, String bitcoinAveragePubKey) throws IOException, NoSuchAlgorithmException, InvalidKeyException {
-        btcAverageProvider = new BtcAverageProvider(bitcoinAveragePrivKey, bitcoinAveragePubKey);
-        poloniexProvider = new PoloniexProvider();
-        coinmarketcapProvider = new CoinmarketcapProvider();
+    private volatile PriceSnapshot snapshot = PriceSnapshot.EMPTY;
+    private long snapshotTs;
 
+    public PriceRequestService(String bitcoinAveragePrivKey, String bitcoinAveragePubKey) {
+        this(new PooledHttpClient(), bitcoinAveragePrivKey, bitcoinAveragePubKey);
         startRequests();
     }
 
+    private PriceRequestService(PooledHttpClient httpClient, String bitcoinAveragePrivKey, String bitcoinAveragePubKey) {
+        this(new BtcAverageProvider(httpClient, bitcoinAveragePrivKey, bitcoinAveragePubKey),
+                new PoloniexProvider(httpClient),
+                new CoinmarketcapProvider(httpClient));
+    }
+
+    // Does not start the requests. Used for tests.
+    PriceRequestService(BtcAverageProvider btcAverageProvider,
+                        PoloniexProvider poloniexProvider,
+                        CoinmarketcapProvider coinmarketcapProvider) {
+        this.btcAverageProvider = btcAverageProvider;
+        this.poloniexProvider = poloniexProvider;
+        this.coinmarketcapProvider = coinmarketcapProvider;
+
+        executor = Utilities.getScheduledThreadPoolExecutor("PriceRequestService", 4, 4, 60);
+    }
+
+    public void shutDown() {
+        executor.shutdownNow();
+    }
+
     public String getJson() {
-        return json;
-    }
-
-    private void startRequests() throws InvalidKeyException, NoSuchAlgorithmException, IOException {
-        timerBtcAverageLocal.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                try {
-                    requestBtcAverageLocalPrices();
-                } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-                    log.error(e.toString());
-                    e.printStackTrace();
-                } catch (IOException e) {
-                    log.warn(e.toString());
-                    e.printStackTrace();
-                }
-            }
-        }, INTERVAL_BTC_AV_LOCAL_MS, INTERVAL_BTC_AV_LOCAL_MS);
-
-        timerBtcAverageGlobal.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                try {
-                    requestBtcAverageGlobalPrices();
-                } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-                    log.error(e.toString());
-                    e.printStackTrace();
-                } catch (IOException e) {
-                    log.warn(e.toString());
-                    e.printStackTrace();
-                }
-            }
-        }, INTERVAL_BTC_AV_GLOBAL_MS, INTERVAL_BTC_AV_GLOBAL_MS);
-
-        timerPoloniex.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                try {
-                    requestPoloniexPrices();
-                } catch (IOException e) {
-                    log.warn(e.toString());
-                    e.printStackTrace();
-                }
-            }
-        }, INTERVAL_POLONIEX_MS, INTERVAL_POLONIEX_MS);
-
-        timerCoinmarketcap.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                try {
-                    requestCoinmarketcapPrices();
-                } catch (IOException e) {
-                    log.warn(e.toString());
-                    e.printStackTrace();
-                }
+        return snapshot.getJson();
+    }
+
+    public PriceSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Blocks until a snapshot with a higher version than the given one is available or the timeout is reached.
+     * Returns immediately if the given version is higher than our version, which is the case if the client's
+     * version is from before a restart of the provider.
+     *
+     * @return The current snapshot
+     */
+    public synchronized PriceSnapshot waitForNewSnapshot(long version, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        long remaining = timeoutMs;
+        while (snapshot.getVersion() == version && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return snapshot;
+    }
+
+    private void startRequests() {
+        schedule(this::requestBtcAverageLocalPrices, INTERVAL_BTC_AV_LOCAL_MS);
+        schedule(this::requestBtcAverageGlobalPrices, INTERVAL_BTC_AV_GLOBAL_MS);
+        schedule(this::requestPoloniexPrices, INTERVAL_POLONIEX_MS);
+        schedule(this::requestCoinmarketcapPrices, INTERVAL_COIN_MARKET_CAP_MS);
+
+        // We run the first requests in parallel and wait until all are completed (or timed out) so we have data
+        // when we start serving requests.
+        List<Future<?>> initialRequests = Arrays.asList(
+                executor.submit(getRunnable(this::requestBtcAverageLocalPrices)),
+                executor.submit(getRunnable(this::requestBtcAverageGlobalPrices)),
+                executor.submit(getRunnable(this::requestPoloniexPrices)),
+                executor.submit(getRunnable(this::requestCoinmarketcapPrices)));
+        long ts = System.currentTimeMillis();
+        for (Future<?> future : initialRequests) {
+            try {
+                future.get(INITIAL_REQUESTS_TIMEOUT_SEC, TimeUnit.SECONDS);
+            } catch (Throwable t) {
+                log.warn("Initial price request did not complete. " + t.toString());
             }
-        }, INTERVAL_COIN_MARKET_CAP_MS, INTERVAL_COIN_MARKET_CAP_MS);
+        }
+        log.info("Initial price requests took {} ms.", (System.currentTimeMillis() - ts));
+    }
 
-        requestBtcAverageLocalPrices();
-        requestBtcAverageGlobalPrices();
-        requestPoloniexPrices();
-        requestCoinmarketcapPrices();
+    private void schedule(PriceRequest priceRequest, long intervalMs) {
+        executor.scheduleAtFixedRate(getRunnable(priceRequest), intervalMs, intervalMs, TimeUnit.MILLISECONDS);
     }
 
+    private Runnable getRunnable(PriceRequest priceRequest) {
+        return () -> {
+            try {
+                priceRequest.execute();
+            } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+                log.error(e.toString());
+                e.printStackTrace();
+            } catch (IOException e) {
+                log.warn(e.toString());
+                e.printStackTrace();
+            } catch (Throwable t) {
+                // We must not throw as that would cancel all further executions of a scheduled task
+                log.error(t.toString());
+                t.printStackTrace();
+            }
+        };
+    }
 
-    private void requestCoinmarketcapPrices() throws IOException {
+    void requestCoinmarketcapPrices() throws IOException {
         long ts = System.currentTimeMillis();
         Map<String, PriceData> map = coinmarketcapProvider.request();
         log.info("requestCoinmarketcapPrices took {} ms.", (System.currentTimeMillis() - ts));
-        removeOutdatedPrices(poloniexMap);
-        removeOutdatedPrices(allPricesMap);
-        // we don't replace prices which we got form the Poloniex request, just in case the Coinmarketcap data are 
-        // received earlier at startup we allow them but Poloniex will overwrite them.
-        map.entrySet().stream()
-                .filter(e -> poloniexMap == null || !poloniexMap.containsKey(e.getKey()))
-                .forEach(e -> allPricesMap.put(e.getKey(), e.getValue()));
+        coinmarketcapMap = mergeWithPrevious(coinmarketcapMap, map);
         coinmarketcapTs = Instant.now().getEpochSecond();
 
         if (map.get("LTC") != null)
             log.info("Coinmarketcap LTC (last): " + map.get("LTC").getPrice());
 
-        writeToJson();
+        updateSnapshot();
     }
 
-
-    private void requestPoloniexPrices() throws IOException {
+    void requestPoloniexPrices() throws IOException {
         long ts = System.currentTimeMillis();
-        poloniexMap = poloniexProvider.request();
+        Map<String, PriceData> map = poloniexProvider.request();
         log.info("requestPoloniexPrices took {} ms.", (System.currentTimeMillis() - ts));
-        removeOutdatedPrices(allPricesMap);
-        allPricesMap.putAll(poloniexMap);
+        poloniexMap = mergeWithPrevious(poloniexMap, map);
         poloniexTs = Instant.now().getEpochSecond();
 
-        if (poloniexMap.get("LTC") != null)
-            log.info("Poloniex LTC (last): " + poloniexMap.get("LTC").getPrice());
+        if (map.get("LTC") != null)
+            log.info("Poloniex LTC (last): " + map.get("LTC").getPrice());
 
-        writeToJson();
+        updateSnapshot();
     }
 
-    private void requestBtcAverageLocalPrices() throws NoSuchAlgorithmException, InvalidKeyException, IOException {
+    void requestBtcAverageLocalPrices() throws NoSuchAlgorithmException, InvalidKeyException, IOException {
         long ts = System.currentTimeMillis();
-        btcAverageLocalMap = btcAverageProvider.getLocal();
+        Map<String, PriceData> map = btcAverageProvider.getLocal();
 
-        if (btcAverageLocalMap.get("USD") != null)
-            log.info("BTCAverage local USD (last):" + btcAverageLocalMap.get("USD").getPrice());
+        if (map.get("USD") != null)
+            log.info("BTCAverage local USD (last):" + map.get("USD").getPrice());
         log.info("requestBtcAverageLocalPrices took {} ms.", (System.currentTimeMillis() - ts));
 
-        removeOutdatedPrices(allPricesMap);
-        allPricesMap.putAll(btcAverageLocalMap);
+        btcAverageLocalMap = mergeWithPrevious(btcAverageLocalMap, map);
         btcAverageTs = Instant.now().getEpochSecond();
-        writeToJson();
+        updateSnapshot();
     }
 
-    private void requestBtcAverageGlobalPrices() throws NoSuchAlgorithmException, InvalidKeyException, IOException {
+    void requestBtcAverageGlobalPrices() throws NoSuchAlgorithmException, InvalidKeyException, IOException {
         long ts = System.currentTimeMillis();
         Map<String, PriceData> map = btcAverageProvider.getGlobal();
 
@@ -193,33 +217,60 @@ public class PriceRequestService {
             log.info("BTCAverage global USD (last):" + map.get("USD").getPrice());
         log.info("requestBtcAverageGlobalPrices took {} ms.", (System.currentTimeMillis() - ts));
 
-        removeOutdatedPrices(btcAverageLocalMap);
-        removeOutdatedPrices(allPricesMap);
-        // we don't replace prices which we got form the local request, just in case the global data are received 
-        // earlier at startup we allow them but the local request will overwrite them.
-        map.entrySet().stream()
-                .filter(e -> btcAverageLocalMap == null || !btcAverageLocalMap.containsKey(e.getKey()))
-                .forEach(e -> allPricesMap.put(e.getKey(), e.getValue()));
+        btcAverageGlobalMap = mergeWithPrevious(btcAverageGlobalMap, map);
         btcAverageTs = Instant.now().getEpochSecond();
-        writeToJson();
-    }
-
-    private void writeToJson() {
-        Map<String, Object> map = new HashMap<>();
-        map.put("btcAverageTs", btcAverageTs);
-        map.put("poloniexTs", poloniexTs);
-        map.put("coinmarketcapTs", coinmarketcapTs);
-        map.put("data", allPricesMap.values().toArray());
-        json = Utilities.objectToJson(map);
-    }
-
-    private void removeOutdatedPrices(Map<String, PriceData> map) {
-        long now = Instant.now().getEpochSecond();
-        long limit = now - MARKET_PRICE_TTL_SEC;
-        Map<String, PriceData> filtered = map.entrySet().stream()
-                .filter(e -> e.getValue().getTimestampSec() > limit)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        map.clear();
-        map.putAll(filtered);
+        updateSnapshot();
+    }
+
+    // We keep prices of the previous result which are missing in the latest response until they get outdated
+    private Map<String, PriceData> mergeWithPrevious(Map<String, PriceData> previous, Map<String, PriceData> latest) {
+        long limit = Instant.now().getEpochSecond() - MARKET_PRICE_TTL_SEC;
+        Map<String, PriceData> map = new HashMap<>(latest);
+        previous.forEach((currencyCode, priceData) -> {
+            if (!map.containsKey(currencyCode) && priceData.getTimestampSec() > limit)
+                map.put(currencyCode, priceData);
+        });
+        return Collections.unmodifiableMap(map);
+    }
+
+    private synchronized void updateSnapshot() {
+        long limit = Instant.now().getEpochSecond() - MARKET_PRICE_TTL_SEC;
+        Map<String, PriceData> map = new HashMap<>();
+        // Sources added later overwrite the prices of the earlier ones. We prefer Poloniex over Coinmarketcap and
+        // the BitcoinAverage local over the global data.
+        putValidPrices(map, coinmarketcapMap, limit);
+        putValidPrices(map, poloniexMap, limit);
+        putValidPrices(map, btcAverageGlobalMap, limit);
+        putValidPrices(map, btcAverageLocalMap, limit);
+        // A 304 response or unchanged prices give us the same data again, only with newer timestamps. We keep the
+        // snapshot so clients don't download the same data again. As clients treat prices older than 30 min as
+        // invalid we still publish the newer timestamps after UNCHANGED_SNAPSHOT_MAX_AGE_MS.
+        long now = System.currentTimeMillis();
+        if (hasSamePrices(map, snapshot.getPriceDataByCurrencyCode()) &&
+                now - snapshotTs < UNCHANGED_SNAPSHOT_MAX_AGE_MS)
+            return;
+
+        snapshot = new PriceSnapshot(snapshot.getVersion() + 1, map, btcAverageTs, poloniexTs, coinmarketcapTs);
+        snapshotTs = now;
+        notifyAll();
+    }
+
+    private static boolean hasSamePrices(Map<String, PriceData> map, Map<String, PriceData> previous) {
+        if (map.size() != previous.size())
+            return false;
+
+        for (PriceData priceData : map.values()) {
+            PriceData previousPriceData = previous.get(priceData.getCurrencyCode());
+            if (previousPriceData == null || previousPriceData.getPrice() != priceData.getPrice())
+                return false;
+        }
+        return true;
+    }
+
+    private void putValidPrices(Map<String, PriceData> target, Map<String, PriceData> source, long limit) {
+        source.forEach((currencyCode, priceData) -> {
+            if (priceData.getTimestampSec() > limit)
+                target.put(currencyCode, priceData);
+        });
     }
 }
@@ -0,0 +1,70 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.bisq.provider.price;
+
+import io.bisq.common.util.Utilities;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable result of merging the latest prices of all sources. Each merge creates a new snapshot with a higher
+ * version. The json is created at the first request of a snapshot and then reused.
+ */
+public final class PriceSnapshot {
+    public static final PriceSnapshot EMPTY = new PriceSnapshot(0, Collections.emptyMap(), 0, 0, 0);
+
+    @Getter
+    private final long version;
+    @Getter
+    private final Map<String, PriceData> priceDataByCurrencyCode;
+    @Getter
+    private final long btcAverageTs;
+    @Getter
+    private final long poloniexTs;
+    @Getter
+    private final long coinmarketcapTs;
+
+    private volatile String json;
+
+    public PriceSnapshot(long version, Map<String, PriceData> priceDataByCurrencyCode, long btcAverageTs,
+                         long poloniexTs, long coinmarketcapTs) {
+        this.version = version;
+        this.priceDataByCurrencyCode = Collections.unmodifiableMap(priceDataByCurrencyCode);
+        this.btcAverageTs = btcAverageTs;
+        this.poloniexTs = poloniexTs;
+        this.coinmarketcapTs = coinmarketcapTs;
+    }
+
+    public String getJson() {
+        // Benign race: in the worst case two threads create the same json
+        if (json == null) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("btcAverageTs", btcAverageTs);
+            map.put("poloniexTs", poloniexTs);
+            map.put("coinmarketcapTs", coinmarketcapTs);
+            // Used by clients for long polling with getAllMarketPricesAfterVersion
+            map.put("version", version);
+            map.put("data", priceDataByCurrencyCode.values().toArray());
+            json = Utilities.objectToJson(map);
+        }
+        return json;
+    }
+}
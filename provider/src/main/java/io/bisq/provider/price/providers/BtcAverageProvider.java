@@ -19,7 +19,7 @@ package io.bisq.provider.price.providers;
 
 import com.google.gson.Gson;
 import com.google.gson.internal.LinkedTreeMap;
-import io.bisq.network.http.HttpClient;
+import io.bisq.provider.PooledHttpClient;
 import io.bisq.provider.price.PriceData;
 import org.bouncycastle.util.encoders.Hex;
 import org.slf4j.Logger;
@@ -38,12 +38,21 @@ import java.util.Map;
 public class BtcAverageProvider {
     private static final Logger log = LoggerFactory.getLogger(BtcAverageProvider.class);
 
-    private final HttpClient httpClient;
+    private static final String BASE_URL = "https://apiv2.bitcoinaverage.com/";
+    private static final int TIMEOUT_MS = 10_000;
+
+    private final PooledHttpClient httpClient;
+    private final String baseUrl;
     private final String pubKey;
     private final SecretKey secretKey;
 
-    public BtcAverageProvider(String privKey, String pubKey) {
-        this.httpClient = new HttpClient("https://apiv2.bitcoinaverage.com/");
+    public BtcAverageProvider(PooledHttpClient httpClient, String privKey, String pubKey) {
+        this(httpClient, BASE_URL, privKey, pubKey);
+    }
+
+    public BtcAverageProvider(PooledHttpClient httpClient, String baseUrl, String privKey, String pubKey) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
         this.pubKey = pubKey;
         this.secretKey = new SecretKeySpec(privKey.getBytes(), "HmacSHA256");
     }
@@ -56,11 +65,13 @@ public class BtcAverageProvider {
     }
 
     public Map<String, PriceData> getLocal() throws NoSuchAlgorithmException, InvalidKeyException, IOException {
-        return getMap(httpClient.requestWithGETNoProxy("indices/local/ticker/all?crypto=BTC", "X-signature", getHeader()));
+        return getMap(httpClient.requestWithGET(baseUrl + "indices/local/ticker/all?crypto=BTC", TIMEOUT_MS,
+                "X-signature", getHeader()));
     }
 
     public Map<String, PriceData> getGlobal() throws NoSuchAlgorithmException, InvalidKeyException, IOException {
-        return getMap(httpClient.requestWithGETNoProxy("indices/global/ticker/all?crypto=BTC", "X-signature", getHeader()));
+        return getMap(httpClient.requestWithGET(baseUrl + "indices/global/ticker/all?crypto=BTC", TIMEOUT_MS,
+                "X-signature", getHeader()));
     }
 
     private Map<String, PriceData> getMap(String json) {
@@ -4,7 +4,7 @@ import com.google.gson.Gson;
 import com.google.gson.internal.LinkedTreeMap;
 import io.bisq.common.locale.CurrencyUtil;
 import io.bisq.common.locale.TradeCurrency;
-import io.bisq.network.http.HttpClient;
+import io.bisq.provider.PooledHttpClient;
 import io.bisq.provider.price.PriceData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,12 +18,22 @@ import static java.lang.Double.parseDouble;
 
 public class CoinmarketcapProvider {
     private static final Logger log = LoggerFactory.getLogger(CoinmarketcapProvider.class);
+    private static final String BASE_URL = "https://api.coinmarketcap.com/";
+    // The Coinmarketcap response is rather large so we allow more time
+    private static final int TIMEOUT_MS = 20_000;
+
     private final Set<String> supportedAltcoins;
 
-    private final HttpClient httpClient;
+    private final PooledHttpClient httpClient;
+    private final String baseUrl;
+
+    public CoinmarketcapProvider(PooledHttpClient httpClient) {
+        this(httpClient, BASE_URL);
+    }
 
-    public CoinmarketcapProvider() {
-        this.httpClient = new HttpClient("https://api.coinmarketcap.com/");
+    public CoinmarketcapProvider(PooledHttpClient httpClient, String baseUrl) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
         supportedAltcoins = CurrencyUtil.getAllSortedCryptoCurrencies().stream()
                 .map(TradeCurrency::getCode)
                 .collect(Collectors.toSet());
@@ -31,7 +41,7 @@ public class CoinmarketcapProvider {
 
     public Map<String, PriceData> request() throws IOException {
         Map<String, PriceData> marketPriceMap = new HashMap<>();
-        String response = httpClient.requestWithGET("v1/ticker/?limit=200", "User-Agent", "");
+        String response = httpClient.requestWithGET(baseUrl + "v1/ticker/?limit=200", TIMEOUT_MS, "User-Agent", "");
         //noinspection unchecked
         List<LinkedTreeMap<String, Object>> list = new Gson().fromJson(response, ArrayList.class);
         long ts = Instant.now().getEpochSecond();
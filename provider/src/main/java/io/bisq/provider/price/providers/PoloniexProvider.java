@@ -4,7 +4,7 @@ import com.google.gson.Gson;
 import com.google.gson.internal.LinkedTreeMap;
 import io.bisq.common.locale.CurrencyUtil;
 import io.bisq.common.locale.TradeCurrency;
-import io.bisq.network.http.HttpClient;
+import io.bisq.provider.PooledHttpClient;
 import io.bisq.provider.price.PriceData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,11 +21,20 @@ import static java.lang.Double.parseDouble;
 public class PoloniexProvider {
     private static final Logger log = LoggerFactory.getLogger(PoloniexProvider.class);
 
+    private static final String BASE_URL = "https://poloniex.com/public";
+    private static final int TIMEOUT_MS = 10_000;
+
     private final Set<String> supportedAltcoins;
-    private final HttpClient httpClient;
+    private final PooledHttpClient httpClient;
+    private final String baseUrl;
+
+    public PoloniexProvider(PooledHttpClient httpClient) {
+        this(httpClient, BASE_URL);
+    }
 
-    public PoloniexProvider() {
-        this.httpClient = new HttpClient("https://poloniex.com/public");
+    public PoloniexProvider(PooledHttpClient httpClient, String baseUrl) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
 
         supportedAltcoins = CurrencyUtil.getAllSortedCryptoCurrencies().stream()
                 .map(TradeCurrency::getCode)
@@ -34,7 +43,7 @@ public class PoloniexProvider {
 
     public Map<String, PriceData> request() throws IOException {
         Map<String, PriceData> marketPriceMap = new HashMap<>();
-        String response = httpClient.requestWithGET("?command=returnTicker", "User-Agent", "");
+        String response = httpClient.requestWithGET(baseUrl + "?command=returnTicker", TIMEOUT_MS, "User-Agent", "");
         //noinspection unchecked
         LinkedTreeMap<String, Object> treeMap = new Gson().fromJson(response, LinkedTreeMap.class);
         long ts = Instant.now().getEpochSecond();
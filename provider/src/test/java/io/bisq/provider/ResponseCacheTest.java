@@ -0,0 +1,164 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package io.bisq.provider;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import spark.Request;
+import spark.Response;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ResponseCacheTest {
+    private final AtomicLong version = new AtomicLong(1);
+    private final AtomicInteger numJsonCalls = new AtomicInteger();
+    private ResponseCache responseCache;
+
+    @Before
+    public void setup() {
+        responseCache = new ResponseCache("test", version::get, () -> {
+            numJsonCalls.incrementAndGet();
+            return "{\"version\": " + version.get() + "}";
+        });
+    }
+
+    @Test
+    public void testNotModifiedIfETagMatches() throws IOException {
+        TestExchange first = handle(null, null);
+        assertEquals(200, first.status);
+        assertEquals("{\"version\": 1}", first.getBody());
+
+        TestExchange second = handle(null, first.eTag);
+        assertEquals(304, second.status);
+        assertEquals(0, second.outputStream.size());
+
+        // A weak comparison is used for If-None-Match
+        assertEquals(304, handle(null, "\"other\", W/" + first.eTag).status);
+        assertEquals(200, handle(null, "\"other\"").status);
+        assertEquals(2L, responseCache.getStatistics().get("numNotModifiedResponses"));
+    }
+
+    @Test
+    public void testGzipNegotiation() throws IOException {
+        TestExchange gzip = handle("deflate, gzip", null);
+        assertEquals("gzip", gzip.contentEncoding);
+        assertEquals("{\"version\": 1}", gzip.getBody());
+
+        TestExchange plain = handle(null, null);
+        assertNull(plain.contentEncoding);
+        assertEquals("{\"version\": 1}", plain.getBody());
+        // Each representation has its own ETag
+        assertNotEquals(gzip.eTag, plain.eTag);
+
+        // Refused with a q value of 0
+        assertNull(handle("gzip;q=0, identity", null).contentEncoding);
+        assertNull(handle("gzip; q=0.000", null).contentEncoding);
+        assertEquals("gzip", handle("br, GZIP;q=0.5", null).contentEncoding);
+
+        // The body is only encoded once for all requests
+        assertEquals(1, numJsonCalls.get());
+    }
+
+    @Test
+    public void testReEncodedAtNewVersion() throws IOException {
+        TestExchange first = handle("gzip", null);
+        handle("gzip", null);
+        assertEquals(1, numJsonCalls.get());
+
+        version.set(2);
+        TestExchange second = handle("gzip", first.eTag);
+        assertEquals(2, numJsonCalls.get());
+        assertEquals(200, second.status);
+        assertEquals("{\"version\": 2}", second.getBody());
+        assertNotEquals(first.eTag, second.eTag);
+
+        assertEquals(304, handle("gzip", second.eTag).status);
+        assertEquals(2, numJsonCalls.get());
+    }
+
+    private TestExchange handle(String acceptEncoding, String ifNoneMatch) throws IOException {
+        Request request = mock(Request.class);
+        when(request.headers("Accept-Encoding")).thenReturn(acceptEncoding);
+        when(request.headers("If-None-Match")).thenReturn(ifNoneMatch);
+
+        TestExchange exchange = new TestExchange();
+        HttpServletResponse rawResponse = mock(HttpServletResponse.class);
+        when(rawResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                exchange.outputStream.write(b);
+            }
+
+            public boolean isReady() {
+                return true;
+            }
+
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        });
+        Response response = mock(Response.class);
+        when(response.raw()).thenReturn(rawResponse);
+
+        responseCache.handle(request, response);
+
+        ArgumentCaptor<String> eTagCaptor = ArgumentCaptor.forClass(String.class);
+        verify(response).header(eq("ETag"), eTagCaptor.capture());
+        exchange.eTag = eTagCaptor.getValue();
+
+        ArgumentCaptor<Integer> statusCaptor = ArgumentCaptor.forClass(Integer.class);
+        verify(response, atMost(1)).status(statusCaptor.capture());
+        verify(rawResponse, atMost(1)).setStatus(statusCaptor.capture());
+        exchange.status = statusCaptor.getValue();
+
+        ArgumentCaptor<String> contentEncodingCaptor = ArgumentCaptor.forClass(String.class);
+        verify(rawResponse, atMost(1)).setHeader(eq("Content-Encoding"), contentEncodingCaptor.capture());
+        exchange.contentEncoding = contentEncodingCaptor.getAllValues().isEmpty() ?
+                null :
+                contentEncodingCaptor.getValue();
+        return exchange;
+    }
+
+    private static class TestExchange {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        String eTag;
+        int status;
+        String contentEncoding;
+
+        String getBody() throws IOException {
+            byte[] bytes = outputStream.toByteArray();
+            if ("gzip".equals(contentEncoding))
+                bytes = ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(bytes)));
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
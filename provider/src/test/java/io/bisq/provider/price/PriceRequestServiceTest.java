@@ -0,0 +1,164 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package io.bisq.provider.price;
+
+import com.sun.net.httpserver.HttpServer;
+import io.bisq.provider.PooledHttpClient;
+import io.bisq.provider.price.providers.BtcAverageProvider;
+import io.bisq.provider.price.providers.CoinmarketcapProvider;
+import io.bisq.provider.price.providers.PoloniexProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the price requests against local http stubs of the exchange APIs.
+ */
+public class PriceRequestServiceTest {
+    private HttpServer server;
+    private PooledHttpClient httpClient;
+    private PriceRequestService priceRequestService;
+    private final AtomicInteger numNotModifiedResponses = new AtomicInteger();
+
+    @Before
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        addStub("/indices/local/ticker/all", "{\"BTCUSD\": {\"last\": 2500.5}, \"BTCEUR\": {\"last\": 2200.0}, " +
+                "\"timestamp\": 1497000000}");
+        addStub("/indices/global/ticker/all", "{\"BTCUSD\": {\"last\": 2400.0}, \"BTCCHF\": {\"last\": 2300.0}}");
+        addStub("/public", "{\"BTC_XMR\": {\"last\": \"0.015\"}, \"USDT_BTC\": {\"last\": \"2450\"}}");
+        addStub("/v1/ticker/", "[{\"symbol\": \"XMR\", \"price_btc\": \"0.016\"}, " +
+                "{\"symbol\": \"ETH\", \"price_btc\": \"0.1\"}]");
+        server.start();
+
+        String baseUrl = "http://localhost:" + server.getAddress().getPort() + "/";
+        httpClient = new PooledHttpClient();
+        priceRequestService = new PriceRequestService(new BtcAverageProvider(httpClient, baseUrl, "privKey", "pubKey"),
+                new PoloniexProvider(httpClient, baseUrl + "public"),
+                new CoinmarketcapProvider(httpClient, baseUrl));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        priceRequestService.shutDown();
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testMergeOfAllSources() throws Exception {
+        priceRequestService.requestBtcAverageLocalPrices();
+        priceRequestService.requestBtcAverageGlobalPrices();
+        priceRequestService.requestPoloniexPrices();
+        priceRequestService.requestCoinmarketcapPrices();
+
+        PriceSnapshot snapshot = priceRequestService.getSnapshot();
+        assertEquals(4, snapshot.getVersion());
+        assertEquals(5, snapshot.getPriceDataByCurrencyCode().size());
+        // local data have priority over global data
+        assertEquals(2500.5, snapshot.getPriceDataByCurrencyCode().get("USD").getPrice(), 0);
+        assertEquals(2300.0, snapshot.getPriceDataByCurrencyCode().get("CHF").getPrice(), 0);
+        // Poloniex has priority over Coinmarketcap
+        assertEquals(0.015, snapshot.getPriceDataByCurrencyCode().get("XMR").getPrice(), 0);
+        assertEquals(0.1, snapshot.getPriceDataByCurrencyCode().get("ETH").getPrice(), 0);
+    }
+
+    @Test
+    public void testConditionalRequest() throws Exception {
+        priceRequestService.requestPoloniexPrices();
+        priceRequestService.requestPoloniexPrices();
+
+        assertEquals(1, numNotModifiedResponses.get());
+        assertEquals(1, httpClient.getNumNotModifiedResponses());
+        assertEquals(2, httpClient.getNumRequests());
+
+        PriceSnapshot snapshot = priceRequestService.getSnapshot();
+        // The data has not changed, so we keep the version
+        assertEquals(1, snapshot.getVersion());
+        assertEquals(0.015, snapshot.getPriceDataByCurrencyCode().get("XMR").getPrice(), 0);
+    }
+
+    @Test
+    public void testLongPollTimeout() throws Exception {
+        priceRequestService.requestPoloniexPrices();
+
+        long ts = System.currentTimeMillis();
+        PriceSnapshot snapshot = priceRequestService.waitForNewSnapshot(1, 200);
+        assertTrue(System.currentTimeMillis() - ts >= 200);
+        assertEquals(1, snapshot.getVersion());
+    }
+
+    @Test
+    public void testLongPollReturnsAtNewVersion() throws Exception {
+        priceRequestService.requestPoloniexPrices();
+        Thread thread = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+                priceRequestService.requestCoinmarketcapPrices();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.start();
+
+        long ts = System.currentTimeMillis();
+        PriceSnapshot snapshot = priceRequestService.waitForNewSnapshot(1, 10_000);
+        assertTrue(System.currentTimeMillis() - ts < 10_000);
+        assertEquals(2, snapshot.getVersion());
+        thread.join();
+    }
+
+    @Test
+    public void testLongPollReturnsImmediatelyAtOtherVersion() throws Exception {
+        priceRequestService.requestPoloniexPrices();
+
+        // The version of the client is from before a restart of the provider
+        long ts = System.currentTimeMillis();
+        PriceSnapshot snapshot = priceRequestService.waitForNewSnapshot(7, 10_000);
+        assertTrue(System.currentTimeMillis() - ts < 10_000);
+        assertEquals(1, snapshot.getVersion());
+    }
+
+    private void addStub(String path, String body) {
+        String eTag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+        server.createContext(path, exchange -> {
+            exchange.getResponseHeaders().add("ETag", eTag);
+            if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                numNotModifiedResponses.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(bytes);
+                }
+            }
+            exchange.close();
+        });
+    }
+}
@@ -21,12 +21,17 @@ import io.bisq.core.btc.wallet.BtcWalletService;
 import io.bisq.core.btc.wallet.WalletsSetup;
 import io.bisq.core.dao.DaoOptionKeys;
 import io.bisq.core.offer.OpenOfferManager;
+import io.bisq.network.NetworkOptionKeys;
+import io.bisq.network.metrics.MetricsDumper;
+import io.bisq.network.metrics.NetworkMetrics;
 import io.bisq.network.p2p.P2PService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.bitcoinj.store.BlockStoreException;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
 import java.security.Security;
@@ -42,6 +47,8 @@ public class SeedNode {
     private final Injector injector;
     private final SeedNodeModule seedNodeModule;
     private final AppSetup appSetup;
+    @Nullable
+    private MetricsDumper metricsDumper;
 
     public SeedNode() {
         String logPath = Paths.get(bisqEnvironment.getProperty(AppOptionKeys.APP_DATA_DIR_KEY), "bisq").toString();
@@ -87,6 +94,13 @@ public class SeedNode {
         Boolean fullDaoNode = injector.getInstance(Key.get(Boolean.class, Names.named(DaoOptionKeys.FULL_DAO_NODE)));
         appSetup = fullDaoNode ? injector.getInstance(AppSetupWithP2PAndDAO.class) : injector.getInstance(AppSetupWithP2P.class);
         appSetup.start();
+
+        int metricsDumpInterval = bisqEnvironment.getProperty(NetworkOptionKeys.METRICS_DUMP_INTERVAL, int.class, 0);
+        if (metricsDumpInterval > 0) {
+            metricsDumper = new MetricsDumper(NetworkMetrics.getInstance(),
+                    new File(bisqEnvironment.getRequiredProperty(AppOptionKeys.APP_DATA_DIR_KEY)));
+            metricsDumper.start(metricsDumpInterval);
+        }
     }
 
     private void shutDown() {
@@ -98,6 +112,8 @@ public class SeedNode {
 
     public void gracefulShutDown(ResultHandler resultHandler) {
         log.debug("gracefulShutDown");
+        if (metricsDumper != null)
+            metricsDumper.shutDown();
         try {
             if (injector != null) {
                 injector.getInstance(ArbitratorManager.class).shutDown();
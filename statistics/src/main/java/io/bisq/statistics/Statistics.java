@@ -24,6 +24,9 @@ import io.bisq.core.offer.OfferBookService;
 import io.bisq.core.offer.OpenOfferManager;
 import io.bisq.core.provider.price.PriceFeedService;
 import io.bisq.core.trade.statistics.TradeStatisticsManager;
+import io.bisq.network.NetworkOptionKeys;
+import io.bisq.network.metrics.MetricsDumper;
+import io.bisq.network.metrics.NetworkMetrics;
 import io.bisq.network.p2p.BootstrapListener;
 import io.bisq.network.p2p.P2PService;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +34,8 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.bitcoinj.store.BlockStoreException;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
 import java.security.Security;
@@ -50,6 +55,8 @@ public class Statistics {
     private final TradeStatisticsManager tradeStatisticsManager;
     private final P2PService p2pService;
     private final AppSetup appSetup;
+    @Nullable
+    private MetricsDumper metricsDumper;
 
     public Statistics() {
         String logPath = Paths.get(bisqEnvironment.getProperty(AppOptionKeys.APP_DATA_DIR_KEY), "bisq").toString();
@@ -114,6 +121,13 @@ public class Statistics {
         Boolean fullDaoNode = injector.getInstance(Key.get(Boolean.class, Names.named(DaoOptionKeys.FULL_DAO_NODE)));
         appSetup = fullDaoNode ? injector.getInstance(AppSetupWithP2PAndDAO.class) : injector.getInstance(AppSetupWithP2P.class);
         appSetup.start();
+
+        int metricsDumpInterval = bisqEnvironment.getProperty(NetworkOptionKeys.METRICS_DUMP_INTERVAL, int.class, 0);
+        if (metricsDumpInterval > 0) {
+            metricsDumper = new MetricsDumper(NetworkMetrics.getInstance(),
+                    new File(bisqEnvironment.getRequiredProperty(AppOptionKeys.APP_DATA_DIR_KEY)));
+            metricsDumper.start(metricsDumpInterval);
+        }
     }
 
     private void shutDown() {
@@ -125,6 +139,8 @@ public class Statistics {
 
     public void gracefulShutDown(ResultHandler resultHandler) {
         log.debug("gracefulShutDown");
+        if (metricsDumper != null)
+            metricsDumper.shutDown();
         try {
             if (injector != null) {
                 injector.getInstance(ArbitratorManager.class).shutDown();
@@ -18,7 +18,9 @@
 package io.bisq.statistics;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.bisq.common.EventLoopExecutor;
 import io.bisq.common.UserThread;
+import io.bisq.common.WheelTimer;
 import io.bisq.common.util.Profiler;
 import io.bisq.common.util.RestartUtil;
 import io.bisq.core.app.AppOptionKeys;
@@ -33,7 +35,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 
 import static io.bisq.core.app.BisqEnvironment.DEFAULT_APP_NAME;
@@ -52,7 +53,8 @@ public class StatisticsMain extends BisqExecutable {
                 .setNameFormat("Statistics")
                 .setDaemon(true)
                 .build();
-        UserThread.setExecutor(Executors.newSingleThreadExecutor(threadFactory));
+        UserThread.setExecutor(new EventLoopExecutor(threadFactory));
+        UserThread.setTimerClass(WheelTimer.class);
 
         // We don't want to do the full argument parsing here as that might easily change in update versions
         // So we only handle the absolute minimum which is APP_NAME, APP_DATA_DIR_KEY and USER_DATA_DIR